@@ -121,6 +121,33 @@ public class DependencySchema {
     }
 
 
+    /**
+     * @return the atoms of all the ordinary literals in the bodies of the dependencies, and of the derivation rules, of
+     * this schema, plus the heads of its TGDs and derivation rules
+     */
+    public List<Atom> getAllAtoms() {
+        List<Atom> atoms = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            addBodyAtoms(dependency.getBody(), atoms);
+            if (dependency instanceof TGD tgd) atoms.addAll(tgd.getHead());
+        }
+        for (Predicate predicate : predicatesByName.values()) {
+            if (predicate.isDerived()) {
+                for (DerivationRule derivationRule : predicate.getDerivationRules()) {
+                    atoms.add(derivationRule.getHead());
+                    addBodyAtoms(derivationRule.getBody(), atoms);
+                }
+            }
+        }
+        return atoms;
+    }
+
+    private static void addBodyAtoms(List<Literal> body, List<Atom> atoms) {
+        for (Literal literal : body) {
+            if (literal instanceof OrdinaryLiteral ordinaryLiteral) atoms.add(ordinaryLiteral.getAtom());
+        }
+    }
+
     public <T> T accept(DependencySchemaVisitor<T> visitor) {
         return visitor.visit(this);
     }
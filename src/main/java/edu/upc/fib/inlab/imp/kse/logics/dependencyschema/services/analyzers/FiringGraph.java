@@ -0,0 +1,96 @@
+package edu.upc.fib.inlab.imp.kse.logics.dependencyschema.services.analyzers;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Atom;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.OrdinaryLiteral;
+
+import java.util.*;
+
+/**
+ * Immutable directed graph telling which head atoms of some source clauses (e.g., TGDs) might produce facts matching
+ * some body literal of some target clauses (e.g., dependencies). Each edge is a {@code Firing}, and several firings
+ * might connect the same source and target through different atoms.
+ * <p>
+ * Sources and targets are compared by identity, as dependencies and derivation rules are. Firings are kept in the
+ * order of the sources, then of their head atoms, and then of the targets and their body literals.
+ *
+ * @param <S> type of the clauses whose heads fire
+ * @param <T> type of the clauses whose bodies are fired
+ */
+public class FiringGraph<S, T> {
+
+    private final List<Firing<S, T>> firings;
+    private final Map<S, List<Firing<S, T>>> firingsBySource = new LinkedHashMap<>();
+    private final Map<T, List<Firing<S, T>>> firingsByTarget = new LinkedHashMap<>();
+
+    /**
+     * @param firings not null, nor containing nulls
+     */
+    public FiringGraph(List<Firing<S, T>> firings) {
+        if (Objects.isNull(firings)) throw new IllegalArgumentException("Firings cannot be null");
+        if (firings.stream().anyMatch(Objects::isNull)) throw new IllegalArgumentException("Firings cannot contain nulls");
+        this.firings = List.copyOf(firings);
+        for (Firing<S, T> firing : this.firings) {
+            firingsBySource.computeIfAbsent(firing.source(), k -> new ArrayList<>()).add(firing);
+            firingsByTarget.computeIfAbsent(firing.target(), k -> new ArrayList<>()).add(firing);
+        }
+    }
+
+    public List<Firing<S, T>> getAllFirings() {
+        return firings;
+    }
+
+    /**
+     * @return the firings whose head atom belongs to the given source, empty if it fires nothing
+     */
+    public List<Firing<S, T>> getFiringsFrom(S source) {
+        return Collections.unmodifiableList(firingsBySource.getOrDefault(source, List.of()));
+    }
+
+    /**
+     * @return the firings whose body literal belongs to the given target, empty if nothing fires it
+     */
+    public List<Firing<S, T>> getFiringsInto(T target) {
+        return Collections.unmodifiableList(firingsByTarget.getOrDefault(target, List.of()));
+    }
+
+    /**
+     * @return the targets fired by the given source, without repetitions
+     */
+    public Set<T> getSuccessors(S source) {
+        Set<T> result = new LinkedHashSet<>();
+        for (Firing<S, T> firing : getFiringsFrom(source)) result.add(firing.target());
+        return result;
+    }
+
+    /**
+     * @return the sources firing the given target, without repetitions
+     */
+    public Set<S> getPredecessors(T target) {
+        Set<S> result = new LinkedHashSet<>();
+        for (Firing<S, T> firing : getFiringsInto(target)) result.add(firing.source());
+        return result;
+    }
+
+    public int size() {
+        return firings.size();
+    }
+
+    public boolean isEmpty() {
+        return firings.isEmpty();
+    }
+
+    /**
+     * Edge of the graph stating that the head atom {@code sourceAtom} of {@code source} is unifiable, once their
+     * variables are renamed apart, with the atom of {@code targetLiteral}, which appears in the body of {@code target}
+     * at position {@code targetLiteralIndex}. The target literal might be negated.
+     */
+    public record Firing<S, T>(S source, Atom sourceAtom, T target, OrdinaryLiteral targetLiteral,
+                               int targetLiteralIndex) {
+        public Firing {
+            if (Objects.isNull(source)) throw new IllegalArgumentException("Source cannot be null");
+            if (Objects.isNull(sourceAtom)) throw new IllegalArgumentException("Source atom cannot be null");
+            if (Objects.isNull(target)) throw new IllegalArgumentException("Target cannot be null");
+            if (Objects.isNull(targetLiteral)) throw new IllegalArgumentException("Target literal cannot be null");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package edu.upc.fib.inlab.imp.kse.logics.dependencyschema.services.analyzers;
+
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.Dependency;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.DependencySchema;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.TGD;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.services.analyzers.FiringGraph.Firing;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.AtomIndex;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * This class computes the FiringGraph of a schema, that is, which heads might trigger which bodies.
+ * <p>
+ * Instead of trying to unify every head atom with every body atom, the body atoms are indexed in an AtomIndex, which
+ * classifies them by predicate name and arity, and then by the constants they contain. Hence, a head atom is only
+ * unified with the body atoms of its same predicate that are compatible with its constants. Each source is analyzed in
+ * parallel, and the result does not depend on the scheduling of such analysis.
+ */
+public class FiringGraphAnalyzer {
+
+    private FiringGraphAnalyzer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param dependencySchema not null
+     * @return the graph telling which TGD heads might trigger which dependency bodies, both TGDs and EGDs
+     */
+    public static FiringGraph<TGD, Dependency> computeTGDFiringGraph(DependencySchema dependencySchema) {
+        if (Objects.isNull(dependencySchema)) throw new IllegalArgumentException("DependencySchema cannot be null");
+
+        Map<TGD, List<Atom>> headsBySource = new LinkedHashMap<>();
+        for (TGD tgd : dependencySchema.getAllTGDs()) headsBySource.put(tgd, tgd.getHead());
+        Map<Dependency, List<Literal>> bodiesByTarget = new LinkedHashMap<>();
+        for (Dependency dependency : dependencySchema.getAllDependencies()) {
+            bodiesByTarget.put(dependency, dependency.getBody());
+        }
+        return computeFiringGraph(headsBySource, bodiesByTarget);
+    }
+
+    /**
+     * The dependency bodies using derived predicates are not targets of this graph (see
+     * {@link #computeDerivationRuleToDependencyFiringGraph(DependencySchema)}).
+     *
+     * @param dependencySchema not null
+     * @return the graph telling which derivation rule heads might feed which derivation rule bodies
+     */
+    public static FiringGraph<DerivationRule, DerivationRule> computeDerivationRuleFiringGraph(DependencySchema dependencySchema) {
+        if (Objects.isNull(dependencySchema)) throw new IllegalArgumentException("DependencySchema cannot be null");
+
+        Map<DerivationRule, List<Atom>> headsBySource = collectDerivationRuleHeads(dependencySchema);
+        Map<DerivationRule, List<Literal>> bodiesByTarget = new LinkedHashMap<>();
+        for (DerivationRule derivationRule : headsBySource.keySet()) {
+            bodiesByTarget.put(derivationRule, derivationRule.getBody());
+        }
+        return computeFiringGraph(headsBySource, bodiesByTarget);
+    }
+
+    /**
+     * @param dependencySchema not null
+     * @return the graph telling which derivation rule heads might feed which dependency bodies, both TGDs and EGDs,
+     * through the derived predicates used in such bodies
+     */
+    public static FiringGraph<DerivationRule, Dependency> computeDerivationRuleToDependencyFiringGraph(DependencySchema dependencySchema) {
+        if (Objects.isNull(dependencySchema)) throw new IllegalArgumentException("DependencySchema cannot be null");
+
+        Map<DerivationRule, List<Atom>> headsBySource = collectDerivationRuleHeads(dependencySchema);
+        Map<Dependency, List<Literal>> bodiesByTarget = new LinkedHashMap<>();
+        for (Dependency dependency : dependencySchema.getAllDependencies()) {
+            bodiesByTarget.put(dependency, dependency.getBody());
+        }
+        return computeFiringGraph(headsBySource, bodiesByTarget);
+    }
+
+    private static Map<DerivationRule, List<Atom>> collectDerivationRuleHeads(DependencySchema dependencySchema) {
+        Map<DerivationRule, List<Atom>> headsBySource = new LinkedHashMap<>();
+        for (Predicate predicate : dependencySchema.getAllPredicates()) {
+            if (!predicate.isDerived()) continue;
+            for (DerivationRule derivationRule : predicate.getDerivationRules()) {
+                headsBySource.put(derivationRule, List.of(derivationRule.getHead()));
+            }
+        }
+        return headsBySource;
+    }
+
+    /**
+     * Computes the firings between arbitrary sources and targets, e.g., from derivation rules to the dependencies
+     * using their derived predicates. Only the ordinary literals of the bodies can be fired.
+     *
+     * @param headsBySource  not null, the head atoms of each source
+     * @param bodiesByTarget not null, the body literals of each target
+     * @return the graph of all the firings from the sources to the targets
+     */
+    public static <S, T> FiringGraph<S, T> computeFiringGraph(Map<S, ? extends List<Atom>> headsBySource,
+                                                              Map<T, ? extends List<Literal>> bodiesByTarget) {
+        if (Objects.isNull(headsBySource)) throw new IllegalArgumentException("Heads cannot be null");
+        if (Objects.isNull(bodiesByTarget)) throw new IllegalArgumentException("Bodies cannot be null");
+
+        BodyAtomsIndex<T> bodyAtomsIndex = new BodyAtomsIndex<>(bodiesByTarget);
+        List<S> sources = List.copyOf(headsBySource.keySet());
+        List<List<Firing<S, T>>> firingsBySource = IntStream.range(0, sources.size())
+                .parallel()
+                .mapToObj(i -> computeFirings(sources.get(i), headsBySource.get(sources.get(i)), bodyAtomsIndex))
+                .toList();
+
+        List<Firing<S, T>> firings = new ArrayList<>();
+        firingsBySource.forEach(firings::addAll);
+        return new FiringGraph<>(firings);
+    }
+
+    private static <S, T> List<Firing<S, T>> computeFirings(S source, List<Atom> heads, BodyAtomsIndex<T> bodyAtomsIndex) {
+        List<Firing<S, T>> result = new ArrayList<>();
+        for (Atom head : heads) {
+            for (BodyOccurrence<T> occurrence : bodyAtomsIndex.getOccurrencesUnifiableWith(head)) {
+                result.add(new Firing<>(source, head, occurrence.target(), occurrence.literal(), occurrence.index()));
+            }
+        }
+        return result;
+    }
+
+    private record BodyOccurrence<T>(T target, OrdinaryLiteral literal, int index, int order) {
+    }
+
+    /**
+     * Index of the body atoms, remembering where each of them occurs. It is only read once built, so it can be
+     * queried from several threads.
+     */
+    private static class BodyAtomsIndex<T> {
+        private final AtomIndex atomIndex = new AtomIndex();
+        private final Map<Atom, List<BodyOccurrence<T>>> occurrencesByAtom = new IdentityHashMap<>();
+
+        BodyAtomsIndex(Map<T, ? extends List<Literal>> bodiesByTarget) {
+            int order = 0;
+            for (Map.Entry<T, ? extends List<Literal>> entry : bodiesByTarget.entrySet()) {
+                List<Literal> body = entry.getValue();
+                for (int index = 0; index < body.size(); ++index) {
+                    if (body.get(index) instanceof OrdinaryLiteral ordinaryLiteral) {
+                        Atom atom = ordinaryLiteral.getAtom();
+                        atomIndex.add(atom);
+                        occurrencesByAtom.computeIfAbsent(atom, k -> new ArrayList<>())
+                                .add(new BodyOccurrence<>(entry.getKey(), ordinaryLiteral, index, order++));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the occurrences of the body atoms unifiable with the given head, in the order of the bodies
+         */
+        List<BodyOccurrence<T>> getOccurrencesUnifiableWith(Atom head) {
+            List<BodyOccurrence<T>> result = new ArrayList<>();
+            for (Atom atom : atomIndex.getUnifiableAtoms(head)) result.addAll(occurrencesByAtom.get(atom));
+            result.sort(Comparator.comparingInt(BodyOccurrence::order));
+            return result;
+        }
+    }
+}
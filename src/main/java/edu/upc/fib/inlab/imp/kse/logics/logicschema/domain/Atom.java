@@ -2,7 +2,9 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.ArityMismatchException;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.VariableSlots;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
 import java.util.*;
@@ -48,7 +50,7 @@ public class Atom {
      *
      * <p>This unfolding avoids clashing the variables inside the derivation rule's body with the variables appearing
      * in this atom. For instance, if we have the ordinary literal "P(a, b)" with a derivation rule "P(x, y) :- R(x, y,
-     * a, b)" it will return "R(a, b, a', b')" </p>
+     * a, b)" it will return "R(a, b, a_1, b_1)" </p>
      *
      * <p>If the the derivation rules of such atom contains constants, or repeated variables in the head, they are
      * treated as new built-in literals. E.g. if we have the rule "R(a, 1) :- S(a)", and we unfold "R(x, y)", we obtain
@@ -58,12 +60,25 @@ public class Atom {
      * @return a list of ImmutableLiteralsList representing the result of unfolding this atom
      */
     public List<ImmutableLiteralsList> unfold() {
+        return unfold(new FreshVariableScope(this.terms.getUsedVariables()));
+    }
+
+    /**
+     * Unfolds this atom renaming the variables of the derivation rules' bodies that are used in the given scope.
+     *
+     * @param freshVariableScope not null, containing, at least, the variables of this atom. The variables of the
+     *                           unfolded literals become used in it.
+     * @return a list of ImmutableLiteralsList representing the result of unfolding this atom
+     * @see #unfold()
+     */
+    public List<ImmutableLiteralsList> unfold(FreshVariableScope freshVariableScope) {
+        if (Objects.isNull(freshVariableScope)) throw new IllegalArgumentException("FreshVariableScope cannot be null");
         if (this.isBase()) {
             return List.of(new ImmutableLiteralsList(new OrdinaryLiteral(this)));
         } else {
             List<ImmutableLiteralsList> result = new LinkedList<>();
             for (int derivationRuleIndex = 0; derivationRuleIndex < this.getPredicate().getDerivationRules().size(); derivationRuleIndex++) {
-                result.add(this.unfold(derivationRuleIndex));
+                result.add(this.unfold(derivationRuleIndex, freshVariableScope));
             }
             return result;
         }
@@ -78,13 +93,15 @@ public class Atom {
     }
 
     protected ImmutableLiteralsList unfold(int derivationRuleIndex) {
+        return unfold(derivationRuleIndex, new FreshVariableScope(this.terms.getUsedVariables()));
+    }
+
+    protected ImmutableLiteralsList unfold(int derivationRuleIndex, FreshVariableScope freshVariableScope) {
         if (this.isBase()) {
             return new ImmutableLiteralsList(new OrdinaryLiteral(this));
         } else {
             DerivationRule derivationRule = this.getPredicate().getDerivationRules().get(derivationRuleIndex);
-            Set<Variable> potentiallyClashingVariables = computePotentiallyClashingVariables(derivationRule);
-            ImmutableLiteralsList bodyLiteralsAvoidingClashWithThisTerms = computeListThatAvoidsClash(derivationRule.getBody(), potentiallyClashingVariables);
-            return computeLiteralsWhenUnifyingTheHead(derivationRule.getHead().terms, bodyLiteralsAvoidingClashWithThisTerms);
+            return computeUnfoldedLiterals(derivationRule, freshVariableScope);
         }
     }
 
@@ -99,14 +116,69 @@ public class Atom {
         } else return this;
     }
 
+    /**
+     * @param substitution not null
+     * @return an atom after applying the given substitution. The atom will be new if some term has changed. Otherwise,
+     * it will be the same
+     */
+    public Atom applySubstitution(SlotSubstitution substitution) {
+        ImmutableTermList substitutedTerms = this.terms.applySubstitution(substitution);
+        if (substitutedTerms != this.terms) {
+            return new Atom(this.predicate, substitutedTerms);
+        } else return this;
+    }
+
     public Set<Variable> getVariables() {
         return terms.stream().filter(Variable.class::isInstance).map(Variable.class::cast).collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
-    private ImmutableLiteralsList computeLiteralsWhenUnifyingTheHead(List<Term> headTerms, ImmutableLiteralsList bodyLiterals) {
-        SubstitutionAndBuiltInLiterals substitutionAndBuiltInLiterals = computeSubstitutionForHeadAndAdditionalBuiltInLiterals(headTerms);
-        ImmutableLiteralsList bodyLiteralsAfterSubstitution = bodyLiterals.applySubstitution(substitutionAndBuiltInLiterals.substitution());
-        List<Literal> allLiterals = new LinkedList<>(bodyLiteralsAfterSubstitution);
+    private ImmutableLiteralsList computeUnfoldedLiterals(DerivationRule derivationRule, FreshVariableScope freshVariableScope) {
+        return unfold(derivationRule.getHead(), derivationRule.getBody(), derivationRule.getVariableSlots(), freshVariableScope);
+    }
+
+    /**
+     * Unfolds this atom through a definition given by a head and a body, which might not belong to any derivation rule.
+     * E.g., the body of a derivation rule of this atom's predicate, once such body has been unfolded itself. Hence, a
+     * definition can be unfolded once, and then reused for every atom of its predicate.
+     * <p>
+     * Renaming the existential variables used in the scope, and then replacing the head variables for the terms of
+     * this atom, is done with a single slot substitution over the variables of the definition. The existential
+     * variables are those whose slot comes after the ones of the head variables.
+     *
+     * @param definitionHead     not null, with the same arity as this atom
+     * @param definitionBody     not null
+     * @param definitionSlots    not null, numbering first the variables of the head, and then the ones only in the body
+     * @param freshVariableScope not null, containing, at least, the variables of this atom. The variables of the
+     *                           unfolded literals become used in it.
+     * @return the definition body where the head variables are replaced by the terms of this atom, and the existential
+     * variables are fresh in the scope, followed by the built-in literals required by the constants, and repeated
+     * variables, of the head
+     * @see #unfold()
+     */
+    public ImmutableLiteralsList unfold(Atom definitionHead, ImmutableLiteralsList definitionBody, VariableSlots definitionSlots, FreshVariableScope freshVariableScope) {
+        if (Objects.isNull(definitionHead)) throw new IllegalArgumentException("DefinitionHead cannot be null");
+        if (Objects.isNull(definitionBody)) throw new IllegalArgumentException("DefinitionBody cannot be null");
+        if (Objects.isNull(definitionSlots)) throw new IllegalArgumentException("DefinitionSlots cannot be null");
+        if (Objects.isNull(freshVariableScope)) throw new IllegalArgumentException("FreshVariableScope cannot be null");
+        checkArityMatches(this.terms.size(), definitionHead.terms);
+
+        SubstitutionAndBuiltInLiterals substitutionAndBuiltInLiterals = computeSubstitutionForHeadAndAdditionalBuiltInLiterals(definitionHead.terms);
+        Substitution headSubstitution = substitutionAndBuiltInLiterals.substitution();
+
+        SlotSubstitution unfoldingSubstitution = new SlotSubstitution(definitionSlots);
+        int headVariablesCount = definitionHead.terms.getUsedVariables().size();
+        for (int slot = 0; slot < definitionSlots.size(); ++slot) {
+            Variable definitionVariable = definitionSlots.getVariable(slot);
+            if (slot < headVariablesCount) {
+                unfoldingSubstitution.addMapping(definitionVariable, definitionVariable.applySubstitution(headSubstitution));
+            } else {
+                unfoldingSubstitution.addMapping(definitionVariable, freshVariableScope.renameIfUsed(definitionVariable));
+            }
+        }
+
+        ImmutableLiteralsList bodyLiteralsAfterSubstitution = definitionBody.applySubstitution(unfoldingSubstitution);
+        List<Literal> allLiterals = new ArrayList<>(bodyLiteralsAfterSubstitution.size() + substitutionAndBuiltInLiterals.builtInLiterals.size());
+        allLiterals.addAll(bodyLiteralsAfterSubstitution);
         allLiterals.addAll(substitutionAndBuiltInLiterals.builtInLiterals);
         return new ImmutableLiteralsList(allLiterals);
     }
@@ -139,36 +211,6 @@ public class Atom {
         return new SubstitutionAndBuiltInLiterals(substitution, builtInLiterals);
     }
 
-    private Set<Variable> computePotentiallyClashingVariables(DerivationRule derivationRule) {
-        /*
-         * There might be a clash with the terms that are currently in this atom's terms such that
-         * are not contained in the head of the derivation rule. Indeed, all those variables appearing
-         * in the head of the derivation rule will be replaced during the unfolding, and thus, cannot
-         * cause a clash.
-         *
-         * For instance, assume that we are unfolding "P(a, b, c)"
-         * and we have the derivation rule "P(x, y, a) :- R(x, y, a, b, c)"
-         *
-         * The variables that can clash during the unfolding are: 'b' and 'c'.
-         * Indeed, 'a' cannot cause a clash, because any apparition of 'a' in the derivation rule will disappear.
-         *
-         */
-        Set<Variable> potentiallyClashingVariables = this.terms.getUsedVariables();
-        potentiallyClashingVariables.removeAll(derivationRule.getHeadTerms().getUsedVariables());
-        return potentiallyClashingVariables;
-    }
-
-    private ImmutableLiteralsList computeListThatAvoidsClash(ImmutableLiteralsList literalsList, Set<Variable> potentiallyClashingTerms) {
-        Substitution substitutionForClashingTerms = new Substitution();
-        Set<Variable> currentlyUsedVariables = computeCurrentlyUsedVariables(literalsList, potentiallyClashingTerms);
-        for (Term potentiallyClashingTerm : potentiallyClashingTerms) {
-            Variable newFreshVariable = NewFreshVariableFactory.createNewFreshVariable(potentiallyClashingTerm.getName(), currentlyUsedVariables);
-            substitutionForClashingTerms.addMapping(new Variable(potentiallyClashingTerm.getName()), newFreshVariable);
-            currentlyUsedVariables.add(newFreshVariable);
-        }
-        return literalsList.applySubstitution(substitutionForClashingTerms);
-    }
-
     public boolean isDerived() {
         return predicate.isDerived();
     }
@@ -179,13 +221,6 @@ public class Atom {
         return this.getPredicateName() + "(" + termsAsString + ")";
     }
 
-    private Set<Variable> computeCurrentlyUsedVariables(ImmutableLiteralsList literalsList, Set<Variable> potentiallyClashingTerms) {
-        Set<Variable> usedVariables = new LinkedHashSet<>();
-        usedVariables.addAll(literalsList.getUsedVariables());
-        usedVariables.addAll(potentiallyClashingTerms);
-        return usedVariables;
-    }
-
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -1,5 +1,6 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
@@ -42,6 +43,11 @@ public class BooleanBuiltInLiteral extends BuiltInLiteral {
         return this;
     }
 
+    @Override
+    public BooleanBuiltInLiteral applySubstitution(SlotSubstitution substitution) {
+        return this;
+    }
+
     @Override
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,9 +1,11 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Implementation of the logic comparison built-in literal.
@@ -12,6 +14,9 @@ import java.util.Objects;
  */
 public class ComparisonBuiltInLiteral extends BuiltInLiteral {
 
+    private static final Optional<Boolean> ALWAYS_TRUE = Optional.of(true);
+    private static final Optional<Boolean> ALWAYS_FALSE = Optional.of(false);
+
     private final Term leftTerm;
     private final Term rightTerm;
     private final ComparisonOperator operator;
@@ -61,6 +66,15 @@ public class ComparisonBuiltInLiteral extends BuiltInLiteral {
         } else return this;
     }
 
+    @Override
+    public ComparisonBuiltInLiteral applySubstitution(SlotSubstitution substitution) {
+        Term substitutedLeftTerm = substitution.apply(leftTerm);
+        Term substitutedRightTerm = substitution.apply(rightTerm);
+        if (substitutedLeftTerm != leftTerm || substitutedRightTerm != rightTerm) {
+            return new ComparisonBuiltInLiteral(substitutedLeftTerm, substitutedRightTerm, operator);
+        } else return this;
+    }
+
     @Override
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
         return visitor.visit(this);
@@ -71,6 +85,36 @@ public class ComparisonBuiltInLiteral extends BuiltInLiteral {
         return new ComparisonBuiltInLiteral(this.getLeftTerm(), this.getRightTerm(), operator.getNegatedOperator());
     }
 
+    /**
+     * Evaluates this literal when its truth value does not depend on the values given to its variables. That is, when
+     * both terms are the same (e.g., "x <= x"), or both are constants whose values can be compared (e.g., "1 < 2.5",
+     * "'a' = 'b'"). The values of the constants are not parsed again, so the evaluation does not allocate.
+     * <p>
+     * Constants with the same value but a different name (e.g., "1" and "1.0") are not evaluated, since they are
+     * different terms for the unifications and homomorphisms of this library, although they denote the same value.
+     *
+     * @return the truth value of this literal, or empty if it cannot be known without grounding its variables, if the
+     * constants are not comparable through its operator (e.g., "1 < 'a'"), or if they are different constants with
+     * the same value (e.g., "1 = 1.0")
+     */
+    public Optional<Boolean> evaluate() {
+        if (leftTerm.equals(rightTerm)) return toResult(operator.isSatisfiedBy(0));
+        if (leftTerm instanceof Constant leftConstant && rightTerm instanceof Constant rightConstant) {
+            if (!leftConstant.isEquatableWith(rightConstant)) return Optional.empty();
+            if (leftConstant.hasSameValueAs(rightConstant)) return Optional.empty();
+            boolean isEquality = operator == ComparisonOperator.EQUALS || operator == ComparisonOperator.NOT_EQUALS;
+            if (isEquality) return toResult(operator == ComparisonOperator.NOT_EQUALS);
+            if (leftConstant.isOrderedWith(rightConstant)) {
+                return toResult(operator.isSatisfiedBy(leftConstant.compareValueTo(rightConstant)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Boolean> toResult(boolean value) {
+        return value ? ALWAYS_TRUE : ALWAYS_FALSE;
+    }
+
     public Term getLeftTerm() {
         return leftTerm;
     }
@@ -72,6 +72,22 @@ public enum ComparisonOperator {
         return NEGATED.get(this);
     }
 
+    /**
+     * @param comparison a negative number, zero, or a positive number if the left value is lower, equal, or greater
+     *                   than the right one
+     * @return whether this operator holds between the left and right values
+     */
+    public boolean isSatisfiedBy(int comparison) {
+        return switch (this) {
+            case LESS_THAN -> comparison < 0;
+            case LESS_OR_EQUALS -> comparison <= 0;
+            case EQUALS -> comparison == 0;
+            case GREATER_THAN -> comparison > 0;
+            case GREATER_OR_EQUALS -> comparison >= 0;
+            case NOT_EQUALS -> comparison != 0;
+        };
+    }
+
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -3,12 +3,88 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
+import java.math.BigDecimal;
+import java.util.Objects;
+
 /**
  * Implementation of a logic constant. E.g.: `Socrates`, 4, etc.
+ * <p>
+ * The type of the constant, and its value, are computed once from its name when it is created. Thus, evaluating a
+ * comparison between constants does not need to parse them again.
  */
 public class Constant extends Term {
+
+    private final ConstantValue value;
+
     public Constant(String name) {
         super(name);
+        this.value = ConstantValue.of(name);
+    }
+
+    Constant(String name, TermPool pool, int id) {
+        super(name, pool, id);
+        this.value = ConstantValue.of(name);
+    }
+
+    public ConstantType getType() {
+        return value.type();
+    }
+
+    /**
+     * @return the numeric value of this constant
+     * @throws IllegalStateException if this constant is not numeric
+     */
+    public BigDecimal getNumericValue() {
+        if (Objects.isNull(value.numericValue())) throw new IllegalStateException("Constant " + getName() + " is not numeric");
+        return value.numericValue();
+    }
+
+    /**
+     * @return the name of this constant, without quotes if it is a STRING
+     */
+    public String getTextValue() {
+        return value.textValue();
+    }
+
+    /**
+     * @param other not null
+     * @return whether both constants have types whose values can be compared for equality, i.e., whether both are
+     * numeric, or both have the same type
+     */
+    public boolean isEquatableWith(Constant other) {
+        ConstantType type = getType();
+        ConstantType otherType = other.getType();
+        return type == otherType || type.isNumeric() && otherType.isNumeric();
+    }
+
+    /**
+     * @param other not null
+     * @return whether both constants have comparable types that are ordered
+     */
+    public boolean isOrderedWith(Constant other) {
+        return isEquatableWith(other) && getType().isOrdered();
+    }
+
+    /**
+     * @param other not null, and equatable with this constant
+     * @return whether both constants denote the same value. E.g.: "1.0" and "1" do.
+     */
+    public boolean hasSameValueAs(Constant other) {
+        if (!isEquatableWith(other)) throw new IllegalArgumentException("Constants " + getName() + " and " + other.getName() + " are not equatable");
+        if (getType().isNumeric()) return compareValueTo(other) == 0;
+        return value.textValue().equals(other.value.textValue());
+    }
+
+    /**
+     * @param other not null, and ordered with this constant
+     * @return a negative number, zero, or a positive number if the value of this constant is lower, equal, or greater
+     * than the one of the other constant
+     */
+    public int compareValueTo(Constant other) {
+        if (!isOrderedWith(other)) throw new IllegalArgumentException("Constants " + getName() + " and " + other.getName() + " are not ordered");
+        if (value.isLongInteger() && other.value.isLongInteger()) return Long.compare(value.integerValue(), other.value.integerValue());
+        if (getType().isNumeric()) return value.numericValue().compareTo(other.value.numericValue());
+        return value.textValue().compareTo(other.value.textValue());
     }
 
     @Override
@@ -30,4 +106,25 @@ public class Constant extends Term {
     public String toString() {
         return "Const{'" + this.getName() + "'}";
     }
+
+    /**
+     * Value of a constant, parsed from its name. The numeric value is null unless the type is numeric, and the integer
+     * value is only meaningful when isLongInteger. The text value is the name, without quotes for STRINGs.
+     */
+    private record ConstantValue(ConstantType type, BigDecimal numericValue, boolean isLongInteger, long integerValue,
+                                 String textValue) {
+
+        private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+        private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+        private static ConstantValue of(String name) {
+            ConstantType type = ConstantType.of(name);
+            BigDecimal numericValue = type.isNumeric() ? new BigDecimal(name) : null;
+            boolean isLongInteger = type == ConstantType.INTEGER &&
+                    numericValue.compareTo(MIN_LONG) >= 0 && numericValue.compareTo(MAX_LONG) <= 0;
+            long integerValue = isLongInteger ? numericValue.longValue() : 0;
+            String textValue = type == ConstantType.STRING ? name.substring(1, name.length() - 1) : name;
+            return new ConstantValue(type, numericValue, isLongInteger, integerValue, textValue);
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import java.util.regex.Pattern;
+
+/**
+ * Type of the value denoted by a constant, determined by its name. E.g.: "1" is an INTEGER, "1.5" a DECIMAL, "'a'" (or
+ * "\"a\"") a STRING, "true" a BOOLEAN, and "Socrates" a NAME.
+ * <p>
+ * Constants of the same type are comparable by value, except for NAMEs and BOOLEANs, which only support equality.
+ * INTEGER and DECIMAL constants are also comparable among them, so that "1.0" and "1" denote the same value.
+ */
+public enum ConstantType {
+    INTEGER,
+    DECIMAL,
+    STRING,
+    BOOLEAN,
+    NAME;
+
+    private static final Pattern INTEGER_PATTERN = Pattern.compile("[+-]?\\d+");
+    private static final Pattern DECIMAL_PATTERN = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d{1,9})?");
+
+    /**
+     * @param constantName not null
+     * @return the type of the constant with the given name
+     */
+    public static ConstantType of(String constantName) {
+        if (INTEGER_PATTERN.matcher(constantName).matches()) return INTEGER;
+        if (DECIMAL_PATTERN.matcher(constantName).matches()) return DECIMAL;
+        if (isQuoted(constantName)) return STRING;
+        if (constantName.equals("true") || constantName.equals("false")) return BOOLEAN;
+        return NAME;
+    }
+
+    private static boolean isQuoted(String name) {
+        return name.length() >= 2 && (
+                name.startsWith("\"") && name.endsWith("\"") ||
+                        name.startsWith("'") && name.endsWith("'"));
+    }
+
+    public boolean isNumeric() {
+        return this == INTEGER || this == DECIMAL;
+    }
+
+    /**
+     * @return whether the values of this type have an order, besides equality
+     */
+    public boolean isOrdered() {
+        return isNumeric() || this == STRING;
+    }
+}
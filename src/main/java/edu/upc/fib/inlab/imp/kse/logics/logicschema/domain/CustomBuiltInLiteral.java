@@ -1,5 +1,6 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
@@ -42,6 +43,14 @@ public class CustomBuiltInLiteral extends BuiltInLiteral {
         } else return this;
     }
 
+    @Override
+    public CustomBuiltInLiteral applySubstitution(SlotSubstitution substitution) {
+        ImmutableTermList substitutedTerms = terms.applySubstitution(substitution);
+        if (substitutedTerms != terms) {
+            return new CustomBuiltInLiteral(this.operationName, substitutedTerms);
+        } else return this;
+    }
+
     @Override
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
         return visitor.visit(this);
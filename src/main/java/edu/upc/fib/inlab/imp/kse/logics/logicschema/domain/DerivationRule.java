@@ -1,6 +1,6 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
-
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.VariableSlots;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
 import java.util.LinkedHashSet;
@@ -15,6 +15,10 @@ public class DerivationRule extends NormalClause {
      * Invariants: - head cannot be null - head's predicate must be a derived predicate
      */
     private final Atom head;
+    /**
+     * Lazily computed. Computing it twice by concurrent threads is harmless, since the rule is immutable.
+     */
+    private volatile VariableSlots variableSlots;
 
     /**
      * DerivationRules should be created by their corresponding DerivedLiteral.
@@ -61,6 +65,20 @@ public class DerivationRule extends NormalClause {
         return head;
     }
 
+    /**
+     * @return the numbering of the variables of this rule, first those in the head, and then those only in the body
+     */
+    public VariableSlots getVariableSlots() {
+        VariableSlots slots = variableSlots;
+        if (slots == null) {
+            Set<Variable> variables = new LinkedHashSet<>(getUniversalVariables());
+            variables.addAll(getBody().getUsedVariables());
+            slots = VariableSlots.of(variables);
+            variableSlots = slots;
+        }
+        return slots;
+    }
+
     @Override
     public String toString() {
         return head.toString() + " :- " + this.getBody();
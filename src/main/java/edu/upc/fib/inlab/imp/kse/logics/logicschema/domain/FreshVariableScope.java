@@ -0,0 +1,104 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import java.util.*;
+
+/**
+ * Names of the variables used in some context (e.g., the body being unfolded), which is able to create variables that
+ * are fresh in such context.
+ * <p>
+ * A requested variable keeps its name if it is not used yet. Otherwise, it is renamed to its base name plus a numeric
+ * suffix, taken from a counter kept for each base name. Hence, creating a fresh variable does not probe the names "x'",
+ * "x''", ... one by one, and the names do not grow when a variable is renamed several times. E.g.: if "x" and "x_1"
+ * are used, a fresh variable for "x" is named "x_2", and a fresh variable for "x_2" is named "x_3".
+ * <p>
+ * The scope only grows: every variable it has been given, or it has created, is used from then on. It is meant to be
+ * threaded through all the unfoldings of a body, so that the used variables are not recomputed at each unfolding.
+ */
+public class FreshVariableScope {
+
+    private static final char SUFFIX_SEPARATOR = '_';
+
+    private final Set<String> usedNames = new HashSet<>();
+    private final Map<String, Integer> lastSuffixByBaseName = new HashMap<>();
+
+    /**
+     * Creates a scope where no variable is used yet.
+     */
+    public FreshVariableScope() {
+    }
+
+    /**
+     * @param usedVariables not null
+     */
+    public FreshVariableScope(Collection<Variable> usedVariables) {
+        markAllAsUsed(usedVariables);
+    }
+
+    /**
+     * @param variable not null
+     */
+    public void markAsUsed(Variable variable) {
+        if (Objects.isNull(variable)) throw new IllegalArgumentException("Variable cannot be null");
+        usedNames.add(variable.getName());
+    }
+
+    /**
+     * @param variables not null
+     */
+    public void markAllAsUsed(Collection<Variable> variables) {
+        if (Objects.isNull(variables)) throw new IllegalArgumentException("Variables cannot be null");
+        for (Variable variable : variables) markAsUsed(variable);
+    }
+
+    /**
+     * @param variable not null
+     * @return whether a variable with the same name is used in this scope
+     */
+    public boolean isUsed(Variable variable) {
+        if (Objects.isNull(variable)) throw new IllegalArgumentException("Variable cannot be null");
+        return usedNames.contains(variable.getName());
+    }
+
+    /**
+     * @param variable not null
+     * @return the given variable if it was not used, or a new fresh variable, otherwise. In both cases, the returned
+     * variable becomes used.
+     */
+    public Variable renameIfUsed(Variable variable) {
+        if (Objects.isNull(variable)) throw new IllegalArgumentException("Variable cannot be null");
+        if (usedNames.add(variable.getName())) return variable;
+        return createFreshVariable(variable.getName());
+    }
+
+    /**
+     * @param variableNamePrefix not null
+     * @return a new variable, not used in this scope, named after the given prefix. Such variable becomes used.
+     */
+    public Variable createFreshVariable(String variableNamePrefix) {
+        if (Objects.isNull(variableNamePrefix)) throw new IllegalArgumentException("VariableNamePrefix cannot be null");
+        if (usedNames.add(variableNamePrefix)) return new Variable(variableNamePrefix);
+
+        String baseName = computeBaseName(variableNamePrefix);
+        int suffix = lastSuffixByBaseName.getOrDefault(baseName, 0);
+        String freshName;
+        do {
+            freshName = baseName + SUFFIX_SEPARATOR + ++suffix;
+        } while (!usedNames.add(freshName));
+        lastSuffixByBaseName.put(baseName, suffix);
+        return new Variable(freshName);
+    }
+
+    /**
+     * @return the given name without the primes, nor the numeric suffix, that previous renamings might have appended
+     */
+    private static String computeBaseName(String name) {
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == '\'') end--;
+        int digitsStart = end;
+        while (digitsStart > 0 && Character.isDigit(name.charAt(digitsStart - 1))) digitsStart--;
+        if (digitsStart < end && digitsStart > 1 && name.charAt(digitsStart - 1) == SUFFIX_SEPARATOR) {
+            end = digitsStart - 1;
+        }
+        return end > 0 ? name.substring(0, end) : name;
+    }
+}
@@ -14,6 +14,10 @@ public class ImmutableAtomList implements List<Atom> {
      * Invariants: - atomList is not null - atomList does not contain nulls
      */
     private final List<Atom> atomList;
+    /**
+     * Hash code of atomList, lazily computed. It is 0 while not computed.
+     */
+    private int cachedHashCode;
 
     public ImmutableAtomList(Atom... atoms) {
         this(Arrays.stream(atoms).toList());
@@ -23,7 +27,7 @@ public class ImmutableAtomList implements List<Atom> {
         if (Objects.isNull(atomList)) throw new IllegalArgumentException("Atom list cannot be null");
         if (atomList.stream().anyMatch(Objects::isNull))
             throw new IllegalArgumentException("Atom list cannot contain null elements");
-        this.atomList = Collections.unmodifiableList(atomList);
+        this.atomList = Collections.unmodifiableList(new ArrayList<>(atomList));
     }
 
     /**
@@ -160,7 +164,12 @@ public class ImmutableAtomList implements List<Atom> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(atomList);
+        int hash = cachedHashCode;
+        if (hash == 0) {
+            hash = Objects.hash(atomList);
+            cachedHashCode = hash;
+        }
+        return hash;
     }
 
     @Override
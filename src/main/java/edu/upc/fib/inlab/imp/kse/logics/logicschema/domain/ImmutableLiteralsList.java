@@ -1,10 +1,13 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.requireNonNull;
 
@@ -13,20 +16,35 @@ import static java.util.Objects.requireNonNull;
  * <br>
  * When the immutable list has been created through an unfolding, or applying a substitution, it remembers which
  * literals has been replaced with which other literals
+ * <br>
+ * The literals are stored in an array, which is shared with the sublists of this list. The variables of the list, and
+ * the predicate positions where each one appears, are computed once, when first requested.
  */
 public class ImmutableLiteralsList implements List<Literal> {
     /**
-     * Invariants: - literalsList is not null - literalsList has no nulls - originalLiteralMap maps the literals of
-     * literalList to the original literals of the ImmutableLiteralsList that has created this literal through an
-     * unfolding, or through applying a substitution.
+     * Invariants: - literals has no nulls, from offset to offset + size - literals is never modified - literalList is
+     * an unmodifiable view of such range of literals - originalLiteralMap maps the literals of literalList to the
+     * original literals of the ImmutableLiteralsList that has created this literal through an unfolding, or through
+     * applying a substitution.
      */
+    private final Literal[] literals;
+    private final int offset;
+    private final int size;
     private final List<Literal> literalList;
+    /**
+     * Hash code of literalList, lazily computed. It is 0 while not computed.
+     */
+    private int cachedHashCode;
+    /**
+     * Variables, and predicate positions, of literalList, lazily computed. It is null while not computed.
+     */
+    private volatile DerivedVariables cachedDerivedVariables;
 
     private final Map<Literal, Literal> originalLiteralMap;
     private final Map<LiteralPosition, LiteralPosition> originalLiteralPositionMap;
 
     public ImmutableLiteralsList(Literal... literal) {
-        this(Arrays.stream(literal).toList());
+        this(Arrays.asList(literal));
     }
 
     public ImmutableLiteralsList(List<Literal> literalList) {
@@ -34,31 +52,48 @@ public class ImmutableLiteralsList implements List<Literal> {
     }
 
     private ImmutableLiteralsList(List<Literal> literalList, Map<Literal, Literal> originalLiteralMap, Map<LiteralPosition, LiteralPosition> originalLiteralPositionMap) {
-        if (Objects.isNull(literalList)) throw new IllegalArgumentException("LiteralList cannot be null");
-        if (literalList.stream().anyMatch(Objects::isNull))
-            throw new IllegalArgumentException("LiteralList cannot contain null elements");
-        this.literalList = Collections.unmodifiableList(literalList);
+        this(toCheckedArray(literalList), 0, literalList.size(), originalLiteralMap, originalLiteralPositionMap);
+    }
+
+    private ImmutableLiteralsList(Literal[] literals, int fromIndex, int toIndex, Map<Literal, Literal> originalLiteralMap, Map<LiteralPosition, LiteralPosition> originalLiteralPositionMap) {
+        this.literals = literals;
+        this.offset = fromIndex;
+        this.size = toIndex - fromIndex;
+        this.literalList = Collections.unmodifiableList(Arrays.asList(literals).subList(fromIndex, toIndex));
         this.originalLiteralMap = Collections.unmodifiableMap(originalLiteralMap);
         this.originalLiteralPositionMap = Collections.unmodifiableMap(originalLiteralPositionMap);
     }
 
+    /**
+     * @return the array of the given literals, which is shared when they already are a whole ImmutableLiteralsList
+     */
+    private static Literal[] toCheckedArray(List<Literal> literalList) {
+        if (Objects.isNull(literalList)) throw new IllegalArgumentException("LiteralList cannot be null");
+        if (literalList instanceof ImmutableLiteralsList that && that.offset == 0 && that.size == that.literals.length) {
+            return that.literals;
+        }
+        Literal[] literals = literalList.toArray(new Literal[0]);
+        for (Literal literal : literals) {
+            if (Objects.isNull(literal)) throw new IllegalArgumentException("LiteralList cannot contain null elements");
+        }
+        return literals;
+    }
+
+    private DerivedVariables getDerivedVariables() {
+        DerivedVariables derivedVariables = cachedDerivedVariables;
+        if (Objects.isNull(derivedVariables)) {
+            derivedVariables = DerivedVariables.of(literalList);
+            cachedDerivedVariables = derivedVariables;
+        }
+        return derivedVariables;
+    }
+
     /**
      * @param variable not null
-     * @return a set of PredicatePositions appearing in literals that contains the given variable
+     * @return an unmodifiable set of PredicatePositions appearing in literals that contains the given variable
      */
     public Set<PredicatePosition> getPredicatePositionsWithVar(Variable variable) {
-        Set<PredicatePosition> result = new LinkedHashSet<>();
-        for (Literal lit : literalList) {
-            if (lit instanceof OrdinaryLiteral oLit) {
-                for (int position = 0; position < oLit.getArity(); ++position) {
-                    Term termInPosition = oLit.getTerms().get(position);
-                    if (termInPosition.equals(variable)) {
-                        result.add(new PredicatePosition(oLit.getPredicate(), position));
-                    }
-                }
-            }
-        }
-        return result;
+        return getDerivedVariables().predicatePositionsByVariable().getOrDefault(variable, Set.of());
     }
 
     /**
@@ -88,27 +123,25 @@ public class ImmutableLiteralsList implements List<Literal> {
         return new ImmutableLiteralsList(sortedBody);
     }
 
+    /**
+     * @return an unmodifiable set with the variables of the positive ordinary literals
+     */
     public Set<Variable> getVariablesInPositiveOrdinaryLiterals() {
-        return literalList.stream()
-                .filter(OrdinaryLiteral.class::isInstance)
-                .map(OrdinaryLiteral.class::cast)
-                .filter(OrdinaryLiteral::isPositive)
-                .flatMap(ordinaryLiteral -> ordinaryLiteral.getUsedVariables().stream())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return getDerivedVariables().inPositiveOrdinaryLiterals();
     }
 
+    /**
+     * @return an unmodifiable set with the variables of the negative ordinary literals
+     */
     public Set<Variable> getVariablesInNegativeOrdinaryLiterals() {
-        return literalList.stream()
-                .filter(l -> l instanceof OrdinaryLiteral ol && ol.isNegative())
-                .flatMap(l -> l.getUsedVariables().stream())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return getDerivedVariables().inNegativeOrdinaryLiterals();
     }
 
+    /**
+     * @return an unmodifiable set with the variables of the built-in literals
+     */
     public Set<Variable> getVariablesInBuiltInLiterals() {
-        return literalList.stream()
-                .filter(BuiltInLiteral.class::isInstance)
-                .flatMap(l -> l.getUsedVariables().stream())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return getDerivedVariables().inBuiltInLiterals();
     }
 
     /**
@@ -116,26 +149,54 @@ public class ImmutableLiteralsList implements List<Literal> {
      * literals, or itself if no unfolding can be applied
      */
     public List<ImmutableLiteralsList> unfoldRecursively() {
-        List<ImmutableLiteralsList> result = new LinkedList<>();
+        return unfoldRecursively(new FreshVariableScope(getUsedVariables()));
+    }
 
-        //Looking for a positive literal to unfold
-        Integer indexOfTheLiteralToUnfold = null;
-        for (int index = 0; index < literalList.size() && indexOfTheLiteralToUnfold == null; index++) {
-            Literal lit = literalList.get(index);
-            indexOfTheLiteralToUnfold =
-                    lit instanceof OrdinaryLiteral oLit && oLit.isDerived() && oLit.isPositive() && !oLit.isRecursive() ?
-                            index : null;
-        }
+    /**
+     * @param freshVariableScope not null, containing, at least, the variables of this list
+     * @return a list of ImmutableLiteralsList after recursively unfolding all the positive derived non-recursive
+     * literals, or itself if no unfolding can be applied
+     * @see #unfold(int, boolean, FreshVariableScope)
+     */
+    public List<ImmutableLiteralsList> unfoldRecursively(FreshVariableScope freshVariableScope) {
+        return unfoldRecursivelyAsStream(freshVariableScope).collect(Collectors.toCollection(LinkedList::new));
+    }
 
-        //Unfolding the found literal
-        if (Objects.nonNull(indexOfTheLiteralToUnfold)) {
-            List<ImmutableLiteralsList> listAfterOneUnfolding = this.unfold(indexOfTheLiteralToUnfold, false);
-            for (ImmutableLiteralsList literalsListAfterOneUnfolding : listAfterOneUnfolding) {
-                result.addAll(literalsListAfterOneUnfolding.unfoldRecursively());
-            }
-        } else result.add(this);
+    /**
+     * Lazy version of {@link #unfoldRecursively()}. The lists are unfolded as they are consumed, and in the same order.
+     * Only the pending unfoldings of the literals unfolded to reach the current list are kept in memory, so the
+     * consumer can stop at any moment without computing the remaining lists.
+     *
+     * @return a sequential, ordered stream of the ImmutableLiteralsList obtained after recursively unfolding all the
+     * positive derived non-recursive literals
+     */
+    public Stream<ImmutableLiteralsList> unfoldRecursivelyAsStream() {
+        return unfoldRecursivelyAsStream(new FreshVariableScope(getUsedVariables()));
+    }
 
-        return result;
+    /**
+     * @param freshVariableScope not null, containing, at least, the variables of this list
+     * @return a sequential, ordered stream of the ImmutableLiteralsList obtained after recursively unfolding all the
+     * positive derived non-recursive literals
+     * @see #unfoldRecursivelyAsStream()
+     */
+    public Stream<ImmutableLiteralsList> unfoldRecursivelyAsStream(FreshVariableScope freshVariableScope) {
+        if (Objects.isNull(freshVariableScope)) throw new IllegalArgumentException("FreshVariableScope cannot be null");
+        Iterator<ImmutableLiteralsList> unfoldings = new RecursiveUnfoldings(this, freshVariableScope);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(unfoldings, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @return the index of the first positive derived non-recursive literal, or -1 if there is none
+     */
+    private int indexOfRecursivelyUnfoldableLiteral() {
+        for (int index = 0; index < size; index++) {
+            Literal lit = get(index);
+            if (lit instanceof OrdinaryLiteral oLit && oLit.isDerived() && oLit.isPositive() && !oLit.isRecursive()) {
+                return index;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -149,7 +210,7 @@ public class ImmutableLiteralsList implements List<Literal> {
      *
      * <p>This unfolding avoids clashing the variables inside the derivation rule's body with the variables appearing
      * in this literal. For instance, if we have the list "P(a, b), Q(z)" with a derivation rule "P(x, y) :- R(x, y, a,
-     * b, z)", and we unfold the first literal it will return "R(a, b, a', b', z'), Q(z)" </p>
+     * b, z)", and we unfold the first literal it will return "R(a, b, a_1, b_1, z_1), Q(z)" </p>
      *
      * <p>If the literal proposed to be unfolded, is base, or it is negated, or it is built in, it returns the very
      * same literals' list. </p>
@@ -161,6 +222,23 @@ public class ImmutableLiteralsList implements List<Literal> {
     }
 
     public List<ImmutableLiteralsList> unfold(int index, boolean unfoldNegatedLiterals) {
+        return unfold(index, unfoldNegatedLiterals, new FreshVariableScope(getUsedVariables()));
+    }
+
+    /**
+     * Unfolds the index-th literal taking the variables to avoid from the given scope, instead of computing them from
+     * this list. Hence, the same scope can be threaded through consecutive unfoldings of the resulting lists.
+     *
+     * @param index                 index of the literal to unfold
+     * @param unfoldNegatedLiterals whether to apply the negation extension
+     * @param freshVariableScope    not null, containing, at least, the variables of this list. The variables of the
+     *                              resulting lists become used in it.
+     * @return a list of ImmutableLiteralsList representing the result of unfolding the index-th literal
+     * @see #unfold(int)
+     * @see #unfoldWithNegationExtension(int)
+     */
+    public List<ImmutableLiteralsList> unfold(int index, boolean unfoldNegatedLiterals, FreshVariableScope freshVariableScope) {
+        if (Objects.isNull(freshVariableScope)) throw new IllegalArgumentException("FreshVariableScope cannot be null");
         Literal literal = this.literalList.get(index);
         List<ImmutableLiteralsList> result = new LinkedList<>();
 
@@ -171,16 +249,13 @@ public class ImmutableLiteralsList implements List<Literal> {
             if (ordinaryLiteral.isBase() || (ordinaryLiteral.isNegative() && !unfoldNegatedLiterals)) {
                 //If the literal is base, or it is negated and we do not apply negation extension we return
                 //a new immutable literals list without changes
-                List<Literal> literals = new LinkedList<>(previousLiterals);
-                literals.add(ordinaryLiteral);
-                literals.addAll(nextLiterals);
-                result.add(new ImmutableLiteralsList(literals));
+                result.add(new ImmutableLiteralsList(literalList));
                 return result;
             } else if (ordinaryLiteral.isNegative() && unfoldNegatedLiterals) {
                 //Here the literal is derived, negated, and we want to apply the negation extension
                 //TODO: this case does not store traceability, right now
-                for (ImmutableLiteralsList unfoldedLiterals : ordinaryLiteral.unfold(unfoldNegatedLiterals)) {
-                    result.add(combineLiteralsAvoidingClash(previousLiterals, unfoldedLiterals, nextLiterals, literal));
+                for (ImmutableLiteralsList unfoldedLiterals : ordinaryLiteral.unfold(unfoldNegatedLiterals, freshVariableScope)) {
+                    result.add(combineLiterals(previousLiterals, unfoldedLiterals, nextLiterals, literal));
                 }
                 return result;
             } else {
@@ -189,26 +264,28 @@ public class ImmutableLiteralsList implements List<Literal> {
                      derivationRuleIndex < ordinaryLiteral.getPredicate().getDerivationRules().size();
                      ++derivationRuleIndex) {
                     DerivationRule derivationRule = ordinaryLiteral.getPredicate().getDerivationRules().get(derivationRuleIndex);
-                    ImmutableLiteralsList unfoldedLiterals = ordinaryLiteral.unfold(derivationRuleIndex);
-                    ImmutableLiteralsList unfoldedLiteralsAvoidingClash = combineLiteralsAvoidingClash(previousLiterals, unfoldedLiterals, nextLiterals, literal);
+                    ImmutableLiteralsList unfoldedLiterals = ordinaryLiteral.unfold(derivationRuleIndex, freshVariableScope);
+                    ImmutableLiteralsList combinedLiterals = combineLiterals(previousLiterals, unfoldedLiterals, nextLiterals, literal);
                     Map<LiteralPosition, LiteralPosition> literalPositionMap = addTraceabilityOfPositions(derivationRule, unfoldedLiterals, literal);
-                    result.add(new ImmutableLiteralsList(unfoldedLiteralsAvoidingClash, unfoldedLiteralsAvoidingClash.originalLiteralMap, literalPositionMap));
+                    result.add(new ImmutableLiteralsList(combinedLiterals, combinedLiterals.originalLiteralMap, literalPositionMap));
                 }
                 return result;
             }
         } else return List.of(this);
     }
 
-    private ImmutableLiteralsList combineLiteralsAvoidingClash(ImmutableLiteralsList previousLiterals, ImmutableLiteralsList unfoldedLiterals, ImmutableLiteralsList nextLiterals, Literal unfoldedLiteral) {
-        Substitution substitutionForClashingTerms = computeSubstitutionForAvoidingClash(previousLiterals, unfoldedLiterals, nextLiterals, unfoldedLiteral.getUsedVariables());
-
-        List<Literal> result = new LinkedList<>(previousLiterals);
-        ImmutableLiteralsList substitutedLiterals = unfoldedLiterals.applySubstitution(substitutionForClashingTerms);
-        result.addAll(substitutedLiterals);
+    /**
+     * The unfolded literals do not clash with the previous and next literals, since their new variables have been
+     * created fresh in the scope of this list.
+     */
+    private ImmutableLiteralsList combineLiterals(ImmutableLiteralsList previousLiterals, ImmutableLiteralsList unfoldedLiterals, ImmutableLiteralsList nextLiterals, Literal unfoldedLiteral) {
+        List<Literal> result = new ArrayList<>(previousLiterals.size() + unfoldedLiterals.size() + nextLiterals.size());
+        result.addAll(previousLiterals);
+        result.addAll(unfoldedLiterals);
         result.addAll(nextLiterals);
 
         Map<Literal, Literal> newOriginalLiteralMap = new LinkedHashMap<>();
-        substitutedLiterals.forEach(l -> newOriginalLiteralMap.put(l, unfoldedLiteral));
+        unfoldedLiterals.forEach(l -> newOriginalLiteralMap.put(l, unfoldedLiteral));
 
         Map<LiteralPosition, LiteralPosition> newOriginalLiteralPositionMap = new LinkedHashMap<>();
         return new ImmutableLiteralsList(result, newOriginalLiteralMap, newOriginalLiteralPositionMap);
@@ -233,23 +310,20 @@ public class ImmutableLiteralsList implements List<Literal> {
         return literalPositionMap;
     }
 
-    private Substitution computeSubstitutionForAvoidingClash(ImmutableLiteralsList previousLiterals, ImmutableLiteralsList unfoldedLiterals, ImmutableLiteralsList nextLiterals, Set<Variable> sharedVariables) {
-        Set<Variable> potentiallyClashingVariables = computePotentiallyClashingVariables(sharedVariables, previousLiterals, nextLiterals);
-        Set<Variable> currentlyUsedVariables = computeCurrentlyUsedVariables(previousLiterals, unfoldedLiterals, nextLiterals);
-        Substitution substitutionForClashingTerms = new Substitution();
-        for (Variable potentiallyClashingVariable : potentiallyClashingVariables) {
-            Variable newFreshVariable = NewFreshVariableFactory.createNewFreshVariable(potentiallyClashingVariable.getName(), currentlyUsedVariables);
-            substitutionForClashingTerms.addMapping(new Variable(potentiallyClashingVariable.getName()), newFreshVariable);
-            currentlyUsedVariables.add(newFreshVariable);
-        }
-        return substitutionForClashingTerms;
-    }
-
     public ImmutableLiteralsList applySubstitution(Substitution substitution) {
         List<Literal> substitutedLiteralsList = this.literalList.stream()
                 .map(l -> l.applySubstitution(substitution))
                 .toList();
+        return buildSubstitutedList(substitutedLiteralsList);
+    }
 
+    public ImmutableLiteralsList applySubstitution(SlotSubstitution substitution) {
+        List<Literal> substitutedLiteralsList = new ArrayList<>(literalList.size());
+        for (Literal literal : literalList) substitutedLiteralsList.add(literal.applySubstitution(substitution));
+        return buildSubstitutedList(substitutedLiteralsList);
+    }
+
+    private ImmutableLiteralsList buildSubstitutedList(List<Literal> substitutedLiteralsList) {
         Map<Literal, Literal> newOriginalLiteralMap = new LinkedHashMap<>();
         for (int i = 0; i < literalList.size(); ++i) {
             Literal originalLiteral = literalList.get(i);
@@ -266,12 +340,12 @@ public class ImmutableLiteralsList implements List<Literal> {
 
     @Override
     public int size() {
-        return literalList.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return literalList.isEmpty();
+        return size == 0;
     }
 
     @Override
@@ -364,7 +438,8 @@ public class ImmutableLiteralsList implements List<Literal> {
 
     @Override
     public Literal get(int index) {
-        return literalList.get(index);
+        Objects.checkIndex(index, size);
+        return literals[offset + index];
     }
 
     /**
@@ -416,37 +491,15 @@ public class ImmutableLiteralsList implements List<Literal> {
 
     @Override
     public ImmutableLiteralsList subList(int fromIndex, int toIndex) {
-        return new ImmutableLiteralsList(literalList.subList(fromIndex, toIndex));
-    }
-
-    private Set<Variable> computePotentiallyClashingVariables(Set<Variable> sharedVariables, ImmutableLiteralsList... literalListSet) {
-        Set<Variable> potentiallyClashingVariables = Arrays.stream(literalListSet)
-                .map(ImmutableLiteralsList::getUsedVariables)
-                .reduce(new LinkedHashSet<>(), (element, subtotal) -> {
-                    Set<Variable> total = new LinkedHashSet<>(subtotal);
-                    total.addAll(element);
-                    return total;
-                });
-        potentiallyClashingVariables.removeAll(sharedVariables);
-        return potentiallyClashingVariables;
-    }
-
-    private Set<Variable> computeCurrentlyUsedVariables(ImmutableLiteralsList previousLiterals, ImmutableLiteralsList unfoldedLiterals, ImmutableLiteralsList nextLiterals) {
-        Set<Variable> usedVariables = new LinkedHashSet<>();
-        usedVariables.addAll(previousLiterals.getUsedVariables());
-        usedVariables.addAll(unfoldedLiterals.getUsedVariables());
-        usedVariables.addAll(nextLiterals.getUsedVariables());
-        return usedVariables;
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        return new ImmutableLiteralsList(literals, offset + fromIndex, offset + toIndex, Collections.emptyMap(), Collections.emptyMap());
     }
 
+    /**
+     * @return an unmodifiable set with the variables of this list, in order of appearance
+     */
     public Set<Variable> getUsedVariables() {
-        return this.literalList.stream()
-                .map(Literal::getUsedVariables)
-                .reduce(new LinkedHashSet<>(),
-                        (subtotal, element) -> {
-                            subtotal.addAll(element);
-                            return subtotal;
-                        });
+        return getDerivedVariables().used();
     }
 
     /**
@@ -487,13 +540,19 @@ public class ImmutableLiteralsList implements List<Literal> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(literalList);
+        int hash = cachedHashCode;
+        if (hash == 0) {
+            hash = Objects.hash(literalList);
+            cachedHashCode = hash;
+        }
+        return hash;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof ImmutableLiteralsList that)) return false;
+        if (cachedHashCode != 0 && that.cachedHashCode != 0 && cachedHashCode != that.cachedHashCode) return false;
         return Objects.equals(literalList, that.literalList);
     }
 
@@ -504,5 +563,83 @@ public class ImmutableLiteralsList implements List<Literal> {
                 .collect(Collectors.joining(", "));
     }
 
+    /**
+     * Depth-first traversal of the recursive unfoldings of a list, which keeps a stack with the pending unfoldings of
+     * each unfolded literal.
+     */
+    private static class RecursiveUnfoldings implements Iterator<ImmutableLiteralsList> {
+        private final Deque<Iterator<ImmutableLiteralsList>> pendingUnfoldings = new ArrayDeque<>();
+        private final FreshVariableScope freshVariableScope;
+        private ImmutableLiteralsList nextUnfolding;
+
+        RecursiveUnfoldings(ImmutableLiteralsList literalsList, FreshVariableScope freshVariableScope) {
+            this.pendingUnfoldings.push(List.of(literalsList).iterator());
+            this.freshVariableScope = freshVariableScope;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (Objects.isNull(nextUnfolding) && !pendingUnfoldings.isEmpty()) {
+                Iterator<ImmutableLiteralsList> currentUnfoldings = pendingUnfoldings.peek();
+                if (!currentUnfoldings.hasNext()) {
+                    pendingUnfoldings.pop();
+                    continue;
+                }
+                ImmutableLiteralsList candidate = currentUnfoldings.next();
+                int indexOfTheLiteralToUnfold = candidate.indexOfRecursivelyUnfoldableLiteral();
+                if (indexOfTheLiteralToUnfold < 0) nextUnfolding = candidate;
+                else pendingUnfoldings.push(candidate.unfold(indexOfTheLiteralToUnfold, false, freshVariableScope).iterator());
+            }
+            return Objects.nonNull(nextUnfolding);
+        }
 
+        @Override
+        public ImmutableLiteralsList next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ImmutableLiteralsList result = nextUnfolding;
+            nextUnfolding = null;
+            return result;
+        }
+    }
+
+    /**
+     * Unmodifiable sets of variables of a list of literals, and the predicate positions where each variable appears
+     */
+    private record DerivedVariables(Set<Variable> used, Set<Variable> inPositiveOrdinaryLiterals,
+                                    Set<Variable> inNegativeOrdinaryLiterals, Set<Variable> inBuiltInLiterals,
+                                    Map<Variable, Set<PredicatePosition>> predicatePositionsByVariable) {
+
+        private static DerivedVariables of(List<Literal> literals) {
+            Set<Variable> used = new LinkedHashSet<>();
+            Set<Variable> inPositiveOrdinaryLiterals = new LinkedHashSet<>();
+            Set<Variable> inNegativeOrdinaryLiterals = new LinkedHashSet<>();
+            Set<Variable> inBuiltInLiterals = new LinkedHashSet<>();
+            Map<Variable, Set<PredicatePosition>> predicatePositionsByVariable = new LinkedHashMap<>();
+            for (Literal literal : literals) {
+                Set<Variable> literalVariables = literal.getUsedVariables();
+                used.addAll(literalVariables);
+                if (literal instanceof OrdinaryLiteral ordinaryLiteral) {
+                    if (ordinaryLiteral.isPositive()) inPositiveOrdinaryLiterals.addAll(literalVariables);
+                    else inNegativeOrdinaryLiterals.addAll(literalVariables);
+                    addPredicatePositions(ordinaryLiteral, predicatePositionsByVariable);
+                } else if (literal instanceof BuiltInLiteral) inBuiltInLiterals.addAll(literalVariables);
+            }
+            predicatePositionsByVariable.replaceAll((variable, positions) -> Collections.unmodifiableSet(positions));
+            return new DerivedVariables(Collections.unmodifiableSet(used),
+                                        Collections.unmodifiableSet(inPositiveOrdinaryLiterals),
+                                        Collections.unmodifiableSet(inNegativeOrdinaryLiterals),
+                                        Collections.unmodifiableSet(inBuiltInLiterals),
+                                        predicatePositionsByVariable);
+        }
+
+        private static void addPredicatePositions(OrdinaryLiteral ordinaryLiteral, Map<Variable, Set<PredicatePosition>> predicatePositionsByVariable) {
+            ImmutableTermList terms = ordinaryLiteral.getTerms();
+            for (int position = 0; position < terms.size(); ++position) {
+                if (terms.get(position) instanceof Variable variable) {
+                    predicatePositionsByVariable.computeIfAbsent(variable, v -> new LinkedHashSet<>())
+                            .add(new PredicatePosition(ordinaryLiteral.getPredicate(), position));
+                }
+            }
+        }
+    }
 }
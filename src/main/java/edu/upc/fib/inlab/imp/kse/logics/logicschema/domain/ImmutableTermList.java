@@ -1,39 +1,73 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * An immutable list of terms
+ * An immutable list of terms.
+ * <p>
+ * The terms are stored in an array, which is shared with the sublists of this list, and with the lists built from this
+ * one. The variables used by the list are computed once, when first requested.
  */
 public class ImmutableTermList implements List<Term> {
     /**
-     * Invariants: - termsList is not null - termsList does not contain nulls
+     * Invariants: - terms does not contain nulls, from offset to offset + size - terms is never modified - termsList is
+     * an unmodifiable view of such range of terms
      */
+    private final Term[] terms;
+    private final int offset;
+    private final int size;
     private final List<Term> termsList;
+    /**
+     * Hash code of termsList, lazily computed. It is 0 while not computed.
+     */
+    private int cachedHashCode;
+    /**
+     * Unmodifiable set of the variables of termsList, lazily computed. It is null while not computed.
+     */
+    private volatile Set<Variable> cachedUsedVariables;
 
     public ImmutableTermList(Term... terms) {
-        this(Arrays.stream(terms).toList());
+        this(Arrays.asList(terms));
     }
 
     public ImmutableTermList(List<Term> termsList) {
+        this(toCheckedArray(termsList), 0, termsList.size());
+    }
+
+    private ImmutableTermList(Term[] terms, int fromIndex, int toIndex) {
+        this.terms = terms;
+        this.offset = fromIndex;
+        this.size = toIndex - fromIndex;
+        this.termsList = Collections.unmodifiableList(Arrays.asList(terms).subList(fromIndex, toIndex));
+    }
+
+    /**
+     * @return the array of the given terms, which is shared when they already are a whole ImmutableTermList
+     */
+    private static Term[] toCheckedArray(List<Term> termsList) {
         if (Objects.isNull(termsList)) throw new IllegalArgumentException("Term's list cannot be null");
-        if (termsList.stream().anyMatch(Objects::isNull))
-            throw new IllegalArgumentException("Term's list cannot contain null elements");
-        this.termsList = Collections.unmodifiableList(termsList);
+        if (termsList instanceof ImmutableTermList that && that.offset == 0 && that.size == that.terms.length) {
+            return that.terms;
+        }
+        Term[] terms = termsList.toArray(new Term[0]);
+        for (Term term : terms) {
+            if (Objects.isNull(term)) throw new IllegalArgumentException("Term's list cannot contain null elements");
+        }
+        return terms;
     }
 
     @Override
     public int size() {
-        return termsList.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return termsList.isEmpty();
+        return size == 0;
     }
 
     @Override
@@ -126,7 +160,8 @@ public class ImmutableTermList implements List<Term> {
 
     @Override
     public Term get(int index) {
-        return termsList.get(index);
+        Objects.checkIndex(index, size);
+        return terms[offset + index];
     }
 
     /**
@@ -178,21 +213,42 @@ public class ImmutableTermList implements List<Term> {
 
     @Override
     public ImmutableTermList subList(int fromIndex, int toIndex) {
-        return new ImmutableTermList(termsList.subList(fromIndex, toIndex));
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        return new ImmutableTermList(terms, offset + fromIndex, offset + toIndex);
     }
 
     public ImmutableTermList applySubstitution(Substitution substitution) {
-        List<Term> substitutedTerms = this.stream()
-                .map(term -> term.applySubstitution(substitution))
-                .toList();
-        return new ImmutableTermList(substitutedTerms);
+        Term[] substitutedTerms = new Term[size];
+        for (int i = 0; i < size; ++i) substitutedTerms[i] = terms[offset + i].applySubstitution(substitution);
+        return new ImmutableTermList(substitutedTerms, 0, size);
+    }
+
+    /**
+     * @param substitution not null
+     * @return a term list after applying the given substitution. The list will be new if some term has changed.
+     * Otherwise, it will be the same
+     */
+    public ImmutableTermList applySubstitution(SlotSubstitution substitution) {
+        if (!substitution.replacesSomeVariableOf(termsList)) return this;
+        Term[] substitutedTerms = new Term[size];
+        for (int i = 0; i < size; ++i) substitutedTerms[i] = substitution.apply(terms[offset + i]);
+        return new ImmutableTermList(substitutedTerms, 0, size);
     }
 
+    /**
+     * @return an unmodifiable set with the variables of this list, in order of appearance
+     */
     public Set<Variable> getUsedVariables() {
-        return termsList.stream()
-                .filter(Term::isVariable)
-                .map(Variable.class::cast)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Variable> usedVariables = cachedUsedVariables;
+        if (Objects.isNull(usedVariables)) {
+            Set<Variable> variables = new LinkedHashSet<>();
+            for (Term term : termsList) {
+                if (term instanceof Variable variable) variables.add(variable);
+            }
+            usedVariables = Collections.unmodifiableSet(variables);
+            cachedUsedVariables = usedVariables;
+        }
+        return usedVariables;
     }
 
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
@@ -201,16 +257,26 @@ public class ImmutableTermList implements List<Term> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(termsList);
+        int hash = cachedHashCode;
+        if (hash == 0) {
+            hash = Objects.hash(termsList);
+            cachedHashCode = hash;
+        }
+        return hash;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof List<?>)) return false;
+        if (o instanceof ImmutableTermList that && haveDifferentCachedHashCodes(that)) return false;
         else return Objects.equals(termsList, o);
     }
 
+    private boolean haveDifferentCachedHashCodes(ImmutableTermList that) {
+        return cachedHashCode != 0 && that.cachedHashCode != 0 && cachedHashCode != that.cachedHashCode;
+    }
+
     @Override
     public String toString() {
         return "ImmutableTermList{" +
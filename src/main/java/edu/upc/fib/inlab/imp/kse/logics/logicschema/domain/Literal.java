@@ -1,6 +1,7 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.NoNegatableLiteralException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
@@ -35,6 +36,20 @@ public abstract class Literal {
      */
     public abstract Literal applySubstitution(Substitution substitution);
 
+    /**
+     * Constructs new {@code Literal} after applying the slot substitution to the literal terms. Subclasses should
+     * override it to avoid converting the slot substitution into a {@code Substitution}.
+     *
+     * @param substitution substitution to apply.
+     * @return a literal after applying the given substitution. The literal will be new if some term has changed,
+     * otherwise it will be the same.
+     */
+    public Literal applySubstitution(SlotSubstitution substitution) {
+        if (substitution.replacesSomeVariableOf(getTerms())) {
+            return applySubstitution(substitution.toSubstitution());
+        } else return this;
+    }
+
     /**
      * Returns used variables of literals.
      *
@@ -109,6 +109,21 @@ public class LogicSchema {
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    /**
+     * @return the atoms of all the ordinary literals of the normal clauses of this schema, plus the heads of its
+     * derivation rules
+     */
+    public List<Atom> getAllAtoms() {
+        List<Atom> atoms = new ArrayList<>();
+        for (NormalClause normalClause : getAllNormalClauses()) {
+            if (normalClause instanceof DerivationRule derivationRule) atoms.add(derivationRule.getHead());
+            for (Literal literal : normalClause.getBody()) {
+                if (literal instanceof OrdinaryLiteral ordinaryLiteral) atoms.add(ordinaryLiteral.getAtom());
+            }
+        }
+        return atoms;
+    }
+
     public Set<Predicate> getAllDerivedPredicates() {
         return predicatesByName.values().stream()
                 .filter(Predicate::isDerived)
@@ -1,5 +1,6 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.SlotSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.visitor.LogicSchemaVisitor;
 
@@ -55,7 +56,7 @@ public class OrdinaryLiteral extends Literal {
      *
      * <p>This unfolding avoids clashing the variables inside the derivation rule's body with the variables appearing
      * in this literal. For instance, if we have the ordinary literal "P(a, b)" with a derivation rule "P(x, y) :- R(x,
-     * y, a, b)" it will return "R(a, b, a', b')" </p>
+     * y, a, b)" it will return "R(a, b, a_1, b_1)" </p>
      *
      * <p>If the ordinary literal is base, or it is negated, it returns the very same literal. </p>
      *
@@ -93,17 +94,29 @@ public class OrdinaryLiteral extends Literal {
     }
 
     public List<ImmutableLiteralsList> unfold(boolean unfoldNegatedLiterals) {
+        return unfold(unfoldNegatedLiterals, new FreshVariableScope(getUsedVariables()));
+    }
+
+    /**
+     * @param unfoldNegatedLiterals whether to apply the negation extension
+     * @param freshVariableScope    not null, containing, at least, the variables of this literal. The variables of the
+     *                              unfolded literals become used in it.
+     * @return a list of ImmutableLiteralsList representing the result of unfolding this literal
+     * @see #unfold()
+     * @see #unfoldWithNegationExtension()
+     */
+    public List<ImmutableLiteralsList> unfold(boolean unfoldNegatedLiterals, FreshVariableScope freshVariableScope) {
         if (isNegative()) {
             if (unfoldNegatedLiterals &&
                     this.hasNoExistentialVariableInDerivationRules() &&
                     this.allLiteralsFromDerivationRuleCanBeNegated()
             ) {
-                return negateAccordingToMorganRules(this.getAtom().unfold());
+                return negateAccordingToMorganRules(this.getAtom().unfold(freshVariableScope));
             } else {
                 return List.of(new ImmutableLiteralsList(this));
             }
         }
-        return atom.unfold();
+        return atom.unfold(freshVariableScope);
     }
 
     /**
@@ -158,10 +171,19 @@ public class OrdinaryLiteral extends Literal {
      * @return the corresponding derivation rule applying a substitution that unifies the rule head with this terms
      */
     protected ImmutableLiteralsList unfold(int derivationRuleIndex) {
+        return unfold(derivationRuleIndex, new FreshVariableScope(getUsedVariables()));
+    }
+
+    /**
+     * @param derivationRuleIndex derivation rule to use for the unfolding
+     * @param freshVariableScope  not null, containing, at least, the variables of this literal
+     * @return the corresponding derivation rule applying a substitution that unifies the rule head with this terms
+     */
+    protected ImmutableLiteralsList unfold(int derivationRuleIndex, FreshVariableScope freshVariableScope) {
         if (isNegative()) {
             return new ImmutableLiteralsList(this);
         }
-        return atom.unfold(derivationRuleIndex);
+        return atom.unfold(derivationRuleIndex, freshVariableScope);
     }
 
     public boolean isNegative() {
@@ -219,6 +241,14 @@ public class OrdinaryLiteral extends Literal {
         } else return this;
     }
 
+    @Override
+    public OrdinaryLiteral applySubstitution(SlotSubstitution substitution) {
+        Atom substitutedAtom = atom.applySubstitution(substitution);
+        if (substitutedAtom != atom) {
+            return new OrdinaryLiteral(substitutedAtom, isPositive);
+        } else return this;
+    }
+
 
     @Override
     public <T> T accept(LogicSchemaVisitor<T> visitor) {
@@ -40,7 +40,9 @@ public class Query {
     public List<Query> unfold() {
         List<Query> result = new LinkedList<>();
 
-        for (ImmutableLiteralsList literalsList : body.unfoldRecursively()) {
+        FreshVariableScope freshVariableScope = new FreshVariableScope(body.getUsedVariables());
+        freshVariableScope.markAllAsUsed(headTerms.getUsedVariables());
+        for (ImmutableLiteralsList literalsList : body.unfoldRecursively(freshVariableScope)) {
             result.add(new Query(this.headTerms, literalsList));
         }
 
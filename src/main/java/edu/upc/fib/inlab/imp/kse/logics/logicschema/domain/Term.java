@@ -11,31 +11,64 @@ import java.util.Objects;
  * Term can be safely reused among several Atoms, or Built-in literals.
  */
 public abstract class Term {
+    private static final int NOT_INTERNED_ID = -1;
+
     /**
-     * Invariants: - name is not null - name is not empty
+     * Invariants: - name is not null - name is not empty - hash is the hash of name - pool is null iff id is
+     * NOT_INTERNED_ID
      */
     private final String name;
+    private final int hash;
+    private final TermPool pool;
+    private final int id;
 
     protected Term(String name) {
+        this(name, null, NOT_INTERNED_ID);
+    }
+
+    Term(String name, TermPool pool, int id) {
         if (Objects.isNull(name)) throw new IllegalArgumentException("Name cannot be null");
         if (name.isEmpty()) throw new IllegalArgumentException("Name cannot be empty");
         this.name = name;
+        this.hash = Objects.hash(name);
+        this.pool = pool;
+        this.id = id;
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * @return the dense id given to this term by the TermPool that interned it, or -1 if it has not been interned
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return whether this term is the canonical instance of some TermPool
+     */
+    public boolean isInterned() {
+        return Objects.nonNull(pool);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return hash;
     }
 
+    /**
+     * Two terms are equal if they are of the same kind, and have the same name. Two different instances interned by
+     * the same TermPool are never equal, so comparing them does not compare their names.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Term term = (Term) o;
+        if (hash != term.hash) return false;
+        if (Objects.nonNull(pool) && pool == term.pool) return false;
         return name.equals(term.name);
     }
 
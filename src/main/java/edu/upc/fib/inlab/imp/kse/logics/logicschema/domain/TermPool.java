@@ -0,0 +1,64 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool interning terms. That is, for each name, the pool always returns the same Variable instance (and the same
+ * Constant instance). Each interned term receives a dense id, starting at 0, and its hash is precomputed. Hence,
+ * comparing two terms interned by the same pool is an identity test.
+ * <p>
+ * Interning is opt-in: terms created through their constructors are not interned, and are still equal to the interned
+ * ones with the same name. The pool is thread-safe.
+ */
+public class TermPool {
+
+    private final Map<String, Variable> variables = new ConcurrentHashMap<>();
+    private final Map<String, Constant> constants = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * @param name not null, nor empty
+     * @return the canonical variable with the given name
+     */
+    public Variable variable(String name) {
+        checkName(name);
+        return variables.computeIfAbsent(name, n -> new Variable(n, this, nextId.getAndIncrement()));
+    }
+
+    /**
+     * @param name not null, nor empty
+     * @return the canonical constant with the given name
+     */
+    public Constant constant(String name) {
+        checkName(name);
+        return constants.computeIfAbsent(name, n -> new Constant(n, this, nextId.getAndIncrement()));
+    }
+
+    /**
+     * @param term not null
+     * @return the canonical term equal to the given one
+     */
+    public Term intern(Term term) {
+        if (Objects.isNull(term)) throw new IllegalArgumentException("Term cannot be null");
+        if (term.isVariable()) return variable(term.getName());
+        else if (term.isConstant()) return constant(term.getName());
+        else throw new IMPLogicsException("Unrecognized term subclass " + term.getClass().getName());
+    }
+
+    /**
+     * @return number of terms interned so far
+     */
+    public int size() {
+        return nextId.get();
+    }
+
+    private static void checkName(String name) {
+        if (Objects.isNull(name)) throw new IllegalArgumentException("Name cannot be null");
+        if (name.isEmpty()) throw new IllegalArgumentException("Name cannot be empty");
+    }
+}
@@ -13,6 +13,10 @@ public class Variable extends Term {
         super(name);
     }
 
+    Variable(String name, TermPool pool, int id) {
+        super(name, pool, id);
+    }
+
     @Override
     public Term applySubstitution(Substitution substitution) {
         Optional<Term> substitutedTerm = substitution.getTerm(this);
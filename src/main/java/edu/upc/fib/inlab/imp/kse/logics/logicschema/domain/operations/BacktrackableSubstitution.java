@@ -0,0 +1,194 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+
+import java.util.*;
+
+/**
+ * This class represents a mutable substitution of variables to terms meant for backtracking searches.
+ * <p>
+ * Contrarily to {@code Substitution}, extending a {@code BacktrackableSubstitution} does not copy it. Instead, the
+ * new mappings are added in place, and recorded in a trail. A search can {@code mark} the current state of the
+ * substitution before trying a branch, and {@code undoTo} such mark when the branch fails.
+ * <p>
+ * Trying to add an incompatible mapping does not throw an exception, but returns {@code false} leaving the
+ * substitution unchanged.
+ */
+public class BacktrackableSubstitution {
+    private final Map<Variable, Term> termsMap = new LinkedHashMap<>();
+    private final List<Variable> trail = new ArrayList<>();
+
+    /**
+     * Constructs an empty {@code BacktrackableSubstitution}.
+     */
+    public BacktrackableSubstitution() {
+    }
+
+    /**
+     * Constructs a new {@code BacktrackableSubstitution} with the same mappings as the specified
+     * {@code Substitution}.
+     *
+     * @param initialSubstitution the substitution whose mappings are to be placed in this substitution.
+     * @throws IllegalArgumentException if initialSubstitution parameter is {@code null}.
+     */
+    public BacktrackableSubstitution(Substitution initialSubstitution) {
+        if (Objects.isNull(initialSubstitution))
+            throw new IllegalArgumentException("Initial substitution cannot be null");
+        bind(initialSubstitution);
+    }
+
+    /**
+     * Returns a mark identifying the current state of the substitution.
+     *
+     * @return a mark that can be later used to undo all the mappings added after this call.
+     */
+    public int mark() {
+        return trail.size();
+    }
+
+    /**
+     * Removes all the mappings added after obtaining the given mark.
+     *
+     * @param mark a mark previously returned by {@code mark()} which has not been undone yet.
+     * @throws IllegalArgumentException if the mark does not correspond to the current state of the substitution.
+     */
+    public void undoTo(int mark) {
+        if (mark < 0 || mark > trail.size()) throw new IllegalArgumentException("Invalid mark " + mark);
+        while (trail.size() > mark) {
+            termsMap.remove(trail.remove(trail.size() - 1));
+        }
+    }
+
+    /**
+     * Returns the variables mapped after obtaining the given mark, in the order they were mapped.
+     *
+     * @param mark a mark previously returned by {@code mark()} which has not been undone yet.
+     * @return an unmodifiable list with the variables mapped since the mark.
+     * @throws IllegalArgumentException if the mark does not correspond to the current state of the substitution.
+     */
+    public List<Variable> getVariablesBoundSince(int mark) {
+        if (mark < 0 || mark > trail.size()) throw new IllegalArgumentException("Invalid mark " + mark);
+        return List.copyOf(trail.subList(mark, trail.size()));
+    }
+
+    /**
+     * Adds a mapping from the domainVariable to the rangeTerm, if compatible with the current mappings.
+     *
+     * @param domainVariable domain variable to be mapped.
+     * @param rangeTerm      range term to be mapped.
+     * @return {@code true} if the substitution now maps domainVariable to rangeTerm, or {@code false} if
+     * domainVariable was already mapped to a different term.
+     * @throws IllegalArgumentException if the domain {@code Variable} or the range {@code Term} are {@code null}.
+     */
+    public boolean bind(Variable domainVariable, Term rangeTerm) {
+        if (Objects.isNull(domainVariable)) throw new IllegalArgumentException("domainVariable cannot be null");
+        if (Objects.isNull(rangeTerm)) throw new IllegalArgumentException("rangeTerm cannot be null");
+
+        Term currentTermImage = termsMap.get(domainVariable);
+        if (Objects.isNull(currentTermImage)) {
+            termsMap.put(domainVariable, rangeTerm);
+            trail.add(domainVariable);
+            return true;
+        }
+        return currentTermImage.equals(rangeTerm);
+    }
+
+    /**
+     * Adds the mappings that make each i-th term from domainTerms equal to the i-th term from rangeTerms, if
+     * compatible with the current mappings. Either all the mappings are added, or none.
+     *
+     * @param domainTerms list of {@code Term} which forms the domain of the mappings.
+     * @param rangeTerms  list of {@code Term} which forms the range of the mappings.
+     * @return {@code true} if the mappings have been added, or {@code false} if there is an arity mismatch, some
+     * domain {@code Constant} is not equal to its range term, or some domain variable is already mapped to a different
+     * term.
+     * @throws IllegalArgumentException if domainTerms or rangeTerms parameters are {@code null}.
+     */
+    public boolean bind(List<Term> domainTerms, List<Term> rangeTerms) {
+        if (Objects.isNull(domainTerms)) throw new IllegalArgumentException("Domain terms cannot be null");
+        if (Objects.isNull(rangeTerms)) throw new IllegalArgumentException("Range terms cannot be null");
+        if (domainTerms.size() != rangeTerms.size()) return false;
+
+        int mark = mark();
+        for (int i = 0; i < domainTerms.size(); i++) {
+            if (!bindTerm(domainTerms.get(i), rangeTerms.get(i))) {
+                undoTo(mark);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds all the mappings of the given substitution, if compatible with the current mappings. Either all the
+     * mappings are added, or none.
+     *
+     * @param substitution {@code Substitution} whose mappings are to be added.
+     * @return {@code true} if the mappings have been added, or {@code false} if some variable is already mapped to a
+     * different term.
+     * @throws IllegalArgumentException if substitution is {@code null}.
+     */
+    public boolean bind(Substitution substitution) {
+        if (Objects.isNull(substitution)) throw new IllegalArgumentException("Substitution cannot be null");
+
+        int mark = mark();
+        for (Map.Entry<Variable, Term> mapping : substitution.getMappings().entrySet()) {
+            if (!bind(mapping.getKey(), mapping.getValue())) {
+                undoTo(mark);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean bindTerm(Term domainTerm, Term rangeTerm) {
+        if (domainTerm instanceof Variable domainVariable) return bind(domainVariable, rangeTerm);
+        return domainTerm.equals(rangeTerm);
+    }
+
+    /**
+     * Returns the image of the {@code Variable}.
+     *
+     * @param variable domain {@code Variable}.
+     * @return the image of the {@code Variable}.
+     * @throws IllegalArgumentException if input domain {@code Variable} is {@code null}.
+     */
+    public Optional<Term> getTerm(Variable variable) {
+        if (Objects.isNull(variable)) throw new IllegalArgumentException("Variable cannot be null");
+
+        return Optional.ofNullable(termsMap.get(variable));
+    }
+
+    /**
+     * Returns {@code true} if the variable appears as the domain of a mapping.
+     *
+     * @param variable domain {@code Variable}.
+     * @return {@code true} if the variable appears as the domain of a mapping.
+     */
+    public boolean isBound(Variable variable) {
+        return termsMap.containsKey(variable);
+    }
+
+    /**
+     * Returns substitution map size.
+     *
+     * @return substitution map size.
+     */
+    public int getSize() {
+        return termsMap.size();
+    }
+
+    /**
+     * Constructs a new {@code Substitution} with the current mappings of this substitution. Later changes on this
+     * substitution do not affect the returned one.
+     *
+     * @return a new {@code Substitution} with the current mappings, in the order they were added.
+     */
+    public Substitution toSubstitution() {
+        Substitution result = new Substitution();
+        termsMap.forEach(result::addMapping);
+        return result;
+    }
+
+}
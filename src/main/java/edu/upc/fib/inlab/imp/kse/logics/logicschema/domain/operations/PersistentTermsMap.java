@@ -0,0 +1,181 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+
+import java.util.*;
+
+/**
+ * Immutable map from variables to terms, implemented as a hash array mapped trie (HAMT). Adding a mapping returns a new
+ * version of the map that shares all but O(log n) nodes with the previous one, which remains valid and unchanged.
+ * <p>
+ * Iterating the map follows the order in which the mappings were added. To this end, each entry also points to the
+ * entry added just before it, so that such chain is shared among versions too.
+ * <p>
+ * Mappings cannot be replaced, nor removed, since {@code Substitution} never does so.
+ */
+final class PersistentTermsMap extends AbstractMap<Variable, Term> {
+
+    static final PersistentTermsMap EMPTY = new PersistentTermsMap(null, null, 0, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final MapEntry lastEntry;
+    private final int size;
+    private final int hashCode;
+
+    private PersistentTermsMap(Node root, MapEntry lastEntry, int size, int hashCode) {
+        this.root = root;
+        this.lastEntry = lastEntry;
+        this.size = size;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * @param variable not null, nor mapped by this map
+     * @param term     not null
+     * @return a new version of this map also mapping variable to term
+     */
+    PersistentTermsMap plus(Variable variable, Term term) {
+        MapEntry entry = new MapEntry(variable, term, lastEntry);
+        Node newRoot = Objects.isNull(root) ? BitmapNode.EMPTY.insert(0, entry) : root.insert(0, entry);
+        return new PersistentTermsMap(newRoot, entry, size + 1, hashCode + entry.hashCode());
+    }
+
+    @Override
+    public Term get(Object key) {
+        if (Objects.isNull(root) || !(key instanceof Variable)) return null;
+        return root.find(0, key.hashCode(), key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return Objects.nonNull(get(key));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public Set<Entry<Variable, Term>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Variable, Term>> iterator() {
+                MapEntry[] entries = new MapEntry[size];
+                MapEntry entry = lastEntry;
+                for (int i = size - 1; i >= 0; --i) {
+                    entries[i] = entry;
+                    entry = entry.previous;
+                }
+                return Collections.<Entry<Variable, Term>>unmodifiableList(Arrays.asList(entries)).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static final class MapEntry extends SimpleImmutableEntry<Variable, Term> {
+        private final int keyHash;
+        private final MapEntry previous;
+
+        private MapEntry(Variable key, Term value, MapEntry previous) {
+            super(key, value);
+            this.keyHash = key.hashCode();
+            this.previous = previous;
+        }
+    }
+
+    private interface Node {
+        Term find(int shift, int hash, Object key);
+
+        Node insert(int shift, MapEntry entry);
+    }
+
+    /**
+     * Node whose children are identified by the bits of the bitmap. Each child is either a MapEntry or a Node.
+     */
+    private record BitmapNode(int bitmap, Object[] children) implements Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        @Override
+        public Term find(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            Object child = children[indexOf(bit)];
+            if (child instanceof MapEntry entry) return entry.getKey().equals(key) ? entry.getValue() : null;
+            return ((Node) child).find(shift + BITS, hash, key);
+        }
+
+        @Override
+        public Node insert(int shift, MapEntry entry) {
+            int bit = bitFor(entry.keyHash, shift);
+            int index = indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newChildren = new Object[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = entry;
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                return new BitmapNode(bitmap | bit, newChildren);
+            }
+
+            Object child = children[index];
+            Node newChild = child instanceof MapEntry existingEntry
+                    ? merge(shift + BITS, existingEntry, entry)
+                    : ((Node) child).insert(shift + BITS, entry);
+            Object[] newChildren = children.clone();
+            newChildren[index] = newChild;
+            return new BitmapNode(bitmap, newChildren);
+        }
+
+        private static Node merge(int shift, MapEntry first, MapEntry second) {
+            if (first.keyHash == second.keyHash) return new CollisionNode(first.keyHash, new MapEntry[]{first, second});
+            return EMPTY.insert(shift, first).insert(shift, second);
+        }
+
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bitFor(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+    }
+
+    /**
+     * Node containing the entries whose keys have the same hash.
+     */
+    private record CollisionNode(int hash, MapEntry[] entries) implements Node {
+
+        @Override
+        public Term find(int shift, int keyHash, Object key) {
+            for (MapEntry entry : entries) {
+                if (entry.getKey().equals(key)) return entry.getValue();
+            }
+            return null;
+        }
+
+        @Override
+        public Node insert(int shift, MapEntry entry) {
+            if (entry.keyHash != hash) {
+                Node parent = new BitmapNode(BitmapNode.bitFor(hash, shift), new Object[]{this});
+                return parent.insert(shift, entry);
+            }
+            MapEntry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+            return new CollisionNode(hash, newEntries);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.exceptions.SubstitutionException;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Substitution whose domain is restricted to a fixed set of variables, numbered by some {@code VariableSlots}. The
+ * image of each variable is stored in the array position of its slot, and a bitmask records which slots are bound.
+ * Hence, looking up, adding, or copying a mapping does not allocate any entry nor compute any hash beyond finding the
+ * slot of the variable.
+ * <p>
+ * It is meant for substitutions applied, over and over, to the same clause (e.g. when unfolding a derivation rule).
+ * Use {@link #toSubstitution()} to obtain an equivalent {@code Substitution}.
+ */
+public class SlotSubstitution {
+
+    private final VariableSlots slots;
+    private final Term[] images;
+    private final long[] boundSlots;
+
+    /**
+     * Constructs an empty {@code SlotSubstitution} over the given slots.
+     *
+     * @param slots not null
+     */
+    public SlotSubstitution(VariableSlots slots) {
+        if (Objects.isNull(slots)) throw new IllegalArgumentException("VariableSlots cannot be null");
+        this.slots = slots;
+        this.images = new Term[slots.size()];
+        this.boundSlots = new long[(slots.size() + 63) >>> 6];
+    }
+
+    private SlotSubstitution(SlotSubstitution toCopy) {
+        this.slots = toCopy.slots;
+        this.images = toCopy.images.clone();
+        this.boundSlots = toCopy.boundSlots.clone();
+    }
+
+    /**
+     * Modifies the {@code SlotSubstitution} adding a new mapping from the domainVariable to the rangeTerm.
+     *
+     * @param domainVariable domain variable to be mapped, it must have a slot.
+     * @param rangeTerm      range term to be mapped.
+     * @throws IllegalArgumentException if the domain {@code Variable} or the range {@code Term} are {@code null}, or
+     *                                  the domain {@code Variable} has no slot.
+     * @throws SubstitutionException    if the domain {@code Variable} is already mapped to a different term.
+     */
+    public void addMapping(Variable domainVariable, Term rangeTerm) {
+        if (Objects.isNull(domainVariable)) throw new IllegalArgumentException("domainVariable cannot be null");
+        if (Objects.isNull(rangeTerm)) throw new IllegalArgumentException("rangeTerm cannot be null");
+        int slot = slots.getSlot(domainVariable);
+        if (slot < 0) throw new IllegalArgumentException("Variable " + domainVariable.getName() + " has no slot");
+
+        if (!isBound(slot)) {
+            images[slot] = rangeTerm;
+            boundSlots[slot >>> 6] |= 1L << slot;
+        } else if (!images[slot].equals(rangeTerm)) {
+            throw new SubstitutionException(
+                    "Substitution already maps " + domainVariable.getName() +
+                            " to " + images[slot].getName() +
+                            " which is not equal to " + rangeTerm.getName());
+        }
+    }
+
+    /**
+     * @param variable not null
+     * @return the image of the {@code Variable}, if mapped
+     */
+    public Optional<Term> getTerm(Variable variable) {
+        if (Objects.isNull(variable)) throw new IllegalArgumentException("Variable cannot be null");
+        return Optional.ofNullable(imageOf(variable));
+    }
+
+    /**
+     * @param term not null
+     * @return the image of the term, if it is a mapped variable. Otherwise, the term itself.
+     */
+    public Term apply(Term term) {
+        if (term instanceof Variable variable) {
+            Term image = imageOf(variable);
+            if (Objects.nonNull(image)) return image;
+        }
+        return term;
+    }
+
+    /**
+     * @param terms not null
+     * @return {@code true} if some variable of the terms appears as the domain of a mapping
+     */
+    public boolean replacesSomeVariableOf(Collection<? extends Term> terms) {
+        for (Term term : terms) {
+            if (term instanceof Variable variable && Objects.nonNull(imageOf(variable))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a new {@code SlotSubstitution}, over the same slots, with the same mappings as this one
+     */
+    public SlotSubstitution copy() {
+        return new SlotSubstitution(this);
+    }
+
+    /**
+     * @return the number of variables mapped
+     */
+    public int getSize() {
+        int size = 0;
+        for (long word : boundSlots) size += Long.bitCount(word);
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (long word : boundSlots) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return a {@code Substitution} with the same mappings as this one, added in slot order
+     */
+    public Substitution toSubstitution() {
+        Substitution substitution = new Substitution();
+        for (int slot = 0; slot < images.length; ++slot) {
+            if (isBound(slot)) substitution.addMapping(slots.getVariable(slot), images[slot]);
+        }
+        return substitution;
+    }
+
+    private Term imageOf(Variable variable) {
+        int slot = slots.getSlot(variable);
+        return slot >= 0 && isBound(slot) ? images[slot] : null;
+    }
+
+    private boolean isBound(int slot) {
+        return (boundSlots[slot >>> 6] & (1L << slot)) != 0;
+    }
+}
@@ -10,9 +10,13 @@ import java.util.stream.Collectors;
 /**
  * This class represents a substitution of variables to terms. I.e., it is a mapping from variables to terms, where each
  * variable can be mapped, at most, to one term.
+ * <p>
+ * The mappings are stored in a persistent map. Thus, copying a substitution takes constant time, and extending it
+ * (either in place, with {@code addMapping}, or into a new substitution, with {@code withMapping} or {@code union})
+ * takes logarithmic time per mapping, sharing the rest of the mappings with the original substitution.
  */
 public class Substitution {
-    private Map<Variable, Term> termsMap = new LinkedHashMap<>();
+    private PersistentTermsMap termsMap = PersistentTermsMap.EMPTY;
 
     /**
      * Constructs an empty {@code Substitution}.
@@ -28,7 +32,7 @@ public class Substitution {
      */
     public Substitution(Substitution toCopy) {
         if (Objects.isNull(toCopy)) throw new IllegalArgumentException("Input substitution cannot be null");
-        this.termsMap = new LinkedHashMap<>(toCopy.termsMap);
+        this.termsMap = toCopy.termsMap;
     }
 
     /**
@@ -78,7 +82,7 @@ public class Substitution {
         if (Objects.isNull(rangeTerm)) throw new IllegalArgumentException("rangeTerm cannot be null");
 
         Term currentTermImage = termsMap.get(domainVariable);
-        if (Objects.isNull(currentTermImage)) termsMap.put(domainVariable, rangeTerm);
+        if (Objects.isNull(currentTermImage)) termsMap = termsMap.plus(domainVariable, rangeTerm);
         else if (!currentTermImage.equals(rangeTerm)) {
             throw new SubstitutionException(
                     "Substitution already maps " + domainVariable.getName() +
@@ -87,6 +91,22 @@ public class Substitution {
         }
     }
 
+    /**
+     * Constructs a new {@code Substitution} with the mappings of this {@code Substitution} plus the mapping from the
+     * domainVariable to the rangeTerm. This {@code Substitution} is not modified.
+     *
+     * @param domainVariable domain variable to be mapped.
+     * @param rangeTerm      range term to be mapped.
+     * @return a new {@code Substitution} extending this one with the given mapping.
+     * @throws IllegalArgumentException if the domain {@code Variable} or the range {@code Term} are {@code null}.
+     * @throws SubstitutionException    if the domain {@code Variable} is already mapped to a different term.
+     */
+    public Substitution withMapping(Variable domainVariable, Term rangeTerm) {
+        Substitution result = new Substitution(this);
+        result.addMapping(domainVariable, rangeTerm);
+        return result;
+    }
+
     /**
      * Constructs a new {@code Substitution} making the union between this {@code Substitution}, and the
      * otherSubstitution.
@@ -98,6 +118,7 @@ public class Substitution {
      */
     public Substitution union(Substitution otherSubstitution) {
         if (Objects.isNull(otherSubstitution)) throw new IllegalArgumentException("otherSubstitution cannot be null");
+        if (this.isEmpty()) return new Substitution(otherSubstitution);
 
         Substitution result = new Substitution(this);
         for (Map.Entry<Variable, Term> otherMapping : otherSubstitution.termsMap.entrySet()) {
@@ -119,6 +140,13 @@ public class Substitution {
         return Optional.ofNullable(termsMap.get(variable));
     }
 
+    /**
+     * @return an unmodifiable view of the mappings of this substitution, in the order they were added.
+     */
+    Map<Variable, Term> getMappings() {
+        return Collections.unmodifiableMap(this.termsMap);
+    }
+
     /**
      * Returns substitution map size.
      *
@@ -156,7 +184,7 @@ public class Substitution {
         Set<Variable> variablesInDomain = this.termsMap.keySet();
         Set<Variable> variablesInRange = this.termsMap.values().stream()
                 .filter(Term::isVariable)
-                .map(t -> new Variable(t.getName()))
+                .map(Variable.class::cast)
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
         Set<Variable> result = new LinkedHashSet<>(variablesInDomain);
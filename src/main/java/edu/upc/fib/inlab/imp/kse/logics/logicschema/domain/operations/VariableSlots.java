@@ -0,0 +1,61 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable numbering of a fixed set of variables (typically, the variables of a NormalClause). Each variable is
+ * assigned a slot, from 0 to size-1, in the order the variables are given. It is the domain of a
+ * {@code SlotSubstitution}.
+ */
+public class VariableSlots {
+
+    private final Map<Variable, Integer> slotsByVariable;
+    private final Variable[] variablesBySlot;
+
+    private VariableSlots(Map<Variable, Integer> slotsByVariable, Variable[] variablesBySlot) {
+        this.slotsByVariable = slotsByVariable;
+        this.variablesBySlot = variablesBySlot;
+    }
+
+    /**
+     * @param variables not null, nor containing nulls. Repeated variables are numbered only once.
+     * @return the numbering of the given variables
+     */
+    public static VariableSlots of(Collection<Variable> variables) {
+        if (Objects.isNull(variables)) throw new IllegalArgumentException("Variables cannot be null");
+        Map<Variable, Integer> slotsByVariable = new HashMap<>();
+        for (Variable variable : variables) {
+            if (Objects.isNull(variable)) throw new IllegalArgumentException("Variables cannot contain null elements");
+            slotsByVariable.putIfAbsent(variable, slotsByVariable.size());
+        }
+        Variable[] variablesBySlot = new Variable[slotsByVariable.size()];
+        slotsByVariable.forEach((variable, slot) -> variablesBySlot[slot] = variable);
+        return new VariableSlots(slotsByVariable, variablesBySlot);
+    }
+
+    /**
+     * @param variable not null
+     * @return the slot of the given variable, or -1 if it is not numbered
+     */
+    public int getSlot(Variable variable) {
+        Integer slot = slotsByVariable.get(variable);
+        return Objects.isNull(slot) ? -1 : slot;
+    }
+
+    /**
+     * @param slot between 0 and size-1
+     * @return the variable numbered with the given slot
+     */
+    public Variable getVariable(int slot) {
+        return variablesBySlot[slot];
+    }
+
+    public int size() {
+        return variablesBySlot.length;
+    }
+}
@@ -0,0 +1,281 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Atom;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+
+import java.util.*;
+
+/**
+ * Index of atoms retrieving, for a given query atom, the indexed atoms unifiable with it, the indexed atoms that are
+ * instances of it, and the indexed atoms that generalize it.
+ * <p>
+ * The index is a discrimination tree. Atoms are classified by predicate name and arity, and then, position by
+ * position, by the constant appearing in such position, or by the fact that a variable appears there. Thus, a
+ * retrieval only visits the branches whose constants are compatible with the query atom. The candidates found in the
+ * leaves are finally checked against the repeated variables of both atoms.
+ * <p>
+ * The variables of the query atom and those of the indexed atoms are considered apart, even if they share names. That
+ * is, "R(x, 1)" is unifiable with "R(2, x)". Atoms are compared by identity, so the same atom can only be indexed once,
+ * but several equal atoms can be indexed.
+ */
+public class AtomIndex {
+
+    private final Map<PredicateKey, Node> roots = new LinkedHashMap<>();
+    private int size;
+
+    /**
+     * Constructs an empty {@code AtomIndex}.
+     */
+    public AtomIndex() {
+    }
+
+    /**
+     * Constructs an {@code AtomIndex} containing the given atoms (e.g., {@code LogicSchema.getAllAtoms()})
+     *
+     * @param atoms not null, nor containing nulls
+     */
+    public AtomIndex(Collection<Atom> atoms) {
+        if (Objects.isNull(atoms)) throw new IllegalArgumentException("Atoms cannot be null");
+        atoms.forEach(this::add);
+    }
+
+    /**
+     * @param atom not null
+     * @return whether the atom has been added, that is, whether it was not already indexed
+     */
+    public boolean add(Atom atom) {
+        checkAtom(atom);
+        Node node = roots.computeIfAbsent(PredicateKey.of(atom), k -> new Node());
+        for (Term term : atom.getTerms()) {
+            node = term.isConstant()
+                    ? node.constantChildren.computeIfAbsent(term.getName(), k -> new Node())
+                    : node.getOrCreateVariableChild();
+        }
+        if (Objects.nonNull(node.atoms.putIfAbsent(new IdentityKey(atom), atom))) return false;
+        size++;
+        return true;
+    }
+
+    /**
+     * @param atom not null
+     * @return whether the atom has been removed, that is, whether it was indexed
+     */
+    public boolean remove(Atom atom) {
+        checkAtom(atom);
+        PredicateKey key = PredicateKey.of(atom);
+        Node root = roots.get(key);
+        if (Objects.isNull(root) || !remove(root, atom, 0)) return false;
+        if (root.isEmpty()) roots.remove(key);
+        size--;
+        return true;
+    }
+
+    /**
+     * @param atom not null
+     * @return whether the very same atom is indexed
+     */
+    public boolean contains(Atom atom) {
+        checkAtom(atom);
+        Node node = roots.get(PredicateKey.of(atom));
+        for (int i = 0; i < atom.getTerms().size() && Objects.nonNull(node); ++i) {
+            node = node.getChild(atom.getTerms().get(i));
+        }
+        return Objects.nonNull(node) && node.atoms.containsKey(new IdentityKey(atom));
+    }
+
+    /**
+     * @param queryAtom not null
+     * @return the indexed atoms unifiable with the query atom, once their variables are renamed apart
+     */
+    public List<Atom> getUnifiableAtoms(Atom queryAtom) {
+        return retrieve(queryAtom, Retrieval.UNIFIABLE);
+    }
+
+    /**
+     * @param queryAtom not null
+     * @return the indexed atoms A such that there is a substitution s with queryAtom·s = A
+     */
+    public List<Atom> getInstancesOf(Atom queryAtom) {
+        return retrieve(queryAtom, Retrieval.INSTANCES);
+    }
+
+    /**
+     * @param queryAtom not null
+     * @return the indexed atoms A such that there is a substitution s with A·s = queryAtom
+     */
+    public List<Atom> getGeneralizationsOf(Atom queryAtom) {
+        return retrieve(queryAtom, Retrieval.GENERALIZATIONS);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private List<Atom> retrieve(Atom queryAtom, Retrieval retrieval) {
+        checkAtom(queryAtom);
+        List<Atom> result = new ArrayList<>();
+        Node root = roots.get(PredicateKey.of(queryAtom));
+        if (Objects.nonNull(root)) collect(root, queryAtom.getTerms(), 0, retrieval, result);
+        return result;
+    }
+
+    private static void collect(Node node, List<Term> queryTerms, int position, Retrieval retrieval, List<Atom> result) {
+        if (position == queryTerms.size()) {
+            for (Atom candidate : node.atoms.values()) {
+                if (retrieval.matches(queryTerms, candidate.getTerms())) result.add(candidate);
+            }
+            return;
+        }
+
+        Term queryTerm = queryTerms.get(position);
+        if (queryTerm.isConstant()) {
+            Node constantChild = node.constantChildren.get(queryTerm.getName());
+            if (Objects.nonNull(constantChild)) collect(constantChild, queryTerms, position + 1, retrieval, result);
+            if (retrieval != Retrieval.INSTANCES && Objects.nonNull(node.variableChild)) {
+                collect(node.variableChild, queryTerms, position + 1, retrieval, result);
+            }
+        } else {
+            if (retrieval != Retrieval.GENERALIZATIONS) {
+                for (Node constantChild : node.constantChildren.values()) {
+                    collect(constantChild, queryTerms, position + 1, retrieval, result);
+                }
+            }
+            if (Objects.nonNull(node.variableChild)) collect(node.variableChild, queryTerms, position + 1, retrieval, result);
+        }
+    }
+
+    private static boolean remove(Node node, Atom atom, int position) {
+        if (position == atom.getTerms().size()) return Objects.nonNull(node.atoms.remove(new IdentityKey(atom)));
+
+        Term term = atom.getTerms().get(position);
+        Node child = node.getChild(term);
+        if (Objects.isNull(child) || !remove(child, atom, position + 1)) return false;
+        if (child.isEmpty()) {
+            if (term.isConstant()) node.constantChildren.remove(term.getName());
+            else node.variableChild = null;
+        }
+        return true;
+    }
+
+    private static void checkAtom(Atom atom) {
+        if (Objects.isNull(atom)) throw new IllegalArgumentException("Atom cannot be null");
+    }
+
+    private enum Retrieval {
+        UNIFIABLE {
+            @Override
+            boolean matches(List<Term> queryTerms, List<Term> indexedTerms) {
+                return areUnifiableApart(queryTerms, indexedTerms);
+            }
+        },
+        INSTANCES {
+            @Override
+            boolean matches(List<Term> queryTerms, List<Term> indexedTerms) {
+                return isMatching(queryTerms, indexedTerms);
+            }
+        },
+        GENERALIZATIONS {
+            @Override
+            boolean matches(List<Term> queryTerms, List<Term> indexedTerms) {
+                return isMatching(indexedTerms, queryTerms);
+            }
+        };
+
+        abstract boolean matches(List<Term> queryTerms, List<Term> indexedTerms);
+
+        /**
+         * @return whether there is a substitution s such that generalTerms·s = specificTerms, considering the
+         * variables of specificTerms as frozen
+         */
+        private static boolean isMatching(List<Term> generalTerms, List<Term> specificTerms) {
+            Map<Variable, Term> images = new HashMap<>();
+            for (int i = 0; i < generalTerms.size(); ++i) {
+                Term generalTerm = generalTerms.get(i);
+                Term specificTerm = specificTerms.get(i);
+                if (generalTerm instanceof Variable variable) {
+                    Term image = images.putIfAbsent(variable, specificTerm);
+                    if (Objects.nonNull(image) && !image.equals(specificTerm)) return false;
+                } else if (!generalTerm.equals(specificTerm)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Union-find over the variables of both term lists, tagged with the list they belong to, where each class
+         * might be labelled with, at most, one constant.
+         */
+        private static boolean areUnifiableApart(List<Term> queryTerms, List<Term> indexedTerms) {
+            Map<Object, Object> parents = new HashMap<>();
+            for (int i = 0; i < queryTerms.size(); ++i) {
+                Object first = find(parents, keyOf(queryTerms.get(i), true));
+                Object second = find(parents, keyOf(indexedTerms.get(i), false));
+                if (first.equals(second)) continue;
+                if (first instanceof Term && second instanceof Term) return false;
+                if (first instanceof Term) parents.put(second, first);
+                else parents.put(first, second);
+            }
+            return true;
+        }
+
+        private static Object keyOf(Term term, boolean fromQuery) {
+            return term.isConstant() ? term : new TaggedVariable(term, fromQuery);
+        }
+
+        private static Object find(Map<Object, Object> parents, Object key) {
+            Object parent = parents.get(key);
+            if (Objects.isNull(parent)) return key;
+            Object root = find(parents, parent);
+            if (root != parent) parents.put(key, root);
+            return root;
+        }
+    }
+
+    private record TaggedVariable(Term variable, boolean fromQuery) {
+    }
+
+    private record PredicateKey(String predicateName, int arity) {
+        private static PredicateKey of(Atom atom) {
+            return new PredicateKey(atom.getPredicateName(), atom.getTerms().size());
+        }
+    }
+
+    /**
+     * Key comparing atoms by identity, so that the atoms of a leaf can be kept in insertion order while looking them up
+     * in constant time.
+     */
+    private record IdentityKey(Atom atom) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey other && other.atom == atom;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(atom);
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> constantChildren = new LinkedHashMap<>();
+        private final Map<IdentityKey, Atom> atoms = new LinkedHashMap<>();
+        private Node variableChild;
+
+        private Node getOrCreateVariableChild() {
+            if (Objects.isNull(variableChild)) variableChild = new Node();
+            return variableChild;
+        }
+
+        private Node getChild(Term term) {
+            return term.isConstant() ? constantChildren.get(term.getName()) : variableChild;
+        }
+
+        private boolean isEmpty() {
+            return atoms.isEmpty() && constantChildren.isEmpty() && Objects.isNull(variableChild);
+        }
+    }
+}
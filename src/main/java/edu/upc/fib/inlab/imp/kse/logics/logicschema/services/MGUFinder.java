@@ -10,6 +10,12 @@ import java.util.*;
  * <p>
  * In the current version, two comparison built-in literals such as {@code "2 < a" and "a > 2"} are considered to be
  * non-unifiable since they are using different comparison built-in.
+ * <p>
+ * The unification can be limited by a SearchBudget, where each pair of terms unified consumes one node. When the budget
+ * runs out, a SearchBudgetExceededException is thrown.
+ * <p>
+ * The unifier is computed with a union-find of the variables (with path compression, and union by rank), so that
+ * unifying each pair of terms takes almost constant time.
  */
 public class MGUFinder {
 
@@ -22,23 +28,24 @@ public class MGUFinder {
     }
 
     public static Optional<Substitution> getLiteralsMGU(Collection<Literal> literals) {
+        return getLiteralsMGU(literals, SearchBudget.unlimited());
+    }
+
+    /**
+     * @param literals     not null
+     * @param searchBudget not null
+     * @return a Most General Unifier of the literals, if it exists
+     */
+    public static Optional<Substitution> getLiteralsMGU(Collection<Literal> literals, SearchBudget searchBudget) {
+        if (Objects.isNull(searchBudget)) throw new IllegalArgumentException("SearchBudget cannot be null");
         if (literals.isEmpty()) return Optional.of(new Substitution());
         else if (literals.size() == 1) {
             Literal literal = literals.iterator().next();
             return Optional.of(new Substitution(literal.getTerms(), literal.getTerms()));
         } else {
-            Iterator<Literal> literalIterator = literals.iterator();
-            Literal lit1 = literalIterator.next();
-            Literal lit2 = literalIterator.next();
-            Optional<Substitution> result = getMGU(lit1, lit2);
-
-            while (literalIterator.hasNext() && result.isPresent()) {
-                Literal otherLiteral = literalIterator.next();
-                if (!schemaIsUnifiable(lit1, otherLiteral)) return Optional.empty();
-                addTermsIfNotMapped(result.get(), otherLiteral.getUsedVariables());
-                result = getMGURecursive(result.get(), lit1.getTerms(), otherLiteral.getTerms());
-            }
-            return result;
+            Literal firstLiteral = literals.iterator().next();
+            if (literals.stream().anyMatch(literal -> !schemaIsUnifiable(firstLiteral, literal))) return Optional.empty();
+            return getMGU(literals.stream().map(Literal::getTerms).toList(), searchBudget);
         }
     }
 
@@ -55,24 +62,24 @@ public class MGUFinder {
      * @return a Maximum General Unifier substitution between actual and atom2, if it exists
      */
     public static Optional<Substitution> getAtomsMGU(Collection<Atom> atoms) {
+        return getAtomsMGU(atoms, SearchBudget.unlimited());
+    }
+
+    /**
+     * @param atoms        not null
+     * @param searchBudget not null
+     * @return a Most General Unifier of the atoms, if it exists
+     */
+    public static Optional<Substitution> getAtomsMGU(Collection<Atom> atoms, SearchBudget searchBudget) {
+        if (Objects.isNull(searchBudget)) throw new IllegalArgumentException("SearchBudget cannot be null");
         if (atoms.isEmpty()) return Optional.of(new Substitution());
         else if (atoms.size() == 1) {
             Atom atom = atoms.iterator().next();
             return Optional.of(new Substitution(atom.getTerms(), atom.getTerms()));
         } else {
-            Iterator<Atom> atomIterator = atoms.iterator();
-            Atom atom1 = atomIterator.next();
-            Atom atom2 = atomIterator.next();
-            Predicate predicate = atom1.getPredicate();
-            Optional<Substitution> result = getMGU(atom1, atom2);
-
-            while (atomIterator.hasNext() && result.isPresent()) {
-                Atom otherAtom = atomIterator.next();
-                if (!predicate.equals(otherAtom.getPredicate())) return Optional.empty();
-                addTermsIfNotMapped(result.get(), otherAtom.getVariables());
-                result = getMGURecursive(result.get(), atom1.getTerms(), otherAtom.getTerms());
-            }
-            return result;
+            Predicate predicate = atoms.iterator().next().getPredicate();
+            if (atoms.stream().anyMatch(atom -> !predicate.equals(atom.getPredicate()))) return Optional.empty();
+            return getMGU(atoms.stream().map(Atom::getTerms).toList(), searchBudget);
         }
     }
 
@@ -90,26 +97,23 @@ public class MGUFinder {
         return getAtomsMGU(atoms).isPresent();
     }
 
-    private static void addTermsIfNotMapped(Substitution substitution, Set<Variable> otherVars) {
-        for (Variable variable : otherVars) {
-            if (substitution.getTerm(variable).isEmpty()) {
-                substitution.addMapping(variable, variable);
+    /**
+     * @param termsLists   not null, with at least two lists of the same size
+     * @param searchBudget not null
+     * @return a substitution mapping each variable of the termsLists so that all the lists become equal, if exists
+     */
+    private static Optional<Substitution> getMGU(List<ImmutableTermList> termsLists, SearchBudget searchBudget) {
+        Unifier unifier = new Unifier();
+        termsLists.forEach(terms -> unifier.addVariables(terms.getUsedVariables()));
+
+        ImmutableTermList firstTerms = termsLists.get(0);
+        for (ImmutableTermList otherTerms : termsLists.subList(1, termsLists.size())) {
+            for (int position = 0; position < firstTerms.size(); ++position) {
+                searchBudget.consume();
+                if (!unifier.unify(firstTerms.get(position), otherTerms.get(position))) return Optional.empty();
             }
         }
-    }
-
-    private static Optional<Substitution> getMGU(Literal lit1, Literal lit2) {
-        if (!schemaIsUnifiable(lit1, lit2)) return Optional.empty();
-
-        Set<Variable> allVariables = lit1.getUsedVariables();
-        allVariables.addAll(lit2.getUsedVariables());
-
-        Substitution substitution = new Substitution();
-        for (Variable variable : allVariables) {
-            substitution.addMapping(variable, variable);
-        }
-
-        return getMGURecursive(substitution, lit1.getTerms(), lit2.getTerms());
+        return Optional.of(unifier.toSubstitution());
     }
 
     /**
@@ -132,100 +136,86 @@ public class MGUFinder {
     }
 
     /**
-     * @param atom1 not null
-     * @param atom2 not null
-     * @return a Maximum General Unifier substitution between actual and atom2, if it exists
+     * Union-find of the variables being unified. Each class of unified variables is labelled with the term all its
+     * variables are mapped to: the constant unified with the class, if any, or one of its variables otherwise.
+     * <p>
+     * When unifying two classes, the new label is the label of the second one, unless the first one is labelled with a
+     * constant. Hence, the labels do not depend on how the classes are merged, which is decided by their rank.
      */
-    private static Optional<Substitution> getMGU(Atom atom1, Atom atom2) {
-        if (!atom1.getPredicate().equals(atom2.getPredicate())) return Optional.empty();
-
-        Set<Variable> allVariables = atom1.getVariables();
-        allVariables.addAll(atom2.getVariables());
-
-        Substitution substitution = new Substitution();
-        for (Variable variable : allVariables) {
-            substitution.addMapping(variable, variable);
+    private static class Unifier {
+        private final Map<Variable, Variable> parents = new LinkedHashMap<>();
+        private final Map<Variable, Integer> ranks = new HashMap<>();
+        private final Map<Variable, Term> labels = new HashMap<>();
+
+        void addVariables(Set<Variable> variables) {
+            for (Variable variable : variables) {
+                if (Objects.isNull(parents.putIfAbsent(variable, variable))) {
+                    ranks.put(variable, 0);
+                    labels.put(variable, variable);
+                }
+            }
         }
 
-        return getMGURecursive(substitution, atom1.getTerms(), atom2.getTerms());
-    }
-
-    /**
-     * @param subs   not null, might be empty, maps every variable appearing in terms1 and terms2
-     * @param terms1 not null, might be empty
-     * @param terms2 not null, might be empty, has same size as terms1
-     * @return a new substitution, that unifies terms1 with terms2 and contains all the maps of subs (where such the
-     * image of such maps might change due to the unification of terms1 with terms2), if exists
-     */
-    private static Optional<Substitution> getMGURecursive(Substitution subs, ImmutableTermList terms1, ImmutableTermList terms2) {
-        if (terms1.isEmpty()) return Optional.of(subs);
-
-        Term term1 = terms1.get(0);
-        Term term2 = terms2.get(0);
-        Optional<Substitution> newSubs = unifyTerms(subs, term1, term2);
-        if (newSubs.isPresent()) {
-            ImmutableTermList remainingTerms1 = terms1.subList(1, terms1.size());
-            ImmutableTermList remainingTerms2 = terms2.subList(1, terms2.size());
-            return getMGURecursive(newSubs.get(), remainingTerms1, remainingTerms2);
-        } else return Optional.empty();
-    }
-
-
-    /**
-     * @param subs  not null, contains a substitution for term1 and term2 if they are variables
-     * @param term1 not null
-     * @param term2 not null
-     * @return a substitution that unifies term1 with term2, and contains all the mappings from subs, applying the
-     * corresponding substitution to unify term1 with term2.
-     */
-    private static Optional<Substitution> unifyTerms(Substitution subs, Term term1, Term term2) {
-        if (bothAreMappedToSameConstant(subs, term1, term2)) return Optional.of(subs);
-        if (bothAreMappedToDifferentConstants(subs, term1, term2)) return Optional.empty();
-        else if (firstIsMappedToVarAndSecondToConstant(subs, term1, term2)) {
-            return Optional.of(newSubstitutionFromFirstToSecondImage(subs, (Variable) term1, term2));
-        } else if (firstIsMappedToVarAndSecondToConstant(subs, term2, term1)) {
-            return Optional.of(newSubstitutionFromFirstToSecondImage(subs, (Variable) term2, term1));
-        } else {
-            //Both are mapped to variables
-            return Optional.of(newSubstitutionFromFirstToSecondImage(subs, (Variable) term1, term2));
+        /**
+         * @return whether term1 and term2 could be unified. Otherwise, they are mapped to different constants.
+         */
+        boolean unify(Term term1, Term term2) {
+            Term image1 = getImage(term1);
+            Term image2 = getImage(term2);
+            if (image1.isConstant() && image2.isConstant()) return image1.getName().equals(image2.getName());
+
+            Term label = image1.isConstant() ? image1 : image2;
+            Variable root;
+            if (term1 instanceof Variable variable1 && term2 instanceof Variable variable2) {
+                root = union(findRoot(variable1), findRoot(variable2));
+            } else {
+                root = findRoot((Variable) (term1.isVariable() ? term1 : term2));
+            }
+            labels.put(root, label);
+            return true;
         }
-    }
 
-    private static Substitution newSubstitutionFromFirstToSecondImage(Substitution oldSubs, Variable term1, Term term2) {
-        Term image1 = term1.applySubstitution(oldSubs);
-        Term image2 = term2.applySubstitution(oldSubs);
-        Substitution newSubs = new Substitution();
-        for (Variable variable : oldSubs.getUsedVariables()) {
-            if (variable.equals(term1)) {
-                newSubs.addMapping(term1, image2);
-            } else if (variable.equals(image1)) {
-                newSubs.addMapping(variable, image2);
-            } else {
-                Term imageInOldSubs = variable.applySubstitution(oldSubs);
-                if (imageInOldSubs.equals(term1) || imageInOldSubs.equals(image1)) {
-                    newSubs.addMapping(variable, image2);
-                } else newSubs.addMapping(variable, imageInOldSubs);
+        Substitution toSubstitution() {
+            Substitution result = new Substitution();
+            for (Variable variable : parents.keySet()) {
+                result.addMapping(variable, getImage(variable));
             }
+            return result;
         }
-        return newSubs;
-    }
 
-    private static boolean firstIsMappedToVarAndSecondToConstant(Substitution subs, Term term1, Term term2) {
-        Term image1 = term1.applySubstitution(subs);
-        Term image2 = term2.applySubstitution(subs);
-        return image1.isVariable() && image2.isConstant();
-    }
+        private Term getImage(Term term) {
+            if (term instanceof Variable variable) return labels.get(findRoot(variable));
+            return term;
+        }
 
-    private static boolean bothAreMappedToSameConstant(Substitution subs, Term term1, Term term2) {
-        Term image1 = term1.applySubstitution(subs);
-        Term image2 = term2.applySubstitution(subs);
-        return image1.isConstant() && image2.isConstant() && image1.getName().equals(image2.getName());
-    }
+        private Variable union(Variable root1, Variable root2) {
+            if (root1.equals(root2)) return root1;
+            int rank1 = ranks.get(root1);
+            int rank2 = ranks.get(root2);
+            if (rank1 < rank2) {
+                parents.put(root1, root2);
+                return root2;
+            }
+            parents.put(root2, root1);
+            if (rank1 == rank2) ranks.put(root1, rank1 + 1);
+            return root1;
+        }
 
-    private static boolean bothAreMappedToDifferentConstants(Substitution subs, Term term1, Term term2) {
-        Term image1 = term1.applySubstitution(subs);
-        Term image2 = term2.applySubstitution(subs);
-        return image1.isConstant() && image2.isConstant() && !image1.getName().equals(image2.getName());
+        private Variable findRoot(Variable variable) {
+            Variable root = variable;
+            Variable parent = parents.get(root);
+            while (!parent.equals(root)) {
+                root = parent;
+                parent = parents.get(root);
+            }
+            Variable current = variable;
+            while (!current.equals(root)) {
+                Variable next = parents.get(current);
+                parents.put(current, root);
+                current = next;
+            }
+            return root;
+        }
     }
 
 }
@@ -0,0 +1,119 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Budget limiting the work done by algorithms whose cost might be exponential (e.g. searching homomorphisms, or
+ * unfolding a schema). Such algorithms consume one unit of the budget for each node of their search, and give up,
+ * throwing a {@code SearchBudgetExceededException}, as soon as the budget runs out.
+ * <p>
+ * The budget runs out when any of its limits is reached:
+ * <ul>
+ * <li>The maximum number of nodes has been consumed.
+ * <li>The timeout, counted since the budget was created, has elapsed.
+ * <li>The thread consuming the budget is interrupted, if the budget stops on interrupt. The interrupt status of the
+ * thread is not cleared.
+ * <li>The budget has been cancelled.
+ * </ul>
+ * Once the budget has run out, it remains so. The same budget can be shared by several algorithms, and several
+ * threads, in which case it limits the work done by all of them together.
+ */
+public class SearchBudget {
+
+    private static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, null, false);
+
+    private final long maxNodes;
+    private final long deadline;
+    private final boolean hasTimeout;
+    private final boolean stopOnInterrupt;
+    private final boolean isUnlimited;
+    private final AtomicLong consumedNodes = new AtomicLong();
+    private final AtomicReference<String> exceededReason = new AtomicReference<>();
+
+    /**
+     * @param maxNodes        greater than 0, maximum number of nodes that can be consumed
+     * @param timeout         might be null, in which case there is no time limit. Otherwise, not negative
+     * @param stopOnInterrupt whether the budget runs out when the consuming thread is interrupted
+     */
+    public SearchBudget(long maxNodes, Duration timeout, boolean stopOnInterrupt) {
+        if (maxNodes <= 0) throw new IllegalArgumentException("Max nodes must be greater than 0");
+        if (Objects.nonNull(timeout) && timeout.isNegative()) throw new IllegalArgumentException("Timeout cannot be negative");
+        this.maxNodes = maxNodes;
+        this.hasTimeout = Objects.nonNull(timeout);
+        this.deadline = hasTimeout ? System.nanoTime() + timeout.toNanos() : 0;
+        this.stopOnInterrupt = stopOnInterrupt;
+        this.isUnlimited = maxNodes == Long.MAX_VALUE && !hasTimeout && !stopOnInterrupt;
+    }
+
+    /**
+     * @return a budget that never runs out, unless cancelled. It is shared, so it cannot be cancelled.
+     */
+    public static SearchBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param maxNodes greater than 0
+     * @return a budget limited to the given number of nodes, that also stops on interrupt
+     */
+    public static SearchBudget ofNodes(long maxNodes) {
+        return new SearchBudget(maxNodes, null, true);
+    }
+
+    /**
+     * @param timeout not null, nor negative
+     * @return a budget limited to the given time since now, that also stops on interrupt
+     */
+    public static SearchBudget ofTimeout(Duration timeout) {
+        if (Objects.isNull(timeout)) throw new IllegalArgumentException("Timeout cannot be null");
+        return new SearchBudget(Long.MAX_VALUE, timeout, true);
+    }
+
+    /**
+     * Consumes one node of the budget.
+     *
+     * @throws SearchBudgetExceededException if the budget has run out
+     */
+    public void consume() {
+        if (isUnlimited && Objects.isNull(exceededReason.get())) return;
+        if (consumedNodes.incrementAndGet() > maxNodes) exceed("node limit of " + maxNodes + " reached");
+        else if (hasTimeout && System.nanoTime() - deadline > 0) exceed("timeout reached");
+        else if (stopOnInterrupt && Thread.currentThread().isInterrupted()) exceed("thread interrupted");
+
+        String reason = exceededReason.get();
+        if (Objects.nonNull(reason)) throw new SearchBudgetExceededException(reason);
+    }
+
+    /**
+     * Makes the budget run out, so that the algorithms consuming it give up as soon as they consume it again.
+     *
+     * @throws IllegalStateException if this is the unlimited budget
+     */
+    public void cancel() {
+        if (this == UNLIMITED) throw new IllegalStateException("Unlimited budget cannot be cancelled");
+        exceed("search cancelled");
+    }
+
+    /**
+     * @return whether the budget has run out
+     */
+    public boolean isExceeded() {
+        return Objects.nonNull(exceededReason.get());
+    }
+
+    /**
+     * @return number of nodes consumed so far. It is not counted for the unlimited budget.
+     */
+    public long getConsumedNodes() {
+        return Math.min(consumedNodes.get(), maxNodes);
+    }
+
+    private void exceed(String reason) {
+        exceededReason.compareAndSet(null, reason);
+    }
+}
@@ -0,0 +1,68 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Gives a fresh SearchBudget to each search of an algorithm, while the searches nested in it (e.g. a search calling
+ * back a public method of the algorithm) consume the budget of the search that started them.
+ * <p>
+ * The budget of the running search is kept per thread. Hence, a search that runs part of its work in other threads
+ * has to run such work with its own budget (see {@link #runWith(SearchBudget, Supplier)}).
+ */
+public class SearchBudgetScope {
+
+    private final Supplier<SearchBudget> searchBudgetSupplier;
+    private final ThreadLocal<SearchBudget> runningSearchBudget = new ThreadLocal<>();
+
+    /**
+     * @param searchBudgetSupplier not null, gives the budget of each new search
+     */
+    public SearchBudgetScope(Supplier<SearchBudget> searchBudgetSupplier) {
+        if (Objects.isNull(searchBudgetSupplier)) throw new IllegalArgumentException("SearchBudgetSupplier cannot be null");
+        this.searchBudgetSupplier = searchBudgetSupplier;
+    }
+
+    /**
+     * @return the budget of the search running in the current thread or, if there is none, the budget of a new search
+     */
+    public SearchBudget currentOrNew() {
+        SearchBudget searchBudget = runningSearchBudget.get();
+        if (Objects.nonNull(searchBudget)) return searchBudget;
+        searchBudget = searchBudgetSupplier.get();
+        if (Objects.isNull(searchBudget)) throw new IllegalStateException("SearchBudgetSupplier returned a null SearchBudget");
+        return searchBudget;
+    }
+
+    /**
+     * Runs the search with the budget of the search running in the current thread or, if there is none, with the
+     * budget of a new search.
+     *
+     * @param search not null
+     * @return the result of the search
+     */
+    public <T> T run(Supplier<T> search) {
+        return runWith(currentOrNew(), search);
+    }
+
+    /**
+     * Runs the search with the given budget, which is also the budget of the searches nested in it in the current
+     * thread.
+     *
+     * @param searchBudget not null
+     * @param search       not null
+     * @return the result of the search
+     */
+    public <T> T runWith(SearchBudget searchBudget, Supplier<T> search) {
+        SearchBudget previousSearchBudget = runningSearchBudget.get();
+        if (previousSearchBudget == searchBudget) return search.get();
+
+        runningSearchBudget.set(searchBudget);
+        try {
+            return search.get();
+        } finally {
+            if (Objects.isNull(previousSearchBudget)) runningSearchBudget.remove();
+            else runningSearchBudget.set(previousSearchBudget);
+        }
+    }
+}
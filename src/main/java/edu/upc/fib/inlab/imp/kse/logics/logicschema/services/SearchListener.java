@@ -0,0 +1,67 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.OrdinaryLiteral;
+
+/**
+ * Listener notified of the progress of the backtracking searches (e.g. searching homomorphisms, or isomorphisms). It is
+ * meant to explain the cost of each search, for instance, by collecting its SearchStatistics.
+ * <p>
+ * Every method does nothing by default. The listener {@link #NONE} is the one used when no listener is injected, so
+ * that the searches pay (almost) nothing for being observable. A listener shared by several searches running in
+ * parallel must be thread-safe.
+ */
+public interface SearchListener {
+
+    /**
+     * Listener ignoring every notification
+     */
+    SearchListener NONE = new SearchListener() {
+    };
+
+    /**
+     * Notifies that a search has finished, either successfully or not. Searches computed lazily (i.e., those returning
+     * an iterator or a stream) are not notified.
+     *
+     * @param elapsedNanos time spent in the search, in nanoseconds
+     */
+    default void searchFinished(long elapsedNanos) {
+    }
+
+    /**
+     * Notifies that the search has tried a new candidate image for the literal at the given depth
+     *
+     * @param depth number of literals mapped, counting the one just tried
+     */
+    default void nodeExpanded(int depth) {
+    }
+
+    /**
+     * Notifies the candidate images generated for a literal when the search reaches it
+     *
+     * @param literal    literal to map
+     * @param candidates number of candidate images of the literal or, when they are computed lazily, the number of
+     *                   literals where it might be mapped
+     */
+    default void candidatesGenerated(Literal literal, int candidates) {
+    }
+
+    /**
+     * Notifies that the search has tried all the candidate images of a literal, and goes back to the previous one
+     *
+     * @param depth number of literals mapped before reaching the literal whose candidates are exhausted
+     */
+    default void backtracked(int depth) {
+    }
+
+    /**
+     * Notifies that the search has checked whether a derived literal can be mapped to another one by looking into their
+     * derivation rules. The nodes expanded by such check are also notified.
+     *
+     * @param domainLiteral derived literal to map
+     * @param rangeLiteral  literal where to map domainLiteral
+     * @param mapped        whether domainLiteral could be mapped to rangeLiteral
+     */
+    default void derivedLiteralChecked(OrdinaryLiteral domainLiteral, OrdinaryLiteral rangeLiteral, boolean mapped) {
+    }
+}
@@ -0,0 +1,132 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.OrdinaryLiteral;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SearchListener accumulating the statistics of all the searches it is notified of. It is thread-safe, so it can be
+ * shared by searches running in parallel.
+ */
+public class SearchStatistics implements SearchListener {
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder elapsedNanos = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder literalsReached = new LongAdder();
+    private final LongAdder candidatesGenerated = new LongAdder();
+    private final LongAccumulator maxCandidatesPerLiteral = new LongAccumulator(Math::max, 0);
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder derivedLiteralChecks = new LongAdder();
+
+    @Override
+    public void searchFinished(long elapsedNanos) {
+        this.searches.increment();
+        this.elapsedNanos.add(elapsedNanos);
+    }
+
+    @Override
+    public void nodeExpanded(int depth) {
+        nodesExpanded.increment();
+        maxDepth.accumulate(depth);
+    }
+
+    @Override
+    public void candidatesGenerated(Literal literal, int candidates) {
+        literalsReached.increment();
+        candidatesGenerated.add(candidates);
+        maxCandidatesPerLiteral.accumulate(candidates);
+    }
+
+    @Override
+    public void backtracked(int depth) {
+        backtracks.increment();
+    }
+
+    @Override
+    public void derivedLiteralChecked(OrdinaryLiteral domainLiteral, OrdinaryLiteral rangeLiteral, boolean mapped) {
+        derivedLiteralChecks.increment();
+    }
+
+    /**
+     * @return number of searches finished
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    /**
+     * @return total time spent in the searches finished, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos.sum();
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded.sum();
+    }
+
+    /**
+     * @return total number of candidate images generated for the literals reached by the searches
+     */
+    public long getCandidatesGenerated() {
+        return candidatesGenerated.sum();
+    }
+
+    /**
+     * @return average number of candidate images generated each time a search reached a literal, or 0 if no literal
+     * has been reached
+     */
+    public double getAverageCandidatesPerLiteral() {
+        long literals = literalsReached.sum();
+        return literals == 0 ? 0 : (double) candidatesGenerated.sum() / literals;
+    }
+
+    public long getMaxCandidatesPerLiteral() {
+        return maxCandidatesPerLiteral.get();
+    }
+
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getDerivedLiteralChecks() {
+        return derivedLiteralChecks.sum();
+    }
+
+    /**
+     * Sets all the statistics back to 0. It should not be invoked while some search is notifying this listener.
+     */
+    public void reset() {
+        searches.reset();
+        elapsedNanos.reset();
+        nodesExpanded.reset();
+        literalsReached.reset();
+        candidatesGenerated.reset();
+        maxCandidatesPerLiteral.reset();
+        backtracks.reset();
+        maxDepth.reset();
+        derivedLiteralChecks.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStatistics{" +
+                "searches=" + getSearches() +
+                ", elapsedNanos=" + getElapsedNanos() +
+                ", nodesExpanded=" + getNodesExpanded() +
+                ", candidatesGenerated=" + getCandidatesGenerated() +
+                ", maxCandidatesPerLiteral=" + getMaxCandidatesPerLiteral() +
+                ", backtracks=" + getBacktracks() +
+                ", maxDepth=" + getMaxDepth() +
+                ", derivedLiteralChecks=" + getDerivedLiteralChecks() +
+                '}';
+    }
+}
@@ -0,0 +1,166 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+
+import java.util.*;
+
+/**
+ * Conjunction of literals whose hypergraph is acyclic. The hypergraph of a conjunction has a node for each variable,
+ * and an hyperedge for each literal with the variables it uses.
+ * <p>
+ * The hypergraph is checked to be acyclic by means of the GYO reduction: a literal is an ear if the variables it shares
+ * with the rest of literals are all contained in a single other literal (its parent), or if it shares no variable at
+ * all. Ears are removed until no literal is left, in which case the hypergraph is acyclic, and the parents define its
+ * join tree. Otherwise, it is cyclic.
+ * <p>
+ * Given the tuples each literal might be mapped to, a solution of the conjunction is found in polynomial time by means
+ * of the Yannakakis algorithm: each literal filters its parent tuples (semi-join) following the order in which ears
+ * were removed, and then, a solution is built from the roots to the leaves of the join tree choosing, for each literal,
+ * the first tuple compatible with its parent.
+ */
+class AcyclicConjunction {
+
+    private static final int NO_PARENT = -1;
+
+    private final List<List<Variable>> literalsVariables;
+    private final List<Integer> earsOrder;
+    private final int[] parents;
+
+    private AcyclicConjunction(List<List<Variable>> literalsVariables, List<Integer> earsOrder, int[] parents) {
+        this.literalsVariables = literalsVariables;
+        this.earsOrder = earsOrder;
+        this.parents = parents;
+    }
+
+    /**
+     * @param literalsVariables not null, for each literal of the conjunction, the variables it uses
+     * @return the acyclic conjunction of the literals, or empty if their hypergraph is cyclic
+     */
+    static Optional<AcyclicConjunction> of(List<? extends Collection<Variable>> literalsVariables) {
+        List<List<Variable>> variables = literalsVariables.stream()
+                .map(literalVariables -> List.copyOf(new LinkedHashSet<>(literalVariables)))
+                .toList();
+        Map<Variable, Set<Integer>> literalsByVariable = new HashMap<>();
+        for (int literal = 0; literal < variables.size(); ++literal) {
+            for (Variable variable : variables.get(literal)) {
+                literalsByVariable.computeIfAbsent(variable, v -> new LinkedHashSet<>()).add(literal);
+            }
+        }
+
+        int[] parents = new int[variables.size()];
+        boolean[] removed = new boolean[variables.size()];
+        List<Integer> earsOrder = new ArrayList<>(variables.size());
+        Deque<Integer> pendingLiterals = new ArrayDeque<>();
+        for (int literal = 0; literal < variables.size(); ++literal) pendingLiterals.add(literal);
+
+        while (!pendingLiterals.isEmpty()) {
+            int literal = pendingLiterals.poll();
+            if (removed[literal]) continue;
+            OptionalInt parent = findEarParent(literal, variables, literalsByVariable);
+            if (parent.isEmpty()) continue;
+
+            parents[literal] = parent.getAsInt();
+            removed[literal] = true;
+            earsOrder.add(literal);
+            for (Variable variable : variables.get(literal)) {
+                Set<Integer> literalsUsingVariable = literalsByVariable.get(variable);
+                literalsUsingVariable.remove(literal);
+                pendingLiterals.addAll(literalsUsingVariable);
+            }
+        }
+
+        if (earsOrder.size() < variables.size()) return Optional.empty();
+        return Optional.of(new AcyclicConjunction(variables, List.copyOf(earsOrder), parents));
+    }
+
+    /**
+     * @return NO_PARENT if the literal shares no variable with the remaining literals, the parent of the literal if it
+     * is an ear, or empty if it is not an ear
+     */
+    private static OptionalInt findEarParent(int literal, List<List<Variable>> variables, Map<Variable, Set<Integer>> literalsByVariable) {
+        List<Variable> sharedVariables = new ArrayList<>();
+        for (Variable variable : variables.get(literal)) {
+            if (literalsByVariable.get(variable).size() > 1) sharedVariables.add(variable);
+        }
+        if (sharedVariables.isEmpty()) return OptionalInt.of(NO_PARENT);
+
+        for (int candidate : literalsByVariable.get(sharedVariables.get(0))) {
+            if (candidate != literal && variables.get(candidate).containsAll(sharedVariables)) return OptionalInt.of(candidate);
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * @param literal index of a literal of the conjunction
+     * @return the distinct variables used by the literal, in the order they are used
+     */
+    List<Variable> getVariables(int literal) {
+        return literalsVariables.get(literal);
+    }
+
+    /**
+     * @param literalsTuples for each literal of the conjunction, the tuples of terms its variables (in the order given
+     *                       by getVariables) might be mapped to. They are not modified.
+     * @return an image for each variable that maps every literal to one of its tuples, if exists
+     */
+    Optional<Map<Variable, Term>> findSolution(List<? extends Collection<List<Term>>> literalsTuples) {
+        List<List<List<Term>>> tuples = new ArrayList<>(literalsTuples.size());
+        for (Collection<List<Term>> literalTuples : literalsTuples) tuples.add(new ArrayList<>(literalTuples));
+
+        for (int literal : earsOrder) {
+            if (tuples.get(literal).isEmpty()) return Optional.empty();
+            int parent = parents[literal];
+            if (parent != NO_PARENT) semiJoin(parent, literal, tuples);
+        }
+
+        Map<Variable, Term> solution = new LinkedHashMap<>();
+        for (int i = earsOrder.size() - 1; i >= 0; --i) {
+            int literal = earsOrder.get(i);
+            List<Variable> variables = literalsVariables.get(literal);
+            List<Term> tuple = findFirstCompatibleTuple(variables, tuples.get(literal), solution);
+            for (int position = 0; position < variables.size(); ++position) {
+                solution.put(variables.get(position), tuple.get(position));
+            }
+        }
+        return Optional.of(solution);
+    }
+
+    /**
+     * Removes the tuples of the parent that do not join with any tuple of the child
+     */
+    private void semiJoin(int parent, int child, List<List<List<Term>>> tuples) {
+        List<Variable> parentVariables = literalsVariables.get(parent);
+        List<Variable> childVariables = literalsVariables.get(child);
+        List<Variable> sharedVariables = new ArrayList<>(childVariables);
+        sharedVariables.retainAll(parentVariables);
+        if (sharedVariables.isEmpty()) return;
+
+        Set<List<Term>> childProjection = new HashSet<>();
+        for (List<Term> childTuple : tuples.get(child)) {
+            childProjection.add(project(childTuple, childVariables, sharedVariables));
+        }
+        tuples.get(parent).removeIf(parentTuple -> !childProjection.contains(project(parentTuple, parentVariables, sharedVariables)));
+    }
+
+    private static List<Term> project(List<Term> tuple, List<Variable> tupleVariables, List<Variable> projectionVariables) {
+        List<Term> result = new ArrayList<>(projectionVariables.size());
+        for (Variable variable : projectionVariables) result.add(tuple.get(tupleVariables.indexOf(variable)));
+        return result;
+    }
+
+    private static List<Term> findFirstCompatibleTuple(List<Variable> variables, List<List<Term>> tuples, Map<Variable, Term> solution) {
+        for (List<Term> tuple : tuples) {
+            if (isCompatible(variables, tuple, solution)) return tuple;
+        }
+        throw new IllegalStateException("Semi-joins should have left a compatible tuple");
+    }
+
+    private static boolean isCompatible(List<Variable> variables, List<Term> tuple, Map<Variable, Term> solution) {
+        for (int position = 0; position < variables.size(); ++position) {
+            Term image = solution.get(variables.get(position));
+            if (image != null && !image.equals(tuple.get(position))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+/**
+ * How the HomomorphismFinder looks for a single homomorphism when the domain literals are acyclic.
+ */
+public enum AcyclicDomainSolving {
+
+    /**
+     * Acyclic domain literals are mapped by backtracking, as any other, following the configured DomainLiteralsOrdering
+     * and DomainPruning. This is the cheapest choice when the search rarely backtracks.
+     */
+    BACKTRACKING,
+
+    /**
+     * When the domain literals, considering only the variables not bound by the initial substitution, are acyclic, and
+     * neither the domain nor the range contains derived literals, the homomorphism is found with the Yannakakis
+     * algorithm (see AcyclicConjunction). It takes polynomial time, but it computes every image of every domain literal
+     * up front, which is slower than backtracking on searches that rarely backtrack. The DomainLiteralsOrdering and the
+     * DomainPruning only apply to the domains that are not solved this way.
+     */
+    SEMI_JOINS,
+
+    /**
+     * Acyclic domain literals are solved as in SEMI_JOINS when their search space is large, that is, when the product of
+     * the number of candidate range literals of each domain literal exceeds a threshold. Otherwise, they are mapped by
+     * backtracking, since computing every image up front does not pay off on such small searches.
+     */
+    AUTOMATIC
+}
@@ -0,0 +1,80 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache keeping, at most, a given number of results. When full, the least recently used result is
+ * evicted.
+ * <p>
+ * Results are computed outside the lock. Thus, two threads asking for the same missing key at the same time might
+ * both compute it.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the results
+ */
+class BoundedResultCache<K, V> {
+
+    private final Map<K, V> results;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maximumSize greater than 0
+     */
+    BoundedResultCache(int maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("Cache size must be greater than 0");
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * @param key             not null
+     * @param resultComputation not null, computes the result when it is not cached
+     * @return the cached result for the key, or the computed one otherwise
+     */
+    V getOrCompute(K key, Supplier<V> resultComputation) {
+        Optional<V> cachedResult = get(key);
+        if (cachedResult.isPresent()) return cachedResult.get();
+        V result = resultComputation.get();
+        put(key, result);
+        return result;
+    }
+
+    private Optional<V> get(K key) {
+        V result;
+        synchronized (results) {
+            result = results.get(key);
+        }
+        if (result == null) misses.increment();
+        else hits.increment();
+        return Optional.ofNullable(result);
+    }
+
+    private void put(K key, V result) {
+        synchronized (results) {
+            results.put(key, result);
+        }
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+}
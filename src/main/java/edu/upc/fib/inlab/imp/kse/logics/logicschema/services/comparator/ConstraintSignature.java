@@ -0,0 +1,77 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cheap summary of a list of literals giving a necessary condition for the existence of a homomorphism between two
+ * lists. If there is a homomorphism from A to B, then the signature of A is contained in the signature of B.
+ * <p>
+ * The signature consists of:
+ * <ul>
+ * <li>The keys of the literals. Base ordinary literals are identified by their polarity and predicate name, and
+ * built-in literals by their operation name (comparisons use the same key as their symmetric, since "x < y" might be
+ * mapped to "y > x"). Derived ordinary literals have no key, since, depending on the
+ * DerivedOrdinaryLiteralHomomorphismCriteria, they might be mapped to literals with other predicates.
+ * <li>The constants used by the literals, since a homomorphism maps each constant to itself.
+ * </ul>
+ */
+final class ConstraintSignature {
+
+    private final Set<Object> literalKeys;
+    private final Set<Constant> constants;
+
+    private ConstraintSignature(Set<Object> literalKeys, Set<Constant> constants) {
+        this.literalKeys = literalKeys;
+        this.constants = constants;
+    }
+
+    /**
+     * @param literals not null
+     * @return the signature of the given literals
+     */
+    static ConstraintSignature of(List<Literal> literals) {
+        Set<Object> literalKeys = new LinkedHashSet<>();
+        Set<Constant> constants = new LinkedHashSet<>();
+        for (Literal literal : literals) {
+            if (literal instanceof OrdinaryLiteral ordinaryLiteral) {
+                if (ordinaryLiteral.isBase()) literalKeys.add(new OrdinaryLiteralKey(ordinaryLiteral.isPositive(), ordinaryLiteral.getPredicateName()));
+            } else literalKeys.add(computeBuiltInLiteralKey((BuiltInLiteral) literal));
+            for (Term term : literal.getTerms()) {
+                if (term instanceof Constant constant) constants.add(constant);
+            }
+        }
+        return new ConstraintSignature(Set.copyOf(literalKeys), Set.copyOf(constants));
+    }
+
+    private static BuiltInLiteralKey computeBuiltInLiteralKey(BuiltInLiteral builtInLiteral) {
+        if (builtInLiteral instanceof ComparisonBuiltInLiteral comparison) {
+            ComparisonOperator operator = comparison.getOperator();
+            ComparisonOperator symmetric = operator.getSymmetric();
+            return new BuiltInLiteralKey(operator.compareTo(symmetric) <= 0 ? operator.getSymbol() : symmetric.getSymbol());
+        }
+        return new BuiltInLiteralKey(builtInLiteral.getOperationName());
+    }
+
+    Set<Object> getLiteralKeys() {
+        return literalKeys;
+    }
+
+    /**
+     * @param other not null
+     * @return whether this signature is contained in the other one. I.e., whether a homomorphism from the literals of
+     * this signature to the literals of the other one might exist
+     */
+    boolean isContainedIn(ConstraintSignature other) {
+        return other.literalKeys.containsAll(literalKeys) && other.constants.containsAll(constants);
+    }
+
+    private record OrdinaryLiteralKey(boolean isPositive, String predicateName) {
+    }
+
+    private record BuiltInLiteralKey(String operationName) {
+    }
+}
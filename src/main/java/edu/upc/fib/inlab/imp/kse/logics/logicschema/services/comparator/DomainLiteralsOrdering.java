@@ -0,0 +1,21 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+/**
+ * Order in which the HomomorphismFinder maps the domain literals into the range literals.
+ */
+public enum DomainLiteralsOrdering {
+
+    /**
+     * The domain literals are mapped in the same order as they are written.
+     */
+    AS_WRITTEN,
+
+    /**
+     * The next domain literal to map is chosen dynamically: the one with the fewest compatible range literals under the
+     * current substitution. Ties are broken by choosing the literal with fewer unbound variables and, then, the one
+     * written first.
+     * <p>
+     * This ordering might find a different homomorphism than AS_WRITTEN, but it finds one whenever AS_WRITTEN does.
+     */
+    FAIL_FIRST
+}
@@ -0,0 +1,24 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+/**
+ * Pruning the HomomorphismFinder applies to the search tree before reaching a dead end.
+ */
+public enum DomainPruning {
+
+    /**
+     * No pruning. A dead end is found when the search reaches the domain literal that cannot be mapped.
+     */
+    NONE,
+
+    /**
+     * Forward checking. Before the search, each domain variable gets the set of terms it might be mapped to, according
+     * to the range literals where its domain literals might be mapped. Each time the search binds some variables, it
+     * checks that their images belong to such sets, and that every pending domain literal using them still has some
+     * compatible range literal. Otherwise, the branch is discarded right away.
+     * <p>
+     * Only base ordinary literals and comparison built-in literals are checked. Derived ordinary literals, other
+     * built-in literals, and base ordinary literals that might be mapped to derived ones are only checked when the
+     * search reaches them.
+     */
+    FORWARD_CHECKING
+}
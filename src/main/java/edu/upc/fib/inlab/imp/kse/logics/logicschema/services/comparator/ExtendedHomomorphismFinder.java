@@ -7,7 +7,14 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
 public class ExtendedHomomorphismFinder extends HomomorphismFinder {
 
     public ExtendedHomomorphismFinder() {
-        super(new HomomorphicRulesHomomorphismCriteria());
+        this(new HomomorphismFinderOptions());
+    }
+
+    /**
+     * @param options not null
+     */
+    public ExtendedHomomorphismFinder(HomomorphismFinderOptions options) {
+        super(new HomomorphicRulesHomomorphismCriteria(), options);
     }
 
 }
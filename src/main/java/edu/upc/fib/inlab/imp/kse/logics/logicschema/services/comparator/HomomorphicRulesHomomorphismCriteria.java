@@ -2,6 +2,7 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.DerivationRule;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.OrdinaryLiteral;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.BacktrackableSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 
 import java.util.List;
@@ -18,10 +19,10 @@ public class HomomorphicRulesHomomorphismCriteria implements DerivedOrdinaryLite
         if (domainLiteral.isDerived() != rangeLiteral.isDerived()) return Optional.empty();
 
         if (domainLiteral.isPositive() != rangeLiteral.isPositive()) return Optional.empty();
-        Optional<Substitution> newSubstitution = homomorphismFinder.computeHomomorphismExtensionForTerms(currentSubstitution, domainLiteral.getAtom().getTerms(), rangeLiteral.getAtom().getTerms());
-        if (newSubstitution.isPresent()) {
+        BacktrackableSubstitution newSubstitution = new BacktrackableSubstitution(currentSubstitution);
+        if (newSubstitution.bind(domainLiteral.getAtom().getTerms(), rangeLiteral.getAtom().getTerms())) {
             boolean derivationRulesIncluded = checkDomainDerivationRulesAreIncludedInRangeDerivationRules(homomorphismFinder, domainLiteral, rangeLiteral);
-            if (derivationRulesIncluded) return newSubstitution;
+            if (derivationRulesIncluded) return Optional.of(newSubstitution.toSubstitution());
             else return Optional.empty();
         } else return Optional.empty();
     }
@@ -36,8 +37,9 @@ public class HomomorphicRulesHomomorphismCriteria implements DerivedOrdinaryLite
 
     private boolean checkDomainDerivationRuleIsIncludedInRangeDerivationRules(HomomorphismFinder homomorphismFinder, DerivationRule domainRule, List<DerivationRule> rangeRules) {
         return rangeRules.stream().anyMatch(rangeRule -> {
-            Substitution headSubstitution = new Substitution(domainRule.getHeadTerms(), rangeRule.getHeadTerms());
-            return homomorphismFinder.computeHomomorphismExtensionForLiteralsList(headSubstitution, domainRule.getBody(), rangeRule.getBody()).isPresent();
+            BacktrackableSubstitution homomorphism = new BacktrackableSubstitution();
+            return homomorphism.bind(domainRule.getHeadTerms(), rangeRule.getHeadTerms()) &&
+                    homomorphismFinder.extendHomomorphismForLiteralsList(homomorphism, domainRule.getBody(), rangeRule.getBody());
         });
     }
 }
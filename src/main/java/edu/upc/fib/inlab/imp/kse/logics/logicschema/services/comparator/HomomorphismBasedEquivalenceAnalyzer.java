@@ -1,11 +1,13 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * <p> This class is responsible for detecting whether two list of literals (or derivation rules, or logic constraints)
@@ -25,10 +27,19 @@ import java.util.Optional;
  * considered to be homomorphic if their predicate names coincide, and there is an homomorphism for their terms, but
  * both literals belongs to different schemas. In this manner, this analyser can be used to compare logic objects from
  * different schemas to check for instance, schema equivalence. </p>
+ *
+ * <p> Optionally, this class can cache a bounded number of results, so that comparing again the same pair of logic
+ * objects, or a pair differing only on the names of their variables, does not search for homomorphisms again. The
+ * cache is thread-safe, so that one analyzer can be shared by several threads. </p>
+ *
+ * <p> When the HomomorphismFinder has a limited SearchBudget, and the budget of some of its searches runs out during a
+ * comparison, the comparison returns UNKNOWN. Since each search starts with a new budget, later comparisons are not
+ * affected. </p>
  */
 public class HomomorphismBasedEquivalenceAnalyzer implements LogicEquivalenceAnalyzer {
 
     private final HomomorphismFinder homomorphismFinder;
+    private final BoundedResultCache<EquivalenceKey, Optional<Boolean>> cache;
 
     public HomomorphismBasedEquivalenceAnalyzer() {
         this(new ExtendedHomomorphismFinder());
@@ -36,6 +47,32 @@ public class HomomorphismBasedEquivalenceAnalyzer implements LogicEquivalenceAna
 
     public HomomorphismBasedEquivalenceAnalyzer(HomomorphismFinder homomorphismFinder) {
         this.homomorphismFinder = homomorphismFinder;
+        this.cache = null;
+    }
+
+    /**
+     * @param homomorphismFinder not null
+     * @param cacheSize          greater than 0, maximum number of results cached. The least recently used result is
+     *                           evicted when the cache is full.
+     */
+    public HomomorphismBasedEquivalenceAnalyzer(HomomorphismFinder homomorphismFinder, int cacheSize) {
+        if (Objects.isNull(homomorphismFinder)) throw new IllegalArgumentException("HomomorphismFinder cannot be null");
+        this.homomorphismFinder = homomorphismFinder;
+        this.cache = new BoundedResultCache<>(cacheSize);
+    }
+
+    /**
+     * @return number of comparisons whose result was found in the cache, or 0 if there is no cache
+     */
+    public long getCacheHits() {
+        return Objects.isNull(cache) ? 0 : cache.getHits();
+    }
+
+    /**
+     * @return number of comparisons whose result was not found in the cache, or 0 if there is no cache
+     */
+    public long getCacheMisses() {
+        return Objects.isNull(cache) ? 0 : cache.getMisses();
     }
 
     /**
@@ -48,10 +85,25 @@ public class HomomorphismBasedEquivalenceAnalyzer implements LogicEquivalenceAna
         if (Objects.isNull(first)) throw new IllegalArgumentException("First list of literals cannot be null");
         if (Objects.isNull(second)) throw new IllegalArgumentException("Second list of literals cannot be null");
 
-        if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
-            return Optional.of(true);
-        } else {
-            return isHomomorphismCheckComplete(first, second) ? Optional.of(false) : UNKNOWN;
+        return getCachedOrCompute(() -> EquivalenceKey.of(first, second), () -> {
+            if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
+                return Optional.of(true);
+            } else {
+                return isHomomorphismCheckComplete(first, second) ? Optional.of(false) : UNKNOWN;
+            }
+        });
+    }
+
+    /**
+     * @return the result of the equivalenceComputation, or UNKNOWN if the SearchBudget of the HomomorphismFinder runs
+     * out. In such case, the result is not cached.
+     */
+    private Optional<Boolean> getCachedOrCompute(Supplier<EquivalenceKey> key, Supplier<Optional<Boolean>> equivalenceComputation) {
+        try {
+            if (Objects.isNull(cache)) return equivalenceComputation.get();
+            return cache.getOrCompute(key.get(), equivalenceComputation);
+        } catch (SearchBudgetExceededException e) {
+            return UNKNOWN;
         }
     }
 
@@ -77,11 +129,13 @@ public class HomomorphismBasedEquivalenceAnalyzer implements LogicEquivalenceAna
     public Optional<Boolean> areEquivalent(LogicConstraint first, LogicConstraint second) {
         if (Objects.isNull(first)) throw new IllegalArgumentException("First logic constraint cannot be null");
         if (Objects.isNull(second)) throw new IllegalArgumentException("Second logic constraint cannot be null");
-        if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
-            return Optional.of(true);
-        } else {
-            return isHomomorphismCheckComplete(first.getBody(), second.getBody()) ? Optional.of(false) : UNKNOWN;
-        }
+        return getCachedOrCompute(() -> EquivalenceKey.of(first.getBody(), second.getBody()), () -> {
+            if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
+                return Optional.of(true);
+            } else {
+                return isHomomorphismCheckComplete(first.getBody(), second.getBody()) ? Optional.of(false) : UNKNOWN;
+            }
+        });
     }
 
     private boolean existHomomorphism(LogicConstraint lc1, LogicConstraint lc2) {
@@ -97,15 +151,31 @@ public class HomomorphismBasedEquivalenceAnalyzer implements LogicEquivalenceAna
     public Optional<Boolean> areEquivalent(DerivationRule first, DerivationRule second) {
         if (Objects.isNull(first)) throw new IllegalArgumentException("First derivation rule cannot be null");
         if (Objects.isNull(second)) throw new IllegalArgumentException("Second derivation rule cannot be null");
-        if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
-            return Optional.of(true);
-        } else {
-            return isHomomorphismCheckComplete(first.getBody(), second.getBody()) ? Optional.of(false) : UNKNOWN;
-        }
+        return getCachedOrCompute(() -> EquivalenceKey.of(first, second), () -> {
+            if (existHomomorphism(first, second) && existHomomorphism(second, first)) {
+                return Optional.of(true);
+            } else {
+                return isHomomorphismCheckComplete(first.getBody(), second.getBody()) ? Optional.of(false) : UNKNOWN;
+            }
+        });
     }
 
     private boolean existHomomorphism(DerivationRule dr1, DerivationRule dr2) {
         return homomorphismFinder.findHomomorphism(dr1, dr2).isPresent();
     }
 
+    /**
+     * Key of a comparison in the cache. Logic constraints are compared through their bodies, so they share the keys
+     * with the lists of literals.
+     */
+    private record EquivalenceKey(RenamingInvariantKey first, RenamingInvariantKey second) {
+        static EquivalenceKey of(List<Literal> first, List<Literal> second) {
+            return new EquivalenceKey(RenamingInvariantKey.of(first), RenamingInvariantKey.of(second));
+        }
+
+        static EquivalenceKey of(DerivationRule first, DerivationRule second) {
+            return new EquivalenceKey(RenamingInvariantKey.of(first), RenamingInvariantKey.of(second));
+        }
+    }
+
 }
\ No newline at end of file
@@ -2,13 +2,19 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.BacktrackableSubstitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudgetScope;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchListener;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.exceptions.DerivedLiteralInHomomorphismCheckException;
-import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.exceptions.SubstitutionException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -35,6 +41,36 @@ import static java.util.Objects.nonNull;
  * comparison operations.
  * {@code E.g. the finder can realize that "a < b" is homomorphic to "b > a". However, do note that the finder will
  * assert that there is no homomorphism from "P(x,x)" to "P(x, y), x=y".}</p>
+ *
+ * <p>
+ * The searches can be configured through HomomorphismFinderOptions, as described below.
+ * </p>
+ *
+ * <p>
+ * By default, the domain literals are mapped in the order they are written. A DomainLiteralsOrdering can be injected
+ * to choose the next domain literal dynamically instead. Similarly, a DomainPruning can be injected to discard the
+ * branches of the search that cannot lead to an homomorphism before reaching their dead end.
+ * </p>
+ *
+ * <p>
+ * The search of a single homomorphism can also solve acyclic domain literals in polynomial time, instead of
+ * backtracking (see AcyclicDomainSolving). By default, this is done only when their search space is large enough to
+ * pay off.
+ * </p>
+ *
+ * <p>
+ * A supplier of SearchBudgets can be injected to limit the work done by each search of the finder. Each search starts
+ * with a new budget from the supplier, which is also consumed by the searches nested in it (e.g., those done through
+ * the DerivedOrdinaryLiteralHomomorphismCriteria). Each image tried for a domain literal consumes one node of the
+ * budget, and the search throws a SearchBudgetExceededException as soon as the budget runs out. By default, the
+ * budget is unlimited.
+ * </p>
+ *
+ * <p>
+ * A SearchListener can be injected to observe the searches (e.g. to collect their SearchStatistics). The depth of a
+ * node is the number of domain literals mapped, and each check of a derived literal done through the
+ * DerivedOrdinaryLiteralHomomorphismCriteria is also notified. By default, no listener is notified.
+ * </p>
  */
 public class HomomorphismFinder {
     /*
@@ -47,16 +83,68 @@ public class HomomorphismFinder {
      * From here, we extend the initial substitution to make the body of one normal clause be contained in the body
      * of the second normal clause.
      * As expected, we say that a substitution s1 is an extension of a substitution s2 if all the mappings of s2 are contained in s1.
+     *
+     * To extend the substitution for one domain literal, we only consider those range literals that might be its image
+     * (e.g., those with the same predicate name, polarity and arity). To do so, the range literals are indexed once
+     * per search (see RangeLiteralsIndex).
+     *
+     * The substitution is extended in place (see BacktrackableSubstitution). Before trying an image for a domain literal
+     * we mark the substitution, and undo the mappings added since the mark when the branch fails. Hence, no substitution
+     * is copied during the search, but for calling the DerivedOrdinaryLiteralHomomorphismCriteria, and returning the result.
+     *
+     * The domain literals still to be mapped are kept at the end of the domain literals list, in their written order.
+     * When the next domain literal is not the first of them (i.e., FAIL_FIRST ordering), it is moved in front of them
+     * before going deeper, and moved back when backtracking.
+     *
+     * When looking for a single homomorphism, the domain literals are acyclic (and not derived), and the
+     * AcyclicDomainSolving chooses SEMI_JOINS (either explicitly, or by AUTOMATIC since the product of the candidates
+     * of each domain literal exceeds SEMI_JOINS_SEARCH_SPACE_THRESHOLD), the homomorphism is found in polynomial time
+     * with the Yannakakis algorithm instead of backtracking (see AcyclicConjunction).
+     *
+     * The search is implemented with an explicit stack (see HomomorphismIterator) rather than recursion, so that it
+     * can be suspended after each homomorphism found. Finding one homomorphism is just stopping at the first one.
+     *
+     * Each homomorphism is found once: two images of a domain literal lead to the same homomorphisms when they map its
+     * variables to the same terms (e.g., repeated range literals), so only the first of them is tried (see
+     * DistinctImagesIterator). Images mapping such variables differently lead to disjoint sets of homomorphisms.
+     *
+     * When forward checking is enabled (see ForwardChecker), each image bound to the homomorphism is validated against
+     * the pending domain literals, and it is treated as an incompatible image if some of them cannot be mapped anymore.
      */
 
+    /**
+     * Minimum number of leaves of the backtracking search tree (i.e., product of the candidates of each domain literal)
+     * from which the AUTOMATIC AcyclicDomainSolving solves acyclic domains with semi-joins.
+     */
+    static final long SEMI_JOINS_SEARCH_SPACE_THRESHOLD = 1024;
+
     private final DerivedOrdinaryLiteralHomomorphismCriteria derivedOrdinaryLiteralHomomorphismCriteria;
+    private final DomainLiteralsOrdering domainLiteralsOrdering;
+    private final DomainPruning domainPruning;
+    private final AcyclicDomainSolving acyclicDomainSolving;
+    private final SearchBudgetScope searchBudgetScope;
+    private final SearchListener searchListener;
 
     public HomomorphismFinder() {
         this(null);
     }
 
     public HomomorphismFinder(DerivedOrdinaryLiteralHomomorphismCriteria derivedOrdinaryLiteralHomomorphismCriteria) {
+        this(derivedOrdinaryLiteralHomomorphismCriteria, new HomomorphismFinderOptions());
+    }
+
+    /**
+     * @param derivedOrdinaryLiteralHomomorphismCriteria might be null, in which case derived literals are not allowed
+     * @param options                                    not null
+     */
+    public HomomorphismFinder(DerivedOrdinaryLiteralHomomorphismCriteria derivedOrdinaryLiteralHomomorphismCriteria, HomomorphismFinderOptions options) {
+        if (isNull(options)) throw new IllegalArgumentException("HomomorphismFinderOptions cannot be null");
         this.derivedOrdinaryLiteralHomomorphismCriteria = derivedOrdinaryLiteralHomomorphismCriteria;
+        this.domainLiteralsOrdering = options.domainLiteralsOrdering();
+        this.domainPruning = options.domainPruning();
+        this.acyclicDomainSolving = options.acyclicDomainSolving();
+        this.searchBudgetScope = new SearchBudgetScope(options.searchBudgetSupplier());
+        this.searchListener = options.searchListener();
     }
 
     /**
@@ -72,9 +160,12 @@ public class HomomorphismFinder {
         checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(domainRule.getBody());
         checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(rangeRule.getBody());
 
-        Optional<Substitution> homomorphism = findHomomorphismForHead(domainRule.getHead(), rangeRule.getHead());
-        if (homomorphism.isEmpty()) return Optional.empty();
-        return computeHomomorphismExtensionForLiteralsList(homomorphism.get(), domainRule.getBody(), rangeRule.getBody());
+        return notifyingSearch(() -> {
+            BacktrackableSubstitution homomorphism = new BacktrackableSubstitution();
+            if (!bindAtom(homomorphism, domainRule.getHead(), rangeRule.getHead())) return Optional.empty();
+            if (!extendHomomorphismForLiteralsList(homomorphism, domainRule.getBody(), rangeRule.getBody())) return Optional.empty();
+            return Optional.of(homomorphism.toSubstitution());
+        });
     }
 
     /**
@@ -113,7 +204,98 @@ public class HomomorphismFinder {
         checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(domainLiterals);
         checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(rangeLiterals);
 
-        return computeHomomorphismExtensionForLiteralsList(initialSubstitution, new ImmutableLiteralsList(domainLiterals), new ImmutableLiteralsList(rangeLiterals));
+        return notifyingSearch(() -> computeHomomorphismExtensionForLiteralsList(initialSubstitution, domainLiterals, new ImmutableLiteralsList(rangeLiterals)));
+    }
+
+    /**
+     * @return the result of the search, run with its own SearchBudget (unless it is nested in another search), after
+     * notifying the SearchListener the time spent in it
+     */
+    private <T> T notifyingSearch(Supplier<T> search) {
+        if (searchListener == SearchListener.NONE) return searchBudgetScope.run(search);
+        long start = System.nanoTime();
+        try {
+            return searchBudgetScope.run(search);
+        } finally {
+            searchListener.searchFinished(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Return all the homomorphisms from the domainRule terms to the rangeRule terms. The homomorphisms are computed
+     * lazily, while consuming the stream.
+     *
+     * @param domainRule not null, nor containing derived literals
+     * @param rangeRule  not null, nor containing derived literals
+     * @return a stream of the distinct homomorphisms between the two
+     */
+    public Stream<Substitution> findAllHomomorphisms(DerivationRule domainRule, DerivationRule rangeRule) {
+        if (isNull(domainRule)) throw new IllegalArgumentException("DomainRule cannot be null");
+        if (isNull(rangeRule)) throw new IllegalArgumentException("RangeRule cannot be null");
+        checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(domainRule.getBody());
+        checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(rangeRule.getBody());
+
+        BacktrackableSubstitution homomorphism = new BacktrackableSubstitution();
+        if (!bindAtom(homomorphism, domainRule.getHead(), rangeRule.getHead())) return Stream.empty();
+        return toStream(new HomomorphismIterator(homomorphism, domainRule.getBody(), new RangeLiteralsIndex(rangeRule.getBody())));
+    }
+
+    /**
+     * Return all the homomorphisms from the domainLogicConstraint terms to the rangeLogicConstraint terms. The
+     * homomorphisms are computed lazily, while consuming the stream.
+     *
+     * @param domainLogicConstraint not null, nor containing derived literals
+     * @param rangeLogicConstraint  not null, nor containing derived literals
+     * @return a stream of the distinct homomorphisms between the two
+     */
+    public Stream<Substitution> findAllHomomorphisms(LogicConstraint domainLogicConstraint, LogicConstraint rangeLogicConstraint) {
+        if (isNull(domainLogicConstraint)) throw new IllegalArgumentException("DomainLiterals cannot be null");
+        if (isNull(rangeLogicConstraint)) throw new IllegalArgumentException("RangeLiterals cannot be null");
+        return findAllHomomorphisms(domainLogicConstraint.getBody(), rangeLogicConstraint.getBody());
+    }
+
+    /**
+     * @param domainLiterals is not null, but might be empty. Does not contain derived literals
+     * @param rangeLiterals  is not null, neither contains derived literals
+     * @return a stream of the distinct substitutions that would make domainLiterals to be contained in rangeLiterals.
+     * They are computed lazily, while consuming the stream.
+     */
+    public Stream<Substitution> findAllHomomorphisms(List<Literal> domainLiterals, List<Literal> rangeLiterals) {
+        return findAllHomomorphisms(domainLiterals, rangeLiterals, new Substitution());
+    }
+
+    /**
+     * @param domainLiterals      is not null, but might be empty. Does not contain derived literals
+     * @param rangeLiterals       is not null, neither contains derived literals
+     * @param initialSubstitution is not null
+     * @return a stream of the distinct substitutions containing the given one that would make domainLiterals to be
+     * contained in rangeLiterals. They are computed lazily, while consuming the stream.
+     */
+    public Stream<Substitution> findAllHomomorphisms(List<Literal> domainLiterals, List<Literal> rangeLiterals, Substitution initialSubstitution) {
+        return toStream(iterateAllHomomorphisms(domainLiterals, rangeLiterals, initialSubstitution));
+    }
+
+    /**
+     * @param domainLiterals      is not null, but might be empty. Does not contain derived literals
+     * @param rangeLiterals       is not null, neither contains derived literals
+     * @param initialSubstitution is not null
+     * @return an iterator over the distinct substitutions containing the given one that would make domainLiterals to
+     * be contained in rangeLiterals. Each one is computed when asking for it.
+     */
+    public Iterator<Substitution> iterateAllHomomorphisms(List<Literal> domainLiterals, List<Literal> rangeLiterals, Substitution initialSubstitution) {
+        if (isNull(domainLiterals)) throw new IllegalArgumentException("DomainLiterals cannot be null");
+        if (isNull(rangeLiterals)) throw new IllegalArgumentException("RangeLiterals cannot be null");
+        if (isNull(initialSubstitution)) throw new IllegalArgumentException("InitialSubstitution cannot be null");
+        checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(domainLiterals);
+        checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(rangeLiterals);
+
+        return new HomomorphismIterator(new BacktrackableSubstitution(initialSubstitution), domainLiterals, new RangeLiteralsIndex(rangeLiterals));
+    }
+
+    private static Stream<Substitution> toStream(Iterator<Substitution> homomorphisms) {
+        Spliterator<Substitution> spliterator = Spliterators.spliteratorUnknownSize(homomorphisms,
+                                                                                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
     }
 
     public Optional<Substitution> findHomomorphismForTerms(ImmutableTermList domainTerms, ImmutableTermList rangeTerms) {
@@ -127,13 +309,9 @@ public class HomomorphismFinder {
      * @return an extension of the currentSubstitution that makes domainTerms to be equal to rangeTerms, if exists
      */
     protected Optional<Substitution> computeHomomorphismExtensionForTerms(Substitution currentSubstitution, ImmutableTermList domainTerms, ImmutableTermList rangeTerms) {
-        try {
-            Substitution homomorphismForBuiltIn = new Substitution(domainTerms, rangeTerms);
-            Substitution unionSubstitution = currentSubstitution.union(homomorphismForBuiltIn);
-            return Optional.of(unionSubstitution);
-        } catch (SubstitutionException ex) {
-            return Optional.empty();
-        }
+        BacktrackableSubstitution extension = new BacktrackableSubstitution(currentSubstitution);
+        if (!extension.bind(domainTerms, rangeTerms)) return Optional.empty();
+        return Optional.of(extension.toSubstitution());
     }
 
     /**
@@ -144,21 +322,204 @@ public class HomomorphismFinder {
      * rangeLiterals
      */
     protected Optional<Substitution> computeHomomorphismExtensionForLiteralsList(Substitution currentSubstitution, List<Literal> domainLiterals, ImmutableLiteralsList rangeLiterals) {
-        if (domainLiterals.isEmpty()) return Optional.of(currentSubstitution);
-        else {
-            Literal domainLiteral = domainLiterals.get(0);
-            List<Substitution> possibleSubstitutionsForDomainLiteral = computeAllPossibleHomomorphismsExtensions(currentSubstitution, domainLiteral, rangeLiterals);
-            for (Substitution possibleSubstitutionForDomainLiteral : possibleSubstitutionsForDomainLiteral) {
-                ImmutableLiteralsList restOfDomainLiterals = new ImmutableLiteralsList(domainLiterals.subList(1, domainLiterals.size()));
-                Optional<Substitution> homomorphism = computeHomomorphismExtensionForLiteralsList(possibleSubstitutionForDomainLiteral, restOfDomainLiterals, rangeLiterals);
-                if (homomorphism.isPresent()) return homomorphism;
+        BacktrackableSubstitution homomorphism = new BacktrackableSubstitution(currentSubstitution);
+        if (!extendHomomorphismForLiteralsList(homomorphism, domainLiterals, rangeLiterals)) return Optional.empty();
+        return Optional.of(homomorphism.toSubstitution());
+    }
+
+    /**
+     * @param homomorphism   is not null. If the method succeeds, it is extended (in place) so that domainLiterals are
+     *                       contained in rangeLiterals. Otherwise, it is left unchanged.
+     * @param domainLiterals is not null, but might be empty
+     * @param rangeLiterals  is not null
+     * @return whether the homomorphism could be extended
+     */
+    final boolean extendHomomorphismForLiteralsList(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, List<Literal> rangeLiterals) {
+        RangeLiteralsIndex rangeLiteralsIndex = new RangeLiteralsIndex(rangeLiterals);
+        if (isSolvingBySemiJoins(domainLiterals, rangeLiteralsIndex)) {
+            Optional<AcyclicConjunction> acyclicDomainLiterals = findAcyclicConjunction(homomorphism, domainLiterals, rangeLiterals);
+            if (acyclicDomainLiterals.isPresent()) {
+                return extendHomomorphismForAcyclicLiteralsList(homomorphism, domainLiterals, rangeLiteralsIndex, acyclicDomainLiterals.get());
+            }
+        }
+        return extendHomomorphismByBacktracking(homomorphism, domainLiterals, rangeLiteralsIndex);
+    }
+
+    /**
+     * @param homomorphism       is not null. If the method succeeds, it is extended (in place) so that domainLiterals
+     *                           are contained in the indexed range literals. Otherwise, it is left unchanged.
+     * @param domainLiterals     is not null, but might be empty
+     * @param rangeLiteralsIndex is not null
+     * @return whether the homomorphism could be extended
+     */
+    boolean extendHomomorphismByBacktracking(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+        return extendHomomorphismForLiteralsList(homomorphism, domainLiterals, rangeLiteralsIndex, 0, () -> false);
+    }
+
+    /**
+     * @param domainLiterals     is not null
+     * @param rangeLiteralsIndex is not null
+     * @return whether the AcyclicDomainSolving chooses to solve the domainLiterals with semi-joins, if they are acyclic
+     */
+    private boolean isSolvingBySemiJoins(List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+        return switch (acyclicDomainSolving) {
+            case BACKTRACKING -> false;
+            case SEMI_JOINS -> true;
+            case AUTOMATIC -> exceedsSemiJoinsSearchSpaceThreshold(domainLiterals, rangeLiteralsIndex);
+        };
+    }
+
+    private static boolean exceedsSemiJoinsSearchSpaceThreshold(List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+        long searchSpace = 1;
+        for (Literal domainLiteral : domainLiterals) {
+            searchSpace *= rangeLiteralsIndex.getCandidates(domainLiteral).size();
+            if (searchSpace > SEMI_JOINS_SEARCH_SPACE_THRESHOLD) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param homomorphism   is not null
+     * @param domainLiterals is not null
+     * @param rangeLiterals  is not null
+     * @return the conjunction of the domainLiterals, considering only the variables not bound by the homomorphism, if
+     * it is acyclic and no literal is derived
+     */
+    private static Optional<AcyclicConjunction> findAcyclicConjunction(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, List<Literal> rangeLiterals) {
+        if (containsDerivedOrdinaryLiteral(domainLiterals) || containsDerivedOrdinaryLiteral(rangeLiterals)) return Optional.empty();
+        List<List<Variable>> unboundVariables = domainLiterals.stream()
+                .map(domainLiteral -> domainLiteral.getTerms().stream()
+                        .filter(Variable.class::isInstance)
+                        .map(Variable.class::cast)
+                        .filter(variable -> !homomorphism.isBound(variable))
+                        .toList())
+                .toList();
+        return AcyclicConjunction.of(unboundVariables);
+    }
+
+    private static boolean containsDerivedOrdinaryLiteral(List<Literal> literals) {
+        return literals.stream()
+                .anyMatch(literal -> literal instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isDerived());
+    }
+
+    /**
+     * Extends the homomorphism by means of the Yannakakis algorithm (see AcyclicConjunction), where the tuples of each
+     * domain literal are given by its possible images.
+     *
+     * @param homomorphism         is not null. If the method succeeds, it is extended (in place) so that
+     *                             domainLiterals are contained in the indexed range literals. Otherwise, it is left
+     *                             unchanged.
+     * @param domainLiterals       is not null, nor contains derived literals
+     * @param rangeLiteralsIndex   is not null
+     * @param acyclicDomainLiterals is the acyclic conjunction of the domainLiterals
+     * @return whether the homomorphism could be extended
+     */
+    private boolean extendHomomorphismForAcyclicLiteralsList(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex, AcyclicConjunction acyclicDomainLiterals) {
+        SearchBudget searchBudget = searchBudgetScope.currentOrNew();
+        List<Set<List<Term>>> literalsTuples = new ArrayList<>(domainLiterals.size());
+        for (int i = 0; i < domainLiterals.size(); ++i) {
+            searchBudget.consume();
+            searchListener.nodeExpanded(i + 1);
+            List<Variable> variables = acyclicDomainLiterals.getVariables(i);
+            Set<List<Term>> literalTuples = new LinkedHashSet<>();
+            List<LiteralImage> images = computeAllPossibleImages(homomorphism, domainLiterals.get(i), rangeLiteralsIndex);
+            searchListener.candidatesGenerated(domainLiterals.get(i), images.size());
+            for (LiteralImage image : images) {
+                List<Term> tuple = new ArrayList<>(variables.size());
+                for (Variable variable : variables) tuple.add(image.getImage(variable));
+                literalTuples.add(tuple);
+            }
+            literalsTuples.add(literalTuples);
+        }
+
+        Optional<Map<Variable, Term>> solution = acyclicDomainLiterals.findSolution(literalsTuples);
+        solution.ifPresent(images -> images.forEach(homomorphism::bind));
+        return solution.isPresent();
+    }
+
+    /**
+     * @param homomorphism         is not null. If the method succeeds, it is extended (in place) so that
+     *                             domainLiterals are contained in the indexed range literals. Otherwise, it is left
+     *                             unchanged.
+     * @param domainLiterals       is not null, but might be empty
+     * @param rangeLiteralsIndex   is not null
+     * @param mappedDomainLiterals number of domain literals already mapped by the homomorphism (e.g., by a
+     *                             PartialHomomorphism), so that the depth notified to the SearchListener is the one in
+     *                             the whole search
+     * @param stopRequested        is not null. It is checked during the search, which gives up as soon as it is true.
+     * @return whether the homomorphism could be extended before stopping the search
+     */
+    final boolean extendHomomorphismForLiteralsList(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex, int mappedDomainLiterals, BooleanSupplier stopRequested) {
+        return new HomomorphismIterator(homomorphism, domainLiterals, rangeLiteralsIndex, domainLiterals.size(), mappedDomainLiterals, stopRequested).advance();
+    }
+
+    /**
+     * Computes the partial homomorphisms mapping the first depth domain literals (in the order given by the
+     * DomainLiteralsOrdering) into the range literals. Each of them is the root of a subtree of the search that can be
+     * explored independently of the others.
+     *
+     * @param homomorphism       is not null. It is left unchanged.
+     * @param domainLiterals     is not null, but might be empty
+     * @param rangeLiteralsIndex is not null
+     * @param depth              number of domain literals to map, if there are enough
+     * @return the partial homomorphisms, in the order they would be explored by the sequential search
+     */
+    final List<PartialHomomorphism> computePartialHomomorphisms(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex, int depth) {
+        List<PartialHomomorphism> result = new ArrayList<>();
+        HomomorphismIterator iterator = new HomomorphismIterator(homomorphism, domainLiterals, rangeLiteralsIndex, depth, 0, () -> false);
+        while (iterator.advance()) {
+            List<Literal> pendingDomainLiterals = List.copyOf(iterator.getPendingDomainLiterals());
+            result.add(new PartialHomomorphism(homomorphism.toSubstitution(), domainLiterals.size() - pendingDomainLiterals.size(), pendingDomainLiterals));
+        }
+        return result;
+    }
+
+    /**
+     * @return the SearchBudget of the search running in the current thread or, if there is none, the one of a new search
+     */
+    final SearchBudget currentSearchBudget() {
+        return searchBudgetScope.currentOrNew();
+    }
+
+    /**
+     * @param searchBudget not null
+     * @param search       not null
+     * @return the result of the search, run as part of the search with the given SearchBudget
+     */
+    final <T> T runWith(SearchBudget searchBudget, Supplier<T> search) {
+        return searchBudgetScope.runWith(searchBudget, search);
+    }
+
+    /**
+     * @param homomorphism       is not null
+     * @param domainLiterals     is not null
+     * @param domainLiteralIndex index of the first domain literal that is not yet mapped by the homomorphism
+     * @param rangeLiteralsIndex is not null
+     * @return the position of the domain literal with the fewest possible images (see FAIL_FIRST ordering), together
+     * with such images
+     */
+    private DomainLiteralChoice chooseMostConstrainedDomainLiteral(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, int domainLiteralIndex, RangeLiteralsIndex rangeLiteralsIndex) {
+        DomainLiteralChoice bestChoice = null;
+        int bestChoiceUnboundVariables = 0;
+        for (int position = domainLiteralIndex; position < domainLiterals.size(); ++position) {
+            Literal domainLiteral = domainLiterals.get(position);
+            List<LiteralImage> possibleImages = computeAllPossibleImages(homomorphism, domainLiteral, rangeLiteralsIndex);
+            if (possibleImages.isEmpty()) return new DomainLiteralChoice(position, possibleImages);
+
+            int unboundVariables = countUnboundVariables(homomorphism, domainLiteral);
+            if (isNull(bestChoice) || possibleImages.size() < bestChoice.possibleImages().size() ||
+                    (possibleImages.size() == bestChoice.possibleImages().size() && unboundVariables < bestChoiceUnboundVariables)) {
+                bestChoice = new DomainLiteralChoice(position, possibleImages);
+                bestChoiceUnboundVariables = unboundVariables;
             }
-            return Optional.empty();
         }
+        return bestChoice;
     }
 
-    private Optional<Substitution> findHomomorphismForHead(Atom domainHead, Atom rangeHead) {
-        return computeHomomorphismExtensionForAtom(new Substitution(), domainHead, rangeHead);
+    private static int countUnboundVariables(BacktrackableSubstitution homomorphism, Literal domainLiteral) {
+        return (int) domainLiteral.getUsedVariables().stream()
+                .filter(variable -> !homomorphism.isBound(variable))
+                .count();
     }
 
     /**
@@ -175,6 +536,11 @@ public class HomomorphismFinder {
         return computeHomomorphismExtensionForTerms(currentSubstitution, domainAtom.getTerms(), rangeAtom.getTerms());
     }
 
+    private static boolean bindAtom(BacktrackableSubstitution homomorphism, Atom domainAtom, Atom rangeAtom) {
+        if (!domainAtom.getPredicateName().equals(rangeAtom.getPredicateName())) return false;
+        return homomorphism.bind(domainAtom.getTerms(), rangeAtom.getTerms());
+    }
+
     private void checkIfExistDerivedOrdinaryLiteralWithoutDerivedLiteralCriteria(List<Literal> literals) {
         if (nonNull(derivedOrdinaryLiteralHomomorphismCriteria)) return;
         if (literals.stream()
@@ -184,43 +550,51 @@ public class HomomorphismFinder {
     }
 
     /**
-     * It is a list because built-in literals might generate several homomorphism. E.g. "a = b" and "x = y" generates
-     * the homomorphisms "{a->x, b->y}" and "{a->y, b->x}".
+     * @param homomorphism       is not null. It is left unchanged.
+     * @param domainLiteral      is not null
+     * @param rangeLiteralsIndex is not null
+     * @return the images of domainLiteral, among the indexed range literals, that are compatible with the
+     * homomorphism
+     */
+    private List<LiteralImage> computeAllPossibleImages(BacktrackableSubstitution homomorphism, Literal domainLiteral, RangeLiteralsIndex rangeLiteralsIndex) {
+        List<LiteralImage> allPossibleImages = new ArrayList<>();
+        for (Literal rangeLiteral : rangeLiteralsIndex.getCandidates(domainLiteral)) {
+            addPossibleImages(allPossibleImages, homomorphism, domainLiteral, rangeLiteral);
+        }
+        return allPossibleImages;
+    }
+
+    /**
+     * There might be several images because built-in literals might generate several homomorphism. E.g. "a = b" and
+     * "x = y" generates the homomorphisms "{a->x, b->y}" and "{a->y, b->x}".
      *
-     * @param currentSubstitution is not null
-     * @param domainLiteral       is not null
-     * @param rangeLiteral        is not null
-     * @return a list of extension of the currentSubstitution that makes domainLiteral to be equal to rangeLiteral, if
-     * exists
+     * @param result        list where to add the images of domainLiteral into rangeLiteral compatible with the
+     *                      homomorphism
+     * @param homomorphism  is not null. It is left unchanged.
+     * @param domainLiteral is not null
+     * @param rangeLiteral  is not null
      */
-    private List<Substitution> computeHomomorphismExtensionForLiteral(Substitution currentSubstitution, Literal domainLiteral, Literal rangeLiteral) {
-        List<Substitution> result = new LinkedList<>();
+    private void addPossibleImages(List<LiteralImage> result, BacktrackableSubstitution homomorphism, Literal domainLiteral, Literal rangeLiteral) {
         if (domainLiteral instanceof OrdinaryLiteral domainOrdinaryLiteral) {
             if (rangeLiteral instanceof OrdinaryLiteral rangeOrdinaryLiteral) {
-                Optional<Substitution> substitution = computeHomomorphismExtensionForOrdinaryLiteral(currentSubstitution, domainOrdinaryLiteral, rangeOrdinaryLiteral);
-                substitution.ifPresent(result::add);
+                addPossibleImagesForOrdinaryLiteral(result, homomorphism, domainOrdinaryLiteral, rangeOrdinaryLiteral);
             }
         } else if (domainLiteral instanceof BuiltInLiteral domainBuiltInLiteral) {
             if (rangeLiteral instanceof BuiltInLiteral rangeBuiltInLiteral) {
-                result.addAll(computeHomomorphismExtensionForBuiltInLiteral(currentSubstitution, domainBuiltInLiteral, rangeBuiltInLiteral));
+                addPossibleImagesForBuiltInLiteral(result, homomorphism, domainBuiltInLiteral, rangeBuiltInLiteral);
             }
         } else throw new IMPLogicsException("Unrecognized literal " + domainLiteral.getClass().getName());
-        return result;
     }
 
-    /**
-     * @param currentSubstitution is not null
-     * @param domainLiteral       is not null
-     * @param rangeLiterals       is not null
-     * @return a list of extensions of the currentSubstitution that makes domainLiteral to be included in rangeLiterals
-     */
-    private List<Substitution> computeAllPossibleHomomorphismsExtensions(Substitution currentSubstitution, Literal domainLiteral, ImmutableLiteralsList rangeLiterals) {
-        List<Substitution> allPossibleHomomorphisms = new LinkedList<>();
-        for (Literal rangeLiteral : rangeLiterals) {
-            List<Substitution> homomorphisms = computeHomomorphismExtensionForLiteral(currentSubstitution, domainLiteral, rangeLiteral);
-            allPossibleHomomorphisms.addAll(homomorphisms);
+    private void addPossibleImagesForOrdinaryLiteral(List<LiteralImage> result, BacktrackableSubstitution homomorphism, OrdinaryLiteral domainLiteral, OrdinaryLiteral rangeLiteral) {
+        if (domainLiteral.isBase() && rangeLiteral.isBase()) {
+            if (domainLiteral.isPositive() != rangeLiteral.isPositive()) return;
+            if (!domainLiteral.getPredicateName().equals(rangeLiteral.getPredicateName())) return;
+            addPossibleTermsImage(result, homomorphism, domainLiteral.getTerms(), rangeLiteral.getTerms());
+        } else {
+            computeHomomorphismExtensionForOrdinaryLiteral(homomorphism.toSubstitution(), domainLiteral, rangeLiteral)
+                    .ifPresent(extension -> result.add(new SubstitutionImage(extension)));
         }
-        return allPossibleHomomorphisms;
     }
 
     /**
@@ -236,51 +610,421 @@ public class HomomorphismFinder {
         } else {
             if (isNull(derivedOrdinaryLiteralHomomorphismCriteria))
                 throw new DerivedLiteralInHomomorphismCheckException();
-            return derivedOrdinaryLiteralHomomorphismCriteria
+            Optional<Substitution> extension = derivedOrdinaryLiteralHomomorphismCriteria
                     .computeHomomorphismExtensionForDerivedOrdinaryLiteral(this, currentSubstitution, domainLiteral, rangeLiteral);
+            searchListener.derivedLiteralChecked(domainLiteral, rangeLiteral, extension.isPresent());
+            return extension;
         }
     }
 
     /**
-     * @param currentSubstitution  is not null
-     * @param domainBuiltInLiteral is not null
-     * @param rangeBuiltInLiteral  is not null
-     * @return an extension of the currentSubstitution that makes domainBuiltInLiteral to be equal to
-     * rangeBuiltInLiteral, or its symmetric, if exists (e.g. "a < 1" is not homomorphic to "1 > b", but, it is with the
-     * symmetric "b < 1")
+     * Adds the images that make domainBuiltInLiteral to be equal to rangeBuiltInLiteral, or its symmetric, if they
+     * exist (e.g. "a < 1" is not homomorphic to "1 > b", but, it is with the symmetric "b < 1")
+     * <p>
+     * The symmetric built-in literal of a built-in literals "a < b" is "b > a". Similarly, we would define the
+     * symmetric built-in literal for the built-in literals using the comparison operators =, <, <=, >=, >, <>
      */
-    private List<Substitution> computeHomomorphismExtensionForBuiltInLiteral(Substitution currentSubstitution, BuiltInLiteral domainBuiltInLiteral, BuiltInLiteral rangeBuiltInLiteral) {
-        List<Substitution> result = new LinkedList<>();
+    private static void addPossibleImagesForBuiltInLiteral(List<LiteralImage> result, BacktrackableSubstitution homomorphism, BuiltInLiteral domainBuiltInLiteral, BuiltInLiteral rangeBuiltInLiteral) {
         if (domainBuiltInLiteral.getOperationName().equals(rangeBuiltInLiteral.getOperationName())) {
-            Optional<Substitution> substitution = computeHomomorphismExtensionForTerms(currentSubstitution, domainBuiltInLiteral.getTerms(), rangeBuiltInLiteral.getTerms());
-            substitution.ifPresent(result::add);
+            addPossibleTermsImage(result, homomorphism, domainBuiltInLiteral.getTerms(), rangeBuiltInLiteral.getTerms());
         }
         if (domainBuiltInLiteral instanceof ComparisonBuiltInLiteral domainComparison &&
-                rangeBuiltInLiteral instanceof ComparisonBuiltInLiteral rangeComparison) {
-            Optional<Substitution> substitution = computeHomomorphismExtensionForSymmetricBuiltInLiteral(currentSubstitution, domainComparison, rangeComparison);
-            substitution.ifPresent(result::add);
+                rangeBuiltInLiteral instanceof ComparisonBuiltInLiteral rangeComparison &&
+                domainComparison.getOperator().isSymmetric(rangeComparison.getOperator())) {
+            ImmutableTermList reversedRangeTerms = new ImmutableTermList(rangeComparison.getRightTerm(), rangeComparison.getLeftTerm());
+            addPossibleTermsImage(result, homomorphism, domainComparison.getTerms(), reversedRangeTerms);
         }
-        return result;
+    }
+
+    private static void addPossibleTermsImage(List<LiteralImage> result, BacktrackableSubstitution homomorphism, List<Term> domainTerms, List<Term> rangeTerms) {
+        int mark = homomorphism.mark();
+        if (homomorphism.bind(domainTerms, rangeTerms)) {
+            homomorphism.undoTo(mark);
+            result.add(new TermsImage(domainTerms, rangeTerms));
+        }
+    }
+
+    private record DomainLiteralChoice(int position, List<LiteralImage> possibleImages) {
     }
 
     /**
-     * The symmetric built-in literal of a built-in literals "a < b" is "b > a". Similarly, we would define the
-     * symmetric built-in literal for the built-in literals using the comparison operators =, <, <=, >=, >, <>
+     * @param substitution          maps some domain literals into the range literals
+     * @param mappedDomainLiterals  number of domain literals mapped by the substitution
+     * @param pendingDomainLiterals domain literals not mapped yet by the substitution
+     */
+    record PartialHomomorphism(Substitution substitution, int mappedDomainLiterals, List<Literal> pendingDomainLiterals) {
+    }
+
+    /**
+     * Search state for one domain literal that is being mapped.
      *
-     * @param currentSubstitution is not null
-     * @param domainComparison    is not null
-     * @param rangeComparison     is not null
-     * @return an extension of the currentSubstitution that makes domainComparison to be equal to the symmetric
-     * rangeComparison, if it exists
-     */
-    private Optional<Substitution> computeHomomorphismExtensionForSymmetricBuiltInLiteral(Substitution currentSubstitution, ComparisonBuiltInLiteral domainComparison, ComparisonBuiltInLiteral rangeComparison) {
-        ComparisonOperator domainOperator = domainComparison.getOperator();
-        ComparisonOperator rangeOperator = rangeComparison.getOperator();
-        if (domainOperator.isSymmetric(rangeOperator)) {
-            ImmutableTermList reversedRangeTerms = new ImmutableTermList(rangeComparison.getRightTerm(), rangeComparison.getLeftTerm());
-            return computeHomomorphismExtensionForTerms(currentSubstitution, domainComparison.getTerms(), reversedRangeTerms);
-        } else return Optional.empty();
+     * @param domainLiteralIndex number of domain literals mapped before this one
+     * @param position           position, in the list of domain literals, where the domain literal was before
+     *                           moving it to domainLiteralIndex
+     * @param mark               mark of the homomorphism before mapping the domain literal
+     * @param possibleImages     images of the domain literal not tried yet
+     */
+    private record SearchFrame(int domainLiteralIndex, int position, int mark, Iterator<LiteralImage> possibleImages) {
     }
 
+    /**
+     * Backtracking search of homomorphisms. The recursion is replaced by an explicit stack of SearchFrames so that the
+     * search can be suspended each time it finds a homomorphism, and resumed on demand.
+     * <p>
+     * When the search finds a homomorphism, it is kept in the BacktrackableSubstitution until resuming the search. Once
+     * the search is exhausted, or stopped, the BacktrackableSubstitution is left as it was at the beginning.
+     * <p>
+     * The search can be limited to a given depth, in which case it finds the partial homomorphisms mapping only that
+     * number of domain literals.
+     */
+    private class HomomorphismIterator implements Iterator<Substitution> {
+        private final BacktrackableSubstitution homomorphism;
+        private final List<Literal> domainLiterals;
+        private final RangeLiteralsIndex rangeLiteralsIndex;
+        private final int depth;
+        private final int depthOffset;
+        private final BooleanSupplier stopRequested;
+        private final ForwardChecker forwardChecker;
+        private final SearchBudget searchBudget;
+        private final Deque<SearchFrame> frames = new ArrayDeque<>();
+        private boolean started = false;
+        private Substitution nextHomomorphism;
+
+        HomomorphismIterator(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+            this(homomorphism, domainLiterals, rangeLiteralsIndex, domainLiterals.size(), 0, () -> false);
+        }
 
+        /**
+         * @param depth       number of domain literals to map, if there are enough
+         * @param depthOffset number of domain literals mapped before this search, added to the depth notified to the
+         *                    SearchListener
+         */
+        HomomorphismIterator(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex, int depth, int depthOffset, BooleanSupplier stopRequested) {
+            this.homomorphism = homomorphism;
+            this.domainLiterals = new ArrayList<>(domainLiterals);
+            this.rangeLiteralsIndex = rangeLiteralsIndex;
+            this.depth = Math.min(depth, domainLiterals.size());
+            this.depthOffset = depthOffset;
+            this.stopRequested = stopRequested;
+            this.forwardChecker = domainPruning == DomainPruning.FORWARD_CHECKING ?
+                    new ForwardChecker(domainLiterals, rangeLiteralsIndex) : null;
+            this.searchBudget = searchBudgetScope.currentOrNew();
+        }
+
+        /**
+         * @return the domain literals not mapped by the homomorphism found in the last call to advance
+         */
+        List<Literal> getPendingDomainLiterals() {
+            return domainLiterals.subList(frames.size(), domainLiterals.size());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (isNull(nextHomomorphism) && advance()) nextHomomorphism = homomorphism.toSubstitution();
+            return nonNull(nextHomomorphism);
+        }
+
+        @Override
+        public Substitution next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Substitution result = nextHomomorphism;
+            nextHomomorphism = null;
+            return result;
+        }
+
+        /**
+         * @return whether the search has reached a new homomorphism, which is kept in the BacktrackableSubstitution
+         */
+        boolean advance() {
+            return searchBudgetScope.runWith(searchBudget, this::search);
+        }
+
+        private boolean search() {
+            if (!started) {
+                started = true;
+                if (nonNull(forwardChecker) && !forwardChecker.isConsistent(homomorphism)) return false;
+                if (depth == 0) return true;
+                frames.push(createFrame(0));
+            }
+
+            while (!frames.isEmpty()) {
+                if (stopRequested.getAsBoolean()) {
+                    stop();
+                    return false;
+                }
+                SearchFrame frame = frames.peek();
+                homomorphism.undoTo(frame.mark());
+                if (frame.possibleImages().hasNext()) {
+                    consumeSearchBudget();
+                    searchListener.nodeExpanded(depthOffset + frame.domainLiteralIndex() + 1);
+                    LiteralImage possibleImage = frame.possibleImages().next();
+                    if (possibleImage.bindTo(homomorphism)) {
+                        int mappedDomainLiterals = frame.domainLiteralIndex() + 1;
+                        if (nonNull(forwardChecker) && !forwardChecker.isConsistent(homomorphism, frame.mark())) continue;
+                        if (mappedDomainLiterals == depth) return true;
+                        frames.push(createFrame(mappedDomainLiterals));
+                    }
+                } else {
+                    searchListener.backtracked(depthOffset + frame.domainLiteralIndex());
+                    popFrame();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Consumes one node of the SearchBudget. If it has run out, the search is stopped before throwing the
+         * exception, so that the BacktrackableSubstitution is left as it was at the beginning.
+         */
+        private void consumeSearchBudget() {
+            try {
+                searchBudget.consume();
+            } catch (SearchBudgetExceededException e) {
+                stop();
+                throw e;
+            }
+        }
+
+        private void stop() {
+            while (!frames.isEmpty()) {
+                homomorphism.undoTo(frames.peek().mark());
+                popFrame();
+            }
+        }
+
+        private void popFrame() {
+            SearchFrame frame = frames.pop();
+            Collections.rotate(domainLiterals.subList(frame.domainLiteralIndex(), frame.position() + 1), -1);
+        }
+
+        private SearchFrame createFrame(int domainLiteralIndex) {
+            int mark = homomorphism.mark();
+            if (domainLiteralsOrdering == DomainLiteralsOrdering.AS_WRITTEN) {
+                Literal domainLiteral = domainLiterals.get(domainLiteralIndex);
+                if (searchListener != SearchListener.NONE) {
+                    searchListener.candidatesGenerated(domainLiteral, rangeLiteralsIndex.getCandidates(domainLiteral).size());
+                }
+                return new SearchFrame(domainLiteralIndex, domainLiteralIndex, mark,
+                                       new DistinctImagesIterator(domainLiteral, new PossibleImagesIterator(domainLiteral)));
+            }
+
+            DomainLiteralChoice choice = chooseMostConstrainedDomainLiteral(homomorphism, domainLiterals, domainLiteralIndex, rangeLiteralsIndex);
+            Collections.rotate(domainLiterals.subList(domainLiteralIndex, choice.position() + 1), 1);
+            Literal domainLiteral = domainLiterals.get(domainLiteralIndex);
+            searchListener.candidatesGenerated(domainLiteral, choice.possibleImages().size());
+            return new SearchFrame(domainLiteralIndex, choice.position(), mark,
+                                   new DistinctImagesIterator(domainLiteral, choice.possibleImages().iterator()));
+        }
+
+        /**
+         * Iterator skipping the images of a domain literal that map its variables to the same terms as a previous one.
+         * It only remembers the images of a single domain literal, so the memory used does not grow with the number
+         * of homomorphisms found.
+         */
+        private class DistinctImagesIterator implements Iterator<LiteralImage> {
+            private final List<Variable> variables;
+            private final Iterator<LiteralImage> images;
+            private final Set<List<Term>> triedVariableImages = new HashSet<>();
+            private LiteralImage nextImage;
+
+            DistinctImagesIterator(Literal domainLiteral, Iterator<LiteralImage> images) {
+                this.variables = List.copyOf(domainLiteral.getUsedVariables());
+                this.images = images;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (isNull(nextImage) && images.hasNext()) {
+                    LiteralImage image = images.next();
+                    List<Term> variableImages = new ArrayList<>(variables.size());
+                    for (Variable variable : variables) variableImages.add(image.getImage(variable));
+                    if (triedVariableImages.add(variableImages)) nextImage = image;
+                }
+                return nonNull(nextImage);
+            }
+
+            @Override
+            public LiteralImage next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                LiteralImage result = nextImage;
+                nextImage = null;
+                return result;
+            }
+        }
+
+        /**
+         * Iterator computing the possible images of a domain literal one range literal at a time.
+         */
+        private class PossibleImagesIterator implements Iterator<LiteralImage> {
+            private final Literal domainLiteral;
+            private final Iterator<Literal> rangeLiterals;
+            private Iterator<LiteralImage> pendingImages = Collections.emptyIterator();
+
+            PossibleImagesIterator(Literal domainLiteral) {
+                this.domainLiteral = domainLiteral;
+                this.rangeLiterals = rangeLiteralsIndex.getCandidates(domainLiteral).iterator();
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (!pendingImages.hasNext() && rangeLiterals.hasNext()) {
+                    List<LiteralImage> images = new ArrayList<>(2);
+                    addPossibleImages(images, homomorphism, domainLiteral, rangeLiterals.next());
+                    pendingImages = images.iterator();
+                }
+                return pendingImages.hasNext();
+            }
+
+            @Override
+            public LiteralImage next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return pendingImages.next();
+            }
+        }
+    }
+
+    /**
+     * Forward checking of a search (see DomainPruning.FORWARD_CHECKING).
+     * <p>
+     * The checked domain literals are those whose images can be computed without a
+     * DerivedOrdinaryLiteralHomomorphismCriteria: base ordinary literals without derived candidates, and comparison
+     * built-in literals. The domain of a variable is the intersection, for each checked domain literal using it, of the
+     * terms it is mapped to by some image of such domain literal. Variables not used by checked literals have no
+     * domain.
+     * <p>
+     * A domain literal is mapped once all its variables are bound. Hence, the checked literals using a variable that
+     * has just been bound are always pending ones.
+     */
+    private class ForwardChecker {
+        private final RangeLiteralsIndex rangeLiteralsIndex;
+        private final Map<Variable, List<Literal>> checkedLiteralsByVariable = new HashMap<>();
+        private final Map<Variable, Set<Term>> variableDomains = new HashMap<>();
+
+        ForwardChecker(List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+            this.rangeLiteralsIndex = rangeLiteralsIndex;
+            for (Literal domainLiteral : domainLiterals) {
+                if (isChecked(domainLiteral)) {
+                    Set<Variable> variables = domainLiteral.getUsedVariables();
+                    variables.forEach(variable -> checkedLiteralsByVariable.computeIfAbsent(variable, v -> new ArrayList<>()).add(domainLiteral));
+                    restrictVariableDomains(domainLiteral, variables);
+                }
+            }
+        }
+
+        private boolean isChecked(Literal domainLiteral) {
+            if (domainLiteral instanceof ComparisonBuiltInLiteral) return true;
+            if (domainLiteral instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isBase()) {
+                return rangeLiteralsIndex.getCandidates(ordinaryLiteral).stream()
+                        .allMatch(candidate -> candidate instanceof OrdinaryLiteral ordinaryCandidate && ordinaryCandidate.isBase());
+            }
+            return false;
+        }
+
+        /**
+         * Intersects the domain of each variable of the domainLiteral with the terms it is mapped to by the images of
+         * the domainLiteral. Images are computed from an empty substitution, so that domains do not depend on the
+         * bindings of the current search.
+         */
+        private void restrictVariableDomains(Literal domainLiteral, Set<Variable> variables) {
+            BacktrackableSubstitution emptySubstitution = new BacktrackableSubstitution();
+            Map<Variable, Set<Term>> literalDomains = new HashMap<>();
+            for (Variable variable : variables) {
+                literalDomains.put(variable, new HashSet<>());
+            }
+            for (LiteralImage image : computeAllPossibleImages(emptySubstitution, domainLiteral, rangeLiteralsIndex)) {
+                image.bindTo(emptySubstitution);
+                literalDomains.forEach((variable, domain) -> emptySubstitution.getTerm(variable).ifPresent(domain::add));
+                emptySubstitution.undoTo(0);
+            }
+            literalDomains.forEach((variable, domain) -> variableDomains.merge(variable, domain, (current, other) -> {
+                current.retainAll(other);
+                return current;
+            }));
+        }
+
+        /**
+         * @param homomorphism is not null, and does not map any domain literal yet. It is left unchanged.
+         * @return whether no variable domain is empty, and all the variables bound by the homomorphism are consistent
+         * with the domain literals
+         */
+        boolean isConsistent(BacktrackableSubstitution homomorphism) {
+            if (variableDomains.values().stream().anyMatch(Set::isEmpty)) return false;
+            return isConsistent(homomorphism, 0);
+        }
+
+        /**
+         * @param homomorphism is not null. It is left unchanged.
+         * @param mark         mark of the homomorphism before binding the last image
+         * @return whether the variables bound since the mark have an image in their domains, and every checked domain
+         * literal using them still has some image compatible with the homomorphism
+         */
+        boolean isConsistent(BacktrackableSubstitution homomorphism, int mark) {
+            List<Variable> boundVariables = homomorphism.getVariablesBoundSince(mark);
+            for (Variable variable : boundVariables) {
+                Set<Term> domain = variableDomains.get(variable);
+                if (nonNull(domain) && !domain.contains(homomorphism.getTerm(variable).orElseThrow())) return false;
+            }
+            Set<Literal> affectedDomainLiterals = new HashSet<>();
+            for (Variable variable : boundVariables) {
+                for (Literal domainLiteral : checkedLiteralsByVariable.getOrDefault(variable, List.of())) {
+                    if (affectedDomainLiterals.add(domainLiteral) && !hasSomePossibleImage(homomorphism, domainLiteral)) return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasSomePossibleImage(BacktrackableSubstitution homomorphism, Literal domainLiteral) {
+            List<LiteralImage> possibleImages = new ArrayList<>(2);
+            for (Literal rangeLiteral : rangeLiteralsIndex.getCandidates(domainLiteral)) {
+                addPossibleImages(possibleImages, homomorphism, domainLiteral, rangeLiteral);
+                if (!possibleImages.isEmpty()) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Image of a domain literal into some range literal, that can be bound to the homomorphism under construction.
+     */
+    private interface LiteralImage {
+        /**
+         * @param homomorphism is not null
+         * @return whether the homomorphism could be extended (in place) with this image
+         */
+        boolean bindTo(BacktrackableSubstitution homomorphism);
+
+        /**
+         * @param variable is not null
+         * @return the term this image maps the variable to, or null if the variable is not mapped by this image
+         */
+        Term getImage(Variable variable);
+    }
+
+    private record TermsImage(List<Term> domainTerms, List<Term> rangeTerms) implements LiteralImage {
+        @Override
+        public boolean bindTo(BacktrackableSubstitution homomorphism) {
+            return homomorphism.bind(domainTerms, rangeTerms);
+        }
+
+        @Override
+        public Term getImage(Variable variable) {
+            int position = domainTerms.indexOf(variable);
+            return position < 0 ? null : rangeTerms.get(position);
+        }
+    }
+
+    /**
+     * Image computed by a DerivedOrdinaryLiteralHomomorphismCriteria, given as an extension of the homomorphism.
+     */
+    private record SubstitutionImage(Substitution extension) implements LiteralImage {
+        @Override
+        public boolean bindTo(BacktrackableSubstitution homomorphism) {
+            return homomorphism.bind(extension);
+        }
+
+        @Override
+        public Term getImage(Variable variable) {
+            return extension.getTerm(variable).orElse(null);
+        }
+    }
 }
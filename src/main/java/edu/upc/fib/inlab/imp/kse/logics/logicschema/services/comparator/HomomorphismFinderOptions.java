@@ -0,0 +1,61 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchListener;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Options of the searches done by a HomomorphismFinder (or any of its subclasses).
+ *
+ * @param domainLiteralsOrdering not null, order in which the domain literals are mapped
+ * @param domainPruning          not null, how the branches of the search that cannot lead to an homomorphism are
+ *                               discarded
+ * @param acyclicDomainSolving   not null, how acyclic domain literals are solved
+ * @param searchBudgetSupplier   not null, gives the budget of each search of the finder
+ * @param searchListener         not null, listener notified by all the searches of the finder
+ */
+public record HomomorphismFinderOptions(DomainLiteralsOrdering domainLiteralsOrdering,
+                                        DomainPruning domainPruning,
+                                        AcyclicDomainSolving acyclicDomainSolving,
+                                        Supplier<SearchBudget> searchBudgetSupplier,
+                                        SearchListener searchListener) {
+
+    public HomomorphismFinderOptions {
+        if (isNull(domainLiteralsOrdering)) throw new IllegalArgumentException("DomainLiteralsOrdering cannot be null");
+        if (isNull(domainPruning)) throw new IllegalArgumentException("DomainPruning cannot be null");
+        if (isNull(acyclicDomainSolving)) throw new IllegalArgumentException("AcyclicDomainSolving cannot be null");
+        if (isNull(searchBudgetSupplier)) throw new IllegalArgumentException("SearchBudgetSupplier cannot be null");
+        if (isNull(searchListener)) throw new IllegalArgumentException("SearchListener cannot be null");
+    }
+
+    /**
+     * Default options of a HomomorphismFinder. The domain literals are mapped in the order they are written, without
+     * pruning, acyclic domains are solved as AUTOMATIC chooses, the budget is unlimited and no listener is notified.
+     */
+    public HomomorphismFinderOptions() {
+        this(DomainLiteralsOrdering.AS_WRITTEN, DomainPruning.NONE, AcyclicDomainSolving.AUTOMATIC, SearchBudget::unlimited, SearchListener.NONE);
+    }
+
+    public HomomorphismFinderOptions withDomainLiteralsOrdering(DomainLiteralsOrdering domainLiteralsOrdering) {
+        return new HomomorphismFinderOptions(domainLiteralsOrdering, domainPruning, acyclicDomainSolving, searchBudgetSupplier, searchListener);
+    }
+
+    public HomomorphismFinderOptions withDomainPruning(DomainPruning domainPruning) {
+        return new HomomorphismFinderOptions(domainLiteralsOrdering, domainPruning, acyclicDomainSolving, searchBudgetSupplier, searchListener);
+    }
+
+    public HomomorphismFinderOptions withAcyclicDomainSolving(AcyclicDomainSolving acyclicDomainSolving) {
+        return new HomomorphismFinderOptions(domainLiteralsOrdering, domainPruning, acyclicDomainSolving, searchBudgetSupplier, searchListener);
+    }
+
+    public HomomorphismFinderOptions withSearchBudgetSupplier(Supplier<SearchBudget> searchBudgetSupplier) {
+        return new HomomorphismFinderOptions(domainLiteralsOrdering, domainPruning, acyclicDomainSolving, searchBudgetSupplier, searchListener);
+    }
+
+    public HomomorphismFinderOptions withSearchListener(SearchListener searchListener) {
+        return new HomomorphismFinderOptions(domainLiteralsOrdering, domainPruning, acyclicDomainSolving, searchBudgetSupplier, searchListener);
+    }
+}
@@ -0,0 +1,124 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.BacktrackableSubstitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Homomorphism finder that explores the search tree in parallel.
+ * <p>
+ * The top levels of the search tree (i.e., the possible images of the first domain literals) are computed
+ * sequentially. Then, the subtree below each of them is explored by a different ForkJoin task. The first task finding a
+ * homomorphism stops all the others.
+ * <p>
+ * Whether a homomorphism exists is deterministic, since all the subtrees are explored unless one of them contains a
+ * homomorphism. However, when there are several homomorphisms, the one returned might change from one execution to
+ * another.
+ * <p>
+ * Only the backtracking search of a single homomorphism is parallelized. The acyclic domains solved with semi-joins
+ * (see AcyclicDomainSolving), and the methods finding all the homomorphisms, behave as in HomomorphismFinder.
+ * <p>
+ * All the tasks of a search consume its SearchBudget. When it runs out, every task gives up and the search throws a
+ * SearchBudgetExceededException.
+ * <p>
+ * The SearchListener is notified from all the tasks, hence, from several threads at once. Thus, it must be
+ * thread-safe (e.g. SearchStatistics).
+ */
+public class ParallelHomomorphismFinder extends HomomorphismFinder {
+
+    private static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int splitDepth;
+
+    public ParallelHomomorphismFinder() {
+        this(null);
+    }
+
+    public ParallelHomomorphismFinder(DerivedOrdinaryLiteralHomomorphismCriteria derivedOrdinaryLiteralHomomorphismCriteria) {
+        this(derivedOrdinaryLiteralHomomorphismCriteria, new HomomorphismFinderOptions(), ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * @param derivedOrdinaryLiteralHomomorphismCriteria might be null, in which case derived literals are not allowed
+     * @param options                                    not null. Its SearchBudgets are shared by all the tasks of
+     *                                                   each search, and its SearchListener must be thread-safe.
+     * @param forkJoinPool                               not null, pool where to run the tasks
+     * @param splitDepth                                 greater than 0, number of top levels of the search tree
+     *                                                   computed sequentially to create the tasks
+     */
+    public ParallelHomomorphismFinder(DerivedOrdinaryLiteralHomomorphismCriteria derivedOrdinaryLiteralHomomorphismCriteria,
+                                      HomomorphismFinderOptions options,
+                                      ForkJoinPool forkJoinPool,
+                                      int splitDepth) {
+        super(derivedOrdinaryLiteralHomomorphismCriteria, options);
+        if (isNull(forkJoinPool)) throw new IllegalArgumentException("ForkJoinPool cannot be null");
+        if (splitDepth <= 0) throw new IllegalArgumentException("SplitDepth must be greater than 0");
+        this.forkJoinPool = forkJoinPool;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    boolean extendHomomorphismByBacktracking(BacktrackableSubstitution homomorphism, List<Literal> domainLiterals, RangeLiteralsIndex rangeLiteralsIndex) {
+        if (isRunningInForkJoinPool()) {
+            // Nested searches (e.g., from a DerivedOrdinaryLiteralHomomorphismCriteria) are already part of some task
+            return super.extendHomomorphismByBacktracking(homomorphism, domainLiterals, rangeLiteralsIndex);
+        }
+
+        List<PartialHomomorphism> partialHomomorphisms = computePartialHomomorphisms(homomorphism, domainLiterals, rangeLiteralsIndex, splitDepth);
+        if (partialHomomorphisms.isEmpty()) return false;
+
+        SearchBudget searchBudget = currentSearchBudget();
+        AtomicReference<Substitution> foundHomomorphism = new AtomicReference<>();
+        List<SearchTask> tasks = partialHomomorphisms.stream()
+                .map(partialHomomorphism -> new SearchTask(partialHomomorphism, rangeLiteralsIndex, searchBudget, foundHomomorphism))
+                .toList();
+        tasks.forEach(forkJoinPool::execute);
+        tasks.forEach(ForkJoinTask::join);
+
+        Substitution result = foundHomomorphism.get();
+        return !isNull(result) && homomorphism.bind(result);
+    }
+
+    private boolean isRunningInForkJoinPool() {
+        return ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == forkJoinPool;
+    }
+
+    /**
+     * Task exploring the subtree of the search below a partial homomorphism, consuming the SearchBudget of the search.
+     * It stops as soon as some task has found a homomorphism.
+     */
+    private class SearchTask extends RecursiveAction {
+        private final PartialHomomorphism partialHomomorphism;
+        private final RangeLiteralsIndex rangeLiteralsIndex;
+        private final SearchBudget searchBudget;
+        private final AtomicReference<Substitution> foundHomomorphism;
+
+        SearchTask(PartialHomomorphism partialHomomorphism, RangeLiteralsIndex rangeLiteralsIndex, SearchBudget searchBudget, AtomicReference<Substitution> foundHomomorphism) {
+            this.partialHomomorphism = partialHomomorphism;
+            this.rangeLiteralsIndex = rangeLiteralsIndex;
+            this.searchBudget = searchBudget;
+            this.foundHomomorphism = foundHomomorphism;
+        }
+
+        @Override
+        protected void compute() {
+            if (!isNull(foundHomomorphism.get())) return;
+
+            BacktrackableSubstitution homomorphism = new BacktrackableSubstitution(partialHomomorphism.substitution());
+            boolean found = runWith(searchBudget, () -> extendHomomorphismForLiteralsList(homomorphism, partialHomomorphism.pendingDomainLiterals(), rangeLiteralsIndex,
+                                                                                          partialHomomorphism.mappedDomainLiterals(),
+                                                                                          () -> !isNull(foundHomomorphism.get())));
+            if (found) foundHomomorphism.compareAndSet(null, homomorphism.toSubstitution());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+
+import java.util.*;
+
+/**
+ * Index of the range literals of an homomorphism search. It groups the range literals in buckets so that, given a
+ * domain literal, the search only needs to consider the range literals it might be mapped to.
+ * <p>
+ * Ordinary literals are grouped by predicate name, polarity, and arity. Comparison built-in literals are grouped by
+ * operator, where an operator and its symmetric share the same bucket (since "a < b" can be mapped to "b > a").
+ * The rest of built-in literals are grouped by operation name.
+ * <p>
+ * Derived ordinary literals might be mapped to ordinary literals of a different predicate, depending on the
+ * DerivedOrdinaryLiteralHomomorphismCriteria used. Hence, a derived domain literal is a candidate for every ordinary
+ * range literal, and a derived range literal is a candidate for every ordinary domain literal.
+ * <p>
+ * All the candidate lists keep the order in which the literals appear in the range.
+ */
+class RangeLiteralsIndex {
+
+    private final Map<LiteralKey, List<Literal>> candidatesByKey = new LinkedHashMap<>();
+    private final List<Literal> derivedOrdinaryLiterals = new LinkedList<>();
+    private final List<Literal> ordinaryLiterals = new LinkedList<>();
+    private final List<Literal> allLiterals;
+
+    /**
+     * @param rangeLiterals not null
+     */
+    RangeLiteralsIndex(List<Literal> rangeLiterals) {
+        this.allLiterals = List.copyOf(rangeLiterals);
+        for (Literal rangeLiteral : rangeLiterals) {
+            if (rangeLiteral instanceof OrdinaryLiteral ordinaryLiteral) {
+                ordinaryLiterals.add(ordinaryLiteral);
+                if (ordinaryLiteral.isDerived()) addDerivedOrdinaryLiteral(ordinaryLiteral);
+                else addToBucket(keyOf(ordinaryLiteral), ordinaryLiteral);
+            } else if (rangeLiteral instanceof BuiltInLiteral builtInLiteral) {
+                addToBucket(keyOf(builtInLiteral), builtInLiteral);
+            }
+        }
+    }
+
+    /**
+     * @param domainLiteral not null
+     * @return the range literals that might be the image of the domainLiteral, in the same order as they appear in
+     * the range
+     */
+    List<Literal> getCandidates(Literal domainLiteral) {
+        if (domainLiteral instanceof OrdinaryLiteral ordinaryLiteral) {
+            if (ordinaryLiteral.isDerived()) return ordinaryLiterals;
+            return candidatesByKey.getOrDefault(keyOf(ordinaryLiteral), derivedOrdinaryLiterals);
+        } else if (domainLiteral instanceof BuiltInLiteral builtInLiteral) {
+            return candidatesByKey.getOrDefault(keyOf(builtInLiteral), List.of());
+        }
+        return allLiterals;
+    }
+
+    /**
+     * The derived literal must be a candidate of every base ordinary domain literal. Thus, we add it to the existing
+     * buckets of base ordinary literals, and remember it so that the buckets created later on start with it.
+     */
+    private void addDerivedOrdinaryLiteral(OrdinaryLiteral derivedLiteral) {
+        derivedOrdinaryLiterals.add(derivedLiteral);
+        candidatesByKey.forEach((key, bucket) -> {
+            if (key instanceof OrdinaryLiteralKey) bucket.add(derivedLiteral);
+        });
+    }
+
+    private void addToBucket(LiteralKey key, Literal literal) {
+        List<Literal> bucket = candidatesByKey.computeIfAbsent(key, k -> k instanceof OrdinaryLiteralKey ?
+                new LinkedList<>(derivedOrdinaryLiterals) : new LinkedList<>());
+        bucket.add(literal);
+    }
+
+    private static LiteralKey keyOf(OrdinaryLiteral ordinaryLiteral) {
+        return new OrdinaryLiteralKey(ordinaryLiteral.getPredicateName(), ordinaryLiteral.isPositive(), ordinaryLiteral.getArity());
+    }
+
+    private static LiteralKey keyOf(BuiltInLiteral builtInLiteral) {
+        if (builtInLiteral instanceof ComparisonBuiltInLiteral comparisonBuiltInLiteral) {
+            ComparisonOperator operator = comparisonBuiltInLiteral.getOperator();
+            ComparisonOperator symmetric = operator.getSymmetric();
+            return new ComparisonLiteralKey(operator.compareTo(symmetric) <= 0 ? operator : symmetric);
+        }
+        return new BuiltInLiteralKey(builtInLiteral.getOperationName());
+    }
+
+    private interface LiteralKey {
+    }
+
+    private record OrdinaryLiteralKey(String predicateName, boolean isPositive, int arity) implements LiteralKey {
+    }
+
+    private record ComparisonLiteralKey(ComparisonOperator operator) implements LiteralKey {
+    }
+
+    private record BuiltInLiteralKey(String operationName) implements LiteralKey {
+    }
+}
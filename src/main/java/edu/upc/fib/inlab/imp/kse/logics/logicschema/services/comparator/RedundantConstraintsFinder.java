@@ -0,0 +1,129 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ConstraintID;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicConstraint;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * <p> This class is responsible for finding the logic constraints of a schema that are subsumed by some other
+ * constraint of the schema. A constraint "@2 :- B2" is subsumed by "@1 :- B1" when there is a homomorphism from B1 to
+ * B2, since, then, every database violating @2 also violates @1. Thus, @2 is redundant. </p>
+ *
+ * <p> Instead of checking every pair of constraints, this class first computes a ConstraintSignature for each
+ * constraint, and indexes the constraints by the keys of their signature. Then, the only constraints that might subsume
+ * a given constraint are those whose keys are all contained in its own keys, which are found through the index. The
+ * homomorphisms are only searched for the candidates with a contained signature, and each constraint is analyzed in
+ * parallel. </p>
+ *
+ * <p> When two constraints subsume each other, only the latter one (in the order of the schema) is considered
+ * redundant. Hence, removing all the redundant constraints found does not change the semantics of the schema. </p>
+ */
+public class RedundantConstraintsFinder {
+
+    private final HomomorphismFinder homomorphismFinder;
+
+    public RedundantConstraintsFinder() {
+        this(new ExtendedHomomorphismFinder());
+    }
+
+    /**
+     * @param homomorphismFinder not null, used to check the subsumption between the candidate constraints. It must be
+     *                           thread-safe.
+     */
+    public RedundantConstraintsFinder(HomomorphismFinder homomorphismFinder) {
+        if (Objects.isNull(homomorphismFinder)) throw new IllegalArgumentException("HomomorphismFinder cannot be null");
+        this.homomorphismFinder = homomorphismFinder;
+    }
+
+    /**
+     * @param logicSchema not null
+     * @return the ID of each redundant constraint, in the order of the schema, together with the witness of its
+     * redundancy. The subsuming constraint of a witness might be also redundant, but then, it is subsumed by a
+     * constraint that makes the redundant one redundant as well.
+     */
+    public Map<ConstraintID, SubsumptionWitness> findRedundantConstraints(LogicSchema logicSchema) {
+        if (Objects.isNull(logicSchema)) throw new IllegalArgumentException("LogicSchema cannot be null");
+
+        List<LogicConstraint> constraints = List.copyOf(logicSchema.getAllLogicConstraints());
+        List<ConstraintSignature> signatures = constraints.stream()
+                .map(constraint -> ConstraintSignature.of(constraint.getBody()))
+                .toList();
+        SignatureIndex signatureIndex = new SignatureIndex(signatures);
+
+        List<Optional<SubsumptionWitness>> witnesses = IntStream.range(0, constraints.size())
+                .parallel()
+                .mapToObj(constraint -> findWitness(constraint, constraints, signatures, signatureIndex))
+                .toList();
+
+        Map<ConstraintID, SubsumptionWitness> result = new LinkedHashMap<>();
+        for (int constraint = 0; constraint < constraints.size(); ++constraint) {
+            ConstraintID constraintID = constraints.get(constraint).getID();
+            witnesses.get(constraint).ifPresent(witness -> result.put(constraintID, witness));
+        }
+        return result;
+    }
+
+    private Optional<SubsumptionWitness> findWitness(int subsumed, List<LogicConstraint> constraints, List<ConstraintSignature> signatures, SignatureIndex signatureIndex) {
+        LogicConstraint subsumedConstraint = constraints.get(subsumed);
+        for (int subsuming : signatureIndex.findCandidateSubsumers(subsumed)) {
+            if (!signatures.get(subsuming).isContainedIn(signatures.get(subsumed))) continue;
+
+            LogicConstraint subsumingConstraint = constraints.get(subsuming);
+            Optional<Substitution> homomorphism = homomorphismFinder.findHomomorphism(subsumingConstraint, subsumedConstraint);
+            if (homomorphism.isEmpty()) continue;
+            if (subsuming > subsumed && isSubsumedBy(subsumingConstraint, subsumedConstraint, signatures.get(subsuming), signatures.get(subsumed))) continue;
+            return Optional.of(new SubsumptionWitness(subsumingConstraint.getID(), homomorphism.get()));
+        }
+        return Optional.empty();
+    }
+
+    private boolean isSubsumedBy(LogicConstraint subsumed, LogicConstraint subsuming, ConstraintSignature subsumedSignature, ConstraintSignature subsumingSignature) {
+        return subsumingSignature.isContainedIn(subsumedSignature) &&
+                homomorphismFinder.findHomomorphism(subsuming, subsumed).isPresent();
+    }
+
+    /**
+     * Inverted index from each key of the signatures to the constraints whose signature contains it
+     */
+    private static class SignatureIndex {
+        private final List<ConstraintSignature> signatures;
+        private final Map<Object, List<Integer>> constraintsByKey = new HashMap<>();
+        private final List<Integer> constraintsWithoutKeys = new ArrayList<>();
+
+        SignatureIndex(List<ConstraintSignature> signatures) {
+            this.signatures = signatures;
+            for (int constraint = 0; constraint < signatures.size(); ++constraint) {
+                Set<Object> keys = signatures.get(constraint).getLiteralKeys();
+                if (keys.isEmpty()) constraintsWithoutKeys.add(constraint);
+                for (Object key : keys) {
+                    constraintsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(constraint);
+                }
+            }
+        }
+
+        /**
+         * @return the constraints, other than the given one, whose keys are all contained in the keys of the given
+         * constraint, sorted by their position in the schema
+         */
+        List<Integer> findCandidateSubsumers(int subsumed) {
+            Map<Integer, Integer> sharedKeysCount = new HashMap<>();
+            for (Object key : signatures.get(subsumed).getLiteralKeys()) {
+                for (int constraint : constraintsByKey.get(key)) {
+                    sharedKeysCount.merge(constraint, 1, Integer::sum);
+                }
+            }
+
+            List<Integer> result = new ArrayList<>(constraintsWithoutKeys);
+            sharedKeysCount.forEach((constraint, count) -> {
+                if (count == signatures.get(constraint).getLiteralKeys().size()) result.add(constraint);
+            });
+            result.remove(Integer.valueOf(subsumed));
+            Collections.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+
+import java.util.*;
+
+/**
+ * Key identifying a list of literals, or a derivation rule, up to the renaming of its variables. I.e., two lists of
+ * literals have the same key if one can be obtained from the other by renaming (injectively) its variables.
+ * <p>
+ * The key is built by numbering the variables in the order they first appear. Constants, predicate names, polarities,
+ * and built-in operations are kept as they are. Derived ordinary literals also include the key of each derivation rule
+ * of their predicate, since homomorphisms between derived literals might depend on their definition (see
+ * DerivedOrdinaryLiteralHomomorphismCriteria). A recursive predicate only includes its definition the first time it
+ * is found.
+ * <p>
+ * The key depends on the order of the literals. Hence, two lists with the same literals written in different order
+ * have different keys.
+ */
+final class RenamingInvariantKey {
+
+    private final List<Object> tokens;
+    private final int hashCode;
+
+    private RenamingInvariantKey(List<Object> tokens) {
+        this.tokens = tokens;
+        this.hashCode = tokens.hashCode();
+    }
+
+    /**
+     * @param literals not null
+     * @return the key of the given literals
+     */
+    static RenamingInvariantKey of(List<Literal> literals) {
+        return new RenamingInvariantKey(new TokensBuilder(new HashSet<>()).addLiterals(literals).build());
+    }
+
+    /**
+     * @param derivationRule not null
+     * @return the key of the given derivation rule, including its head
+     */
+    static RenamingInvariantKey of(DerivationRule derivationRule) {
+        return new RenamingInvariantKey(new TokensBuilder(new HashSet<>()).addDerivationRule(derivationRule).build());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RenamingInvariantKey that = (RenamingInvariantKey) o;
+        return hashCode == that.hashCode && tokens.equals(that.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private enum Marker {
+        HEAD, BODY, POSITIVE, NEGATIVE, BUILT_IN, DEFINITION, RECURSIVE_DEFINITION
+    }
+
+    /**
+     * Variable numbered by its first appearance.
+     */
+    private record VariableIndex(int index) {
+    }
+
+    private static class TokensBuilder {
+        private final List<Object> tokens = new ArrayList<>();
+        private final Map<Variable, VariableIndex> variableIndexes = new HashMap<>();
+        private final Set<String> predicatesBeingDefined;
+
+        /**
+         * @param predicatesBeingDefined names of the derived predicates whose definition is being added by some
+         *                               enclosing builder
+         */
+        TokensBuilder(Set<String> predicatesBeingDefined) {
+            this.predicatesBeingDefined = predicatesBeingDefined;
+        }
+
+        List<Object> build() {
+            return List.copyOf(tokens);
+        }
+
+        TokensBuilder addDerivationRule(DerivationRule derivationRule) {
+            tokens.add(Marker.HEAD);
+            tokens.add(derivationRule.getHead().getPredicateName());
+            addTerms(derivationRule.getHeadTerms());
+            tokens.add(Marker.BODY);
+            return addLiterals(derivationRule.getBody());
+        }
+
+        TokensBuilder addLiterals(List<Literal> literals) {
+            for (Literal literal : literals) {
+                if (literal instanceof OrdinaryLiteral ordinaryLiteral) addOrdinaryLiteral(ordinaryLiteral);
+                else addBuiltInLiteral((BuiltInLiteral) literal);
+            }
+            return this;
+        }
+
+        private void addOrdinaryLiteral(OrdinaryLiteral ordinaryLiteral) {
+            tokens.add(ordinaryLiteral.isPositive() ? Marker.POSITIVE : Marker.NEGATIVE);
+            tokens.add(ordinaryLiteral.getPredicateName());
+            addTerms(ordinaryLiteral.getTerms());
+            if (ordinaryLiteral.isDerived()) addDefinition(ordinaryLiteral.getPredicate());
+        }
+
+        private void addDefinition(Predicate derivedPredicate) {
+            if (!predicatesBeingDefined.add(derivedPredicate.getName())) {
+                tokens.add(Marker.RECURSIVE_DEFINITION);
+                return;
+            }
+            tokens.add(Marker.DEFINITION);
+            for (DerivationRule derivationRule : derivedPredicate.getDerivationRules()) {
+                tokens.add(new TokensBuilder(predicatesBeingDefined).addDerivationRule(derivationRule).build());
+            }
+            predicatesBeingDefined.remove(derivedPredicate.getName());
+        }
+
+        private void addBuiltInLiteral(BuiltInLiteral builtInLiteral) {
+            tokens.add(Marker.BUILT_IN);
+            tokens.add(builtInLiteral.getClass());
+            tokens.add(builtInLiteral.getOperationName());
+            addTerms(builtInLiteral.getTerms());
+        }
+
+        private void addTerms(List<Term> terms) {
+            List<Object> termTokens = new ArrayList<>(terms.size());
+            for (Term term : terms) {
+                if (term instanceof Variable variable) {
+                    termTokens.add(variableIndexes.computeIfAbsent(variable, v -> new VariableIndex(variableIndexes.size())));
+                } else termTokens.add(term);
+            }
+            tokens.add(termTokens);
+        }
+    }
+}
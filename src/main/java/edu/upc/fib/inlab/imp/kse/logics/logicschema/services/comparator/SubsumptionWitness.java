@@ -0,0 +1,14 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ConstraintID;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+
+/**
+ * Evidence that a logic constraint is redundant: the constraint subsuming it, and the homomorphism from the body of the
+ * subsuming constraint to the body of the redundant one.
+ *
+ * @param subsumingConstraintID ID of the constraint subsuming the redundant one
+ * @param homomorphism          homomorphism from the body of the subsuming constraint to the body of the redundant one
+ */
+public record SubsumptionWitness(ConstraintID subsumingConstraintID, Substitution homomorphism) {
+}
@@ -33,6 +33,10 @@ public class BiMap<K, V> {
         return map.containsKey(k);
     }
 
+    int size() {
+        return map.size();
+    }
+
     boolean containsValue(V v) {
         return inverseMap.containsKey(v);
     }
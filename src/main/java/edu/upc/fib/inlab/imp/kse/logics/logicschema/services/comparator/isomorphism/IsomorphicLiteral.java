@@ -1,14 +1,16 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableTermList;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
 
 /**
- * Class to remember a literal together a termMap that prove that it is isomorphic to some other literal. The termMap
- * might map other terms not present in the given literal.
+ * Class to remember a literal together with the terms that prove that it is isomorphic to some other literal. That is,
+ * the terms of the other literal must be mapped, in order, to these terms. They are the terms of the given literal,
+ * possibly reordered (e.g., when mapping "a < b" to "d > c", the terms are "c, d").
  *
  * @param literal not null
- * @param termMap not null
+ * @param terms   not null
  */
-record IsomorphicLiteral(Literal literal, TermMap termMap) {
+record IsomorphicLiteral(Literal literal, ImmutableTermList terms) {
 
 }
@@ -2,10 +2,14 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorp
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudgetScope;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchListener;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.PredicateComparator;
 
 import java.util.*;
 import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +31,15 @@ import java.util.stream.Collectors;
  * predicate name cannot be mapped twice to two different predicate names, despite all their rules being isomorphic).
  * <p>
  * Note: the comparison of predicate/term names is case-sensitive.
+ * <p>
+ * A supplier of SearchBudgets can be injected to limit the work done by each comparison, which starts with a new
+ * budget from the supplier. Each candidate tried for a literal, or a rule, consumes one node of the budget, and the
+ * comparison throws a SearchBudgetExceededException as soon as the budget runs out. By default, the budget is
+ * unlimited.
+ * <p>
+ * A SearchListener can be injected to observe the comparisons (e.g. to collect their SearchStatistics). The depth of a
+ * node is the number of literals mapped in the body being compared, or 0 for the candidates of a rule. By default, no
+ * listener is notified.
  */
 public class IsomorphismComparator {
     /**
@@ -108,16 +121,43 @@ public class IsomorphismComparator {
      * literals to map. In the base case, the recursion applies the lambdas that contains the remaining jobs. That is,
      * it first checks the derivation rules of P, then the derivation rules of Q, and then the derivation rules of R.
      * If the lambda fails, the algorithm backtracks and checks the remaining part of the tree with another combination.
+     * <p>
+     * <h3> Backtracking the maps</h3>
+     * The maps are not copied when going deeper in the recursion. Instead, they are extended in place, and the
+     * extension is undone when backtracking (see the marks of TermMap, which relies on BacktrackableSubstitution).
      */
 
     private final boolean changeVariableNamesAllowed;
     private final boolean changeLiteralOrderAllowed;
     private final boolean changingDerivedPredicateNameAllowed;
+    private final SearchBudgetScope searchBudgetScope;
+    private final SearchListener searchListener;
 
     public IsomorphismComparator(IsomorphismOptions options) {
+        this(options, SearchBudget::unlimited);
+    }
+
+    /**
+     * @param options              not null
+     * @param searchBudgetSupplier not null, gives the budget of each comparison of this comparator
+     */
+    public IsomorphismComparator(IsomorphismOptions options, Supplier<SearchBudget> searchBudgetSupplier) {
+        this(options, searchBudgetSupplier, SearchListener.NONE);
+    }
+
+    /**
+     * @param options              not null
+     * @param searchBudgetSupplier not null, gives the budget of each comparison of this comparator
+     * @param searchListener       not null, listener notified by all the comparisons of this comparator
+     */
+    public IsomorphismComparator(IsomorphismOptions options, Supplier<SearchBudget> searchBudgetSupplier, SearchListener searchListener) {
+        if (Objects.isNull(searchBudgetSupplier)) throw new IllegalArgumentException("SearchBudgetSupplier cannot be null");
+        if (Objects.isNull(searchListener)) throw new IllegalArgumentException("SearchListener cannot be null");
         this.changeVariableNamesAllowed = options.changeVariableNamesAllowed();
         this.changeLiteralOrderAllowed = options.changeLiteralOrderAllowed();
         this.changingDerivedPredicateNameAllowed = options.changingDerivedPredicateNameAllowed();
+        this.searchBudgetScope = new SearchBudgetScope(searchBudgetSupplier);
+        this.searchListener = searchListener;
     }
 
     /**
@@ -128,7 +168,7 @@ public class IsomorphismComparator {
      * @return boolean indicating whether the two lists of literals are isomorphic
      */
     public boolean areIsomorphic(List<Literal> literals1, List<Literal> literals2) {
-        return areIsomorphic(literals1, literals2, new PredicateMap(), new LiteralMap(), new TermMap(), () -> true);
+        return notifyingSearch(() -> areIsomorphic(literals1, literals2, new PredicateMap(), new LiteralMap(), new TermMap(), () -> true));
     }
 
     /**
@@ -145,7 +185,7 @@ public class IsomorphismComparator {
             Term term = new Variable(varName);
             termMap.put(term, term);
         }
-        return areIsomorphic(literals1, literals2, new PredicateMap(), new LiteralMap(), termMap, () -> true);
+        return notifyingSearch(() -> areIsomorphic(literals1, literals2, new PredicateMap(), new LiteralMap(), termMap, () -> true));
     }
 
     /**
@@ -171,7 +211,7 @@ public class IsomorphismComparator {
         Atom head2 = derivationRule2.getHead();
         Optional<TermMap> termMap = areDerivationRuleHeadsIsomorphic(head1, head2);
         return termMap
-                .filter(map -> areIsomorphic(derivationRule1.getBody(), derivationRule2.getBody(), new PredicateMap(), new LiteralMap(), map, () -> true))
+                .filter(map -> notifyingSearch(() -> areIsomorphic(derivationRule1.getBody(), derivationRule2.getBody(), new PredicateMap(), new LiteralMap(), map, () -> true)))
                 .isPresent();
     }
 
@@ -185,7 +225,7 @@ public class IsomorphismComparator {
         ImmutableTermList head2 = query2.getHeadTerms();
         Optional<TermMap> termMap = computeTermMap(head1, head2);
         return termMap
-                .filter(map -> areIsomorphic(query1.getBody(), query2.getBody(), new PredicateMap(), new LiteralMap(), map, () -> true))
+                .filter(map -> notifyingSearch(() -> areIsomorphic(query1.getBody(), query2.getBody(), new PredicateMap(), new LiteralMap(), map, () -> true)))
                 .isPresent();
     }
 
@@ -198,7 +238,7 @@ public class IsomorphismComparator {
      */
     public boolean areIsomorphic(LogicSchema schema1, LogicSchema schema2) {
         if (!areBasePredicatesIsomorphic(schema1, schema2)) return false;
-        return areNormalClausesIsomorphic(schema1, schema2);
+        return notifyingSearch(() -> areNormalClausesIsomorphic(schema1, schema2));
     }
 
     /**
@@ -214,7 +254,21 @@ public class IsomorphismComparator {
         if (this.changingDerivedPredicateNameAllowed && p1.getName().equals(p2.getName())) return false;
         PredicateMap predicateMap = new PredicateMap();
         predicateMap.put(p1, p2);
-        return areIsomorphic(p1.getDerivationRules(), p2.getDerivationRules(), predicateMap, () -> true);
+        return notifyingSearch(() -> areIsomorphic(p1.getDerivationRules(), p2.getDerivationRules(), predicateMap, () -> true));
+    }
+
+    /**
+     * @return the result of the search, run with its own SearchBudget (unless it is nested in another search), after
+     * notifying the SearchListener the time spent in it
+     */
+    private boolean notifyingSearch(BooleanSupplier search) {
+        if (searchListener == SearchListener.NONE) return searchBudgetScope.run(search::getAsBoolean);
+        long start = System.nanoTime();
+        try {
+            return searchBudgetScope.run(search::getAsBoolean);
+        } finally {
+            searchListener.searchFinished(System.nanoTime() - start);
+        }
     }
 
     private static boolean haveDifferentPredicateName(Atom atom1, Atom atom2) {
@@ -276,6 +330,8 @@ public class IsomorphismComparator {
         DerivationRule rule1 = rules1.get(0);
         List<DerivationRule> ruleCandidates = getRulesOfSameBodySize(rules2, rule1);
         for (DerivationRule rule2 : ruleCandidates) {
+            searchBudgetScope.currentOrNew().consume();
+            searchListener.nodeExpanded(0);
             Optional<TermMap> termMap = computeTermMap(rule1.getHeadTerms(), rule2.getHeadTerms());
             if (termMap.isPresent()) {
                 boolean bodiesAndRestOfDerivationRulesAreIsomorphic = areIsomorphic(rule1.getBody(), rule2.getBody(), predicateMap, new LiteralMap(), termMap.get(),
@@ -305,6 +361,8 @@ public class IsomorphismComparator {
 
         NormalClause clause1 = clauses1.get(0);
         for (NormalClause clause2 : clauses2) {
+            searchBudgetScope.currentOrNew().consume();
+            searchListener.nodeExpanded(0);
             Optional<TermMap> termMap = computeInitialTermMapFromClause(clause1, clause2);
             if (termMap.isPresent()) {
                 boolean bodiesAndRestOfNormalClausesAreIsomorphic = areIsomorphic(clause1.getBody(), clause2.getBody(), predicateMap, new LiteralMap(), termMap.get(),
@@ -350,12 +408,19 @@ public class IsomorphismComparator {
 
         Literal literal1 = literals1.get(0);
         List<IsomorphicLiteral> isomorphicLiteral = obtainIsomorphicLiterals(literal1, literals2, predicateMap, literalMap, termMap);
+        searchListener.candidatesGenerated(literal1, isomorphicLiteral.size());
         for (IsomorphicLiteral literalCandidate : isomorphicLiteral) {
+            searchBudgetScope.currentOrNew().consume();
+            int termMapMark = termMap.mark();
+            //The candidates are compatible with the termMap they were obtained with, but it is checked again here
+            //rather than assumed, and a failed binding leaves the termMap unchanged
+            if (!bindTerms(literal1.getTerms(), literalCandidate.terms(), termMap)) continue;
+            searchListener.nodeExpanded(literalMap.size() + 1);
             Optional<Predicate> newAddedPredicateInMap = updatePredicateMap(literal1, literalCandidate.literal(), predicateMap);
-            LiteralMap newLiteralMap = computeNewLiteralMap(literal1, literalCandidate.literal(), literalMap);
+            literalMap.put(literal1, literalCandidate.literal());
             List<Literal> newLiterals1 = removeFromLiteralsList(literals1, literal1);
             List<Literal> newLiterals2 = removeFromLiteralsList(literals2, literalCandidate.literal());
-            boolean brothersAreIsomorphicRec = areIsomorphic(newLiterals1, newLiterals2, predicateMap, newLiteralMap, literalCandidate.termMap(), () -> {
+            boolean brothersAreIsomorphicRec = areIsomorphic(newLiterals1, newLiterals2, predicateMap, literalMap, termMap, () -> {
                 if (literal1 instanceof OrdinaryLiteral ol1 && ol1.isDerived() && literalCandidate.literal() instanceof OrdinaryLiteral ol2) {
                     return areSonsIsomorphic(ol1, ol2, predicateMap, remainingJob);
                 } else return remainingJob.getAsBoolean();
@@ -364,23 +429,14 @@ public class IsomorphismComparator {
                 return true;
             }
 
+            literalMap.remove(literal1);
             newAddedPredicateInMap.ifPresent(predicateMap::removeDomain);
+            termMap.undoTo(termMapMark);
         }
+        searchListener.backtracked(literalMap.size());
         return false;
     }
 
-    /**
-     * @param literal1   not null
-     * @param literal2   not null
-     * @param literalMap does not map literal1 neither literal2
-     * @return a new literalMap containing the given literal map and a map literal1<->literal2
-     */
-    private LiteralMap computeNewLiteralMap(Literal literal1, Literal literal2, LiteralMap literalMap) {
-        LiteralMap result = new LiteralMap(literalMap);
-        result.put(literal1, literal2);
-        return result;
-    }
-
     /**
      * @param ol1          not null, and derived
      * @param ol2          not null, and derived
@@ -417,7 +473,7 @@ public class IsomorphismComparator {
      * @param literalList  not null
      * @param predicateMap not null
      * @param literalMap   not null
-     * @param termMap      not null
+     * @param termMap      not null. It is left unchanged.
      * @return all those literals from literalList that are isomorphic to literal satisfying the predicateMap, the
      * literalMap, and the termMap.
      */
@@ -425,13 +481,13 @@ public class IsomorphismComparator {
         List<IsomorphicLiteral> result = new LinkedList<>();
         if (changeLiteralOrderAllowed) {
             for (Literal candidateLiteral : literalList) {
-                List<TermMap> resultTermMap = findTermMapForLiterals(literal, candidateLiteral, predicateMap, literalMap, termMap);
-                resultTermMap.forEach(map -> result.add(new IsomorphicLiteral(candidateLiteral, map)));
+                List<ImmutableTermList> resultTerms = findTermsForLiterals(literal, candidateLiteral, predicateMap, literalMap, termMap);
+                resultTerms.forEach(terms -> result.add(new IsomorphicLiteral(candidateLiteral, terms)));
             }
         } else {
             Literal candidateLiteral = literalList.get(0);
-            List<TermMap> resultTermMap = findTermMapForLiterals(literal, candidateLiteral, predicateMap, literalMap, termMap);
-            resultTermMap.forEach(map -> result.add(new IsomorphicLiteral(candidateLiteral, map)));
+            List<ImmutableTermList> resultTerms = findTermsForLiterals(literal, candidateLiteral, predicateMap, literalMap, termMap);
+            resultTerms.forEach(terms -> result.add(new IsomorphicLiteral(candidateLiteral, terms)));
         }
         return result;
     }
@@ -441,17 +497,17 @@ public class IsomorphismComparator {
      * @param l2           not null
      * @param predicateMap not null
      * @param literalMap   not null
-     * @param termMap      not null.
-     * @return a list of termMap, containing the map given in the input, that makes the terms of l1 isomorphic to the
-     * terms of l2, only if l1 can be isomorphic to l2 (e.g., they have the same predicate name, etc). It is a list
-     * since "a = b" have two maps with "c = d" (a->b, b->d; a->d, b->c)
+     * @param termMap      not null. It is left unchanged.
+     * @return a list of term lists, each of them being the terms of l2 (possibly reordered) such that the termMap can be
+     * extended to make the terms of l1 isomorphic to them, only if l1 can be isomorphic to l2 (e.g., they have the same
+     * predicate name, etc). It is a list since "a = b" have two maps with "c = d" (a->c, b->d; a->d, b->c)
      */
-    private List<TermMap> findTermMapForLiterals(Literal l1, Literal l2, PredicateMap predicateMap, LiteralMap literalMap, TermMap termMap) {
+    private List<ImmutableTermList> findTermsForLiterals(Literal l1, Literal l2, PredicateMap predicateMap, LiteralMap literalMap, TermMap termMap) {
         if (literalMap.containsInRange(l2)) return List.of();
         if (l1 instanceof OrdinaryLiteral ol1 && l2 instanceof OrdinaryLiteral ol2) {
-            return findTermMapForLiterals(ol1, ol2, predicateMap, termMap).stream().toList();
+            return findTermsForLiterals(ol1, ol2, predicateMap, termMap).stream().toList();
         } else if (l1 instanceof BuiltInLiteral bl1 && l2 instanceof BuiltInLiteral bl2) {
-            return findTermMapForLiterals(bl1, bl2, termMap);
+            return findTermsForLiterals(bl1, bl2, termMap);
         } else if (!l1.getClass().isAssignableFrom(l2.getClass())) {
             return List.of();
         } else {
@@ -465,7 +521,7 @@ public class IsomorphismComparator {
      * @param ol1 is an ordinary literal
      * @param ol2 is an ordinary literal
      */
-    private Optional<TermMap> findTermMapForLiterals(OrdinaryLiteral ol1, OrdinaryLiteral ol2, PredicateMap predicateMap, TermMap termMap) {
+    private Optional<ImmutableTermList> findTermsForLiterals(OrdinaryLiteral ol1, OrdinaryLiteral ol2, PredicateMap predicateMap, TermMap termMap) {
         if (haveDifferentArity(ol1, ol2)) return Optional.empty();
         if (ol1.isBase() != ol2.isBase()) return Optional.empty();
         if (ol1.isBase() && haveDifferentNames(ol1, ol2)) return Optional.empty();
@@ -474,16 +530,16 @@ public class IsomorphismComparator {
         if (!changingDerivedPredicateNameAllowed && ol1.isDerived() && haveDifferentNames(ol1, ol2))
             return Optional.empty();
         if (haveDifferentPolarity(ol1, ol2)) return Optional.empty();
-        return computeNewTermMap(ol1.getTerms(), ol2.getTerms(), termMap);
+        return findCompatibleTerms(ol1.getTerms(), ol2.getTerms(), termMap);
     }
 
-    private List<TermMap> findTermMapForLiterals(BuiltInLiteral bl1, BuiltInLiteral bl2, TermMap termMap) {
+    private List<ImmutableTermList> findTermsForLiterals(BuiltInLiteral bl1, BuiltInLiteral bl2, TermMap termMap) {
         if (bl1 instanceof ComparisonBuiltInLiteral cbl1 && bl2 instanceof ComparisonBuiltInLiteral cbl2) {
-            return findTermMapForLiterals(cbl1, cbl2, termMap);
+            return findTermsForLiterals(cbl1, cbl2, termMap);
         } else if (bl1 instanceof BooleanBuiltInLiteral bbl1 && bl2 instanceof BooleanBuiltInLiteral bbl2) {
-            return findTermMapForLiterals(bbl1, bbl2, termMap).stream().toList();
+            return findTermsForLiterals(bbl1, bbl2).stream().toList();
         } else if (bl1 instanceof CustomBuiltInLiteral cbl1 && bl2 instanceof CustomBuiltInLiteral cbl2) {
-            return findTermMapForLiterals(cbl1, cbl2, termMap).stream().toList();
+            return findTermsForLiterals(cbl1, cbl2, termMap).stream().toList();
         } else if (!bl1.getClass().isAssignableFrom(bl2.getClass())) {
             return List.of();
         } else {
@@ -491,50 +547,72 @@ public class IsomorphismComparator {
         }
     }
 
-    private List<TermMap> findTermMapForLiterals(ComparisonBuiltInLiteral cbl1, ComparisonBuiltInLiteral cbl2, TermMap termMap) {
-        List<TermMap> result = new LinkedList<>();
+    private List<ImmutableTermList> findTermsForLiterals(ComparisonBuiltInLiteral cbl1, ComparisonBuiltInLiteral cbl2, TermMap termMap) {
+        List<ImmutableTermList> result = new LinkedList<>();
         ComparisonOperator operator1 = cbl1.getOperator();
         ComparisonOperator operator2 = cbl2.getOperator();
-        Optional<TermMap> newTermMap = computeNewTermMap(cbl1.getTerms(), cbl2.getTerms(), termMap);
-        Optional<TermMap> newReverseTermMap = computeNewTermMap(cbl1.getTerms(), reverseTerms(cbl2.getTerms()), termMap);
         if (operator1.equals(operator2)) {
-            newTermMap.ifPresent(result::add);
+            findCompatibleTerms(cbl1.getTerms(), cbl2.getTerms(), termMap).ifPresent(result::add);
         }
         if (operator1.isSymmetric(operator2)) {
-            newReverseTermMap.ifPresent(result::add);
+            findCompatibleTerms(cbl1.getTerms(), reverseTerms(cbl2.getTerms()), termMap).ifPresent(result::add);
         }
         return result;
     }
 
-    private Optional<TermMap> findTermMapForLiterals(BooleanBuiltInLiteral bbl1, BooleanBuiltInLiteral bbl2, TermMap termMap) {
-        if (bbl1.isTrue() && bbl2.isTrue()) return Optional.of(new TermMap(termMap));
-        if (bbl1.isFalse() && bbl2.isFalse()) return Optional.of(new TermMap(termMap));
+    private Optional<ImmutableTermList> findTermsForLiterals(BooleanBuiltInLiteral bbl1, BooleanBuiltInLiteral bbl2) {
+        if (bbl1.isTrue() && bbl2.isTrue()) return Optional.of(bbl2.getTerms());
+        if (bbl1.isFalse() && bbl2.isFalse()) return Optional.of(bbl2.getTerms());
         return Optional.empty();
     }
 
-    private Optional<TermMap> findTermMapForLiterals(CustomBuiltInLiteral cbl1, CustomBuiltInLiteral cbl2, TermMap termMap) {
+    private Optional<ImmutableTermList> findTermsForLiterals(CustomBuiltInLiteral cbl1, CustomBuiltInLiteral cbl2, TermMap termMap) {
         if (!cbl1.getOperationName().equals(cbl2.getOperationName())) return Optional.empty();
-        return computeNewTermMap(cbl1.getTerms(), cbl2.getTerms(), termMap);
+        return findCompatibleTerms(cbl1.getTerms(), cbl2.getTerms(), termMap);
     }
 
     private Optional<TermMap> computeTermMap(ImmutableTermList terms1, ImmutableTermList terms2) {
-        return computeNewTermMap(terms1, terms2, new TermMap());
+        TermMap termMap = new TermMap();
+        if (!bindTerms(terms1, terms2, termMap)) return Optional.empty();
+        return Optional.of(termMap);
     }
 
-    private Optional<TermMap> computeNewTermMap(ImmutableTermList terms1, ImmutableTermList terms2, TermMap termMap) {
-        if (terms1.size() != terms2.size()) return Optional.empty();
-        TermMap newTermMap = new TermMap(termMap);
+    /**
+     * @param terms1  not null
+     * @param terms2  not null
+     * @param termMap not null. It is left unchanged.
+     * @return terms2, if the termMap can be extended to make terms1 isomorphic to terms2
+     */
+    private Optional<ImmutableTermList> findCompatibleTerms(ImmutableTermList terms1, ImmutableTermList terms2, TermMap termMap) {
+        int mark = termMap.mark();
+        boolean compatible = bindTerms(terms1, terms2, termMap);
+        termMap.undoTo(mark);
+        return compatible ? Optional.of(terms2) : Optional.empty();
+    }
+
+    /**
+     * @param terms1  not null
+     * @param terms2  not null
+     * @param termMap not null. If the method succeeds, it is extended (in place) to make terms1 isomorphic to terms2.
+     *                Otherwise, it is left unchanged.
+     * @return whether the termMap could be extended
+     */
+    private boolean bindTerms(ImmutableTermList terms1, ImmutableTermList terms2, TermMap termMap) {
+        if (terms1.size() != terms2.size()) return false;
+        int mark = termMap.mark();
         for (int i = 0; i < terms1.size(); i++) {
             Term term1 = terms1.get(i);
             Term term2 = terms2.get(i);
-            if (changeVariableNamesAllowed) {
-                if (newTermMap.isIncompatibleWith(term1, term2)) return Optional.empty();
-            } else {
-                if (!term1.getName().equals(term2.getName())) return Optional.empty();
+            boolean compatible = changeVariableNamesAllowed ?
+                    termMap.isCompatibleWith(term1, term2) :
+                    term1.getName().equals(term2.getName());
+            if (!compatible) {
+                termMap.undoTo(mark);
+                return false;
             }
-            newTermMap.put(term1, term2);
+            termMap.put(term1, term2);
         }
-        return Optional.of(newTermMap);
+        return true;
     }
 
     private boolean areBasePredicatesIsomorphic(LogicSchema schema1, LogicSchema schema2) {
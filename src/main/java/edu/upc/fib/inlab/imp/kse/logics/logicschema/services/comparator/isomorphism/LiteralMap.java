@@ -10,15 +10,19 @@ class LiteralMap {
         map = new BiMap<>();
     }
 
-    public LiteralMap(LiteralMap literalMap) {
-        map = new BiMap<>(literalMap.map);
-    }
-
     public void put(Literal literal1, Literal literal2) {
         map.put(literal1, literal2);
     }
 
+    void remove(Literal literal1) {
+        map.remove(literal1);
+    }
+
     boolean containsInRange(Literal literal) {
         return map.containsValue(literal);
     }
+
+    int size() {
+        return map.size();
+    }
 }
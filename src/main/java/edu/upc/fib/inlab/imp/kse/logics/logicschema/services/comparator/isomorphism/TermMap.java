@@ -1,17 +1,33 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
-
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.BacktrackableSubstitution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bijective map of variables, extended in place and undone by means of marks (see BacktrackableSubstitution).
+ * Constants are not stored since they can only be mapped to the constant with the same name.
+ */
 class TermMap {
 
-    private final BiMap<Term, Term> map;
+    private final BacktrackableSubstitution map = new BacktrackableSubstitution();
+    private final Map<Term, Variable> inverseMap = new HashMap<>();
+    private final List<Term> inverseTrail = new ArrayList<>();
 
-    TermMap() {
-        map = new BiMap<>();
+    int mark() {
+        return map.mark();
     }
 
-    TermMap(TermMap otherMap) {
-        map = new BiMap<>(otherMap.map);
+    void undoTo(int mark) {
+        map.undoTo(mark);
+        while (inverseTrail.size() > mark) {
+            inverseMap.remove(inverseTrail.remove(inverseTrail.size() - 1));
+        }
     }
 
     boolean isIncompatibleWith(Term domain, Term range) {
@@ -21,15 +37,17 @@ class TermMap {
     boolean isCompatibleWith(Term domain, Term range) {
         if (domain.isConstant() && range.isConstant()) return domain.getName().equals(range.getName());
         else if (domain.isConstant() != range.isConstant()) return false;
-        if (!map.containsKey(domain) && !map.containsValue(range)) return true;
-        if (map.containsKey(domain)) {
-            return map.get(domain).equals(range);
-        }
-        return false;
+        return map.getTerm((Variable) domain)
+                .map(image -> image.equals(range))
+                .orElse(!inverseMap.containsKey(range));
     }
 
     void put(Term domain, Term range) {
-        map.put(domain, range);
+        if (domain instanceof Variable domainVariable && !map.isBound(domainVariable) && !inverseMap.containsKey(range)) {
+            map.bind(domainVariable, range);
+            inverseMap.put(range, domainVariable);
+            inverseTrail.add(range);
+        }
     }
 
 }
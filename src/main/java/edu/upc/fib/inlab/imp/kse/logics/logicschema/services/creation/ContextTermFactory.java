@@ -3,6 +3,7 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Constant;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableTermList;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.TermPool;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.ConstantSpec;
@@ -13,20 +14,35 @@ import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.Varia
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
- * Factory in charge of creating the corresponding subclass of Term for a given subclass of TermSpec
+ * Factory in charge of creating the corresponding subclass of Term for a given subclass of TermSpec. If it is given a
+ * TermPool, the terms created are interned in such pool.
  */
 public class ContextTermFactory {
 
     private static final String UNNAMED_VARIABLE_NAME = "u";
 
     private final Set<String> usedVariableNames;
+    private final TermPool termPool;
     private int unnamedVariableIndex;
 
     public ContextTermFactory(Set<String> contextVariableNames) {
         this.usedVariableNames = new LinkedHashSet<>(contextVariableNames);
+        this.termPool = null;
+        this.unnamedVariableIndex = 0;
+    }
+
+    /**
+     * @param contextVariableNames not null
+     * @param termPool             not null, pool where to intern the terms created
+     */
+    public ContextTermFactory(Set<String> contextVariableNames, TermPool termPool) {
+        if (Objects.isNull(termPool)) throw new IllegalArgumentException("TermPool cannot be null");
+        this.usedVariableNames = new LinkedHashSet<>(contextVariableNames);
+        this.termPool = termPool;
         this.unnamedVariableIndex = 0;
     }
 
@@ -36,14 +52,22 @@ public class ContextTermFactory {
         for (TermSpec termSpec : termSpecList) {
             if (termSpec instanceof UnnamedVariableSpec) {
                 String newVariableName = getNewUnnamedVariable();
-                terms.add(new Variable(newVariableName));
-            } else if (termSpec instanceof VariableSpec) terms.add(new Variable(termSpec.getName()));
-            else if (termSpec instanceof ConstantSpec) terms.add(new Constant(termSpec.getName()));
+                terms.add(createVariable(newVariableName));
+            } else if (termSpec instanceof VariableSpec) terms.add(createVariable(termSpec.getName()));
+            else if (termSpec instanceof ConstantSpec) terms.add(createConstant(termSpec.getName()));
             else throw new IMPLogicsException("Unrecognized term spec " + termSpec.getClass().getName());
         }
         return new ImmutableTermList(terms);
     }
 
+    private Variable createVariable(String name) {
+        return Objects.isNull(termPool) ? new Variable(name) : termPool.variable(name);
+    }
+
+    private Constant createConstant(String name) {
+        return Objects.isNull(termPool) ? new Constant(name) : termPool.constant(name);
+    }
+
     private String getNewUnnamedVariable() {
         String candidateNewUnnamedName = UNNAMED_VARIABLE_NAME + this.unnamedVariableIndex++;
         while (usedVariableNames.contains(candidateNewUnnamedName)) {
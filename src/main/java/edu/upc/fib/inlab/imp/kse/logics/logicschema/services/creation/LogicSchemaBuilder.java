@@ -23,14 +23,26 @@ public class LogicSchemaBuilder<T extends LogicConstraintSpec> {
     private final Map<ConstraintID, LogicConstraint> logicConstraintById = new LinkedHashMap<>();
     private final Map<String, Predicate> predicatesByName = new LinkedHashMap<>();
     private final ConstraintIDGenerator<T> constraintIDGenerator;
+    private final TermPool termPool;
 
 
     public LogicSchemaBuilder(ConstraintIDGenerator<T> constraintIDGenerator) {
         this.constraintIDGenerator = constraintIDGenerator;
+        this.termPool = null;
     }
 
     public LogicSchemaBuilder(ConstraintIDGenerator<T> constraintIDGenerator, Set<Predicate> predicates) {
+        this(constraintIDGenerator, predicates, null);
+    }
+
+    /**
+     * @param constraintIDGenerator not null
+     * @param predicates            not null
+     * @param termPool              might be null. Otherwise, pool where to intern the terms of the schema
+     */
+    public LogicSchemaBuilder(ConstraintIDGenerator<T> constraintIDGenerator, Set<Predicate> predicates, TermPool termPool) {
         this.constraintIDGenerator = constraintIDGenerator;
+        this.termPool = termPool;
         for (Predicate pred : predicates) {
             this.predicatesByName.put(pred.getName(), pred);
         }
@@ -50,7 +62,7 @@ public class LogicSchemaBuilder<T extends LogicConstraintSpec> {
     }
 
     private void addDerivationRule(DerivationRuleSpec drs) {
-        ContextTermFactory contextTermFactory = new ContextTermFactory(drs.getAllVariableNames());
+        ContextTermFactory contextTermFactory = createContextTermFactory(drs.getAllVariableNames());
         predicatesByName.putIfAbsent(
                 drs.getPredicateName(),
                 new MutablePredicate(drs.getPredicateName(), drs.getTermSpecList().size()));
@@ -59,6 +71,11 @@ public class LogicSchemaBuilder<T extends LogicConstraintSpec> {
         mutablePredicate.addDerivationRule(query);
     }
 
+    private ContextTermFactory createContextTermFactory(Set<String> contextVariableNames) {
+        if (Objects.isNull(termPool)) return new ContextTermFactory(contextVariableNames);
+        return new ContextTermFactory(contextVariableNames, termPool);
+    }
+
     private Query buildQuery(List<TermSpec> termSpecList, List<LiteralSpec> bodySpec, ContextTermFactory contextTermFactory) {
         ImmutableTermList headTerms = contextTermFactory.buildTerms(termSpecList);
         ImmutableLiteralsList body = buildBody(bodySpec, contextTermFactory);
@@ -143,7 +160,7 @@ public class LogicSchemaBuilder<T extends LogicConstraintSpec> {
     }
 
     private void addLogicConstraint(ConstraintID constraintID, LogicConstraintSpec lcs) {
-        ContextTermFactory contextTermFactory = new ContextTermFactory(lcs.getAllVariableNames());
+        ContextTermFactory contextTermFactory = createContextTermFactory(lcs.getAllVariableNames());
         if (logicConstraintById.containsKey(constraintID)) throw new RepeatedConstraintIDException(constraintID);
         ImmutableLiteralsList body = buildBody(lcs.getBody(), contextTermFactory);
         logicConstraintById.put(constraintID, new LogicConstraint(constraintID, body));
@@ -2,11 +2,13 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Predicate;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.TermPool;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicConstraintSpec;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicConstraintWithIDSpec;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicConstraintWithoutIDSpec;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicSchemaSpec;
 
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -22,9 +24,21 @@ import java.util.Set;
  */
 public class LogicSchemaFactory<T extends LogicConstraintSpec> {
     private final ConstraintIDGenerator<T> constraintIDGenerator;
+    private final TermPool termPool;
 
     public LogicSchemaFactory(ConstraintIDGenerator<T> constraintIDGenerator) {
         this.constraintIDGenerator = constraintIDGenerator;
+        this.termPool = null;
+    }
+
+    /**
+     * @param constraintIDGenerator not null
+     * @param termPool              not null, pool where to intern the terms of the schemas created
+     */
+    public LogicSchemaFactory(ConstraintIDGenerator<T> constraintIDGenerator, TermPool termPool) {
+        if (Objects.isNull(termPool)) throw new IllegalArgumentException("TermPool cannot be null");
+        this.constraintIDGenerator = constraintIDGenerator;
+        this.termPool = termPool;
     }
 
     public static LogicSchemaFactory<LogicConstraintWithIDSpec> defaultLogicSchemaWithIDsFactory() {
@@ -35,12 +49,20 @@ public class LogicSchemaFactory<T extends LogicConstraintSpec> {
         return new LogicSchemaFactory<>(new IncrementalConstraintIDGenerator());
     }
 
+    /**
+     * @param termPool not null
+     * @return a factory like this one, but interning the terms of the schemas created in the given pool
+     */
+    public LogicSchemaFactory<T> withTermPool(TermPool termPool) {
+        return new LogicSchemaFactory<>(constraintIDGenerator, termPool);
+    }
+
     public LogicSchema createLogicSchema(LogicSchemaSpec<T> logicSchemaSpec) {
         return createLogicSchema(logicSchemaSpec, Set.of());
     }
 
     public LogicSchema createLogicSchema(LogicSchemaSpec<T> logicSchemaSpec, Set<Predicate> relationalSchema) {
-        return new LogicSchemaBuilder<>(constraintIDGenerator, relationalSchema)
+        return new LogicSchemaBuilder<>(constraintIDGenerator, relationalSchema, termPool)
                 .addAllPredicates(logicSchemaSpec.getPredicateSpecList())
                 .addAllDerivationRules(logicSchemaSpec.getDerivationRuleSpecList())
                 .addAllLogicConstraints(logicSchemaSpec.getLogicConstraintSpecList())
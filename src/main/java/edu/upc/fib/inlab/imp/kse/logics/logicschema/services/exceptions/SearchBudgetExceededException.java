@@ -0,0 +1,14 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+
+/**
+ * Exception thrown when an algorithm gives up because its SearchBudget has run out. Hence, the algorithm has no
+ * answer, rather than a negative one.
+ */
+public class SearchBudgetExceededException extends IMPLogicsException {
+
+    public SearchBudgetExceededException(String reason) {
+        super("Search budget exceeded: " + reason);
+    }
+}
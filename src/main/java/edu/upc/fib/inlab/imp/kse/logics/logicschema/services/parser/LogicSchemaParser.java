@@ -2,6 +2,7 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.parser;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Predicate;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.TermPool;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.LogicSchemaFactory;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicConstraintSpec;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicSchemaSpec;
@@ -39,6 +40,20 @@ public abstract class LogicSchemaParser<T extends LogicConstraintSpec> {
         return factory.createLogicSchema(logicSchemaSpec, relationalSchema);
     }
 
+    /**
+     * Parses the schema interning all its terms in the given pool
+     *
+     * @param schemaString     schema to parse
+     * @param relationalSchema predicates already defined
+     * @param termPool         not null
+     * @return the logic schema parsed
+     */
+    public LogicSchema parse(String schemaString, Set<Predicate> relationalSchema, TermPool termPool) {
+        LogicSchemaSpec<T> logicSchemaSpec = parseToSpec(schemaString);
+        LogicSchemaFactory<T> factory = createLogicSchemaFactory().withTermPool(termPool);
+        return factory.createLogicSchema(logicSchemaSpec, relationalSchema);
+    }
+
     public LogicSchemaSpec<T> parseToSpec(String schemaString) {
         CharStream input = CharStreams.fromString(schemaString);
         LogicSchemaGrammarLexer lexer = new LogicSchemaGrammarLexer(input, builtInPredicateNameChecker);
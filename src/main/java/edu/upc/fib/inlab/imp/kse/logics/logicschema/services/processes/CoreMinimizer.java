@@ -0,0 +1,194 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.HomomorphismFinder;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.SamePredicateNameCriteria;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.LogicSchemaBuilder;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.DerivationRuleSpec;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.LogicConstraintWithIDSpec;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.PredicateSpec;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.helpers.DerivationRuleSpecBuilder;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.helpers.LogicConstraintWithIDSpecBuilder;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.helpers.LogicSchemaToSpecHelper;
+
+import java.util.*;
+
+/**
+ * This class is responsible for minimizing the bodies of conjunctive queries, logic constraints, and derivation rules
+ * by computing their core. I.e., removing every literal that is redundant with respect to the rest of the body.
+ * <p>
+ * A literal L is redundant in a body B when there is a homomorphism from B to B - {L} that does not change the
+ * variables appearing in the head (if any). E.g.: "@1 :- P(x, y), P(x, z)" will be transformed into "@1 :- P(x, y)"
+ * <p>
+ * Each time such homomorphism is found, the body is retracted to the image of the homomorphism, which might remove
+ * several literals at once. Moreover, a literal that is not redundant in some body is neither redundant in any
+ * retraction of it. Hence, each literal is only checked once, and the core is found with, at most, one homomorphism
+ * search per literal.
+ * <p>
+ * Derived literals are only mapped to derived literals with the same predicate name, and built-in literals to identical
+ * built-in literals. Thus, the minimized body is always equivalent to the original one.
+ */
+public class CoreMinimizer extends LogicSchemaTransformationProcess {
+
+    private final HomomorphismFinder homomorphismFinder;
+
+    public CoreMinimizer() {
+        this(new HomomorphismFinder(new SamePredicateNameCriteria()));
+    }
+
+    /**
+     * @param homomorphismFinder not null, used to look for the homomorphisms that retract the bodies
+     */
+    public CoreMinimizer(HomomorphismFinder homomorphismFinder) {
+        if (Objects.isNull(homomorphismFinder)) throw new IllegalArgumentException("HomomorphismFinder cannot be null");
+        this.homomorphismFinder = homomorphismFinder;
+    }
+
+    /**
+     * @param logicSchema not null
+     * @return a transformation where the final logicSchema has the bodies of its logic constraints and derivation rules
+     * minimized
+     */
+    @Override
+    public SchemaTransformation executeTransformation(LogicSchema logicSchema) {
+        checkLogicSchema(logicSchema);
+
+        SchemaTraceabilityMap schemaTraceabilityMap = new SchemaTraceabilityMap();
+        List<PredicateSpec> predicateSpecs = LogicSchemaToSpecHelper.buildPredicatesSpecs(logicSchema.getAllPredicates());
+        List<LogicConstraintWithIDSpec> newConstraints = logicSchema.getAllLogicConstraints().stream()
+                .map(lc -> minimizeLogicConstraint(lc, schemaTraceabilityMap))
+                .toList();
+        List<DerivationRuleSpec> newRules = logicSchema.getAllDerivationRules().stream()
+                .map(this::minimizeDerivationRule)
+                .toList();
+
+        LogicSchema transformedSchema = LogicSchemaBuilder.defaultLogicSchemaWithIDsBuilder()
+                .addAllPredicates(predicateSpecs)
+                .addAllLogicConstraints(newConstraints)
+                .addAllDerivationRules(newRules)
+                .build();
+        return new SchemaTransformation(logicSchema, transformedSchema, schemaTraceabilityMap);
+    }
+
+    /**
+     * @param conjunctiveQuery not null
+     * @return a new conjunctive query with the same head, and the core of the body
+     */
+    public ConjunctiveQuery minimize(ConjunctiveQuery conjunctiveQuery) {
+        if (Objects.isNull(conjunctiveQuery)) throw new IllegalArgumentException("ConjunctiveQuery cannot be null");
+        List<Literal> core = computeCore(conjunctiveQuery.getBody(), conjunctiveQuery.getHeadTerms());
+        return QueryFactory.createConjunctiveQuery(conjunctiveQuery.getHeadTerms(), core);
+    }
+
+    /**
+     * @param logicConstraint not null
+     * @return a new logic constraint with the same ID, and the core of the body
+     */
+    public LogicConstraint minimize(LogicConstraint logicConstraint) {
+        if (Objects.isNull(logicConstraint)) throw new IllegalArgumentException("LogicConstraint cannot be null");
+        return new LogicConstraint(logicConstraint.getID(), computeCore(logicConstraint.getBody(), List.of()));
+    }
+
+    /**
+     * @param derivationRule not null
+     * @return the core of the body of the derivation rule, keeping the head variables
+     */
+    public ImmutableLiteralsList minimizeBody(DerivationRule derivationRule) {
+        if (Objects.isNull(derivationRule)) throw new IllegalArgumentException("DerivationRule cannot be null");
+        return new ImmutableLiteralsList(computeCore(derivationRule.getBody(), derivationRule.getHeadTerms()));
+    }
+
+    private LogicConstraintWithIDSpec minimizeLogicConstraint(LogicConstraint lc, SchemaTraceabilityMap schemaTraceabilityMap) {
+        LogicConstraintWithIDSpec logicConstraintWithIDSpec = new LogicConstraintWithIDSpecBuilder()
+                .addConstraintId(lc.getID().id())
+                .addAllLiteralSpecs(computeCore(lc.getBody(), List.of()).stream()
+                                            .map(LogicSchemaToSpecHelper::buildLiteralSpec)
+                                            .toList())
+                .build();
+        schemaTraceabilityMap.addConstraintIDOrigin(lc.getID(), new ConstraintID(logicConstraintWithIDSpec.getId()));
+        return logicConstraintWithIDSpec;
+    }
+
+    private DerivationRuleSpec minimizeDerivationRule(DerivationRule derivationRule) {
+        return new DerivationRuleSpecBuilder()
+                .addHead(
+                        derivationRule.getHead().getPredicateName(),
+                        LogicSchemaToSpecHelper.buildTermsSpecs(derivationRule.getHeadTerms())
+                )
+                .addAllLiteralSpecs(minimizeBody(derivationRule).stream()
+                                            .map(LogicSchemaToSpecHelper::buildLiteralSpec)
+                                            .toList())
+                .build();
+    }
+
+    /**
+     * @param body      not null
+     * @param headTerms not null, terms whose variables must be kept unchanged
+     * @return the literals of body belonging to its core, in the same order
+     */
+    private List<Literal> computeCore(List<Literal> body, List<Term> headTerms) {
+        Substitution headIdentity = new Substitution();
+        for (Term term : headTerms) {
+            if (term instanceof Variable variable) headIdentity.addMapping(variable, variable);
+        }
+
+        List<Literal> core = new ArrayList<>(body);
+        Set<Literal> nonRedundantLiterals = Collections.newSetFromMap(new IdentityHashMap<>());
+        Optional<Literal> candidate = findUncheckedLiteral(core, nonRedundantLiterals);
+        while (candidate.isPresent()) {
+            Literal literal = candidate.get();
+            List<Literal> coreWithoutLiteral = new ArrayList<>(core);
+            coreWithoutLiteral.remove(literal);
+
+            Optional<Substitution> retraction = homomorphismFinder.findHomomorphism(core, coreWithoutLiteral, headIdentity);
+            if (retraction.isPresent()) core = computeImage(core, coreWithoutLiteral, retraction.get());
+            else nonRedundantLiterals.add(literal);
+            candidate = findUncheckedLiteral(core, nonRedundantLiterals);
+        }
+        return core;
+    }
+
+    /**
+     * Literals are checked from the last to the first, so that, among redundant literals, the first ones are kept
+     */
+    private static Optional<Literal> findUncheckedLiteral(List<Literal> core, Set<Literal> nonRedundantLiterals) {
+        for (int i = core.size() - 1; i >= 0; --i) {
+            if (!nonRedundantLiterals.contains(core.get(i))) return Optional.of(core.get(i));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the literals of range that are the image of some literal of domain through the homomorphism, in the
+     * order they appear in range
+     */
+    private static List<Literal> computeImage(List<Literal> domain, List<Literal> range, Substitution homomorphism) {
+        List<Literal> mappedLiterals = domain.stream()
+                .map(literal -> literal.applySubstitution(homomorphism))
+                .toList();
+        return range.stream()
+                .filter(rangeLiteral -> mappedLiterals.stream().anyMatch(mappedLiteral -> isSameLiteral(mappedLiteral, rangeLiteral)))
+                .toList();
+    }
+
+    /**
+     * Comparisons are also considered the same literal as their symmetric (e.g. "x < y" and "y > x"), since the
+     * homomorphism might map a comparison to the symmetric of its image
+     */
+    private static boolean isSameLiteral(Literal first, Literal second) {
+        if (first.getClass() != second.getClass()) return false;
+        if (first instanceof ComparisonBuiltInLiteral firstComparison && second instanceof ComparisonBuiltInLiteral secondComparison
+                && firstComparison.getOperator().isSymmetric(secondComparison.getOperator())
+                && firstComparison.getLeftTerm().equals(secondComparison.getRightTerm())
+                && firstComparison.getRightTerm().equals(secondComparison.getLeftTerm())) {
+            return true;
+        }
+        if (!first.getTerms().equals(second.getTerms())) return false;
+        if (first instanceof OrdinaryLiteral firstOrdinary && second instanceof OrdinaryLiteral secondOrdinary) {
+            return firstOrdinary.isPositive() == secondOrdinary.isPositive()
+                    && firstOrdinary.getPredicateName().equals(secondOrdinary.getPredicateName());
+        }
+        return ((BuiltInLiteral) first).getOperationName().equals(((BuiltInLiteral) second).getOperationName());
+    }
+}
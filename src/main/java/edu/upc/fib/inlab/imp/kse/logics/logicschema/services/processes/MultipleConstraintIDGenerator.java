@@ -18,4 +18,22 @@ public interface MultipleConstraintIDGenerator {
      */
     List<ConstraintID> generateNewConstraintsIDs(ConstraintID originalID, int numberOfRequiredIDs);
 
+    /**
+     * Generates the index-th constraintID of the list that {@link #generateNewConstraintsIDs} would return, without
+     * knowing the size of such list. This is thought to be used when the constraintIDs are required one at a time, and
+     * it is only known whether a single one is required. By default, it generates a list with, at least, index+1
+     * constraintIDs, so it assumes that the index-th constraintID does not depend on the number of required IDs, as
+     * long as there are several. Implementations are encouraged to override it.
+     *
+     * @param originalID          the original constraintID
+     * @param index               not negative, position of the constraintID to generate
+     * @param isTheOnlyRequiredID whether a single constraintID is required
+     * @return the index-th constraintID
+     */
+    default ConstraintID generateNewConstraintID(ConstraintID originalID, long index, boolean isTheOnlyRequiredID) {
+        if (isTheOnlyRequiredID) return generateNewConstraintsIDs(originalID, 1).get(0);
+        int numberOfRequiredIDs = Math.toIntExact(Math.max(index + 1, 2));
+        return generateNewConstraintsIDs(originalID, numberOfRequiredIDs).get((int) index);
+    }
+
 }
@@ -1,11 +1,24 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes;
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.VariableSlots;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.LogicSchemaFactory;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.*;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.helpers.LogicSchemaToSpecHelper;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.exceptions.RecursivePredicateUnfoldingException;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class is responsible for recursively unfolding the positive derived literals of a logic schema.
@@ -25,6 +38,24 @@ import java.util.*;
  * set to true.
  * <p>
  * To see the cases in which such unfolding can be performed, please,check OrdinaryLiteral class
+ * <p>
+ * The derivation rules are unfolded on demand, the first time one of their predicates has to be unfolded. Hence, the
+ * definition of each derived predicate is unfolded only once, and each of its occurrences, in any constraint or rule,
+ * just instantiates its unfolded bodies. Recursion through negated literals (e.g., "Even(x) :- Num(x), not(Odd(x))",
+ * "Odd(x) :- Num(x), not(Even(x))") is allowed, as long as such literals are not unfolded. Otherwise, a recursive
+ * predicate would be unfolded forever, so a RecursivePredicateUnfoldingException is thrown, before unfolding anything.
+ * <p>
+ * Since the number of unfoldings might grow exponentially, a supplier of SearchBudgets can be injected to limit the
+ * work done by each unfolding of a schema, which starts with a new budget from the supplier. Each unfolded body, and
+ * each instantiation of an unfolded body, consumes one node of the budget, and the unfolding throws a
+ * SearchBudgetExceededException as soon as the budget runs out. By default, the budget is unlimited.
+ * <p>
+ * When a ForkJoinPool is given, the unfolder runs in parallel: the derivation rules, and the logic constraints, are
+ * unfolded by different tasks, each of them with its own fresh variables. Each derivation rule is still unfolded once,
+ * by the first task requiring it, and only the tasks requiring that same rule wait for it. The results
+ * are gathered in the order of the schema, and the ConstraintIDs and the SchemaTraceabilityMap are computed afterwards,
+ * so the result is exactly the same as the sequential one. Only the point where a limited budget runs out might change
+ * from one execution to another. The lazy stream of unfolded constraints is always sequential.
  *
  * @see OrdinaryLiteral#unfoldWithNegationExtension
  */
@@ -32,6 +63,8 @@ public class SchemaUnfolder extends LogicSchemaTransformationProcess {
 
     private final MultipleConstraintIDGenerator multipleConstraintIDGenerator;
     private final boolean unfoldNegatedLiterals;
+    private final Supplier<SearchBudget> searchBudgetSupplier;
+    private final ForkJoinPool forkJoinPool;
 
     /**
      * Creates an SchemaUnfolder that will use the SuffixMultipleConstraintIDGenerator as a strategy for creating new
@@ -57,14 +90,48 @@ public class SchemaUnfolder extends LogicSchemaTransformationProcess {
      * @param unfoldNegatedLiterals         , if true, the method tries to unfold negated literals too
      */
     public SchemaUnfolder(MultipleConstraintIDGenerator multipleConstraintIDGenerator, boolean unfoldNegatedLiterals) {
-        checkParameters(multipleConstraintIDGenerator);
+        this(multipleConstraintIDGenerator, unfoldNegatedLiterals, SearchBudget::unlimited);
+    }
+
+    /**
+     * Creates an SchemaUnfolder that will use the given multipleConstraintIDGenerator strategy for creating new
+     * constraintIDs, if necessary, and give up when the budget of an unfolding runs out.
+     *
+     * @param multipleConstraintIDGenerator not null
+     * @param unfoldNegatedLiterals         , if true, the method tries to unfold negated literals too
+     * @param searchBudgetSupplier          not null, gives the budget of each unfolding of this unfolder
+     */
+    public SchemaUnfolder(MultipleConstraintIDGenerator multipleConstraintIDGenerator, boolean unfoldNegatedLiterals, Supplier<SearchBudget> searchBudgetSupplier) {
+        checkParameters(multipleConstraintIDGenerator, searchBudgetSupplier);
+        this.multipleConstraintIDGenerator = multipleConstraintIDGenerator;
+        this.unfoldNegatedLiterals = unfoldNegatedLiterals;
+        this.searchBudgetSupplier = searchBudgetSupplier;
+        this.forkJoinPool = null;
+    }
+
+    /**
+     * Creates an SchemaUnfolder that will unfold in parallel, in the given forkJoinPool, producing the same result as
+     * the sequential one.
+     *
+     * @param multipleConstraintIDGenerator not null
+     * @param unfoldNegatedLiterals         , if true, the method tries to unfold negated literals too
+     * @param searchBudgetSupplier          not null, gives the budget of each unfolding of this unfolder
+     * @param forkJoinPool                  not null, pool where to run the tasks, e.g., ForkJoinPool.commonPool()
+     */
+    public SchemaUnfolder(MultipleConstraintIDGenerator multipleConstraintIDGenerator, boolean unfoldNegatedLiterals, Supplier<SearchBudget> searchBudgetSupplier, ForkJoinPool forkJoinPool) {
+        checkParameters(multipleConstraintIDGenerator, searchBudgetSupplier);
+        if (Objects.isNull(forkJoinPool)) throw new IllegalArgumentException("ForkJoinPool cannot be null");
         this.multipleConstraintIDGenerator = multipleConstraintIDGenerator;
         this.unfoldNegatedLiterals = unfoldNegatedLiterals;
+        this.searchBudgetSupplier = searchBudgetSupplier;
+        this.forkJoinPool = forkJoinPool;
     }
 
-    private static void checkParameters(MultipleConstraintIDGenerator multipleConstraintIDGenerator) {
+    private static void checkParameters(MultipleConstraintIDGenerator multipleConstraintIDGenerator, Supplier<SearchBudget> searchBudgetSupplier) {
         if (Objects.isNull(multipleConstraintIDGenerator))
             throw new IllegalArgumentException("MultipleConstraintIDGenerator cannot be null");
+        if (Objects.isNull(searchBudgetSupplier))
+            throw new IllegalArgumentException("SearchBudgetSupplier cannot be null");
     }
 
     /**
@@ -86,6 +153,48 @@ public class SchemaUnfolder extends LogicSchemaTransformationProcess {
         return unfoldTransformation(schema).transformed();
     }
 
+    /**
+     * Lazily unfolds the logic constraints of the given schema. The constraints are produced one at a time, in the
+     * same order, and with the same ConstraintIDs, as in the schema returned by {@link #unfold(LogicSchema)}, but up to
+     * the names of their fresh variables. Hence, the consumer can stop at any moment.
+     * <p>
+     * Unlike {@link #unfold(LogicSchema)}, the unfolded derivation rules are not cached: each body is unfolded
+     * depth-first, repeatedly unfolding its leftmost unfoldable literal, so only the pending unfoldings of the literals
+     * unfolded to reach the current constraint are kept in memory. The whole stream is a single unfolding, consuming a
+     * single budget, where each intermediate body consumes one node.
+     * <p>
+     * The literals of the produced constraints use the predicates of the given schema. Since literals are immutable,
+     * several of the produced constraints might share some literal.
+     *
+     * @param schema not null
+     * @return a sequential, ordered stream of the unfolded logic constraints
+     */
+    public Stream<LogicConstraint> streamUnfoldedLogicConstraints(LogicSchema schema) {
+        return streamUnfoldedLogicConstraints(schema, (newConstraintID, originalConstraintID) -> {
+        });
+    }
+
+    /**
+     * Lazily unfolds the logic constraints of the given schema, recording in the given map the original constraint of
+     * each produced constraint, as it is produced.
+     *
+     * @param schema                not null
+     * @param schemaTraceabilityMap not null
+     * @return a sequential, ordered stream of the unfolded logic constraints
+     * @see #streamUnfoldedLogicConstraints(LogicSchema)
+     */
+    public Stream<LogicConstraint> streamUnfoldedLogicConstraints(LogicSchema schema, SchemaTraceabilityMap schemaTraceabilityMap) {
+        if (Objects.isNull(schemaTraceabilityMap)) throw new IllegalArgumentException("SchemaTraceabilityMap cannot be null");
+        return streamUnfoldedLogicConstraints(schema, schemaTraceabilityMap::addConstraintIDOrigin);
+    }
+
+    private Stream<LogicConstraint> streamUnfoldedLogicConstraints(LogicSchema schema, BiConsumer<ConstraintID, ConstraintID> originRecorder) {
+        checkLogicSchema(schema);
+        checkUnfoldingTerminates(schema.getAllLogicConstraints().stream().map(LogicConstraint::getBody).toList());
+        Iterator<LogicConstraint> unfoldedLogicConstraints = new UnfoldedLogicConstraints(schema, originRecorder);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(unfoldedLogicConstraints, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     private SchemaTransformation unfoldTransformation(LogicSchema schema) {
         checkLogicSchema(schema);
 
@@ -97,87 +206,149 @@ public class SchemaUnfolder extends LogicSchemaTransformationProcess {
     }
 
     private LogicSchemaSpec<LogicConstraintWithIDSpec> computeUnfoldedLogicSchemaSpec(LogicSchema schema, SchemaTraceabilityMap schemaTraceabilityMap) {
+        checkUnfoldingTerminates(schema.getAllNormalClauses().stream().map(NormalClause::getBody).toList());
+        UnfoldedDefinitions unfoldedDefinitions = new UnfoldedDefinitions();
         LogicSchemaSpec<LogicConstraintWithIDSpec> logicSchemaSpec = new LogicSchemaSpec<>();
         logicSchemaSpec.addPredicateSpecs(computePredicateSpecs(schema));
-        logicSchemaSpec.addDerivationRuleSpecs(computeUnfoldedDerivationRuleSpecs(schema));
-        logicSchemaSpec.addLogicConstraintSpecs(computeUnfoldedLogicConstraintSpecs(schema, schemaTraceabilityMap));
+        logicSchemaSpec.addDerivationRuleSpecs(computeUnfoldedDerivationRuleSpecs(schema, unfoldedDefinitions));
+        logicSchemaSpec.addLogicConstraintSpecs(computeUnfoldedLogicConstraintSpecs(schema, unfoldedDefinitions, schemaTraceabilityMap));
         return logicSchemaSpec;
     }
 
-    private LogicConstraintWithIDSpec[] computeUnfoldedLogicConstraintSpecs(LogicSchema schema, SchemaTraceabilityMap schemaTraceabilityMap) {
+    private LogicConstraintWithIDSpec[] computeUnfoldedLogicConstraintSpecs(LogicSchema schema, UnfoldedDefinitions unfoldedDefinitions, SchemaTraceabilityMap schemaTraceabilityMap) {
+        List<LogicConstraint> originalConstraints = List.copyOf(schema.getAllLogicConstraints());
+        List<List<BodySpec>> unfoldedBodySpecsByConstraint = mapInOrder(originalConstraints,
+                                                                        logicConstraint -> computeUnfoldedBodySpecs(logicConstraint, unfoldedDefinitions));
+
+        //The ConstraintIDs, and their traceability, are computed sequentially, so that they do not depend on the tasks
         List<LogicConstraintWithIDSpec> result = new LinkedList<>();
-        for (LogicConstraint logicConstraint : schema.getAllLogicConstraints()) {
-            result.addAll(computeUnfoldedLogicConstraintSpecs(logicConstraint, schemaTraceabilityMap));
+        for (int i = 0; i < originalConstraints.size(); ++i) {
+            result.addAll(computeUnfoldedLogicConstraintSpecs(originalConstraints.get(i), unfoldedBodySpecsByConstraint.get(i), schemaTraceabilityMap));
         }
         return result.toArray(new LogicConstraintWithIDSpec[0]);
     }
 
-    private List<LogicConstraintWithIDSpec> computeUnfoldedLogicConstraintSpecs(LogicConstraint originalConstraint, SchemaTraceabilityMap schemaTraceabilityMap) {
-        List<BodySpec> unfoldedBodySpecs = computeUnfoldedBodySpec(originalConstraint.getBody());
+    private List<BodySpec> computeUnfoldedBodySpecs(LogicConstraint originalConstraint, UnfoldedDefinitions unfoldedDefinitions) {
+        ImmutableLiteralsList body = originalConstraint.getBody();
+        UnfoldedDefinitions.BodyUnfoldings unfoldedBodies = unfoldedDefinitions.unfoldBodyLazily(body, new FreshVariableScope(body.getUsedVariables()));
 
+        List<BodySpec> result = new ArrayList<>();
+        unfoldedBodies.forEachRemaining(unfoldedBody -> result.add(LogicSchemaToSpecHelper.buildBodySpec(unfoldedBody)));
+        return result;
+    }
+
+    private List<LogicConstraintWithIDSpec> computeUnfoldedLogicConstraintSpecs(LogicConstraint originalConstraint, List<BodySpec> unfoldedBodySpecs, SchemaTraceabilityMap schemaTraceabilityMap) {
         List<ConstraintID> constraintIDsToUse = multipleConstraintIDGenerator.generateNewConstraintsIDs(originalConstraint.getID(),
                                                                                                         unfoldedBodySpecs.size());
 
         List<LogicConstraintWithIDSpec> result = new LinkedList<>();
-        for (int i = 0; i < unfoldedBodySpecs.size(); ++i) {
+        for (int i = 0; i < constraintIDsToUse.size(); ++i) {
             ConstraintID newConstraintID = constraintIDsToUse.get(i);
-            BodySpec newBodySpec = unfoldedBodySpecs.get(i);
             schemaTraceabilityMap.addConstraintIDOrigin(newConstraintID, originalConstraint.getID());
-            result.add(new LogicConstraintWithIDSpec(newConstraintID.id(), newBodySpec));
+            result.add(new LogicConstraintWithIDSpec(newConstraintID.id(), unfoldedBodySpecs.get(i)));
         }
 
         return result;
     }
 
-    private DerivationRuleSpec[] computeUnfoldedDerivationRuleSpecs(LogicSchema schema) {
+    private DerivationRuleSpec[] computeUnfoldedDerivationRuleSpecs(LogicSchema schema, UnfoldedDefinitions unfoldedDefinitions) {
+        List<DerivationRule> originalDerivationRules = List.copyOf(schema.getAllDerivationRules());
         List<DerivationRuleSpec> result = new LinkedList<>();
-        for (DerivationRule derivationRule : schema.getAllDerivationRules()) {
-            result.addAll(computeUnfoldedDerivationRuleSpecs(derivationRule.getHead(), derivationRule.getBody()));
+        for (List<DerivationRuleSpec> derivationRuleSpecs : mapInOrder(originalDerivationRules,
+                                                                       derivationRule -> computeUnfoldedDerivationRuleSpecs(derivationRule, unfoldedDefinitions))) {
+            result.addAll(derivationRuleSpecs);
         }
         return result.toArray(new DerivationRuleSpec[0]);
     }
 
-    private List<DerivationRuleSpec> computeUnfoldedDerivationRuleSpecs(Atom head, ImmutableLiteralsList body) {
+    private List<DerivationRuleSpec> computeUnfoldedDerivationRuleSpecs(DerivationRule derivationRule, UnfoldedDefinitions unfoldedDefinitions) {
+        Atom head = derivationRule.getHead();
         String predicateName = head.getPredicateName();
-        ImmutableTermList terms = head.getTerms();
-        List<TermSpec> termSpecs = LogicSchemaToSpecHelper.buildTermsSpecs(terms);
-        List<BodySpec> unfoldedBodySpecs = computeUnfoldedBodySpec(body);
+        List<TermSpec> termSpecs = LogicSchemaToSpecHelper.buildTermsSpecs(head.getTerms());
+
+        return unfoldedDefinitions.getUnfoldedDefinition(derivationRule).bodies().stream()
+                .map(body -> new DerivationRuleSpec(predicateName, termSpecs, LogicSchemaToSpecHelper.buildBodySpec(body)))
+                .toList();
+    }
+
+    /**
+     * @return the result of applying the given function to each of the given elements, in the same order. When this
+     * unfolder is parallel, each element is processed by a different task.
+     */
+    private <T, R> List<R> mapInOrder(List<T> elements, Function<T, R> function) {
+        if (Objects.isNull(forkJoinPool)) return elements.stream().map(function).toList();
 
-        return unfoldedBodySpecs.stream()
-                .map(bs -> new DerivationRuleSpec(predicateName, termSpecs, bs))
+        List<ForkJoinTask<R>> tasks = elements.stream()
+                .map(element -> forkJoinPool.submit(() -> function.apply(element)))
                 .toList();
+        return tasks.stream().map(ForkJoinTask::join).toList();
+    }
+
+    private boolean isNotTheSameAs(List<ImmutableLiteralsList> unfoldingResult, Literal literal) {
+        boolean isTheSameAs = unfoldingResult.size() == 1 &&
+                unfoldingResult.get(0).size() == 1 &&
+                unfoldingResult.get(0).get(0).equals(literal);
+        return !isTheSameAs;
     }
 
-    private List<BodySpec> computeUnfoldedBodySpec(ImmutableLiteralsList body) {
-        Optional<Integer> indexOfLiteralToUnfold = getIndexOfUnfoldableLiteral(body);
-        if (indexOfLiteralToUnfold.isPresent()) {
-            int index = indexOfLiteralToUnfold.get();
-            List<BodySpec> result = new LinkedList<>();
-            for (ImmutableLiteralsList bodyWithUnfoldedLiteral : body.unfold(index, unfoldNegatedLiterals)) {
-                result.addAll(computeUnfoldedBodySpec(bodyWithUnfoldedLiteral));
+    /**
+     * Checks that unfolding the given bodies terminates, i.e., that no derived predicate has to be unfolded while
+     * unfolding itself. The derived predicates to unfold form a graph, where each predicate appears once for each
+     * polarity it is unfolded with, since the negation extension unfolds a negated literal into the negation of the
+     * literals of its derivation rules. Hence, the unfolding terminates if such graph has no cycle.
+     *
+     * @param bodies not null
+     * @throws RecursivePredicateUnfoldingException if some derived predicate has to be unfolded while unfolding itself
+     */
+    private void checkUnfoldingTerminates(List<ImmutableLiteralsList> bodies) {
+        Set<UnfoldedPredicate> visitedPredicates = new HashSet<>();
+        Set<UnfoldedPredicate> predicatesInPath = new HashSet<>();
+        for (ImmutableLiteralsList body : bodies) {
+            for (UnfoldedPredicate unfoldedPredicate : getUnfoldedPredicates(body, true)) {
+                checkUnfoldingTerminates(unfoldedPredicate, visitedPredicates, predicatesInPath);
             }
-            return result;
-        } else return List.of(LogicSchemaToSpecHelper.buildBodySpec(body));
+        }
     }
 
-    private Optional<Integer> getIndexOfUnfoldableLiteral(ImmutableLiteralsList body) {
-        int index = 0;
+    private void checkUnfoldingTerminates(UnfoldedPredicate unfoldedPredicate, Set<UnfoldedPredicate> visitedPredicates, Set<UnfoldedPredicate> predicatesInPath) {
+        if (predicatesInPath.contains(unfoldedPredicate)) throw new RecursivePredicateUnfoldingException(unfoldedPredicate.predicate());
+        if (!visitedPredicates.add(unfoldedPredicate)) return;
+
+        predicatesInPath.add(unfoldedPredicate);
+        for (DerivationRule derivationRule : unfoldedPredicate.predicate().getDerivationRules()) {
+            for (UnfoldedPredicate nextUnfoldedPredicate : getUnfoldedPredicates(derivationRule.getBody(), unfoldedPredicate.isPositive())) {
+                checkUnfoldingTerminates(nextUnfoldedPredicate, visitedPredicates, predicatesInPath);
+            }
+        }
+        predicatesInPath.remove(unfoldedPredicate);
+    }
+
+    /**
+     * @param keepPolarity whether the literals of the body are unfolded as they are, or negated
+     * @return the derived predicates of the body that are unfolded, with the polarity they are unfolded with
+     */
+    private List<UnfoldedPredicate> getUnfoldedPredicates(ImmutableLiteralsList body, boolean keepPolarity) {
+        List<UnfoldedPredicate> result = new ArrayList<>();
         for (Literal literal : body) {
             if (literal instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isDerived()) {
-                //We try to unfold the literal, and if we see a different one, it means that it can be unfolded
-                List<ImmutableLiteralsList> unfoldingResult = ordinaryLiteral.unfold(unfoldNegatedLiterals);
-                if (isNotTheSameAs(unfoldingResult, literal)) return Optional.of(index);
+                Predicate predicate = ordinaryLiteral.getPredicate();
+                boolean isPositive = ordinaryLiteral.isPositive() == keepPolarity;
+                if (isPositive || unfoldNegatedLiterals && canUnfoldNegation(predicate)) {
+                    result.add(new UnfoldedPredicate(predicate, isPositive));
+                }
             }
-            index++;
         }
-        return Optional.empty();
+        return result;
     }
 
-    private boolean isNotTheSameAs(List<ImmutableLiteralsList> unfoldingResult, Literal literal) {
-        boolean isTheSameAs = unfoldingResult.size() == 1 &&
-                unfoldingResult.get(0).size() == 1 &&
-                unfoldingResult.get(0).get(0).equals(literal);
-        return !isTheSameAs;
+    /**
+     * @return whether the negated literals of the given derived predicate are unfolded by the negation extension
+     * @see OrdinaryLiteral#unfold(boolean, FreshVariableScope)
+     */
+    private static boolean canUnfoldNegation(Predicate predicate) {
+        List<DerivationRule> derivationRules = predicate.getDerivationRules();
+        return derivationRules.stream().allMatch(derivationRule -> derivationRule.getExistentialVariables().isEmpty()) &&
+                derivationRules.stream().flatMap(derivationRule -> derivationRule.getBody().stream()).allMatch(Literal::canBeNegated);
     }
 
     private PredicateSpec[] computePredicateSpecs(LogicSchema schema) {
@@ -186,4 +357,311 @@ public class SchemaUnfolder extends LogicSchemaTransformationProcess {
         return predicateSpecs.toArray(predicateSpecs.toArray(new PredicateSpec[0]));
     }
 
+    /**
+     * Derivation rules of a schema with their bodies already unfolded. Each rule is unfolded the first time it is
+     * requested, so that the rules of a derived predicate are unfolded only once. Then, unfolding an occurrence of such
+     * predicate just instantiates the cached unfolded bodies, renaming their variables.
+     * <p>
+     * Each rule is unfolded by the first thread requesting it, while the other threads requesting the same rule wait
+     * for it. Since the schema is checked not to be recursive beforehand, no thread waits for a rule it is unfolding.
+     * <p>
+     * Each UnfoldedDefinitions belongs to a single unfolding of a schema, and consumes its own SearchBudget.
+     */
+    private class UnfoldedDefinitions {
+        private final Map<DerivationRule, CompletableFuture<UnfoldedDefinition>> unfoldedDefinitionsByRule = new ConcurrentHashMap<>();
+        private final SearchBudget searchBudget = searchBudgetSupplier.get();
+
+        private UnfoldedDefinition unfoldDefinition(DerivationRule derivationRule) {
+            FreshVariableScope freshVariableScope = new FreshVariableScope(derivationRule.getBody().getUsedVariables());
+            freshVariableScope.markAllAsUsed(derivationRule.getUniversalVariables());
+            List<ImmutableLiteralsList> bodies = unfoldBody(derivationRule.getBody(), freshVariableScope);
+            List<VariableSlots> slots = new ArrayList<>(bodies.size());
+            for (ImmutableLiteralsList body : bodies) {
+                Set<Variable> variables = new LinkedHashSet<>(derivationRule.getUniversalVariables());
+                variables.addAll(body.getUsedVariables());
+                slots.add(VariableSlots.of(variables));
+            }
+            return new UnfoldedDefinition(derivationRule.getHead(), bodies, slots);
+        }
+
+        UnfoldedDefinition getUnfoldedDefinition(DerivationRule derivationRule) {
+            CompletableFuture<UnfoldedDefinition> unfoldedDefinition = unfoldedDefinitionsByRule.get(derivationRule);
+            if (Objects.isNull(unfoldedDefinition)) {
+                CompletableFuture<UnfoldedDefinition> newUnfoldedDefinition = new CompletableFuture<>();
+                unfoldedDefinition = unfoldedDefinitionsByRule.putIfAbsent(derivationRule, newUnfoldedDefinition);
+                if (Objects.isNull(unfoldedDefinition)) return unfoldDefinitionInto(derivationRule, newUnfoldedDefinition);
+            }
+            return join(unfoldedDefinition);
+        }
+
+        private UnfoldedDefinition unfoldDefinitionInto(DerivationRule derivationRule, CompletableFuture<UnfoldedDefinition> unfoldedDefinition) {
+            try {
+                UnfoldedDefinition result = unfoldDefinition(derivationRule);
+                unfoldedDefinition.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                unfoldedDefinition.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        /**
+         * @return the definition unfolded by another thread, throwing the same exception it threw, if any
+         */
+        private static UnfoldedDefinition join(CompletableFuture<UnfoldedDefinition> unfoldedDefinition) {
+            try {
+                return unfoldedDefinition.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+                if (e.getCause() instanceof Error error) throw error;
+                throw e;
+            }
+        }
+
+        /**
+         * @param freshVariableScope containing, at least, the variables of the body
+         * @return the unfoldings of the given body, which are computed as they are requested
+         */
+        BodyUnfoldings unfoldBodyLazily(ImmutableLiteralsList body, FreshVariableScope freshVariableScope) {
+            return new BodyUnfoldings(body, freshVariableScope);
+        }
+
+        List<ImmutableLiteralsList> unfoldBody(ImmutableLiteralsList body, FreshVariableScope freshVariableScope) {
+            BodyUnfoldings bodyUnfoldings = unfoldBodyLazily(body, freshVariableScope);
+            List<ImmutableLiteralsList> result = new ArrayList<>();
+            bodyUnfoldings.forEachRemaining(result::add);
+            return result;
+        }
+
+        private List<ImmutableLiteralsList> unfoldLiteral(Literal literal, FreshVariableScope freshVariableScope) {
+            if (literal instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isDerived()) {
+                if (ordinaryLiteral.isPositive()) {
+                    return instantiateUnfoldedDefinitions(ordinaryLiteral.getAtom(), freshVariableScope);
+                } else if (unfoldNegatedLiterals) {
+                    //The negation extension is not memoized, but the unfoldings it brings are unfolded further
+                    List<ImmutableLiteralsList> unfoldingResult = ordinaryLiteral.unfold(true, freshVariableScope);
+                    if (isNotTheSameAs(unfoldingResult, literal)) {
+                        List<ImmutableLiteralsList> result = new LinkedList<>();
+                        for (ImmutableLiteralsList unfoldedLiterals : unfoldingResult) {
+                            result.addAll(unfoldBody(unfoldedLiterals, freshVariableScope));
+                        }
+                        return result;
+                    }
+                }
+            }
+            return List.of(new ImmutableLiteralsList(literal));
+        }
+
+        private List<ImmutableLiteralsList> instantiateUnfoldedDefinitions(Atom atom, FreshVariableScope freshVariableScope) {
+            List<ImmutableLiteralsList> result = new LinkedList<>();
+            for (DerivationRule derivationRule : atom.getPredicate().getDerivationRules()) {
+                UnfoldedDefinition unfoldedDefinition = getUnfoldedDefinition(derivationRule);
+                for (int i = 0; i < unfoldedDefinition.bodies().size(); ++i) {
+                    searchBudget.consume();
+                    result.add(atom.unfold(unfoldedDefinition.head(), unfoldedDefinition.bodies().get(i),
+                                           unfoldedDefinition.slots().get(i), freshVariableScope));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Unfoldings of a body, produced one at a time. They are the combinations of the unfoldings of each of its
+         * literals, varying the last literals first, as if the leftmost unfoldable literal was repeatedly unfolded.
+         * The unfoldings of each literal are computed once, and shared by all the combinations, since their fresh
+         * variables do not clash with the ones of the other literals.
+         */
+        class BodyUnfoldings implements Iterator<ImmutableLiteralsList> {
+            private final List<List<ImmutableLiteralsList>> unfoldingsByLiteral;
+            private final int[] currentUnfoldingIndexes;
+            private boolean hasNext = true;
+
+            BodyUnfoldings(ImmutableLiteralsList body, FreshVariableScope freshVariableScope) {
+                this.unfoldingsByLiteral = new ArrayList<>(body.size());
+                for (Literal literal : body) {
+                    List<ImmutableLiteralsList> literalUnfoldings = unfoldLiteral(literal, freshVariableScope);
+                    unfoldingsByLiteral.add(literalUnfoldings);
+                    if (literalUnfoldings.isEmpty()) hasNext = false;
+                }
+                this.currentUnfoldingIndexes = new int[body.size()];
+            }
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public ImmutableLiteralsList next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                searchBudget.consume();
+
+                List<Literal> unfoldedBody = new ArrayList<>();
+                for (int literalIndex = 0; literalIndex < currentUnfoldingIndexes.length; ++literalIndex) {
+                    unfoldedBody.addAll(unfoldingsByLiteral.get(literalIndex).get(currentUnfoldingIndexes[literalIndex]));
+                }
+                hasNext = moveToNextCombination();
+                return new ImmutableLiteralsList(unfoldedBody);
+            }
+
+            /**
+             * @return whether there is a next combination, i.e., whether the indexes did not go back to the first one
+             */
+            private boolean moveToNextCombination() {
+                for (int literalIndex = currentUnfoldingIndexes.length - 1; literalIndex >= 0; --literalIndex) {
+                    if (++currentUnfoldingIndexes[literalIndex] < unfoldingsByLiteral.get(literalIndex).size()) return true;
+                    currentUnfoldingIndexes[literalIndex] = 0;
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Produces, one at a time, the unfolded logic constraints of a schema, together with their ConstraintIDs. Since
+     * the number of unfoldings of a constraint is not known in advance, the next one is looked ahead to know whether
+     * the first one is the only one.
+     */
+    private class UnfoldedLogicConstraints implements Iterator<LogicConstraint> {
+        private final Iterator<LogicConstraint> originalConstraints;
+        private final SearchBudget searchBudget = searchBudgetSupplier.get();
+        private final BiConsumer<ConstraintID, ConstraintID> originRecorder;
+        private LogicConstraint currentOriginalConstraint;
+        private Iterator<ImmutableLiteralsList> currentBodyUnfoldings = Collections.emptyIterator();
+        private long currentIndex;
+
+        UnfoldedLogicConstraints(LogicSchema schema, BiConsumer<ConstraintID, ConstraintID> originRecorder) {
+            this.originalConstraints = schema.getAllLogicConstraints().iterator();
+            this.originRecorder = originRecorder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentBodyUnfoldings.hasNext() && originalConstraints.hasNext()) {
+                currentOriginalConstraint = originalConstraints.next();
+                currentBodyUnfoldings = new DepthFirstBodyUnfoldings(currentOriginalConstraint.getBody(), searchBudget);
+                currentIndex = 0;
+            }
+            return currentBodyUnfoldings.hasNext();
+        }
+
+        @Override
+        public LogicConstraint next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ImmutableLiteralsList unfoldedBody = currentBodyUnfoldings.next();
+            boolean isTheOnlyUnfolding = currentIndex == 0 && !currentBodyUnfoldings.hasNext();
+            ConstraintID originalConstraintID = currentOriginalConstraint.getID();
+            ConstraintID newConstraintID = multipleConstraintIDGenerator.generateNewConstraintID(originalConstraintID,
+                                                                                                 currentIndex++,
+                                                                                                 isTheOnlyUnfolding);
+            LogicConstraint unfoldedConstraint = new LogicConstraint(newConstraintID, unfoldedBody);
+            originRecorder.accept(newConstraintID, originalConstraintID);
+            return unfoldedConstraint;
+        }
+    }
+
+    /**
+     * Depth-first traversal of the unfoldings of a body, which repeatedly unfolds the leftmost unfoldable literal, as
+     * {@link ImmutableLiteralsList#unfoldRecursivelyAsStream()} does. It keeps a stack with the pending unfoldings of
+     * each unfolded literal, and nothing else, so the derived predicates are unfolded again at each occurrence.
+     */
+    private class DepthFirstBodyUnfoldings implements Iterator<ImmutableLiteralsList> {
+        private final Deque<PendingUnfoldings> pendingUnfoldings = new ArrayDeque<>();
+        private final FreshVariableScope freshVariableScope;
+        private final SearchBudget searchBudget;
+        private ImmutableLiteralsList nextUnfolding;
+
+        DepthFirstBodyUnfoldings(ImmutableLiteralsList body, SearchBudget searchBudget) {
+            this.freshVariableScope = new FreshVariableScope(body.getUsedVariables());
+            this.searchBudget = searchBudget;
+            visit(body, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (Objects.isNull(nextUnfolding) && !pendingUnfoldings.isEmpty()) {
+                PendingUnfoldings currentUnfoldings = pendingUnfoldings.peek();
+                if (!currentUnfoldings.hasNext()) {
+                    pendingUnfoldings.pop();
+                    continue;
+                }
+                visit(currentUnfoldings.next(), currentUnfoldings.unfoldedLiteralIndex());
+            }
+            return Objects.nonNull(nextUnfolding);
+        }
+
+        @Override
+        public ImmutableLiteralsList next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ImmutableLiteralsList result = nextUnfolding;
+            nextUnfolding = null;
+            return result;
+        }
+
+        /**
+         * @param firstIndexToCheck index of the first literal that might be unfoldable, since the previous ones are not
+         */
+        private void visit(ImmutableLiteralsList body, int firstIndexToCheck) {
+            searchBudget.consume();
+            for (int index = firstIndexToCheck; index < body.size(); ++index) {
+                if (body.get(index) instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isDerived()) {
+                    if (ordinaryLiteral.isNegative() && !unfoldNegatedLiterals) continue;
+                    List<ImmutableLiteralsList> literalUnfoldings = ordinaryLiteral.unfold(unfoldNegatedLiterals, freshVariableScope);
+                    if (isNotTheSameAs(literalUnfoldings, ordinaryLiteral)) {
+                        pendingUnfoldings.push(new PendingUnfoldings(body, index, literalUnfoldings.iterator()));
+                        return;
+                    }
+                }
+            }
+            nextUnfolding = body;
+        }
+    }
+
+    /**
+     * Bodies obtained by replacing the literal of the given body at the given index by each of its unfoldings, built as
+     * they are requested.
+     */
+    private static class PendingUnfoldings implements Iterator<ImmutableLiteralsList> {
+        private final ImmutableLiteralsList body;
+        private final int unfoldedLiteralIndex;
+        private final Iterator<ImmutableLiteralsList> literalUnfoldings;
+
+        PendingUnfoldings(ImmutableLiteralsList body, int unfoldedLiteralIndex, Iterator<ImmutableLiteralsList> literalUnfoldings) {
+            this.body = body;
+            this.unfoldedLiteralIndex = unfoldedLiteralIndex;
+            this.literalUnfoldings = literalUnfoldings;
+        }
+
+        int unfoldedLiteralIndex() {
+            return unfoldedLiteralIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return literalUnfoldings.hasNext();
+        }
+
+        @Override
+        public ImmutableLiteralsList next() {
+            ImmutableLiteralsList literalUnfolding = literalUnfoldings.next();
+            List<Literal> result = new ArrayList<>(body.size() - 1 + literalUnfolding.size());
+            for (int index = 0; index < unfoldedLiteralIndex; ++index) result.add(body.get(index));
+            result.addAll(literalUnfolding);
+            for (int index = unfoldedLiteralIndex + 1; index < body.size(); ++index) result.add(body.get(index));
+            return new ImmutableLiteralsList(result);
+        }
+    }
+
+    /**
+     * Unfolded bodies of a derivation rule with the given head. Each body comes with the numbering of its variables,
+     * the ones of the head first, required to instantiate it.
+     */
+    private record UnfoldedDefinition(Atom head, List<ImmutableLiteralsList> bodies, List<VariableSlots> slots) {
+    }
+
+    /**
+     * Derived predicate unfolded in positive literals, or in negated literals through the negation extension
+     */
+    private record UnfoldedPredicate(Predicate predicate, boolean isPositive) {
+    }
 }
@@ -23,4 +23,11 @@ public class SuffixMultipleConstraintIDGenerator implements MultipleConstraintID
         }
         return result;
     }
+
+    @Override
+    public ConstraintID generateNewConstraintID(ConstraintID originalID, long index, boolean isTheOnlyRequiredID) {
+        if (index < 0) throw new IndexOutOfBoundsException("Index " + index + " cannot be negative");
+        if (isTheOnlyRequiredID) return originalID;
+        return new ConstraintID(String.format(CONSTRAINT_ID_PATTERN, originalID.id(), index + 1));
+    }
 }
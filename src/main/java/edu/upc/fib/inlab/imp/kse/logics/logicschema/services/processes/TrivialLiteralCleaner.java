@@ -28,6 +28,9 @@ import java.util.stream.Collectors;
  * Currently, this class detects the following trivial literals:
  * <ul>
  * <li>BooleanBuiltInLiterals. I.e., "TRUE()", "FALSE()" built in literals.
+ * <li>ComparisonBuiltInLiterals that always hold, i.e., comparing a term with itself, or two comparable constants.
+ * E.g. "x = x", "1 < 2", or "1.0 <> 2". Comparisons that never hold, such as "1 = 2", are kept as they are. So are
+ * the comparisons between different constants with the same value, such as "1.0 = 1", since they are different terms.
  * <li>Derived literals whose bodies contains trivial literals. E.g. "P(x) :- B(x), FALSE()"
  * </ul>
  * <p>
@@ -217,8 +220,8 @@ public class TrivialLiteralCleaner extends LogicSchemaTransformationProcess {
         if (literal instanceof BooleanBuiltInLiteral booleanBuiltInLiteral) {
             return booleanBuiltInLiteral.isTrue();
         }
-        if (literal instanceof ComparisonBuiltInLiteral cBil && cBil.getOperator().equals(ComparisonOperator.EQUALS)) {
-            return cBil.getOperator().equals(ComparisonOperator.EQUALS) && cBil.getRightTerm().equals(cBil.getLeftTerm());
+        if (literal instanceof ComparisonBuiltInLiteral comparisonBuiltInLiteral) {
+            return comparisonBuiltInLiteral.evaluate().orElse(false);
         }
         if (literal instanceof OrdinaryLiteral ordinaryLiteral && ordinaryLiteral.isDerived()) {
             if (ordinaryLiteral.isPositive()) {
@@ -0,0 +1,20 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.exceptions;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Predicate;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.exceptions.IMPLogicsException;
+
+/**
+ * Thrown to indicate that a derived {@code Predicate} cannot be unfolded since unfolding it requires unfolding itself,
+ * so its unfolding would never end.
+ */
+public class RecursivePredicateUnfoldingException extends IMPLogicsException {
+
+    /**
+     * Constructs a {@code RecursivePredicateUnfoldingException} with one argument indicating the recursive predicate.
+     *
+     * @param predicate derived predicate whose unfolding requires unfolding itself
+     */
+    public RecursivePredicateUnfoldingException(Predicate predicate) {
+        super("Predicate " + predicate.getName() + " cannot be unfolded since it is positively recursive");
+    }
+}
@@ -0,0 +1,162 @@
+package edu.upc.fib.inlab.imp.kse.logics.dependencyschema.services.analyzers;
+
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.Dependency;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.DependencySchema;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.EGD;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.TGD;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.mothers.DependencySchemaMother;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.services.analyzers.FiringGraph.Firing;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ConstraintID;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.DerivationRule;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.OrdinaryLiteral;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicSchemaMother;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiringGraphAnalyzerTest {
+
+    @Nested
+    class ArgumentsTests {
+        @Test
+        void should_throwException_whenDependencySchemaIsNull() {
+            assertThatThrownBy(() -> FiringGraphAnalyzer.computeTGDFiringGraph(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("DependencySchema cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenHeadsAreNull() {
+            assertThatThrownBy(() -> FiringGraphAnalyzer.computeFiringGraph(null, Map.of()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Heads cannot be null");
+        }
+    }
+
+    @Nested
+    class TGDFiringGraphTests {
+
+        private final DependencySchema dependencySchema = DependencySchemaMother.buildDependencySchema("""
+                                                                                                       p(x, y) -> q(x, z)
+                                                                                                       q(x, x) -> r(x)
+                                                                                                       q(1, y) -> s(y)
+                                                                                                       p(x, y) -> q(2, x)
+                                                                                                       q(x, y), r(x) -> x = y
+                                                                                                       """);
+        private final List<TGD> tgds = dependencySchema.getAllTGDs();
+        private final EGD egd = dependencySchema.getAllEGDs().get(0);
+        private final FiringGraph<TGD, Dependency> graph = FiringGraphAnalyzer.computeTGDFiringGraph(dependencySchema);
+
+        @Test
+        void should_fireEveryBodyWithAnUnifiableLiteral() {
+            assertThat(graph.getSuccessors(tgds.get(0))).containsExactly(tgds.get(1), tgds.get(2), egd);
+        }
+
+        @Test
+        void should_notFireBodies_whenConstantsClash() {
+            assertThat(graph.getSuccessors(tgds.get(3))).containsExactly(tgds.get(1), egd);
+        }
+
+        @Test
+        void should_renameVariablesApart() {
+            assertThat(graph.getSuccessors(tgds.get(1))).containsExactly(egd);
+        }
+
+        @Test
+        void should_notFireAnything_whenNoBodyUsesThePredicate() {
+            assertThat(graph.getFiringsFrom(tgds.get(2))).isEmpty();
+            assertThat(graph.getFiringsInto(tgds.get(0))).isEmpty();
+        }
+
+        @Test
+        void should_recordTheFiredLiteral() {
+            List<Firing<TGD, Dependency>> firings = graph.getFiringsInto(egd);
+
+            assertThat(firings).hasSize(3);
+            assertThat(firings.get(1).source()).isSameAs(tgds.get(1));
+            assertThat(firings.get(1).sourceAtom()).isSameAs(tgds.get(1).getHead().get(0));
+            assertThat(firings.get(1).targetLiteral()).isSameAs(egd.getBody().get(1));
+            assertThat(firings.get(1).targetLiteralIndex()).isEqualTo(1);
+        }
+
+        @Test
+        void should_listPredecessors_withoutRepetitions() {
+            assertThat(graph.getPredecessors(egd)).containsExactly(tgds.get(0), tgds.get(1), tgds.get(3));
+            assertThat(graph.size()).isEqualTo(6);
+        }
+    }
+
+    @Nested
+    class DerivationRuleFiringGraphTests {
+
+        @Test
+        void should_feedPositiveAndNegatedLiterals() {
+            LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                P(x) :- Q(x, y), not(R(y))
+                                                                                R(y) :- S(y, 1)
+                                                                                Q(x, y) :- P(x), S(y, x)
+                                                                                """);
+            DependencySchema dependencySchema = new DependencySchema(logicSchema.getAllPredicates(), Set.of());
+            DerivationRule pRule = logicSchema.getDerivationRulesByPredicateName("P").get(0);
+            DerivationRule rRule = logicSchema.getDerivationRulesByPredicateName("R").get(0);
+            DerivationRule qRule = logicSchema.getDerivationRulesByPredicateName("Q").get(0);
+
+            FiringGraph<DerivationRule, DerivationRule> graph = FiringGraphAnalyzer.computeDerivationRuleFiringGraph(dependencySchema);
+
+            assertThat(graph.getSuccessors(pRule)).containsExactly(qRule);
+            assertThat(graph.getSuccessors(qRule)).containsExactly(pRule);
+            assertThat(graph.getFiringsFrom(rRule)).singleElement()
+                    .satisfies(firing -> assertThat(firing.targetLiteral().isPositive()).isFalse());
+        }
+
+        @Test
+        void should_feedDependencyBodies_usingDerivedPredicates() {
+            LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                @1 :- P(x), S(x, 1)
+                                                                                @2 :- T(x)
+                                                                                P(x) :- R(x, y)
+                                                                                P(x) :- S(x, 2)
+                                                                                """);
+            TGD tgd = new TGD(logicSchema.getLogicConstraintByID(new ConstraintID("1")).getBody(),
+                              List.of(((OrdinaryLiteral) logicSchema.getLogicConstraintByID(new ConstraintID("2")).getBody().get(0)).getAtom()));
+            DependencySchema dependencySchema = new DependencySchema(logicSchema.getAllPredicates(), Set.of(tgd));
+            List<DerivationRule> pRules = logicSchema.getDerivationRulesByPredicateName("P");
+
+            FiringGraph<DerivationRule, Dependency> graph = FiringGraphAnalyzer.computeDerivationRuleToDependencyFiringGraph(dependencySchema);
+
+            assertThat(graph.getPredecessors(tgd)).containsExactlyElementsOf(pRules);
+            assertThat(graph.getFiringsInto(tgd)).allSatisfy(firing -> assertThat(firing.targetLiteralIndex()).isZero());
+        }
+    }
+
+    @Nested
+    class DeterminismTests {
+
+        @Test
+        void should_computeTheSameFirings_inTheOrderOfTheSchema() {
+            StringBuilder schema = new StringBuilder();
+            for (int i = 0; i < 300; ++i) {
+                schema.append("p").append(i).append("(x, y) -> p").append(i + 1).append("(y, z)\n");
+            }
+            DependencySchema dependencySchema = DependencySchemaMother.buildDependencySchema(schema.toString());
+            List<TGD> tgds = dependencySchema.getAllTGDs();
+
+            FiringGraph<TGD, Dependency> graph = FiringGraphAnalyzer.computeTGDFiringGraph(dependencySchema);
+
+            assertThat(graph.size()).isEqualTo(299);
+            for (int i = 0; i < 299; ++i) {
+                assertThat(graph.getAllFirings().get(i).source()).isSameAs(tgds.get(i));
+                assertThat(graph.getAllFirings().get(i).target()).isSameAs(tgds.get(i + 1));
+            }
+            assertThat(FiringGraphAnalyzer.computeTGDFiringGraph(dependencySchema).getAllFirings())
+                    .isEqualTo(graph.getAllFirings());
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatNoException;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
@@ -94,4 +95,50 @@ class ComparisonBuiltInLiteralTest {
                     .hasComparisonOperation(negatedOperator.getSymbol());
         }
     }
+
+    @Nested
+    class EvaluateTest {
+
+        static Stream<Arguments> provideEvaluableComparisons() {
+            return Stream.of(
+                    Arguments.of(new Constant("1"), ComparisonOperator.LESS_THAN, new Constant("2.5"), true),
+                    Arguments.of(new Constant("1.0"), ComparisonOperator.EQUALS, new Constant("2"), false),
+                    Arguments.of(new Constant("1.0"), ComparisonOperator.NOT_EQUALS, new Constant("2"), true),
+                    Arguments.of(new Constant("1"), ComparisonOperator.EQUALS, new Constant("1"), true),
+                    Arguments.of(new Constant("'b'"), ComparisonOperator.GREATER_OR_EQUALS, new Constant("'a'"), true),
+                    Arguments.of(new Constant("Socrates"), ComparisonOperator.EQUALS, new Constant("Plato"), false),
+                    Arguments.of(new Variable("x"), ComparisonOperator.LESS_OR_EQUALS, new Variable("x"), true),
+                    Arguments.of(new Variable("x"), ComparisonOperator.LESS_THAN, new Variable("x"), false)
+            );
+        }
+
+        @ParameterizedTest
+        @MethodSource("provideEvaluableComparisons")
+        void should_evaluate_whenTruthValueDoesNotDependOnVariables(Term left, ComparisonOperator operator, Term right, boolean expected) {
+            ComparisonBuiltInLiteral literal = new ComparisonBuiltInLiteral(left, right, operator);
+
+            assertThat(literal.evaluate()).contains(expected);
+        }
+
+        static Stream<Arguments> provideNonEvaluableComparisons() {
+            return Stream.of(
+                    Arguments.of(new Variable("x"), ComparisonOperator.EQUALS, new Constant("1")),
+                    Arguments.of(new Variable("x"), ComparisonOperator.LESS_THAN, new Variable("y")),
+                    Arguments.of(new Constant("1"), ComparisonOperator.EQUALS, new Constant("'1'")),
+                    Arguments.of(new Constant("1.0"), ComparisonOperator.EQUALS, new Constant("1")),
+                    Arguments.of(new Constant("1.0"), ComparisonOperator.NOT_EQUALS, new Constant("1")),
+                    Arguments.of(new Constant("1.0"), ComparisonOperator.LESS_OR_EQUALS, new Constant("1")),
+                    Arguments.of(new Constant("'a'"), ComparisonOperator.EQUALS, new Constant("\"a\"")),
+                    Arguments.of(new Constant("Socrates"), ComparisonOperator.LESS_THAN, new Constant("Plato"))
+            );
+        }
+
+        @ParameterizedTest
+        @MethodSource("provideNonEvaluableComparisons")
+        void should_notEvaluate_whenTruthValueIsUnknown(Term left, ComparisonOperator operator, Term right) {
+            ComparisonBuiltInLiteral literal = new ComparisonBuiltInLiteral(left, right, operator);
+
+            assertThat(literal.evaluate()).isEmpty();
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConstantTest {
+
+    @Nested
+    class TypeTests {
+
+        @ParameterizedTest(name = "{0} is {1}")
+        @CsvSource(delimiter = ';', quoteCharacter = '`', value = {
+                "1; INTEGER",
+                "-42; INTEGER",
+                "1.0; DECIMAL",
+                ".5; DECIMAL",
+                "2e10; DECIMAL",
+                "'a'; STRING",
+                "\"a b\"; STRING",
+                "true; BOOLEAN",
+                "Socrates; NAME",
+                "'; NAME",
+                "NaN; NAME"
+        })
+        void should_determineTheType_fromTheName(String name, ConstantType expectedType) {
+            assertThat(new Constant(name).getType()).isEqualTo(expectedType);
+        }
+
+        @Test
+        void should_unquoteTheTextValue_whenConstantIsAString() {
+            assertThat(new Constant("'a b'").getTextValue()).isEqualTo("a b");
+            assertThat(new Constant("Socrates").getTextValue()).isEqualTo("Socrates");
+        }
+
+        @Test
+        void should_throwException_whenAskingNumericValueOfNonNumericConstant() {
+            Constant constant = new Constant("'1'");
+
+            assertThatThrownBy(constant::getNumericValue).isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        void should_typeInternedConstants_asTheOtherOnes() {
+            Constant constant = new TermPool().constant("2.5");
+
+            assertThat(constant.getType()).isEqualTo(ConstantType.DECIMAL);
+            assertThat(constant.getNumericValue()).isEqualByComparingTo(new BigDecimal("2.5"));
+        }
+    }
+
+    @Nested
+    class ValueComparisonTests {
+
+        @ParameterizedTest(name = "{0} compared to {1} is {2}")
+        @CsvSource(delimiter = ';', quoteCharacter = '`', value = {
+                "1; 2; -1",
+                "1.0; 1; 0",
+                "10; 9.99; 1",
+                "99999999999999999999; 1; 1",
+                "-99999999999999999999; 1; -1",
+                "'a'; 'b'; -1",
+                "'a'; \"a\"; 0"
+        })
+        void should_compareValues(String left, String right, int expectedSign) {
+            assertThat(Integer.signum(new Constant(left).compareValueTo(new Constant(right)))).isEqualTo(expectedSign);
+        }
+
+        @Test
+        void should_considerNumericConstantsEqual_whenTheyHaveTheSameValue() {
+            assertThat(new Constant("1.0").hasSameValueAs(new Constant("1"))).isTrue();
+            assertThat(new Constant("1.0")).isNotEqualTo(new Constant("1"));
+        }
+
+        @Test
+        void should_compareNamesOnlyForEquality() {
+            Constant socrates = new Constant("Socrates");
+            Constant plato = new Constant("Plato");
+
+            assertThat(socrates.isEquatableWith(plato)).isTrue();
+            assertThat(socrates.hasSameValueAs(plato)).isFalse();
+            assertThat(socrates.isOrderedWith(plato)).isFalse();
+        }
+
+        @Test
+        void should_throwException_whenComparingConstantsOfDifferentTypes() {
+            Constant number = new Constant("1");
+            Constant string = new Constant("'1'");
+
+            assertThat(number.isEquatableWith(string)).isFalse();
+            assertThatThrownBy(() -> number.compareValueTo(string)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> number.hasSameValueAs(string)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FreshVariableScopeTest {
+
+    @Nested
+    class ParametersTest {
+        @Test
+        void should_throwException_whenUsedVariablesAreNull() {
+            assertThatThrownBy(() -> new FreshVariableScope(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Variables cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenPrefixIsNull() {
+            FreshVariableScope scope = new FreshVariableScope();
+
+            assertThatThrownBy(() -> scope.createFreshVariable(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("VariableNamePrefix cannot be null");
+        }
+    }
+
+    @Nested
+    class CreateFreshVariableTest {
+
+        @Test
+        void should_keepThePrefix_whenItIsNotUsed() {
+            FreshVariableScope scope = new FreshVariableScope(List.of(new Variable("y")));
+
+            assertThat(scope.createFreshVariable("x")).isEqualTo(new Variable("x"));
+            assertThat(scope.isUsed(new Variable("x"))).isTrue();
+        }
+
+        @Test
+        void should_numberTheFreshVariables_whenThePrefixIsUsed() {
+            FreshVariableScope scope = new FreshVariableScope(List.of(new Variable("x")));
+
+            assertThat(scope.createFreshVariable("x").getName()).isEqualTo("x_1");
+            assertThat(scope.createFreshVariable("x").getName()).isEqualTo("x_2");
+        }
+
+        @Test
+        void should_skipUsedNames() {
+            FreshVariableScope scope = new FreshVariableScope(List.of(new Variable("x"), new Variable("x_1"), new Variable("x_2")));
+
+            assertThat(scope.createFreshVariable("x").getName()).isEqualTo("x_3");
+        }
+
+        @ParameterizedTest(name = "{0} is renamed to {1}")
+        @CsvSource(delimiter = ';', quoteCharacter = '`', value = {
+                "x_1; x_2",
+                "x'; x_1",
+                "x''; x_1",
+                "x1; x1_1",
+                "_1; _1_1"
+        })
+        void should_renameFromTheBaseName_whenRenamingAFreshVariableAgain(String name, String expectedName) {
+            FreshVariableScope scope = new FreshVariableScope(List.of(new Variable("x"), new Variable("x1"), new Variable(name)));
+
+            assertThat(scope.createFreshVariable(name).getName()).isEqualTo(expectedName);
+        }
+    }
+
+    @Nested
+    class RenameIfUsedTest {
+
+        @Test
+        void should_returnTheSameVariable_whenItIsNotUsed() {
+            FreshVariableScope scope = new FreshVariableScope();
+            Variable x = new Variable("x");
+
+            assertThat(scope.renameIfUsed(x)).isSameAs(x);
+            assertThat(scope.renameIfUsed(x).getName()).isEqualTo("x_1");
+        }
+    }
+}
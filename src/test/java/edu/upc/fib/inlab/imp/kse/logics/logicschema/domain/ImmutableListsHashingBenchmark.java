@@ -0,0 +1,108 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism.IsomorphismComparator;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism.IsomorphismOptions;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.parser.LogicSchemaWithIDsParser;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.SchemaUnfolder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark measuring map-heavy workloads over the immutable domain lists, whose hash codes are cached.
+ * <p>
+ * The schema has {@code constraints} logic constraints "@i :- P(x, y, z), R_i(y, z, x), S(z)", where P and S are
+ * derived predicates with two derivation rules each. The benchmarks use the term lists and bodies of the schema as map
+ * keys, check whether the schema is isomorphic to a copy of itself, and unfold it.
+ * <p>
+ * It is not run as part of the test suite. Run its main method, with the test classpath, once the test classes have
+ * been compiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImmutableListsHashingBenchmark {
+
+    private static final int LOOKUPS_PER_KEY = 10;
+
+    @Param({"50", "200", "1000"})
+    private int constraints;
+
+    private LogicSchema schema;
+    private LogicSchema schemaCopy;
+    private List<ImmutableTermList> termLists;
+    private List<ImmutableLiteralsList> bodies;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ImmutableListsHashingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() {
+        String schemaString = createSchemaString();
+        schema = new LogicSchemaWithIDsParser().parse(schemaString);
+        schemaCopy = new LogicSchemaWithIDsParser().parse(schemaString);
+        termLists = new ArrayList<>();
+        bodies = new ArrayList<>();
+        for (LogicConstraint constraint : schema.getAllLogicConstraints()) {
+            bodies.add(constraint.getBody());
+            for (Literal literal : constraint.getBody()) termLists.add(literal.getTerms());
+        }
+    }
+
+    @Benchmark
+    public int termListsAsMapKeys() {
+        Map<ImmutableTermList, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < LOOKUPS_PER_KEY; ++i) {
+            for (ImmutableTermList terms : termLists) occurrences.merge(terms, 1, Integer::sum);
+        }
+        return occurrences.size();
+    }
+
+    @Benchmark
+    public int bodiesAsMapKeys() {
+        Map<ImmutableLiteralsList, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < LOOKUPS_PER_KEY; ++i) {
+            for (ImmutableLiteralsList body : bodies) occurrences.merge(body, 1, Integer::sum);
+        }
+        return occurrences.size();
+    }
+
+    @Benchmark
+    public boolean isomorphicSchemas() {
+        return new IsomorphismComparator(new IsomorphismOptions()).areIsomorphic(schema, schemaCopy);
+    }
+
+    @Benchmark
+    public LogicSchema unfoldSchema() {
+        return new SchemaUnfolder().unfold(schema);
+    }
+
+    private String createSchemaString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < constraints; ++i) {
+            result.append("@").append(i).append(" :- P(x, y, z), R").append(i).append("(y, z, x), S(z)\n");
+        }
+        result.append("""
+                      P(a, b, c) :- T(a, b), U(b, c)
+                      P(a, b, c) :- V(a, b, c)
+                      S(a) :- W(a, b), not(U(b, a))
+                      S(a) :- X(a)
+                      """);
+        return result.toString();
+    }
+}
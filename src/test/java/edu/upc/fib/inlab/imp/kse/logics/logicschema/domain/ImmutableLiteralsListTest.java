@@ -516,6 +516,56 @@ class ImmutableLiteralsListTest {
                         .anySatisfy(list -> ImmutableLiteralsListAssert.assertThat(list).isIsomorphicTo("P(x), A(x, z), B(z, y), not(S(x)), x > 4"))
                         .anySatisfy(list -> ImmutableLiteralsListAssert.assertThat(list).isIsomorphicTo("P(x), C(x, z), D(z, y), not(S(x)), x > 4"));
             }
+
+            @Test
+            void should_streamTheSameLists_inTheSameOrder_asTheRecursiveUnfolding() {
+                ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create(
+                        "R(x, y), R(y, x)",
+                        """
+                                    R(x, y) :- A(x, z), S(z, y)
+                                    R(x, y) :- C(x, z), D(z, y)
+                                    S(x, y) :- E(x, y)
+                                    S(x, y) :- F(x, y)
+                                """
+                );
+
+                List<String> unfolded = literalsList.unfoldRecursively().stream().map(ImmutableLiteralsList::toString).toList();
+                List<String> streamed = literalsList.unfoldRecursivelyAsStream().map(ImmutableLiteralsList::toString).toList();
+
+                assertThat(streamed).hasSize(9).isEqualTo(unfolded);
+            }
+
+            @Test
+            void should_streamTheFirstLists_withoutUnfoldingTheRest() {
+                ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create(
+                        "R(x), R(x), R(x), R(x), R(x), R(x), R(x), R(x), R(x), R(x)",
+                        """
+                                    R(x) :- A(x)
+                                    R(x) :- B(x)
+                                    R(x) :- C(x)
+                                    R(x) :- D(x)
+                                """
+                );
+
+                assertThat(literalsList.unfoldRecursivelyAsStream().findFirst())
+                        .hasValueSatisfying(list -> assertThat(list).hasToString("A(x), A(x), A(x), A(x), A(x), A(x), A(x), A(x), A(x), A(x)"));
+            }
+
+            @Test
+            void should_numberFreshVariables_insteadOfGrowingTheirNames_whenUnfoldingSeveralLevels() {
+                ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create(
+                        "P(x, z), R(x)",
+                        """
+                                    R(x) :- S(x, z)
+                                    S(x, y) :- T(x, y, z)
+                                """
+                );
+                List<ImmutableLiteralsList> unfolded = literalsList.unfoldRecursively();
+                assertThat(unfolded).singleElement()
+                        .satisfies(list -> assertThat(list.getUsedVariables())
+                                .extracting(Variable::getName)
+                                .containsExactly("x", "z", "z_1", "z_2"));
+            }
         }
     }
 
@@ -580,4 +630,43 @@ class ImmutableLiteralsListTest {
 
     }
 
-}
\ No newline at end of file
+    @Nested
+    class ArrayBackingTests {
+
+        @Test
+        void should_returnViews_whenTakingSubLists() {
+            ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create("P(x), not(A(x)), x<>y, Q(y, z)");
+
+            ImmutableLiteralsList subList = literalsList.subList(1, 4).subList(1, 3);
+
+            assertThat(subList).hasSize(2);
+            assertThat(subList.get(0)).isSameAs(literalsList.get(2));
+            assertThat(subList.get(1)).isSameAs(literalsList.get(3));
+            assertThat(subList.getUsedVariables()).containsExactly(new Variable("x"), new Variable("y"), new Variable("z"));
+            assertThatThrownBy(() -> subList.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        @Test
+        void should_classifyVariablesByKindOfLiteral() {
+            ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create("P(x), not(A(y)), z<>w, Q(x, w)");
+
+            assertThat(literalsList.getVariablesInPositiveOrdinaryLiterals()).containsExactly(new Variable("x"), new Variable("w"));
+            assertThat(literalsList.getVariablesInNegativeOrdinaryLiterals()).containsExactly(new Variable("y"));
+            assertThat(literalsList.getVariablesInBuiltInLiterals()).containsExactly(new Variable("z"), new Variable("w"));
+            assertThat(literalsList.getPredicatePositionsWithVar(new Variable("z"))).isEmpty();
+        }
+
+        @Test
+        void should_cacheDerivedVariables_asUnmodifiableSets() {
+            ImmutableLiteralsList literalsList = ImmutableLiteralsListMother.create("P(x), Q(x, y)");
+
+            Set<Variable> usedVariables = literalsList.getUsedVariables();
+            Set<PredicatePosition> positions = literalsList.getPredicatePositionsWithVar(new Variable("x"));
+
+            assertThat(literalsList.getUsedVariables()).isSameAs(usedVariables);
+            assertThat(literalsList.getPredicatePositionsWithVar(new Variable("x"))).isSameAs(positions);
+            assertThatThrownBy(() -> usedVariables.add(new Variable("z"))).isInstanceOf(UnsupportedOperationException.class);
+            assertThatThrownBy(positions::clear).isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+}
@@ -137,4 +137,74 @@ class ImmutableTermListTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Nested
+    class HashCodeTests {
+
+        @Test
+        void should_haveEqualHashCodes_whenListsAreEqual() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "1"));
+            ImmutableTermList sameTerms = new ImmutableTermList(TermMother.createTerms("x", "1"));
+
+            assertThat(terms.hashCode()).isEqualTo(sameTerms.hashCode());
+            assertThat(terms).isEqualTo(sameTerms);
+        }
+
+        @Test
+        void should_notBeEqual_whenCachedHashCodesDiffer() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "1"));
+            ImmutableTermList otherTerms = new ImmutableTermList(TermMother.createTerms("x", "2"));
+            terms.hashCode();
+            otherTerms.hashCode();
+
+            assertThat(terms).isNotEqualTo(otherTerms);
+        }
+
+        @Test
+        void should_notChange_whenSourceListIsModified() {
+            List<Term> source = new LinkedList<>(TermMother.createTerms("x", "y"));
+            ImmutableTermList terms = new ImmutableTermList(source);
+            int hashCode = terms.hashCode();
+
+            source.add(new Variable("z"));
+
+            assertThat(terms).hasSize(2);
+            assertThat(terms.hashCode()).isEqualTo(hashCode);
+        }
+    }
+
+    @Nested
+    class ArrayBackingTests {
+
+        @Test
+        void should_returnViews_whenTakingSubLists() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "y", "1", "z"));
+
+            ImmutableTermList subList = terms.subList(1, 4).subList(1, 3);
+
+            assertThat(subList).containsExactlyElementsOf(TermMother.createTerms("1", "z"));
+            assertThat(subList.get(1)).isSameAs(terms.get(3));
+            assertThat(subList.getUsedVariables()).containsExactly(new Variable("z"));
+            assertThat(subList).isEqualTo(new ImmutableTermList(TermMother.createTerms("1", "z")));
+        }
+
+        @Test
+        void should_throwException_whenIndexIsOutOfTheSubList() {
+            ImmutableTermList subList = new ImmutableTermList(TermMother.createTerms("x", "y", "z")).subList(0, 2);
+
+            assertThatThrownBy(() -> subList.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+            assertThatThrownBy(() -> subList.subList(1, 3)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        @Test
+        void should_cacheUsedVariables_asAnUnmodifiableSet() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "1", "y", "x"));
+
+            Set<Variable> usedVariables = terms.getUsedVariables();
+
+            assertThat(usedVariables).containsExactly(new Variable("x"), new Variable("y"));
+            assertThat(terms.getUsedVariables()).isSameAs(usedVariables);
+            assertThatThrownBy(() -> usedVariables.add(new Variable("z"))).isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+}
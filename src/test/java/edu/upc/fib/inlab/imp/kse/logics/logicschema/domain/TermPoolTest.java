@@ -0,0 +1,133 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.parser.LogicSchemaWithIDsParser;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TermPoolTest {
+
+    @Nested
+    class InterningTests {
+
+        @Test
+        void should_returnSameInstance_whenInterningTheSameName() {
+            TermPool pool = new TermPool();
+
+            assertThat(pool.variable("x")).isSameAs(pool.variable("x"));
+            assertThat(pool.constant("1")).isSameAs(pool.constant("1"));
+        }
+
+        @Test
+        void should_distinguishVariablesFromConstants_withTheSameName() {
+            TermPool pool = new TermPool();
+
+            assertThat(pool.variable("a")).isNotEqualTo(pool.constant("a"));
+        }
+
+        @Test
+        void should_assignDenseIds_inInterningOrder() {
+            TermPool pool = new TermPool();
+            Variable x = pool.variable("x");
+            Constant one = pool.constant("1");
+            pool.variable("x");
+            Variable y = pool.variable("y");
+
+            assertThat(x.getId()).isZero();
+            assertThat(one.getId()).isEqualTo(1);
+            assertThat(y.getId()).isEqualTo(2);
+            assertThat(pool.size()).isEqualTo(3);
+        }
+
+        @Test
+        void should_internEqualTerm_whenInterningANonInternedTerm() {
+            TermPool pool = new TermPool();
+            Variable x = pool.variable("x");
+
+            assertThat(pool.intern(new Variable("x"))).isSameAs(x);
+            assertThat(pool.intern(new Constant("x"))).isInstanceOf(Constant.class).isNotSameAs(x);
+        }
+
+        @ParameterizedTest
+        @NullAndEmptySource
+        void should_throwException_whenNameIsNullOrEmpty(String nullOrEmpty) {
+            TermPool pool = new TermPool();
+
+            assertThatThrownBy(() -> pool.variable(nullOrEmpty)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> pool.constant(nullOrEmpty)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class EqualityTests {
+
+        @Test
+        void should_notBeInterned_whenCreatedThroughConstructor() {
+            Variable x = new Variable("x");
+
+            assertThat(x.isInterned()).isFalse();
+            assertThat(x.getId()).isEqualTo(-1);
+        }
+
+        @Test
+        void should_beEqualToNonInternedTerm_withTheSameName() {
+            Variable interned = new TermPool().variable("x");
+            Variable notInterned = new Variable("x");
+
+            assertThat(interned).isEqualTo(notInterned).hasSameHashCodeAs(notInterned);
+            assertThat(notInterned).isEqualTo(interned);
+        }
+
+        @Test
+        void should_beEqual_whenInternedByDifferentPools() {
+            Variable first = new TermPool().variable("x");
+            Variable second = new TermPool().variable("x");
+
+            assertThat(first).isEqualTo(second);
+        }
+
+        @Test
+        void should_notBeEqual_whenInternedWithDifferentNamesAndSameHash() {
+            TermPool pool = new TermPool();
+            Variable aa = pool.variable("Aa");
+            Variable bb = pool.variable("BB");
+
+            assertThat(aa.hashCode()).isEqualTo(bb.hashCode());
+            assertThat(aa).isNotEqualTo(bb);
+        }
+    }
+
+    @Nested
+    class ParsingTests {
+
+        @Test
+        void should_internAllTerms_whenParsingWithAPool() {
+            TermPool pool = new TermPool();
+            LogicSchema logicSchema = new LogicSchemaWithIDsParser().parse("""
+                                                                           @1 :- R(x, y), S(y, 1)
+                                                                           @2 :- R(x, 1)
+                                                                           """, Set.of(), pool);
+
+            ImmutableLiteralsList firstBody = logicSchema.getLogicConstraintByID(new ConstraintID("1")).getBody();
+            ImmutableLiteralsList secondBody = logicSchema.getLogicConstraintByID(new ConstraintID("2")).getBody();
+            assertThat(firstBody.get(0).getTerms().get(1)).isSameAs(firstBody.get(1).getTerms().get(0));
+            assertThat(firstBody.get(0).getTerms().get(0)).isSameAs(secondBody.get(0).getTerms().get(0));
+            assertThat(firstBody.get(1).getTerms().get(1)).isSameAs(secondBody.get(0).getTerms().get(1));
+            assertThat(pool.size()).isEqualTo(3);
+        }
+
+        @Test
+        void should_notInternTerms_whenParsingWithoutAPool() {
+            LogicSchema logicSchema = new LogicSchemaWithIDsParser().parse("@1 :- R(x, y)");
+
+            ImmutableLiteralsList body = logicSchema.getLogicConstraintByID(new ConstraintID("1")).getBody();
+            assertThat(body.get(0).getTerms()).noneMatch(Term::isInterned);
+        }
+    }
+}
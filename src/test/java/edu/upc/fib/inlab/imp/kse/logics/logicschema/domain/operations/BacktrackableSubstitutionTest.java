@@ -0,0 +1,202 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Constant;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.TermMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.SubstitutionBuilder;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class BacktrackableSubstitutionTest {
+
+    @Nested
+    class Creation {
+        @Test
+        void should_containAllMappings_whenCreatedFromSubstitution() {
+            Substitution initialSubstitution = new SubstitutionBuilder().addMapping("x", "a").addMapping("y", "b").build();
+
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution(initialSubstitution);
+
+            assertThat(substitution.toSubstitution())
+                    .hasSize(2)
+                    .mapsToVariable("x", "a")
+                    .mapsToVariable("y", "b");
+        }
+
+        @Test
+        void should_throwException_whenCreatedFromNullSubstitution() {
+            assertThatThrownBy(() -> new BacktrackableSubstitution(null))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Bind {
+        @Test
+        void should_addMapping_whenVariableIsNotBound() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+
+            boolean bound = substitution.bind(new Variable("x"), new Variable("a"));
+
+            assertThat(bound).isTrue();
+            assertThat(substitution.toSubstitution())
+                    .hasSize(1)
+                    .mapsToVariable("x", "a");
+        }
+
+        @Test
+        void should_returnTrue_whenBindingVariableToItsCurrentImage() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            int mark = substitution.mark();
+
+            boolean bound = substitution.bind(new Variable("x"), new Variable("a"));
+
+            assertThat(bound).isTrue();
+            assertThat(substitution.mark()).isEqualTo(mark);
+        }
+
+        @Test
+        void should_returnFalse_andKeepMappings_whenBindingVariableToADifferentTerm() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+
+            boolean bound = substitution.bind(new Variable("x"), new Constant("1"));
+
+            assertThat(bound).isFalse();
+            assertThat(substitution.toSubstitution())
+                    .hasSize(1)
+                    .mapsToVariable("x", "a");
+        }
+
+        @Test
+        void should_throwException_whenBindingNullVariable() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            assertThatThrownBy(() -> substitution.bind(null, new Variable("a")))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void should_addAllMappings_whenBindingCompatibleTermsList() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+
+            boolean bound = substitution.bind(TermMother.createTerms("x", "1", "x"), TermMother.createTerms("a", "1", "a"));
+
+            assertThat(bound).isTrue();
+            assertThat(substitution.toSubstitution())
+                    .hasSize(1)
+                    .mapsToVariable("x", "a");
+        }
+
+        @Test
+        void should_addNoMapping_whenBindingIncompatibleTermsList() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+
+            boolean bound = substitution.bind(TermMother.createTerms("x", "y", "x"), TermMother.createTerms("a", "b", "c"));
+
+            assertThat(bound).isFalse();
+            assertThat(substitution.toSubstitution()).isEmpty();
+        }
+
+        @Test
+        void should_returnFalse_whenBindingTermsListsOfDifferentSize() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+
+            assertThat(substitution.bind(TermMother.createTerms("x"), TermMother.createTerms("a", "b"))).isFalse();
+        }
+
+        @Test
+        void should_returnFalse_whenBindingConstantToADifferentTerm() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+
+            assertThat(substitution.bind(List.of(new Constant("x")), List.of(new Variable("x")))).isFalse();
+        }
+
+        @Test
+        void should_addNoMapping_whenBindingIncompatibleSubstitution() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            Substitution otherSubstitution = new SubstitutionBuilder().addMapping("y", "b").addMapping("x", "c").build();
+
+            boolean bound = substitution.bind(otherSubstitution);
+
+            assertThat(bound).isFalse();
+            assertThat(substitution.toSubstitution())
+                    .hasSize(1)
+                    .mapsToVariable("x", "a");
+        }
+    }
+
+    @Nested
+    class Undo {
+        @Test
+        void should_removeMappingsAddedAfterMark_whenUndoingToMark() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            int mark = substitution.mark();
+            substitution.bind(new Variable("y"), new Variable("b"));
+            substitution.bind(new Variable("z"), new Variable("c"));
+
+            substitution.undoTo(mark);
+
+            assertThat(substitution.toSubstitution())
+                    .hasSize(1)
+                    .mapsToVariable("x", "a");
+            assertThat(substitution.isBound(new Variable("y"))).isFalse();
+        }
+
+        @Test
+        void should_allowBindingAgain_afterUndoing() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            int mark = substitution.mark();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            substitution.undoTo(mark);
+
+            boolean bound = substitution.bind(new Variable("x"), new Variable("b"));
+
+            assertThat(bound).isTrue();
+            assertThat(substitution.toSubstitution()).mapsToVariable("x", "b");
+        }
+
+        @Test
+        void should_throwException_whenUndoingToAnInvalidMark() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            assertThatThrownBy(() -> substitution.undoTo(1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void should_returnVariablesBoundSinceMark() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            int mark = substitution.mark();
+            substitution.bind(TermMother.createTerms("y", "x", "z"), TermMother.createTerms("b", "a", "c"));
+
+            assertThat(substitution.getVariablesBoundSince(mark)).containsExactly(new Variable("y"), new Variable("z"));
+        }
+
+        @Test
+        void should_throwException_whenGettingVariablesBoundSinceAnInvalidMark() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            assertThatThrownBy(() -> substitution.getVariablesBoundSince(1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void should_notAffectReturnedSubstitution_whenUndoing() {
+            BacktrackableSubstitution substitution = new BacktrackableSubstitution();
+            substitution.bind(new Variable("x"), new Variable("a"));
+            Substitution result = substitution.toSubstitution();
+
+            substitution.undoTo(0);
+
+            assertThat(result).mapsToVariable("x", "a");
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.TermMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.exceptions.SubstitutionException;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlotSubstitutionTest {
+
+    private static VariableSlots slotsOf(String... variableNames) {
+        List<Variable> variables = new ArrayList<>();
+        for (String name : variableNames) variables.add(new Variable(name));
+        return VariableSlots.of(variables);
+    }
+
+    @Nested
+    class Slots {
+
+        @Test
+        void should_numberVariablesInOrder_ignoringRepetitions() {
+            VariableSlots slots = slotsOf("x", "y", "x", "z");
+
+            assertThat(slots.size()).isEqualTo(3);
+            assertThat(slots.getSlot(new Variable("x"))).isZero();
+            assertThat(slots.getSlot(new Variable("z"))).isEqualTo(2);
+            assertThat(slots.getVariable(1)).isEqualTo(new Variable("y"));
+        }
+
+        @Test
+        void should_returnMinusOne_whenVariableHasNoSlot() {
+            assertThat(slotsOf("x").getSlot(new Variable("y"))).isEqualTo(-1);
+        }
+
+        @Test
+        void should_throwException_whenVariablesAreNull() {
+            assertThatThrownBy(() -> VariableSlots.of(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Variables cannot be null");
+        }
+    }
+
+    @Nested
+    class Mappings {
+
+        @Test
+        void should_throwException_whenSlotsAreNull() {
+            assertThatThrownBy(() -> new SlotSubstitution(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("VariableSlots cannot be null");
+        }
+
+        @Test
+        void should_returnImage_whenVariableIsMapped() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y"));
+            substitution.addMapping(new Variable("y"), new Constant("1"));
+
+            assertThat(substitution.getTerm(new Variable("y"))).contains(new Constant("1"));
+            assertThat(substitution.getTerm(new Variable("x"))).isEmpty();
+            assertThat(substitution.getTerm(new Variable("z"))).isEmpty();
+            assertThat(substitution.getSize()).isEqualTo(1);
+        }
+
+        @Test
+        void should_allowRepeatingMapping_whenImageIsTheSame() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+
+            assertThat(substitution.getSize()).isEqualTo(1);
+        }
+
+        @Test
+        void should_throwException_whenVariableIsMappedToDifferentTerm() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+
+            assertThatThrownBy(() -> substitution.addMapping(new Variable("x"), new Variable("b")))
+                    .isInstanceOf(SubstitutionException.class);
+        }
+
+        @Test
+        void should_throwException_whenVariableHasNoSlot() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x"));
+
+            assertThatThrownBy(() -> substitution.addMapping(new Variable("y"), new Variable("a")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Variable y has no slot");
+        }
+
+        @Test
+        void should_mapVariablesBeyondTheFirstWord_whenThereAreManySlots() {
+            String[] names = new String[130];
+            for (int i = 0; i < names.length; ++i) names[i] = "x" + i;
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf(names));
+            substitution.addMapping(new Variable("x129"), new Constant("1"));
+            substitution.addMapping(new Variable("x64"), new Constant("2"));
+
+            assertThat(substitution.getTerm(new Variable("x129"))).contains(new Constant("1"));
+            assertThat(substitution.getTerm(new Variable("x1"))).isEmpty();
+            assertThat(substitution.getSize()).isEqualTo(2);
+        }
+
+        @Test
+        void should_notModifyOriginal_whenModifyingCopy() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+
+            SlotSubstitution copy = substitution.copy();
+            copy.addMapping(new Variable("y"), new Variable("b"));
+
+            assertThat(substitution.getSize()).isEqualTo(1);
+            assertThat(copy.getSize()).isEqualTo(2);
+        }
+
+        @Test
+        void should_convertToSubstitution_withTheSameMappings() {
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y", "z"));
+            substitution.addMapping(new Variable("z"), new Constant("1"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+
+            assertThat(substitution.toSubstitution())
+                    .hasSize(2)
+                    .mapsToVariable("x", "a")
+                    .mapsToConstant("z", "1");
+        }
+    }
+
+    @Nested
+    class Application {
+
+        @Test
+        void should_returnSameTermList_whenNoVariableIsReplaced() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "1"));
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y"));
+            substitution.addMapping(new Variable("y"), new Variable("a"));
+
+            assertThat(terms.applySubstitution(substitution)).isSameAs(terms);
+        }
+
+        @Test
+        void should_replaceMappedVariables_whenApplyingToTermList() {
+            ImmutableTermList terms = new ImmutableTermList(TermMother.createTerms("x", "y", "1"));
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y"));
+            substitution.addMapping(new Variable("x"), new Constant("2"));
+
+            assertThat(terms.applySubstitution(substitution))
+                    .containsExactlyElementsOf(TermMother.createTerms("2", "y", "1"));
+        }
+
+        @Test
+        void should_returnSameLiterals_whenTheyAreNotAffected() {
+            ImmutableLiteralsList literals = ImmutableLiteralsListMother.create("R(x, y), not(S(y)), x < 1, TRUE()");
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y", "z"));
+            substitution.addMapping(new Variable("z"), new Variable("a"));
+
+            ImmutableLiteralsList result = literals.applySubstitution(substitution);
+
+            for (int i = 0; i < literals.size(); ++i) assertThat(result.get(i)).isSameAs(literals.get(i));
+        }
+
+        @Test
+        void should_applyLikeSubstitution_whenLiteralsAreAffected() {
+            ImmutableLiteralsList literals = ImmutableLiteralsListMother.create("R(x, y), not(S(y)), x < y, T(z)");
+            SlotSubstitution substitution = new SlotSubstitution(slotsOf("x", "y", "z"));
+            substitution.addMapping(new Variable("x"), new Variable("a"));
+            substitution.addMapping(new Variable("y"), new Constant("1"));
+
+            ImmutableLiteralsList result = literals.applySubstitution(substitution);
+
+            assertThat(result).hasToString(literals.applySubstitution(substitution.toSubstitution()).toString());
+            assertThat(result.get(3)).isSameAs(literals.get(3));
+        }
+    }
+}
@@ -12,9 +12,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Stream;
 
 import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert.assertThat;
@@ -293,4 +291,87 @@ class SubstitutionTest {
             assertThat(originalSubstitution.isIdentity()).isFalse();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class PersistentVersionsTests {
+
+        @Test
+        void should_notModifyCopy_whenExtendingOriginal() {
+            Substitution original = new Substitution();
+            original.addMapping(new Variable("x"), new Variable("a"));
+            Substitution copy = new Substitution(original);
+
+            original.addMapping(new Variable("y"), new Variable("b"));
+
+            assertThat(copy).hasSize(1).mapsToVariable("x", "a");
+            assertThat(original).hasSize(2).mapsToVariable("y", "b");
+        }
+
+        @Test
+        void should_notModifyOriginal_whenUsingWithMapping() {
+            Substitution original = new Substitution();
+            original.addMapping(new Variable("x"), new Variable("a"));
+
+            Substitution extended = original.withMapping(new Variable("y"), new Constant("1"));
+
+            assertThat(original).hasSize(1);
+            assertThat(extended)
+                    .hasSize(2)
+                    .mapsToVariable("x", "a")
+                    .mapsToConstant("y", "1");
+        }
+
+        @Test
+        void should_throwException_whenWithMappingIsIncompatible() {
+            Substitution original = new Substitution();
+            original.addMapping(new Variable("x"), new Variable("a"));
+
+            assertThatThrownBy(() -> original.withMapping(new Variable("x"), new Variable("b")))
+                    .isInstanceOf(SubstitutionException.class);
+        }
+
+        @Test
+        void should_keepMappingsApart_whenVariablesHaveTheSameHash() {
+            Variable aa = new Variable("Aa");
+            Variable bb = new Variable("BB");
+            assertThat(aa.hashCode()).isEqualTo(bb.hashCode());
+
+            Substitution substitution = new Substitution();
+            substitution.addMapping(aa, new Constant("1"));
+            Substitution extended = substitution.withMapping(bb, new Constant("2"));
+
+            assertThat(substitution.getTerm(bb)).isEmpty();
+            assertThat(extended)
+                    .hasSize(2)
+                    .mapsToConstant("Aa", "1")
+                    .mapsToConstant("BB", "2");
+        }
+
+        @Test
+        void should_behaveAsAMap_whenExtendingManyVersions() {
+            Random random = new Random(42);
+            Map<Variable, Term> expectedMappings = new LinkedHashMap<>();
+            Substitution substitution = new Substitution();
+            List<Substitution> versions = new ArrayList<>();
+            for (int i = 0; i < 5000; ++i) {
+                Variable variable = new Variable("v" + random.nextInt(100000));
+                Term term = new Constant(Integer.toString(i));
+                if (!expectedMappings.containsKey(variable)) {
+                    expectedMappings.put(variable, term);
+                    substitution = substitution.withMapping(variable, term);
+                    versions.add(substitution);
+                }
+            }
+
+            Substitution finalSubstitution = substitution;
+            assertThat(finalSubstitution.getSize()).isEqualTo(expectedMappings.size());
+            assertThat(finalSubstitution.getUsedVariables()).containsExactlyElementsOf(expectedMappings.keySet());
+            expectedMappings.forEach((variable, term) -> assertThat(finalSubstitution.getTerm(variable)).contains(term));
+            for (int i = 0; i < versions.size(); ++i) assertThat(versions.get(i).getSize()).isEqualTo(i + 1);
+
+            Substitution equivalent = new Substitution();
+            expectedMappings.forEach(equivalent::addMapping);
+            assertThat(finalSubstitution).hasSameMappingsAs(equivalent);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.domain.DependencySchema;
+import edu.upc.fib.inlab.imp.kse.logics.dependencyschema.mothers.DependencySchemaMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicSchemaMother;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AtomIndexTest {
+
+    private static List<Atom> atoms(String literals) {
+        return ImmutableLiteralsListMother.create(literals).stream()
+                .map(literal -> ((OrdinaryLiteral) literal).getAtom())
+                .toList();
+    }
+
+    private static Atom atom(String literal) {
+        return atoms(literal).get(0);
+    }
+
+    private static List<String> asStrings(List<Atom> atoms) {
+        return atoms.stream().map(Atom::toString).toList();
+    }
+
+    @Nested
+    class Maintenance {
+
+        @Test
+        void should_throwException_whenAtomIsNull() {
+            AtomIndex index = new AtomIndex();
+
+            assertThatThrownBy(() -> index.add(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Atom cannot be null");
+        }
+
+        @Test
+        void should_containAtom_onlyWhileIndexed() {
+            Atom atom = atom("R(x, 1)");
+            AtomIndex index = new AtomIndex();
+
+            assertThat(index.add(atom)).isTrue();
+            assertThat(index.add(atom)).isFalse();
+            assertThat(index.contains(atom)).isTrue();
+            assertThat(index.size()).isEqualTo(1);
+
+            assertThat(index.remove(atom)).isTrue();
+            assertThat(index.remove(atom)).isFalse();
+            assertThat(index.contains(atom)).isFalse();
+            assertThat(index.isEmpty()).isTrue();
+        }
+
+        @Test
+        void should_keepEqualAtomsApart_whenTheyAreDifferentInstances() {
+            List<Atom> equalAtoms = atoms("R(x, 1), R(x, 1)");
+            AtomIndex index = new AtomIndex(equalAtoms);
+
+            index.remove(equalAtoms.get(0));
+
+            assertThat(index.contains(equalAtoms.get(1))).isTrue();
+            assertThat(index.getInstancesOf(atom("R(a, b)"))).containsExactly(equalAtoms.get(1));
+        }
+
+        @Test
+        void should_notRetrieveRemovedAtoms() {
+            List<Atom> indexedAtoms = atoms("R(x, 1), R(y, 2), R(z, w)");
+            AtomIndex index = new AtomIndex(indexedAtoms);
+
+            index.remove(indexedAtoms.get(1));
+
+            assertThat(asStrings(index.getUnifiableAtoms(atom("R(a, b)")))).containsExactly("R(x, 1)", "R(z, w)");
+        }
+
+        @Test
+        @Timeout(10)
+        void should_addAndRemoveAtoms_inConstantTime_whenAllOfThemFallInTheSameLeaf() {
+            Predicate predicate = new Predicate("R", 2);
+            List<Atom> variableAtoms = new ArrayList<>();
+            for (int i = 0; i < 200_000; ++i) {
+                variableAtoms.add(new Atom(predicate, List.of(new Variable("x" + i), new Variable("y" + i))));
+            }
+
+            AtomIndex index = new AtomIndex(variableAtoms);
+            assertThat(index.size()).isEqualTo(variableAtoms.size());
+            assertThat(index.contains(variableAtoms.get(variableAtoms.size() - 1))).isTrue();
+
+            variableAtoms.forEach(index::remove);
+            assertThat(index.isEmpty()).isTrue();
+        }
+    }
+
+    @Nested
+    class Retrieval {
+
+        private final AtomIndex index = new AtomIndex(atoms("R(x, y), R(x, x), R(1, y), R(1, 2), R(x, 2), S(x, y, z)"));
+
+        Retrieval() {
+            index.add(atom("R(x)"));
+        }
+
+        @ParameterizedTest(name = "{0} unifies with {1}")
+        @CsvSource(delimiter = ';', value = {
+                "R(a, b); R(x, y)|R(x, x)|R(1, y)|R(1, 2)|R(x, 2)",
+                "R(a, a); R(x, y)|R(x, x)|R(1, y)|R(x, 2)",
+                "R(1, 3); R(x, y)|R(1, y)",
+                "R(2, 2); R(x, y)|R(x, x)|R(x, 2)",
+                "R(y, x); R(x, y)|R(x, x)|R(1, y)|R(1, 2)|R(x, 2)",
+                "T(a, b); ''"
+        })
+        void should_retrieveUnifiableAtoms(String query, String expected) {
+            assertThat(asStrings(index.getUnifiableAtoms(atom(query)))).containsExactlyInAnyOrderElementsOf(split(expected));
+        }
+
+        @ParameterizedTest(name = "instances of {0} are {1}")
+        @CsvSource(delimiter = ';', value = {
+                "R(a, b); R(x, y)|R(x, x)|R(1, y)|R(1, 2)|R(x, 2)",
+                "R(a, a); R(x, x)",
+                "R(1, b); R(1, y)|R(1, 2)",
+                "R(1, 2); R(1, 2)",
+                "R(2, 2); ''"
+        })
+        void should_retrieveInstances(String query, String expected) {
+            assertThat(asStrings(index.getInstancesOf(atom(query)))).containsExactlyInAnyOrderElementsOf(split(expected));
+        }
+
+        @ParameterizedTest(name = "generalizations of {0} are {1}")
+        @CsvSource(delimiter = ';', value = {
+                "R(a, b); R(x, y)",
+                "R(a, a); R(x, y)|R(x, x)",
+                "R(1, 2); R(x, y)|R(1, y)|R(1, 2)|R(x, 2)",
+                "R(2, 2); R(x, y)|R(x, x)|R(x, 2)",
+                "R(1, 1); R(x, y)|R(x, x)|R(1, y)"
+        })
+        void should_retrieveGeneralizations(String query, String expected) {
+            assertThat(asStrings(index.getGeneralizationsOf(atom(query)))).containsExactlyInAnyOrderElementsOf(split(expected));
+        }
+
+        @Test
+        void should_distinguishPredicatesByArity() {
+            assertThat(asStrings(index.getUnifiableAtoms(atom("R(a)")))).containsExactly("R(x)");
+        }
+
+        private static List<String> split(String expected) {
+            return expected.isEmpty() ? List.of() : Arrays.asList(expected.split("\\|"));
+        }
+    }
+
+    @Nested
+    class Schemas {
+
+        @Test
+        void should_indexAllAtoms_ofALogicSchema() {
+            LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                @1 :- R(x, 1), not(P(x)), x < 2
+                                                                                P(y) :- S(y, 1)
+                                                                                """);
+
+            AtomIndex index = new AtomIndex(logicSchema.getAllAtoms());
+
+            assertThat(index.size()).isEqualTo(4);
+            assertThat(asStrings(index.getUnifiableAtoms(atom("P(3)")))).containsExactlyInAnyOrder("P(x)", "P(y)");
+            assertThat(asStrings(index.getInstancesOf(atom("S(a, b)")))).containsExactly("S(y, 1)");
+        }
+
+        @Test
+        void should_indexAllAtoms_ofADependencySchema() {
+            DependencySchema dependencySchema = DependencySchemaMother.buildDependencySchema("""
+                                                                                             p(x, y) -> q(x, z)
+                                                                                             q(x, x) -> r(x)
+                                                                                             """);
+
+            AtomIndex index = new AtomIndex(dependencySchema.getAllAtoms());
+
+            assertThat(index.size()).isEqualTo(4);
+            assertThat(asStrings(index.getGeneralizationsOf(atom("q(a, a)")))).containsExactlyInAnyOrder("q(x, z)", "q(x, x)");
+        }
+    }
+
+    @Nested
+    class AgainstLinearScan {
+
+        @Test
+        void should_retrieveTheSameAtoms_asALinearScan() {
+            Random random = new Random(7);
+            Predicate predicate = new Predicate("R", 3);
+            List<Atom> indexedAtoms = new ArrayList<>();
+            for (int i = 0; i < 500; ++i) indexedAtoms.add(randomAtom(random, predicate, "x"));
+            AtomIndex index = new AtomIndex(indexedAtoms);
+
+            for (int i = 0; i < 200; ++i) {
+                Atom query = randomAtom(random, predicate, "y");
+                List<Atom> unifiable = new ArrayList<>();
+                List<Atom> instances = new ArrayList<>();
+                List<Atom> generalizations = new ArrayList<>();
+                for (Atom indexedAtom : indexedAtoms) {
+                    if (MGUFinder.areAtomsUnifiable(query, indexedAtom)) unifiable.add(indexedAtom);
+                    if (isInstance(indexedAtom, query)) instances.add(indexedAtom);
+                    if (isInstance(query, indexedAtom)) generalizations.add(indexedAtom);
+                }
+
+                assertThat(index.getUnifiableAtoms(query)).containsExactlyInAnyOrderElementsOf(unifiable);
+                assertThat(index.getInstancesOf(query)).containsExactlyInAnyOrderElementsOf(instances);
+                assertThat(index.getGeneralizationsOf(query)).containsExactlyInAnyOrderElementsOf(generalizations);
+            }
+        }
+
+        /**
+         * Variables of both atoms have different prefixes, so they are already apart
+         */
+        private static Atom randomAtom(Random random, Predicate predicate, String variablePrefix) {
+            List<Term> terms = new ArrayList<>();
+            for (int i = 0; i < predicate.getArity(); ++i) {
+                if (random.nextBoolean()) terms.add(new Constant(Integer.toString(random.nextInt(3))));
+                else terms.add(new Variable(variablePrefix + random.nextInt(3)));
+            }
+            return new Atom(predicate, terms);
+        }
+
+        private static boolean isInstance(Atom specific, Atom general) {
+            Map<Term, Term> images = new HashMap<>();
+            for (int i = 0; i < general.getTerms().size(); ++i) {
+                Term generalTerm = general.getTerms().get(i);
+                Term specificTerm = specific.getTerms().get(i);
+                if (generalTerm.isVariable()) {
+                    if (!images.computeIfAbsent(generalTerm, t -> specificTerm).equals(specificTerm)) return false;
+                } else if (!generalTerm.equals(specificTerm)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -7,19 +7,23 @@ import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.TermMother;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class MGUFinderTest {
 
@@ -667,4 +671,80 @@ class MGUFinderTest {
 
     }
 
-}
\ No newline at end of file
+    @Nested
+    class WideAtoms {
+        @Test
+        @Timeout(10)
+        void should_unifyAllVariables_whenAtomsAreWide() {
+            int arity = 5000;
+            Predicate pPred = new Predicate("P", arity);
+            List<Term> terms1 = new ArrayList<>();
+            List<Term> terms2 = new ArrayList<>();
+            for (int i = 0; i < arity; ++i) {
+                terms1.add(new Variable("x" + i));
+                terms2.add(new Variable("x" + (i + 1)));
+            }
+
+            Optional<Substitution> mgu = MGUFinder.getAtomsMGU(new Atom(pPred, terms1), new Atom(pPred, terms2));
+
+            assertThat(mgu).isPresent();
+            SubstitutionAssert.assertThat(mgu.get())
+                    .hasSize(arity + 1)
+                    .mapsToVariable("x0", "x" + arity)
+                    .mapsToVariable("x" + (arity / 2), "x" + arity);
+        }
+
+        @Test
+        @Timeout(10)
+        void should_unifyAllVariablesWithConstant_whenLastTermIsConstant() {
+            int arity = 5000;
+            Predicate pPred = new Predicate("P", arity);
+            List<Term> terms1 = new ArrayList<>();
+            List<Term> terms2 = new ArrayList<>();
+            for (int i = 0; i < arity; ++i) {
+                terms1.add(new Variable("x" + i));
+                terms2.add(i == arity - 1 ? new Constant("1") : new Variable("x" + (i + 1)));
+            }
+
+            Optional<Substitution> mgu = MGUFinder.getAtomsMGU(new Atom(pPred, terms1), new Atom(pPred, terms2));
+
+            assertThat(mgu).isPresent();
+            SubstitutionAssert.assertThat(mgu.get())
+                    .hasSize(arity)
+                    .mapsToConstant("x0", "1");
+        }
+    }
+
+    @Nested
+    class SearchBudgetLimit {
+        @Test
+        void should_throwException_whenSearchBudgetRunsOut() {
+            Predicate pPred = new Predicate("P", 3);
+            Atom atom1 = new Atom(pPred, TermMother.createTerms("x", "y", "z"));
+            Atom atom2 = new Atom(pPred, TermMother.createTerms("a", "b", "c"));
+            SearchBudget searchBudget = SearchBudget.ofNodes(2);
+            List<Atom> atoms = List.of(atom1, atom2);
+
+            assertThatThrownBy(() -> MGUFinder.getAtomsMGU(atoms, searchBudget))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+        }
+
+        @Test
+        void should_findMGU_whenSearchBudgetIsEnough() {
+            Predicate pPred = new Predicate("P", 3);
+            OrdinaryLiteral lit1 = new OrdinaryLiteral(new Atom(pPred, TermMother.createTerms("x", "y", "z")));
+            OrdinaryLiteral lit2 = new OrdinaryLiteral(new Atom(pPred, TermMother.createTerms("a", "b", "c")));
+
+            assertThat(MGUFinder.getLiteralsMGU(List.of(lit1, lit2), SearchBudget.ofNodes(3))).isPresent();
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetIsNull() {
+            List<Literal> literals = List.of();
+            assertThatThrownBy(() -> MGUFinder.getLiteralsMGU(literals, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("SearchBudget cannot be null");
+        }
+    }
+
+}
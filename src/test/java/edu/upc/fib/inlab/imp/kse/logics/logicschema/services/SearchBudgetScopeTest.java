@@ -0,0 +1,59 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchBudgetScopeTest {
+
+    @Test
+    void should_throwException_whenSearchBudgetSupplierIsNull() {
+        assertThatThrownBy(() -> new SearchBudgetScope(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("SearchBudgetSupplier cannot be null");
+    }
+
+    @Test
+    void should_throwException_whenSearchBudgetSupplierReturnsNull() {
+        SearchBudgetScope searchBudgetScope = new SearchBudgetScope(() -> null);
+        assertThatThrownBy(searchBudgetScope::currentOrNew)
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void should_giveANewSearchBudget_whenNoSearchIsRunning() {
+        SearchBudgetScope searchBudgetScope = new SearchBudgetScope(() -> SearchBudget.ofNodes(10));
+
+        SearchBudget first = searchBudgetScope.run(searchBudgetScope::currentOrNew);
+        SearchBudget second = searchBudgetScope.run(searchBudgetScope::currentOrNew);
+
+        assertThat(first).isNotSameAs(second);
+    }
+
+    @Test
+    void should_giveTheSearchBudgetOfTheRunningSearch_whenSearchIsNested() {
+        SearchBudgetScope searchBudgetScope = new SearchBudgetScope(() -> SearchBudget.ofNodes(10));
+
+        searchBudgetScope.run(() -> {
+            SearchBudget outerSearchBudget = searchBudgetScope.currentOrNew();
+            SearchBudget nestedSearchBudget = searchBudgetScope.run(searchBudgetScope::currentOrNew);
+            assertThat(nestedSearchBudget).isSameAs(outerSearchBudget);
+            return null;
+        });
+    }
+
+    @Test
+    void should_giveTheGivenSearchBudget_whenRunningInAnotherThread() {
+        SearchBudgetScope searchBudgetScope = new SearchBudgetScope(() -> SearchBudget.ofNodes(10));
+        SearchBudget searchBudget = SearchBudget.ofNodes(5);
+
+        SearchBudget otherThreadSearchBudget = CompletableFuture
+                .supplyAsync(() -> searchBudgetScope.runWith(searchBudget, searchBudgetScope::currentOrNew))
+                .join();
+
+        assertThat(otherThreadSearchBudget).isSameAs(searchBudget);
+    }
+}
@@ -0,0 +1,135 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchBudgetTest {
+
+    @Nested
+    class InputValidation {
+        @Test
+        void should_throwException_whenMaxNodesIsNotPositive() {
+            assertThatThrownBy(() -> SearchBudget.ofNodes(0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Max nodes must be greater than 0");
+        }
+
+        @Test
+        void should_throwException_whenTimeoutIsNegative() {
+            Duration timeout = Duration.ofSeconds(-1);
+            assertThatThrownBy(() -> SearchBudget.ofTimeout(timeout))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Timeout cannot be negative");
+        }
+
+        @Test
+        void should_throwException_whenTimeoutIsNull() {
+            assertThatThrownBy(() -> SearchBudget.ofTimeout(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Timeout cannot be null");
+        }
+    }
+
+    @Nested
+    class Limits {
+        @Test
+        void should_runOut_whenNodeLimitIsReached() {
+            SearchBudget budget = SearchBudget.ofNodes(3);
+
+            budget.consume();
+            budget.consume();
+            budget.consume();
+
+            assertThat(budget.isExceeded()).isFalse();
+            assertThat(budget.getConsumedNodes()).isEqualTo(3);
+            assertThatThrownBy(budget::consume)
+                    .isInstanceOf(SearchBudgetExceededException.class)
+                    .hasMessageContaining("node limit of 3 reached");
+            assertThat(budget.isExceeded()).isTrue();
+        }
+
+        @Test
+        void should_runOut_whenTimeoutElapses() {
+            SearchBudget budget = SearchBudget.ofTimeout(Duration.ZERO);
+
+            assertThatThrownBy(budget::consume)
+                    .isInstanceOf(SearchBudgetExceededException.class)
+                    .hasMessageContaining("timeout reached");
+        }
+
+        @Test
+        void should_runOut_whenThreadIsInterrupted() {
+            SearchBudget budget = SearchBudget.ofNodes(10);
+            Thread.currentThread().interrupt();
+            try {
+                assertThatThrownBy(budget::consume)
+                        .isInstanceOf(SearchBudgetExceededException.class)
+                        .hasMessageContaining("thread interrupted");
+                assertThat(Thread.currentThread().isInterrupted()).isTrue();
+            } finally {
+                Thread.interrupted();
+            }
+        }
+
+        @Test
+        void should_notRunOut_whenThreadIsInterrupted_andBudgetDoesNotStopOnInterrupt() {
+            SearchBudget budget = new SearchBudget(10, null, false);
+            Thread.currentThread().interrupt();
+            try {
+                budget.consume();
+                assertThat(budget.isExceeded()).isFalse();
+            } finally {
+                Thread.interrupted();
+            }
+        }
+
+        @Test
+        void should_runOut_whenCancelled() {
+            SearchBudget budget = SearchBudget.ofNodes(10);
+
+            budget.cancel();
+
+            assertThat(budget.isExceeded()).isTrue();
+            assertThatThrownBy(budget::consume)
+                    .isInstanceOf(SearchBudgetExceededException.class)
+                    .hasMessageContaining("search cancelled");
+        }
+
+        @Test
+        void should_keepFirstReason_whenRunningOutAgain() {
+            SearchBudget budget = SearchBudget.ofNodes(1);
+            budget.consume();
+            assertThatThrownBy(budget::consume).isInstanceOf(SearchBudgetExceededException.class);
+
+            budget.cancel();
+
+            assertThatThrownBy(budget::consume).hasMessageContaining("node limit of 1 reached");
+        }
+    }
+
+    @Nested
+    class Unlimited {
+        @Test
+        void should_neverRunOut_whenUnlimited() {
+            SearchBudget budget = SearchBudget.unlimited();
+
+            for (int i = 0; i < 1000; ++i) budget.consume();
+
+            assertThat(budget.isExceeded()).isFalse();
+        }
+
+        @Test
+        void should_throwException_whenCancellingUnlimitedBudget() {
+            SearchBudget budget = SearchBudget.unlimited();
+            assertThatThrownBy(budget::cancel)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Unlimited budget cannot be cancelled");
+        }
+    }
+}
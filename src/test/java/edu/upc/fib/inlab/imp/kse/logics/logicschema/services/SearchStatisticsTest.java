@@ -0,0 +1,48 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchStatisticsTest {
+
+    @Test
+    void should_accumulateNotifications() {
+        SearchStatistics statistics = new SearchStatistics();
+        Literal literal = ImmutableLiteralsListMother.create("R(x)").get(0);
+
+        statistics.candidatesGenerated(literal, 4);
+        statistics.candidatesGenerated(literal, 1);
+        statistics.nodeExpanded(1);
+        statistics.nodeExpanded(3);
+        statistics.nodeExpanded(2);
+        statistics.backtracked(2);
+        statistics.searchFinished(10);
+        statistics.searchFinished(5);
+
+        assertThat(statistics.getCandidatesGenerated()).isEqualTo(5);
+        assertThat(statistics.getMaxCandidatesPerLiteral()).isEqualTo(4);
+        assertThat(statistics.getAverageCandidatesPerLiteral()).isEqualTo(2.5);
+        assertThat(statistics.getNodesExpanded()).isEqualTo(3);
+        assertThat(statistics.getMaxDepth()).isEqualTo(3);
+        assertThat(statistics.getBacktracks()).isEqualTo(1);
+        assertThat(statistics.getSearches()).isEqualTo(2);
+        assertThat(statistics.getElapsedNanos()).isEqualTo(15);
+    }
+
+    @Test
+    void should_haveNoStatistics_whenReset() {
+        SearchStatistics statistics = new SearchStatistics();
+        statistics.nodeExpanded(3);
+        statistics.searchFinished(10);
+
+        statistics.reset();
+
+        assertThat(statistics.getNodesExpanded()).isZero();
+        assertThat(statistics.getMaxDepth()).isZero();
+        assertThat(statistics.getSearches()).isZero();
+        assertThat(statistics.getAverageCandidatesPerLiteral()).isZero();
+    }
+}
@@ -0,0 +1,97 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Term;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Variable;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.TermMother;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcyclicConjunctionTest {
+
+    private static Optional<AcyclicConjunction> createConjunction(String literals) {
+        List<Set<Variable>> literalsVariables = ImmutableLiteralsListMother.create(literals).stream()
+                .map(Literal::getUsedVariables)
+                .toList();
+        return AcyclicConjunction.of(literalsVariables);
+    }
+
+    @Nested
+    class GYOReduction {
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "R(x, y)",
+                "R(x, y), R(y, z), R(z, w)",
+                "R(x, y), S(x, z), T(x, w), U(w, v)",
+                "R(x, y), S(y, z), T(z, x), U(x, y, z)",
+                "R(x, y), S(z, w)",
+                "R(1, 2), S(x, 1)"
+        })
+        void should_detectAcyclicConjunction(String literals) {
+            assertThat(createConjunction(literals)).isPresent();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "R(x, y), S(y, z), T(z, x)",
+                "R(x, y), R(y, z), R(z, w), R(w, x)",
+                "R(x, y), S(y, z), T(z, x), U(v)"
+        })
+        void should_detectCyclicConjunction(String literals) {
+            assertThat(createConjunction(literals)).isNotPresent();
+        }
+    }
+
+    @Nested
+    class FindSolution {
+        @Test
+        void should_findSolution_compatibleWithEveryLiteral() {
+            AcyclicConjunction conjunction = createConjunction("R(x, y), S(y, z)").orElseThrow();
+            List<List<List<Term>>> tuples = List.of(
+                    List.of(TermMother.createTerms("a", "b"), TermMother.createTerms("c", "d")),
+                    List.of(TermMother.createTerms("d", "e"))
+            );
+
+            Optional<Map<Variable, Term>> solution = conjunction.findSolution(tuples);
+
+            assertThat(solution).isPresent();
+            assertThat(solution.get()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                    new Variable("x"), new Variable("c"),
+                    new Variable("y"), new Variable("d"),
+                    new Variable("z"), new Variable("e")));
+        }
+
+        @Test
+        void should_notFindSolution_whenSomeLiteralHasNoTuple() {
+            AcyclicConjunction conjunction = createConjunction("R(x, y), S(z)").orElseThrow();
+            List<List<List<Term>>> tuples = List.of(
+                    List.of(TermMother.createTerms("a", "b")),
+                    List.of()
+            );
+
+            assertThat(conjunction.findSolution(tuples)).isNotPresent();
+        }
+
+        @Test
+        void should_notFindSolution_whenTuplesDoNotJoin() {
+            AcyclicConjunction conjunction = createConjunction("R(x, y), S(y, z), T(z)").orElseThrow();
+            List<List<List<Term>>> tuples = List.of(
+                    List.of(TermMother.createTerms("a", "b"), TermMother.createTerms("c", "d")),
+                    List.of(TermMother.createTerms("b", "e"), TermMother.createTerms("d", "f")),
+                    List.of(TermMother.createTerms("g"))
+            );
+
+            assertThat(conjunction.findSolution(tuples)).isNotPresent();
+        }
+    }
+}
@@ -3,12 +3,15 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableLiteralsList;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchStatistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert.assertThat;
@@ -44,6 +47,48 @@ class ExtendedHomomorphismFinderTest {
         assertThat(substitutionOpt.get()).mapsToVariable("x", "a");
     }
 
+    @Test
+    void should_notifyDerivedLiteralChecks_whenUsingSearchListener() {
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create(
+                "Base(x), Derived1(x)",
+                "Derived1(x) :- Q(x,x)"
+        );
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create(
+                "Base(a), Derived2(a)",
+                "Derived2(y) :- Q(y,y)"
+        );
+        SearchStatistics statistics = new SearchStatistics();
+
+        ExtendedHomomorphismFinder extendedHomomorphismFinder = new ExtendedHomomorphismFinder(new HomomorphismFinderOptions().withSearchListener(statistics));
+        Optional<Substitution> substitutionOpt = extendedHomomorphismFinder.findHomomorphism(domainLiterals, rangeLiterals);
+
+        assertThat(substitutionOpt).isPresent();
+        assertThat(statistics.getDerivedLiteralChecks()).isEqualTo(2);
+        assertThat(statistics.getSearches()).isEqualTo(1);
+    }
+
+    @Test
+    void should_consumeTheSearchBudgetOfTheSearch_whenCheckingDerivedLiterals() {
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create(
+                "Base(x), Derived1(x)",
+                "Derived1(x) :- Q(x,x)"
+        );
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create(
+                "Base(a), Derived2(a)",
+                "Derived2(y) :- Q(y,y)"
+        );
+        AtomicInteger suppliedBudgets = new AtomicInteger();
+
+        ExtendedHomomorphismFinder extendedHomomorphismFinder = new ExtendedHomomorphismFinder(new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> {
+            suppliedBudgets.incrementAndGet();
+            return SearchBudget.ofNodes(1000);
+        }));
+        Optional<Substitution> substitutionOpt = extendedHomomorphismFinder.findHomomorphism(domainLiterals, rangeLiterals);
+
+        assertThat(substitutionOpt).isPresent();
+        assertThat(suppliedBudgets.get()).isEqualTo(1);
+    }
+
     @Test
     void should_findHomomorphism_whenDomainDerived_hasDifferentName_thanRangeDerivedLiteral() {
         ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create(
@@ -0,0 +1,88 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark measuring the cost of finding an homomorphism between two large bodies.
+ * <p>
+ * The range body is a chain of {@code bodySize} literals "P_i(x_j, x_j+1)" using {@code bodySize/5} different
+ * predicates. The domain body is the very same chain written with other variable names, so that the homomorphism
+ * exists and every domain literal only has a few compatible range literals.
+ * <p>
+ * It is not run as part of the test suite. Run its main method, with the test classpath, once the test classes have
+ * been compiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HomomorphismFinderBenchmark {
+
+    private static final int LITERALS_PER_PREDICATE = 5;
+
+    @Param({"50", "100", "250", "500"})
+    private int bodySize;
+
+    @Param({"AS_WRITTEN", "FAIL_FIRST"})
+    private DomainLiteralsOrdering ordering;
+
+    @Param({"NONE", "FORWARD_CHECKING"})
+    private DomainPruning pruning;
+
+    @Param({"BACKTRACKING", "AUTOMATIC"})
+    private AcyclicDomainSolving acyclicDomainSolving;
+
+    private List<Literal> domainLiterals;
+    private List<Literal> rangeLiterals;
+    private HomomorphismFinder homomorphismFinder;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HomomorphismFinderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() {
+        int numberOfPredicates = Math.max(1, bodySize / LITERALS_PER_PREDICATE);
+        List<Predicate> predicates = new LinkedList<>();
+        for (int i = 0; i < numberOfPredicates; ++i) {
+            predicates.add(new Predicate("P" + i, 2));
+        }
+        domainLiterals = createChain(predicates, "x");
+        rangeLiterals = createChain(predicates, "a");
+        homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions()
+                .withDomainLiteralsOrdering(ordering)
+                .withDomainPruning(pruning)
+                .withAcyclicDomainSolving(acyclicDomainSolving));
+    }
+
+    @Benchmark
+    public Optional<Substitution> findHomomorphism() {
+        return homomorphismFinder.findHomomorphism(domainLiterals, rangeLiterals);
+    }
+
+    private List<Literal> createChain(List<Predicate> predicates, String variablePrefix) {
+        List<Literal> result = new LinkedList<>();
+        for (int i = 0; i < bodySize; ++i) {
+            Predicate predicate = predicates.get(i % predicates.size());
+            List<Term> terms = List.of(new Variable(variablePrefix + i), new Variable(variablePrefix + (i + 1)));
+            result.add(new OrdinaryLiteral(new Atom(predicate, terms)));
+        }
+        return result;
+    }
+}
@@ -5,12 +5,19 @@ import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substituti
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.DerivationRuleMother;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicConstraintMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchListener;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchStatistics;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.exceptions.DerivedLiteralInHomomorphismCheckException;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -288,6 +295,588 @@ class HomomorphismFinderTest {
                     assertThat(homomorphismOpt).isNotPresent();
                 }
             }
+
+            @Nested
+            class FailFirstOrdering {
+                @Test
+                void should_throwException_whenOrderingIsNull() {
+                    HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+                    assertThatThrownBy(() -> options.withDomainLiteralsOrdering(null))
+                            .isInstanceOf(IllegalArgumentException.class);
+                }
+
+                @Test
+                void should_findHomomorphism_startingFromTheMostConstrainedLiteral() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(x)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(c)");
+
+                    HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST));
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                    SubstitutionAssert.assertThat(homomorphismOpt.get())
+                            .mapsToVariable("x", "c")
+                            .mapsToVariable("y", "d");
+                }
+
+                @Test
+                void should_findHomomorphism_whenJoiningThroughBoundVariables() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("T(x, y), R(y, z), S(z)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("T(a, b), T(c, d), R(b, e), R(d, f), S(f)");
+
+                    HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST));
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                    SubstitutionAssert.assertThat(homomorphismOpt.get())
+                            .mapsToVariable("x", "c")
+                            .mapsToVariable("y", "d")
+                            .mapsToVariable("z", "f");
+                }
+
+                @Test
+                void should_notFindHomomorphism_whenSomeLiteralHasNoCandidate() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), not(S(x))");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), not(S(b))");
+
+                    HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST));
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isNotPresent();
+                }
+
+                @Test
+                void should_findHomomorphism_whenLiteralsListIncludesEqualities_ThatCreatesSeveralPossibleHomomorphism() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("z = x, T(x, y)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("T(x, y), x = z");
+
+                    HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST));
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                    SubstitutionAssert.assertThat(homomorphismOpt.get())
+                            .mapsToVariable("x", "x")
+                            .mapsToVariable("y", "y")
+                            .mapsToVariable("z", "z");
+                }
+
+                @Test
+                void should_findHomomorphism_whenUsingDerivedLiteralCriteria() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("P(x), Derived(x)", "Derived(x) :- Q(x)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("P(x), Derived(x)", "Derived(x) :- Q(x)");
+
+                    HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST));
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                }
+            }
+
+            @Nested
+            class ForwardChecking {
+                private final HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainPruning(DomainPruning.FORWARD_CHECKING));
+
+                @Test
+                void should_throwException_whenPruningIsNull() {
+                    HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+                    assertThatThrownBy(() -> options.withDomainPruning(null))
+                            .isInstanceOf(IllegalArgumentException.class);
+                }
+
+                @Test
+                void should_findHomomorphism_whenJoiningThroughBoundVariables() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("T(x, y), R(y, z), S(z)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("T(a, b), T(c, d), R(b, e), R(d, f), S(f)");
+
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                    SubstitutionAssert.assertThat(homomorphismOpt.get())
+                            .mapsToVariable("x", "c")
+                            .mapsToVariable("y", "d")
+                            .mapsToVariable("z", "f");
+                }
+
+                @Test
+                void should_notFindHomomorphism_whenVariableDomainsAreDisjoint() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(x)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(b)");
+
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isNotPresent();
+                }
+
+                @Test
+                void should_notFindHomomorphism_whenCycleCannotBeClosed() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, d), R(d, a)");
+
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isNotPresent();
+                }
+
+                @Test
+                void should_findHomomorphism_whenComparisonIsMappedToItsSymmetric() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("T(x, y), x < y");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("T(a, b), T(c, d), d > c");
+
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                    SubstitutionAssert.assertThat(homomorphismOpt.get())
+                            .mapsToVariable("x", "c")
+                            .mapsToVariable("y", "d");
+                }
+
+                @Test
+                void should_notFindHomomorphism_whenInitialSubstitutionIsOutsideVariableDomain() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b)");
+                    Substitution initialSubstitution = new SubstitutionBuilder().addMapping("x", "b").build();
+
+                    Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList, initialSubstitution);
+                    assertThat(homomorphismOpt).isNotPresent();
+                }
+
+                @Test
+                void should_findHomomorphism_whenUsingDerivedLiteralCriteria() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("P(x), Derived(x)", "Derived(x) :- Q(x)");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("P(x), Derived(x)", "Derived(x) :- Q(x)");
+
+                    HomomorphismFinder finder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions()
+                            .withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST)
+                            .withDomainPruning(DomainPruning.FORWARD_CHECKING));
+                    Optional<Substitution> homomorphismOpt = finder.findHomomorphism(domainList, rangeList);
+                    assertThat(homomorphismOpt).isPresent();
+                }
+
+                @Test
+                void should_findSameHomomorphisms_asWithoutPruning() {
+                    ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), x <> z");
+                    ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(b, a), R(c, a), a <> c, c <> a");
+
+                    List<Substitution> expectedHomomorphisms = new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList).toList();
+                    List<Substitution> homomorphisms = homomorphismFinder.findAllHomomorphisms(domainList, rangeList).toList();
+                    assertThat(homomorphisms).extracting(SubstitutionAssert::mappingsOf)
+                            .containsExactlyElementsOf(expectedHomomorphisms.stream().map(SubstitutionAssert::mappingsOf).toList());
+                }
+            }
+        }
+    }
+
+    @Nested
+    class AcyclicDomainLiterals {
+        private final HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withAcyclicDomainSolving(AcyclicDomainSolving.SEMI_JOINS));
+
+        @Test
+        void should_findHomomorphism_whenDomainIsAcyclic() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y, z), T(y, w), not(U(w))");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d, e), T(d, f), T(b, g), S(b, h), not(U(g))");
+
+            Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+
+            assertThat(homomorphismOpt).isPresent();
+            SubstitutionAssert.assertThat(homomorphismOpt.get())
+                    .hasSize(4)
+                    .mapsToVariable("x", "a")
+                    .mapsToVariable("y", "b")
+                    .mapsToVariable("z", "h")
+                    .mapsToVariable("w", "g");
+        }
+
+        @Test
+        void should_findHomomorphism_whenInitialSubstitutionBreaksCycle() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a), R(c, d)");
+            Substitution initialSubstitution = new SubstitutionBuilder().addMapping("x", "b").build();
+
+            Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList, initialSubstitution);
+
+            assertThat(homomorphismOpt).isPresent();
+            SubstitutionAssert.assertThat(homomorphismOpt.get())
+                    .mapsToVariable("x", "b")
+                    .mapsToVariable("y", "c")
+                    .mapsToVariable("z", "a");
+        }
+
+        @Test
+        void should_findHomomorphism_whenDomainHasComparisons() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), x < y, S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), d > c, S(d)");
+
+            Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+
+            assertThat(homomorphismOpt).isPresent();
+            SubstitutionAssert.assertThat(homomorphismOpt.get())
+                    .mapsToVariable("x", "c")
+                    .mapsToVariable("y", "d");
+        }
+
+        @Test
+        @Timeout(10)
+        void should_notFindHomomorphism_withoutExploringEveryPath_whenDomainIsAcyclic() {
+            StringBuilder domainLiterals = new StringBuilder();
+            for (int i = 0; i < 12; ++i) domainLiterals.append("R(x").append(i).append(", x").append(i + 1).append("), ");
+            domainLiterals.append("S(x12)");
+            StringBuilder rangeLiterals = new StringBuilder("S(z)");
+            for (String source : List.of("a", "b", "c", "d", "e", "f")) {
+                for (String target : List.of("a", "b", "c", "d", "e", "f")) {
+                    rangeLiterals.append(", R(").append(source).append(", ").append(target).append(")");
+                }
+            }
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create(domainLiterals.toString());
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create(rangeLiterals.toString());
+
+            Optional<Substitution> homomorphismOpt = homomorphismFinder.findHomomorphism(domainList, rangeList);
+
+            assertThat(homomorphismOpt).isNotPresent();
+        }
+
+        @Test
+        void should_backtrack_whenSemiJoinsAreNotChosen() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder backtrackingFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions()
+                    .withAcyclicDomainSolving(AcyclicDomainSolving.BACKTRACKING)
+                    .withSearchListener(statistics));
+
+            assertThat(backtrackingFinder.findHomomorphism(domainList, rangeList)).isPresent();
+
+            assertThat(statistics.getBacktracks()).isPositive();
+        }
+
+        @Test
+        void should_followDomainLiteralsOrdering_whenSemiJoinsAreNotChosen() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder failFirstFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions()
+                    .withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST)
+                    .withAcyclicDomainSolving(AcyclicDomainSolving.BACKTRACKING)
+                    .withSearchListener(statistics));
+
+            assertThat(failFirstFinder.findHomomorphism(domainList, rangeList)).isPresent();
+
+            assertThat(statistics.getBacktracks()).isZero();
+            assertThat(statistics.getNodesExpanded()).isEqualTo(2);
+        }
+
+        @Test
+        @Timeout(10)
+        void should_solveBySemiJoins_byDefault_whenSearchSpaceIsLarge() {
+            StringBuilder domainLiterals = new StringBuilder();
+            for (int i = 0; i < 12; ++i) domainLiterals.append("R(x").append(i).append(", x").append(i + 1).append("), ");
+            domainLiterals.append("S(x12)");
+            StringBuilder rangeLiterals = new StringBuilder("S(z)");
+            for (String source : List.of("a", "b", "c", "d", "e", "f")) {
+                for (String target : List.of("a", "b", "c", "d", "e", "f")) {
+                    rangeLiterals.append(", R(").append(source).append(", ").append(target).append(")");
+                }
+            }
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create(domainLiterals.toString());
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create(rangeLiterals.toString());
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder defaultFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withSearchListener(statistics));
+
+            assertThat(defaultFinder.findHomomorphism(domainList, rangeList)).isNotPresent();
+
+            assertThat(statistics.getNodesExpanded()).isEqualTo(13);
+            assertThat(statistics.getBacktracks()).isZero();
+        }
+
+        @Test
+        void should_backtrack_byDefault_whenSearchSpaceIsSmall() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder defaultFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withSearchListener(statistics));
+
+            assertThat(defaultFinder.findHomomorphism(domainList, rangeList)).isPresent();
+
+            assertThat(statistics.getBacktracks()).isPositive();
+        }
+
+        @Test
+        void should_throwException_whenAcyclicDomainSolvingIsNull() {
+            HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+            assertThatThrownBy(() -> options.withAcyclicDomainSolving(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("AcyclicDomainSolving cannot be null");
+        }
+    }
+
+    @Nested
+    class FinderOptions {
+        @Test
+        void should_useDefaultOptions_whenNoneAreGiven() {
+            HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+
+            assertThat(options.domainLiteralsOrdering()).isEqualTo(DomainLiteralsOrdering.AS_WRITTEN);
+            assertThat(options.domainPruning()).isEqualTo(DomainPruning.NONE);
+            assertThat(options.acyclicDomainSolving()).isEqualTo(AcyclicDomainSolving.AUTOMATIC);
+            assertThat(options.searchListener()).isSameAs(SearchListener.NONE);
+            assertThat(options.searchBudgetSupplier().get()).isSameAs(SearchBudget.unlimited());
+        }
+
+        @Test
+        void should_keepOtherOptions_whenChangingOne() {
+            SearchStatistics statistics = new SearchStatistics();
+
+            HomomorphismFinderOptions options = new HomomorphismFinderOptions()
+                    .withSearchListener(statistics)
+                    .withDomainPruning(DomainPruning.FORWARD_CHECKING);
+
+            assertThat(options.searchListener()).isSameAs(statistics);
+            assertThat(options.domainPruning()).isEqualTo(DomainPruning.FORWARD_CHECKING);
+            assertThat(options.acyclicDomainSolving()).isEqualTo(AcyclicDomainSolving.AUTOMATIC);
+        }
+
+        @Test
+        void should_throwException_whenOptionsAreNull() {
+            assertThatThrownBy(() -> new HomomorphismFinder(null, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("HomomorphismFinderOptions cannot be null");
+        }
+    }
+
+    @Nested
+    class SearchBudgetLimit {
+        @Test
+        void should_throwException_whenSearchBudgetRunsOut() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x), S(x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a), R(a, a)");
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> SearchBudget.ofNodes(3)));
+
+            assertThatThrownBy(() -> homomorphismFinder.findHomomorphism(domainList, rangeList))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+        }
+
+        @Test
+        void should_notModifyInitialSubstitution_whenSearchBudgetRunsOut() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x), S(x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a), R(a, a)");
+            Substitution initialSubstitution = new SubstitutionBuilder().addMapping("w", "a").build();
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> SearchBudget.ofNodes(3)));
+
+            assertThatThrownBy(() -> homomorphismFinder.findHomomorphism(domainList, rangeList, initialSubstitution))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+            SubstitutionAssert.assertThat(initialSubstitution)
+                    .hasSize(1)
+                    .mapsToVariable("w", "a");
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetIsCancelled_andDomainIsAcyclic() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), S(b)");
+            SearchBudget searchBudget = SearchBudget.ofNodes(100);
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions()
+                    .withAcyclicDomainSolving(AcyclicDomainSolving.SEMI_JOINS)
+                    .withSearchBudgetSupplier(() -> searchBudget));
+            searchBudget.cancel();
+
+            assertThatThrownBy(() -> homomorphismFinder.findHomomorphism(domainList, rangeList))
+                    .isInstanceOf(SearchBudgetExceededException.class)
+                    .hasMessageContaining("search cancelled");
+        }
+
+        @Test
+        void should_findHomomorphism_whenSearchBudgetIsEnough() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a)");
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> SearchBudget.ofNodes(1000)));
+
+            assertThat(homomorphismFinder.findHomomorphism(domainList, rangeList)).isPresent();
+        }
+
+        @Test
+        void should_startEachSearchWithANewSearchBudget_whenThePreviousOneRanOut() {
+            ImmutableLiteralsList expensiveDomainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x), S(x)");
+            ImmutableLiteralsList expensiveRangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a), R(a, a)");
+            ImmutableLiteralsList cheapDomainList = ImmutableLiteralsListMother.create("R(x, y)");
+            ImmutableLiteralsList cheapRangeList = ImmutableLiteralsListMother.create("R(a, b)");
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(new SamePredicateNameCriteria(), new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> SearchBudget.ofNodes(3)));
+
+            assertThatThrownBy(() -> homomorphismFinder.findHomomorphism(expensiveDomainList, expensiveRangeList))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+            assertThat(homomorphismFinder.findHomomorphism(cheapDomainList, cheapRangeList)).isPresent();
+            assertThat(homomorphismFinder.findAllHomomorphisms(cheapDomainList, cheapRangeList)).hasSize(1);
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetSupplierIsNull() {
+            HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+            assertThatThrownBy(() -> options.withSearchBudgetSupplier(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("SearchBudgetSupplier cannot be null");
+        }
+    }
+
+    @Nested
+    class SearchStatisticsCollection {
+        @Test
+        void should_collectStatistics_whenHomomorphismIsFound() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withSearchListener(statistics));
+
+            assertThat(homomorphismFinder.findHomomorphism(domainList, rangeList)).isPresent();
+
+            assertThat(statistics.getSearches()).isEqualTo(1);
+            assertThat(statistics.getNodesExpanded()).isEqualTo(3);
+            assertThat(statistics.getCandidatesGenerated()).isEqualTo(9);
+            assertThat(statistics.getMaxCandidatesPerLiteral()).isEqualTo(3);
+            assertThat(statistics.getBacktracks()).isZero();
+            assertThat(statistics.getMaxDepth()).isEqualTo(3);
+        }
+
+        @Test
+        void should_countBacktracks_whenHomomorphismIsNotFound() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(b, a)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions().withSearchListener(statistics));
+
+            assertThat(homomorphismFinder.findHomomorphism(domainList, rangeList)).isNotPresent();
+
+            assertThat(statistics.getBacktracks()).isPositive();
+            assertThat(statistics.getMaxDepth()).isEqualTo(2);
+        }
+
+        @Test
+        void should_collectStatistics_whenDomainIsAcyclic() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d)");
+            SearchStatistics statistics = new SearchStatistics();
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder(null, new HomomorphismFinderOptions()
+                    .withAcyclicDomainSolving(AcyclicDomainSolving.SEMI_JOINS)
+                    .withSearchListener(statistics));
+
+            assertThat(homomorphismFinder.findHomomorphism(domainList, rangeList)).isPresent();
+
+            assertThat(statistics.getNodesExpanded()).isEqualTo(2);
+            assertThat(statistics.getCandidatesGenerated()).isEqualTo(3);
+            assertThat(statistics.getAverageCandidatesPerLiteral()).isEqualTo(1.5);
+        }
+
+        @Test
+        void should_throwException_whenSearchListenerIsNull() {
+            HomomorphismFinderOptions options = new HomomorphismFinderOptions();
+            assertThatThrownBy(() -> options.withSearchListener(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("SearchListener cannot be null");
+        }
+    }
+
+    @Nested
+    class FindAllHomomorphisms {
+        @Test
+        void should_findAllHomomorphisms_inRangeOrder() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), S(a), R(c, d)");
+
+            List<Substitution> homomorphisms = new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList).toList();
+
+            assertThat(homomorphisms).hasSize(2);
+            SubstitutionAssert.assertThat(homomorphisms.get(0))
+                    .mapsToVariable("x", "a")
+                    .mapsToVariable("y", "b");
+            SubstitutionAssert.assertThat(homomorphisms.get(1))
+                    .mapsToVariable("x", "c")
+                    .mapsToVariable("y", "d");
+        }
+
+        @Test
+        void should_findEachHomomorphismOnce_whenRangeHasRepeatedLiterals() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(a, b)");
+
+            assertThat(new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList)).hasSize(1);
+        }
+
+        @Test
+        void should_findEachHomomorphismOnce_whenSymmetricImagesBindTheSameTerms() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("x = y, R(x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("a = a, R(a), R(a)");
+
+            assertThat(new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList)).hasSize(1);
+            assertThat(new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST)).findAllHomomorphisms(domainList, rangeList)).hasSize(1);
+        }
+
+        @Test
+        void should_findBothHomomorphisms_whenMappingSymmetricEqualities() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("x = y");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("a = b");
+
+            List<Substitution> homomorphisms = new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList).toList();
+
+            assertThat(homomorphisms).hasSize(2);
+            SubstitutionAssert.assertThat(homomorphisms.get(0))
+                    .mapsToVariable("x", "a")
+                    .mapsToVariable("y", "b");
+            SubstitutionAssert.assertThat(homomorphisms.get(1))
+                    .mapsToVariable("x", "b")
+                    .mapsToVariable("y", "a");
+        }
+
+        @Test
+        void should_findNoHomomorphism_whenThereIsNone() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), not(S(x))");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), not(S(b))");
+
+            assertThat(new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList)).isEmpty();
+        }
+
+        @Test
+        void should_findInitialSubstitution_whenDomainIsEmpty() {
+            Substitution initialSubstitution = new SubstitutionBuilder().addMapping("x", "a").build();
+
+            List<Substitution> homomorphisms = new HomomorphismFinder().findAllHomomorphisms(List.of(), List.of(), initialSubstitution).toList();
+
+            assertThat(homomorphisms).singleElement()
+                    .satisfies(homomorphism -> SubstitutionAssert.assertThat(homomorphism).hasSameMappingsAs(initialSubstitution));
+        }
+
+        @Test
+        void should_findSameHomomorphisms_whenUsingFailFirstOrdering() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y), T(x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(a, c), R(d, b), S(b), S(c), T(a), T(d)");
+
+            List<Substitution> asWrittenHomomorphisms = new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList).toList();
+            List<Substitution> failFirstHomomorphisms = new HomomorphismFinder(null, new HomomorphismFinderOptions().withDomainLiteralsOrdering(DomainLiteralsOrdering.FAIL_FIRST)).findAllHomomorphisms(domainList, rangeList).toList();
+
+            assertThat(asWrittenHomomorphisms).hasSize(3);
+            assertThat(failFirstHomomorphisms).extracting(SubstitutionAssert::mappingsOf)
+                    .containsExactlyInAnyOrderElementsOf(asWrittenHomomorphisms.stream().map(SubstitutionAssert::mappingsOf).toList());
+        }
+
+        @Test
+        void should_findHomomorphismsCompatibleWithHead_whenUsingDerivationRules() {
+            DerivationRule domainRule = DerivationRuleMother.create("P(x) :- R(x, y)");
+            DerivationRule rangeRule = DerivationRuleMother.create("P(a) :- R(a, b), R(c, d), R(a, e)");
+
+            List<Substitution> homomorphisms = new HomomorphismFinder().findAllHomomorphisms(domainRule, rangeRule).toList();
+
+            assertThat(homomorphisms).hasSize(2);
+            SubstitutionAssert.assertThat(homomorphisms.get(0)).mapsToVariable("y", "b");
+            SubstitutionAssert.assertThat(homomorphisms.get(1)).mapsToVariable("y", "e");
+        }
+
+        @Test
+        void should_computeHomomorphismsOnDemand_whenUsingIterator() {
+            ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x)");
+            ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a), R(b)");
+
+            Iterator<Substitution> homomorphisms = new HomomorphismFinder().iterateAllHomomorphisms(domainList, rangeList, new Substitution());
+
+            assertThat(homomorphisms.hasNext()).isTrue();
+            assertThat(homomorphisms.hasNext()).isTrue();
+            SubstitutionAssert.assertThat(homomorphisms.next()).mapsToVariable("x", "a");
+            SubstitutionAssert.assertThat(homomorphisms.next()).mapsToVariable("x", "b");
+            assertThat(homomorphisms.hasNext()).isFalse();
+            assertThatThrownBy(homomorphisms::next).isInstanceOf(NoSuchElementException.class);
+        }
+
+        @Test
+        void should_throwException_whenDomainLiteralsIsNull() {
+            HomomorphismFinder homomorphismFinder = new HomomorphismFinder();
+            assertThatThrownBy(() -> homomorphismFinder.findAllHomomorphisms(null, List.of()))
+                    .isInstanceOf(IllegalArgumentException.class);
         }
     }
 
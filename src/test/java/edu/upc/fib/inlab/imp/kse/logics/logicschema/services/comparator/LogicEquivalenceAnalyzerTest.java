@@ -7,11 +7,16 @@ import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicConstraint;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.DerivationRuleMother;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicConstraintMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.LogicEquivalenceAnalyzer.UNKNOWN;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -377,4 +382,156 @@ class LogicEquivalenceAnalyzerTest {
         }
     }
 
+    @Nested
+    class ResultCache {
+        @Test
+        void should_throwException_whenCacheSizeIsNotPositive() {
+            HomomorphismFinder homomorphismFinder = new ExtendedHomomorphismFinder();
+            assertThatThrownBy(() -> new HomomorphismBasedEquivalenceAnalyzer(homomorphismFinder, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void should_countNoHitsNorMisses_whenThereIsNoCache() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer();
+            analyzer.areEquivalent(ImmutableLiteralsListMother.create("R(x, y)"), ImmutableLiteralsListMother.create("R(a, b)"));
+
+            assertThat(analyzer.getCacheHits()).isZero();
+            assertThat(analyzer.getCacheMisses()).isZero();
+        }
+
+        @Test
+        void should_hitCache_whenComparingPairAgain() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 10);
+            ImmutableLiteralsList first = ImmutableLiteralsListMother.create("R(x, y), S(x)");
+            ImmutableLiteralsList second = ImmutableLiteralsListMother.create("R(a, b), S(a), R(b, b)");
+
+            Optional<Boolean> firstEquivalence = analyzer.areEquivalent(first, second);
+            Optional<Boolean> secondEquivalence = analyzer.areEquivalent(first, second);
+
+            assertThat(firstEquivalence).contains(false);
+            assertThat(secondEquivalence).contains(false);
+            assertThat(analyzer.getCacheHits()).isEqualTo(1);
+            assertThat(analyzer.getCacheMisses()).isEqualTo(1);
+        }
+
+        @Test
+        void should_hitCache_whenComparingPairDifferingOnVariableNames() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 10);
+
+            analyzer.areEquivalent(ImmutableLiteralsListMother.create("R(x, y), not(S(x))"), ImmutableLiteralsListMother.create("R(a, b), not(S(a))"));
+            Optional<Boolean> equivalence = analyzer.areEquivalent(ImmutableLiteralsListMother.create("R(u, v), not(S(u))"), ImmutableLiteralsListMother.create("R(c, d), not(S(c))"));
+
+            assertThat(equivalence).contains(true);
+            assertThat(analyzer.getCacheHits()).isEqualTo(1);
+        }
+
+        @Test
+        void should_missCache_whenComparingPairDifferingOnConstants() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 10);
+
+            analyzer.areEquivalent(ImmutableLiteralsListMother.create("R(x, 1)"), ImmutableLiteralsListMother.create("R(a, 1)"));
+            Optional<Boolean> equivalence = analyzer.areEquivalent(ImmutableLiteralsListMother.create("R(x, 1)"), ImmutableLiteralsListMother.create("R(a, 2)"));
+
+            assertThat(equivalence).contains(false);
+            assertThat(analyzer.getCacheHits()).isZero();
+            assertThat(analyzer.getCacheMisses()).isEqualTo(2);
+        }
+
+        @Test
+        void should_missCache_whenDerivedPredicatesHaveDifferentDefinitions() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 10);
+
+            Optional<Boolean> firstEquivalence = analyzer.areEquivalent(ImmutableLiteralsListMother.create("Q(x)", "Q(a) :- T(a)"),
+                                                                        ImmutableLiteralsListMother.create("Q(x)", "Q(a) :- T(a)"));
+            Optional<Boolean> secondEquivalence = analyzer.areEquivalent(ImmutableLiteralsListMother.create("Q(x)", "Q(a) :- T(a)"),
+                                                                         ImmutableLiteralsListMother.create("Q(x)", "Q(a) :- T(a), S(a)"));
+
+            assertThat(firstEquivalence).contains(true);
+            assertThat(secondEquivalence).isNotEqualTo(firstEquivalence);
+            assertThat(analyzer.getCacheHits()).isZero();
+        }
+
+        @Test
+        void should_hitCache_whenComparingDerivationRulesDifferingOnVariableNames() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 10);
+
+            analyzer.areEquivalent(DerivationRuleMother.create("P(x) :- R(x, y)"), DerivationRuleMother.create("P(a) :- R(a, b)"));
+            Optional<Boolean> equivalence = analyzer.areEquivalent(DerivationRuleMother.create("P(u) :- R(u, v)"), DerivationRuleMother.create("P(c) :- R(c, d)"));
+
+            assertThat(equivalence).contains(true);
+            assertThat(analyzer.getCacheHits()).isEqualTo(1);
+        }
+
+        @Test
+        void should_evictLeastRecentlyUsedResult_whenCacheIsFull() {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 1);
+            ImmutableLiteralsList first = ImmutableLiteralsListMother.create("R(x, y)");
+            ImmutableLiteralsList second = ImmutableLiteralsListMother.create("S(x, y)");
+
+            analyzer.areEquivalent(first, first);
+            analyzer.areEquivalent(second, second);
+            analyzer.areEquivalent(first, first);
+
+            assertThat(analyzer.getCacheHits()).isZero();
+            assertThat(analyzer.getCacheMisses()).isEqualTo(3);
+        }
+
+        @Test
+        void should_returnSameResults_whenSharedAcrossThreads() throws Exception {
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(new ExtendedHomomorphismFinder(), 4);
+            List<ImmutableLiteralsList> bodies = List.of(
+                    ImmutableLiteralsListMother.create("R(x, y), S(x)"),
+                    ImmutableLiteralsListMother.create("R(a, b), S(a), R(a, c)"),
+                    ImmutableLiteralsListMother.create("R(a, b), S(b)"));
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Optional<Boolean>>> results = new ArrayList<>();
+                for (int i = 0; i < 90; ++i) {
+                    ImmutableLiteralsList first = bodies.get(i % 3);
+                    ImmutableLiteralsList second = bodies.get((i / 3) % 3);
+                    results.add(executorService.submit(() -> analyzer.areEquivalent(first, second)));
+                }
+                for (int i = 0; i < 90; ++i) {
+                    ImmutableLiteralsList first = bodies.get(i % 3);
+                    ImmutableLiteralsList second = bodies.get((i / 3) % 3);
+                    assertThat(results.get(i).get()).isEqualTo(new HomomorphismBasedEquivalenceAnalyzer().areEquivalent(first, second));
+                }
+            } finally {
+                executorService.shutdown();
+            }
+            assertThat(analyzer.getCacheHits() + analyzer.getCacheMisses()).isEqualTo(90);
+        }
+    }
+
+    @Nested
+    class SearchBudgetLimit {
+        @Test
+        void should_returnUnknown_andNotCacheIt_whenSearchBudgetRunsOut() {
+            SearchBudget searchBudget = SearchBudget.ofNodes(100);
+            HomomorphismFinder homomorphismFinder = new ExtendedHomomorphismFinder(new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> searchBudget));
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(homomorphismFinder, 4);
+            ImmutableLiteralsList first = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            ImmutableLiteralsList second = ImmutableLiteralsListMother.create("R(a, b), S(b)");
+            searchBudget.cancel();
+
+            assertThat(analyzer.areEquivalent(first, second)).isEqualTo(UNKNOWN);
+            assertThat(analyzer.areEquivalent(first, second)).isEqualTo(UNKNOWN);
+            assertThat(analyzer.getCacheHits()).isZero();
+        }
+
+        @Test
+        void should_compareWithANewSearchBudget_whenAPreviousComparisonRanOutOfIt() {
+            HomomorphismFinder homomorphismFinder = new ExtendedHomomorphismFinder(new HomomorphismFinderOptions().withSearchBudgetSupplier(() -> SearchBudget.ofNodes(3)));
+            HomomorphismBasedEquivalenceAnalyzer analyzer = new HomomorphismBasedEquivalenceAnalyzer(homomorphismFinder);
+            ImmutableLiteralsList expensiveFirst = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x), S(x)");
+            ImmutableLiteralsList expensiveSecond = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a), R(a, a)");
+            ImmutableLiteralsList cheapFirst = ImmutableLiteralsListMother.create("R(x, y)");
+            ImmutableLiteralsList cheapSecond = ImmutableLiteralsListMother.create("R(a, b)");
+
+            assertThat(analyzer.areEquivalent(expensiveFirst, expensiveSecond)).isEqualTo(UNKNOWN);
+            assertThat(analyzer.areEquivalent(cheapFirst, cheapSecond)).contains(true);
+        }
+    }
+
 }
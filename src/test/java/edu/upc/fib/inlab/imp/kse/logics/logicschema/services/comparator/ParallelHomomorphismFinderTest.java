@@ -0,0 +1,162 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.DerivationRule;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableLiteralsList;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substitution;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.DerivationRuleMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchStatistics;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelHomomorphismFinderTest {
+
+    private static ForkJoinPool forkJoinPool;
+
+    @BeforeAll
+    static void createPool() {
+        forkJoinPool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        forkJoinPool.shutdown();
+    }
+
+    static Stream<Arguments> provideDomainAndRangeLiterals() {
+        return Stream.of(
+                Arguments.of("R(x, y), S(x)", "R(a, b), R(c, d), S(c)"),
+                Arguments.of("R(x, y), not(S(x))", "R(a, b), not(S(b))"),
+                Arguments.of("R(x, y), R(y, z), R(z, x)", "R(a, b), R(b, c), R(c, d), R(d, a)"),
+                Arguments.of("R(x, y), R(y, z), R(z, x)", "R(a, b), R(b, c), R(c, a)"),
+                Arguments.of("z = x, T(x, y)", "T(x, y), x = z"),
+                Arguments.of("R(x, y)", ""),
+                Arguments.of("", "R(a, b)")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDomainAndRangeLiterals")
+    void should_answerAsSequentialFinder_whetherHomomorphismExists(String domain, String range) {
+        ImmutableLiteralsList domainList = createLiteralsList(domain);
+        ImmutableLiteralsList rangeList = createLiteralsList(range);
+
+        Optional<Substitution> sequentialHomomorphism = new HomomorphismFinder().findHomomorphism(domainList, rangeList);
+        Optional<Substitution> parallelHomomorphism = createFinder(null, 1).findHomomorphism(domainList, rangeList);
+
+        assertThat(parallelHomomorphism.isPresent()).isEqualTo(sequentialHomomorphism.isPresent());
+        parallelHomomorphism.ifPresent(homomorphism ->
+                                               assertThat(new HomomorphismFinder().findAllHomomorphisms(domainList, rangeList))
+                                                       .extracting(SubstitutionAssert::mappingsOf)
+                                                       .contains(SubstitutionAssert.mappingsOf(homomorphism)));
+    }
+
+    @Test
+    void should_extendInitialSubstitution() {
+        ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y, z)");
+        ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(b, e), S(d, f)");
+        Substitution initialSubstitution = new SubstitutionBuilder().addMapping("x", "c").build();
+
+        Optional<Substitution> homomorphism = createFinder(null, 2).findHomomorphism(domainList, rangeList, initialSubstitution);
+
+        assertThat(homomorphism).isPresent();
+        SubstitutionAssert.assertThat(homomorphism.get())
+                .mapsToVariable("x", "c")
+                .mapsToVariable("y", "d")
+                .mapsToVariable("z", "f");
+    }
+
+    @Test
+    void should_findHomomorphism_whenDerivedLiteralsRequireNestedSearches() {
+        ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("Base(x), Derived(x)", "Derived(x) :- Q(x, x)");
+        ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("Base(a), Derived(a)", "Derived(y) :- Q(y, y)");
+
+        Optional<Substitution> homomorphism = createFinder(new HomomorphicRulesHomomorphismCriteria(), 1).findHomomorphism(domainList, rangeList);
+
+        assertThat(homomorphism).isPresent();
+        SubstitutionAssert.assertThat(homomorphism.get()).mapsToVariable("x", "a");
+    }
+
+    @Test
+    void should_useHeadsSubstitution_whenFindingHomomorphismBetweenDerivationRules() {
+        DerivationRule domainRule = DerivationRuleMother.create("P(x) :- R(x, y)");
+        DerivationRule rangeRule = DerivationRuleMother.create("P(a) :- R(c, d), R(a, b)");
+
+        Optional<Substitution> homomorphism = new ParallelHomomorphismFinder().findHomomorphism(domainRule, rangeRule);
+
+        assertThat(homomorphism).isPresent();
+        SubstitutionAssert.assertThat(homomorphism.get())
+                .mapsToVariable("x", "a")
+                .mapsToVariable("y", "b");
+    }
+
+    @Test
+    void should_notifySearchListener_fromAllTheTasks() {
+        ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+        ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("R(a, b), R(c, d), S(d)");
+        SearchStatistics statistics = new SearchStatistics();
+        ParallelHomomorphismFinder finder = new ParallelHomomorphismFinder(null, new HomomorphismFinderOptions().withSearchListener(statistics), forkJoinPool, 1);
+
+        assertThat(finder.findHomomorphism(domainList, rangeList)).isPresent();
+
+        assertThat(statistics.getSearches()).isEqualTo(1);
+        assertThat(statistics.getMaxDepth()).isEqualTo(2);
+        assertThat(statistics.getNodesExpanded()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void should_findHomomorphism_whenUsingForwardChecking() {
+        ImmutableLiteralsList domainList = ImmutableLiteralsListMother.create("T(x, y), R(y, z), S(z)");
+        ImmutableLiteralsList rangeList = ImmutableLiteralsListMother.create("T(a, b), T(c, d), R(b, e), R(d, f), S(f)");
+        ParallelHomomorphismFinder finder = new ParallelHomomorphismFinder(null, new HomomorphismFinderOptions().withDomainPruning(DomainPruning.FORWARD_CHECKING), forkJoinPool, 1);
+
+        Optional<Substitution> homomorphism = finder.findHomomorphism(domainList, rangeList);
+
+        assertThat(homomorphism).isPresent();
+        SubstitutionAssert.assertThat(homomorphism.get())
+                .mapsToVariable("x", "c")
+                .mapsToVariable("y", "d")
+                .mapsToVariable("z", "f");
+    }
+
+    @Test
+    void should_throwException_whenOptionsAreNull() {
+        assertThatThrownBy(() -> new ParallelHomomorphismFinder(null, null, forkJoinPool, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("HomomorphismFinderOptions cannot be null");
+    }
+
+    @Test
+    void should_throwException_whenForkJoinPoolIsNull() {
+        assertThatThrownBy(() -> new ParallelHomomorphismFinder(null, new HomomorphismFinderOptions(), null, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_throwException_whenSplitDepthIsNotPositive() {
+        assertThatThrownBy(() -> new ParallelHomomorphismFinder(null, new HomomorphismFinderOptions(), forkJoinPool, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ParallelHomomorphismFinder createFinder(DerivedOrdinaryLiteralHomomorphismCriteria criteria, int splitDepth) {
+        return new ParallelHomomorphismFinder(criteria, new HomomorphismFinderOptions(), forkJoinPool, splitDepth);
+    }
+
+    private static ImmutableLiteralsList createLiteralsList(String literals) {
+        if (literals.isEmpty()) return new ImmutableLiteralsList(List.of());
+        return ImmutableLiteralsListMother.create(literals);
+    }
+}
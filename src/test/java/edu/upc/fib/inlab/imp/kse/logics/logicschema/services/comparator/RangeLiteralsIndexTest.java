@@ -0,0 +1,77 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableLiteralsList;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.Literal;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeLiteralsIndexTest {
+
+    @Test
+    void should_returnLiteralsWithSamePredicatePolarityAndArity_whenDomainLiteralIsBaseOrdinaryLiteral() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create("R(a, b), S(a), R(c, d), not(R(e, f))");
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create("R(x, y)");
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).containsExactly(rangeLiterals.get(0), rangeLiterals.get(2));
+    }
+
+    @Test
+    void should_returnNoLiterals_whenNoRangeLiteralSharesThePredicate() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create("R(a, b), S(a)");
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create("T(x)");
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).isEmpty();
+    }
+
+    @Test
+    void should_returnComparisonsWithSameOrSymmetricOperator_whenDomainLiteralIsComparison() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create("R(a, b), a < b, a > b, a <= b, a = b");
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create("x > y");
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).containsExactly(rangeLiterals.get(1), rangeLiterals.get(2));
+    }
+
+    @Test
+    void should_returnCustomBuiltInLiteralsWithSameOperationName_whenDomainLiteralIsCustomBuiltIn() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.createWithCustomBuiltinLiterals("R(a), myOp(a), otherOp(a), myOp(b)",
+                                                                                                          Set.of("myOp", "otherOp"));
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.createWithCustomBuiltinLiterals("myOp(x)",
+                                                                                                           Set.of("myOp"));
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).containsExactly(rangeLiterals.get(1), rangeLiterals.get(3));
+    }
+
+    @Test
+    void should_includeDerivedRangeLiterals_inTheirRangeOrder_whenDomainLiteralIsBaseOrdinaryLiteral() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create("Derived(a), R(a), Derived(b), R(b)",
+                                                                                 "Derived(x) :- Q(x)");
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create("R(x)");
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).containsExactlyElementsOf(rangeLiterals);
+    }
+
+    @Test
+    void should_returnAllOrdinaryRangeLiterals_whenDomainLiteralIsDerived() {
+        ImmutableLiteralsList rangeLiterals = ImmutableLiteralsListMother.create("R(a), a < b, not(S(b))");
+        ImmutableLiteralsList domainLiterals = ImmutableLiteralsListMother.create("Derived(x)", "Derived(x) :- Q(x)");
+
+        List<Literal> candidates = new RangeLiteralsIndex(rangeLiterals).getCandidates(domainLiterals.get(0));
+
+        assertThat(candidates).containsExactly(rangeLiterals.get(0), rangeLiterals.get(2));
+    }
+}
@@ -0,0 +1,150 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ConstraintID;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicSchemaMother;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.assertions.SubstitutionAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedundantConstraintsFinderTest {
+
+    @Test
+    void should_throwException_whenHomomorphismFinderIsNull() {
+        assertThatThrownBy(() -> new RedundantConstraintsFinder(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("HomomorphismFinder cannot be null");
+    }
+
+    @Test
+    void should_throwException_whenLogicSchemaIsNull() {
+        RedundantConstraintsFinder finder = new RedundantConstraintsFinder();
+        assertThatThrownBy(() -> finder.findRedundantConstraints(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("LogicSchema cannot be null");
+    }
+
+    @Test
+    void should_returnRedundantConstraint_withItsWitness() {
+        LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                            @1 :- R(x, y)
+                                                                            @2 :- R(a, b), S(b)
+                                                                            @3 :- S(c), T(c)
+                                                                            """);
+
+        Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder().findRedundantConstraints(logicSchema);
+
+        assertThat(redundantConstraints).containsOnlyKeys(new ConstraintID("2"));
+        SubsumptionWitness witness = redundantConstraints.get(new ConstraintID("2"));
+        assertThat(witness.subsumingConstraintID()).isEqualTo(new ConstraintID("1"));
+        assertThat(witness.homomorphism())
+                .hasSize(2)
+                .mapsToVariable("x", "a")
+                .mapsToVariable("y", "b");
+    }
+
+    @Test
+    void should_onlyReturnTheLatterConstraint_whenConstraintsSubsumeEachOther() {
+        LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                            @1 :- R(x, y), R(x, z)
+                                                                            @2 :- R(a, b)
+                                                                            @3 :- R(c, d), S(d)
+                                                                            """);
+
+        Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder().findRedundantConstraints(logicSchema);
+
+        assertThat(redundantConstraints).containsOnlyKeys(new ConstraintID("2"), new ConstraintID("3"));
+        assertThat(redundantConstraints.get(new ConstraintID("2")).subsumingConstraintID()).isEqualTo(new ConstraintID("1"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "R(x, 1); R(a, 2)",
+            "R(x, y), not(S(y)); R(a, b), S(b)",
+            "R(x, y), x < y; R(a, b), a <= b",
+            "R(x, x); R(a, b), S(a)"
+    })
+    void should_returnNoRedundantConstraint_whenNoneIsSubsumed(String firstBody, String secondBody) {
+        LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("@1 :- " + firstBody + "\n@2 :- " + secondBody);
+
+        Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder().findRedundantConstraints(logicSchema);
+
+        assertThat(redundantConstraints).isEmpty();
+    }
+
+    @Test
+    void should_findSubsumption_whenComparisonIsWrittenAsItsSymmetric() {
+        LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                            @1 :- R(x, y), x < y
+                                                                            @2 :- R(a, b), b > a, S(a)
+                                                                            """);
+
+        Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder().findRedundantConstraints(logicSchema);
+
+        assertThat(redundantConstraints).containsOnlyKeys(new ConstraintID("2"));
+    }
+
+    @Test
+    void should_findSubsumption_whenDerivedLiteralsHaveDifferentPredicateNames() {
+        LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                            @1 :- P(x)
+                                                                            @2 :- Q(a), S(a)
+                                                                            P(x) :- T(x)
+                                                                            Q(x) :- T(x)
+                                                                            """);
+
+        Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder().findRedundantConstraints(logicSchema);
+
+        assertThat(redundantConstraints).containsOnlyKeys(new ConstraintID("2"));
+    }
+
+    @Nested
+    class LargeSchemas {
+
+        @Test
+        @Timeout(30)
+        void should_findRedundantConstraints_whenSchemaHasThousandsOfConstraints() {
+            StringBuilder schema = new StringBuilder();
+            int constraints = 5000;
+            for (int i = 0; i < constraints; ++i) {
+                schema.append("@").append(i).append(" :- R").append(i).append("(x, y), S").append(i).append("(y)\n");
+            }
+            schema.append("@redundant :- R7(a, b), S7(b), T(a)\n");
+
+            Map<ConstraintID, SubsumptionWitness> redundantConstraints = new RedundantConstraintsFinder()
+                    .findRedundantConstraints(LogicSchemaMother.buildLogicSchemaWithIDs(schema.toString()));
+
+            assertThat(redundantConstraints).containsOnlyKeys(new ConstraintID("redundant"));
+            assertThat(redundantConstraints.get(new ConstraintID("redundant")).subsumingConstraintID()).isEqualTo(new ConstraintID("7"));
+        }
+    }
+
+    @Nested
+    class Signatures {
+
+        @ParameterizedTest
+        @CsvSource(delimiter = ';', value = {
+                "R(x, y); R(a, b), S(b); true",
+                "R(x, y), R(y, z); R(a, a); true",
+                "R(x, 1); R(a, b); false",
+                "not(R(x, y)); R(a, b); false",
+                "x < y; b > a; true",
+                "x < y; a <= b; false"
+        })
+        void should_beContained_onlyWhenAHomomorphismMightExist(String domain, String range, boolean expected) {
+            ConstraintSignature domainSignature = ConstraintSignature.of(ImmutableLiteralsListMother.create(domain));
+            ConstraintSignature rangeSignature = ConstraintSignature.of(ImmutableLiteralsListMother.create(range));
+
+            assertThat(domainSignature.isContainedIn(rangeSignature)).isEqualTo(expected);
+        }
+    }
+}
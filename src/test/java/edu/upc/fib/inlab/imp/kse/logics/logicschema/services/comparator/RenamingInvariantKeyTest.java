@@ -0,0 +1,64 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.DerivationRuleMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenamingInvariantKeyTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "R(x, y), not(S(x)); R(a, b), not(S(a))",
+            "R(x, 1), x < y; R(a, 1), a < b",
+            "R(x, y), R(y, x); R(y, x), R(x, y)"
+    })
+    void should_haveSameKey_whenLiteralsOnlyDifferOnVariableNames(String first, String second) {
+        RenamingInvariantKey firstKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(first));
+        RenamingInvariantKey secondKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(second));
+
+        assertThat(firstKey).isEqualTo(secondKey).hasSameHashCodeAs(secondKey);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "R(x, y); R(x, x)",
+            "R(x, 1); R(x, 2)",
+            "R(x, y); not(R(x, y))",
+            "R(x, y); S(x, y)",
+            "x < y; x > y",
+            "R(x, y), S(x); S(x), R(x, y)"
+    })
+    void should_haveDifferentKey_whenLiteralsDifferOnMoreThanVariableNames(String first, String second) {
+        RenamingInvariantKey firstKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(first));
+        RenamingInvariantKey secondKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(second));
+
+        assertThat(firstKey).isNotEqualTo(secondKey);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "Q(x); Q(a) :- T(a); Q(a) :- T(a), S(a)",
+            "Q(x); Q(a) :- T(a); Q(a) :- T(1)"
+    })
+    void should_haveDifferentKey_whenDerivedPredicatesHaveDifferentDefinitions(String literals, String firstDefinition, String secondDefinition) {
+        RenamingInvariantKey firstKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(literals, firstDefinition));
+        RenamingInvariantKey secondKey = RenamingInvariantKey.of(ImmutableLiteralsListMother.create(literals, secondDefinition));
+
+        assertThat(firstKey).isNotEqualTo(secondKey);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "P(x) :- R(x, y); P(a) :- R(a, b); true",
+            "P(x) :- R(x, y); P(b) :- R(a, b); false"
+    })
+    void should_considerHead_whenComputingKeyOfDerivationRule(String first, String second, boolean sameKey) {
+        RenamingInvariantKey firstKey = RenamingInvariantKey.of(DerivationRuleMother.create(first));
+        RenamingInvariantKey secondKey = RenamingInvariantKey.of(DerivationRuleMother.create(second));
+
+        assertThat(firstKey.equals(secondKey)).isEqualTo(sameKey);
+    }
+}
@@ -10,6 +10,7 @@ import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.operations.Substituti
 import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assertions;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
@@ -41,6 +42,22 @@ public class SubstitutionAssert extends AbstractAssert<SubstitutionAssert, Subst
         return this;
     }
 
+    public SubstitutionAssert hasSameMappingsAs(Substitution expected) {
+        Assertions.assertThat(mappingsOf(actual)).isEqualTo(mappingsOf(expected));
+        return this;
+    }
+
+    /**
+     * @return the mappings of the substitution, so that substitutions can be compared by value
+     */
+    public static Map<Variable, Term> mappingsOf(Substitution substitution) {
+        Map<Variable, Term> result = new HashMap<>();
+        for (Variable variable : substitution.getUsedVariables()) {
+            substitution.getTerm(variable).ifPresent(term -> result.put(variable, term));
+        }
+        return result;
+    }
+
     public SubstitutionAssert mapsToVariable(String domainVariableName, String rangeVariableName) {
         Optional<Term> actualTermImageOpt = actual.getTerm(new Variable(domainVariableName));
         Assertions.assertThat(actualTermImageOpt).isPresent();
@@ -2,7 +2,10 @@ package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorp
 
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchStatistics;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.creation.spec.PredicateSpec;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -17,6 +20,7 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class IsomorphismComparatorTest {
@@ -1077,4 +1081,67 @@ class IsomorphismComparatorTest {
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    class SearchBudgetLimit {
+        @Test
+        void should_throwException_whenSearchBudgetRunsOut() {
+            IsomorphismComparator isomorphismComparator = new IsomorphismComparator(new IsomorphismOptions(true, true, false), () -> SearchBudget.ofNodes(2));
+            List<Literal> literals1 = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            List<Literal> literals2 = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a)");
+
+            assertThatThrownBy(() -> isomorphismComparator.areIsomorphic(literals1, literals2))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+        }
+
+        @Test
+        void should_startEachComparisonWithANewSearchBudget_whenThePreviousOneRanOut() {
+            IsomorphismComparator isomorphismComparator = new IsomorphismComparator(new IsomorphismOptions(true, true, false), () -> SearchBudget.ofNodes(2));
+            List<Literal> expensiveLiterals1 = ImmutableLiteralsListMother.create("R(x, y), R(y, z), R(z, x)");
+            List<Literal> expensiveLiterals2 = ImmutableLiteralsListMother.create("R(a, b), R(b, c), R(c, a)");
+            List<Literal> cheapLiterals1 = ImmutableLiteralsListMother.create("R(x, y)");
+            List<Literal> cheapLiterals2 = ImmutableLiteralsListMother.create("R(a, b)");
+
+            assertThatThrownBy(() -> isomorphismComparator.areIsomorphic(expensiveLiterals1, expensiveLiterals2))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+            assertThat(isomorphismComparator.areIsomorphic(cheapLiterals1, cheapLiterals2)).isTrue();
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetSupplierIsNull() {
+            IsomorphismOptions options = new IsomorphismOptions(false, false, false);
+            assertThatThrownBy(() -> new IsomorphismComparator(options, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("SearchBudgetSupplier cannot be null");
+        }
+    }
+
+    @Nested
+    class SearchStatisticsCollection {
+        @Test
+        void should_collectStatistics_whenComparingLiterals() {
+            SearchStatistics statistics = new SearchStatistics();
+            IsomorphismComparator isomorphismComparator = new IsomorphismComparator(new IsomorphismOptions(true, true, false), SearchBudget::unlimited, statistics);
+            List<Literal> literals1 = ImmutableLiteralsListMother.create("R(x, y), S(y)");
+            List<Literal> literals2 = ImmutableLiteralsListMother.create("S(b), R(a, b)");
+
+            assertThat(isomorphismComparator.areIsomorphic(literals1, literals2)).isTrue();
+
+            assertThat(statistics.getSearches()).isEqualTo(1);
+            assertThat(statistics.getNodesExpanded()).isEqualTo(2);
+            assertThat(statistics.getMaxDepth()).isEqualTo(2);
+            assertThat(statistics.getBacktracks()).isZero();
+        }
+
+        @Test
+        void should_countBacktracks_whenLiteralsAreNotIsomorphic() {
+            SearchStatistics statistics = new SearchStatistics();
+            IsomorphismComparator isomorphismComparator = new IsomorphismComparator(new IsomorphismOptions(true, true, false), SearchBudget::unlimited, statistics);
+            List<Literal> literals1 = ImmutableLiteralsListMother.create("R(x, y), R(y, x)");
+            List<Literal> literals2 = ImmutableLiteralsListMother.create("R(a, b), R(b, c)");
+
+            assertThat(isomorphismComparator.areIsomorphic(literals1, literals2)).isFalse();
+
+            assertThat(statistics.getBacktracks()).isPositive();
+        }
+    }
+}
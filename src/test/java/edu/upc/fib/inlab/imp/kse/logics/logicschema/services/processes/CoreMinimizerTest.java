@@ -0,0 +1,193 @@
+package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes;
+
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.*;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.DerivationRuleMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.ImmutableLiteralsListMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicConstraintMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicSchemaMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.QueryMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism.IsomorphismOptions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static edu.upc.fib.inlab.imp.kse.logics.logicschema.assertions.LogicSchemaAssertions.assertThat;
+import static edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.assertions.SchemaTransformationAssert.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoreMinimizerTest {
+
+    @Nested
+    class InputValidation {
+
+        @Test
+        void should_throwException_whenHomomorphismFinderIsNull() {
+            assertThatThrownBy(() -> new CoreMinimizer(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("HomomorphismFinder cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenLogicSchemaIsNull() {
+            CoreMinimizer coreMinimizer = new CoreMinimizer();
+            assertThatThrownBy(() -> coreMinimizer.execute(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("LogicSchema cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenConjunctiveQueryIsNull() {
+            CoreMinimizer coreMinimizer = new CoreMinimizer();
+            assertThatThrownBy(() -> coreMinimizer.minimize((ConjunctiveQuery) null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("ConjunctiveQuery cannot be null");
+        }
+    }
+
+    @Nested
+    class ConjunctiveQueries {
+
+        @ParameterizedTest
+        @CsvSource(delimiter = ';', value = {
+                "P(x, y), P(x, z); P(x, y)",
+                "P(x, y), P(y, z), P(x, 1); P(x, y), P(y, z), P(x, 1)",
+                "R(x, y), R(y, x), R(x, x), R(z, w); R(x, x)",
+                "R(x, y), R(y, z), R(z, w), R(x, x); R(x, x)",
+                "P(x, y), Q(y), P(x, z); P(x, y), Q(y)",
+                "P(x), P(x); P(x)"
+        })
+        void should_computeCore_whenBooleanQuery(String body, String expectedCore) {
+            ConjunctiveQuery query = QueryMother.createBooleanConjunctiveQuery(body);
+
+            ConjunctiveQuery minimizedQuery = new CoreMinimizer().minimize(query);
+
+            assertThat(minimizedQuery.getBody().toString()).isEqualTo(ImmutableLiteralsListMother.create(expectedCore).toString());
+        }
+
+        @Test
+        void should_keepHeadVariables_whenComputingCore() {
+            ConjunctiveQuery query = QueryMother.createConjunctiveQuery(List.of("y", "z"), "P(x, y), P(x, z)");
+
+            ConjunctiveQuery minimizedQuery = new CoreMinimizer().minimize(query);
+
+            assertThat(minimizedQuery.getBody()).hasSize(2);
+            assertThat(minimizedQuery.getHeadTerms()).isEqualTo(query.getHeadTerms());
+        }
+
+        @Test
+        void should_removeLiterals_whenOnlyUsingExistentialVariables() {
+            ConjunctiveQuery query = QueryMother.createConjunctiveQuery(List.of("y"), "P(x, y), P(x, z), P(w, y)");
+
+            ConjunctiveQuery minimizedQuery = new CoreMinimizer().minimize(query);
+
+            assertThat(minimizedQuery.getBody()).hasSize(1);
+            assertThat(minimizedQuery.getBody().toString()).isEqualTo("P(x, y)");
+        }
+    }
+
+    @Nested
+    class LogicConstraints {
+
+        @Test
+        void should_keepNegatedLiteral_whenItPreventsTheRetraction() {
+            LogicConstraint logicConstraint = LogicConstraintMother.createWithID("@1 :- R(x), not(S(x)), R(y)");
+
+            LogicConstraint minimizedConstraint = new CoreMinimizer().minimize(logicConstraint);
+
+            assertThat(minimizedConstraint.getID()).isEqualTo(logicConstraint.getID());
+            assertThat(minimizedConstraint.getBody().toString()).isEqualTo("R(x), not(S(x))");
+        }
+
+        @Test
+        void should_removeRedundantBuiltInLiterals() {
+            LogicConstraint logicConstraint = LogicConstraintMother.createWithID("@1 :- R(x, y), x < y, R(x, z), x < z");
+
+            LogicConstraint minimizedConstraint = new CoreMinimizer().minimize(logicConstraint);
+
+            assertThat(minimizedConstraint.getBody().toString()).isEqualTo("R(x, y), x < y");
+        }
+
+        @Test
+        void should_keepComparison_whenMappedToItsSymmetric() {
+            LogicConstraint logicConstraint = LogicConstraintMother.createWithID("@1 :- R(x, y), y > x, R(x, z), x < z");
+
+            LogicConstraint minimizedConstraint = new CoreMinimizer().minimize(logicConstraint);
+
+            assertThat(minimizedConstraint.getBody().toString()).isEqualTo("R(x, y), y > x");
+        }
+
+        @Test
+        void should_keepBody_whenAlreadyCore() {
+            LogicConstraint logicConstraint = LogicConstraintMother.createWithID("@1 :- R(x, y), x < y, R(y, z), y > z");
+
+            LogicConstraint minimizedConstraint = new CoreMinimizer().minimize(logicConstraint);
+
+            assertThat(minimizedConstraint.getBody()).hasSize(4);
+        }
+    }
+
+    @Nested
+    class DerivationRules {
+
+        @Test
+        void should_keepHeadVariables_whenMinimizingBody() {
+            DerivationRule derivationRule = DerivationRuleMother.create("P(x, z) :- R(x, y), R(x, z), R(x, w)");
+
+            ImmutableLiteralsList minimizedBody = new CoreMinimizer().minimizeBody(derivationRule);
+
+            assertThat(minimizedBody.toString()).isEqualTo("R(x, z)");
+        }
+
+        @Test
+        void should_mapDerivedLiterals_onlyToDerivedLiteralsWithSamePredicate() {
+            DerivationRule derivationRule = DerivationRuleMother.create("""
+                                                                                 P(x) :- Q(x, y), Q(x, z), T(x, y)
+                                                                                 Q(a, b) :- R(a, b)
+                                                                                 """, "P");
+
+            ImmutableLiteralsList minimizedBody = new CoreMinimizer().minimizeBody(derivationRule);
+
+            assertThat(minimizedBody.toString()).isEqualTo("Q(x, y), T(x, y)");
+        }
+    }
+
+    @Nested
+    class Process {
+
+        @Test
+        void should_minimizeConstraintsAndDerivationRules() {
+            LogicSchema originalSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                   @1 :- P(x), R(x, y), R(x, z)
+                                                                                   P(x) :- Q(x, y), Q(x, z)
+                                                                                   """);
+
+            LogicSchema actualLogicSchema = new CoreMinimizer().execute(originalSchema);
+
+            LogicSchema expectedLogicSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                        @1 :- P(x), R(x, y)
+                                                                                        P(x) :- Q(x, y)
+                                                                                        """);
+            assertThat(actualLogicSchema)
+                    .usingIsomorphismOptions(new IsomorphismOptions(false, false, false))
+                    .isIsomorphicTo(expectedLogicSchema);
+        }
+
+        @Test
+        void should_maintainTraceabilityMap() {
+            LogicSchema originalSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                   @1 :- R(x, y), R(x, z)
+                                                                                   @2 :- R(x, x)
+                                                                                   """);
+
+            SchemaTransformation schemaTransformation = new CoreMinimizer().executeTransformation(originalSchema);
+
+            assertThat(schemaTransformation)
+                    .constraintIDComesFrom("1", "1")
+                    .constraintIDComesFrom("2", "2");
+        }
+    }
+}
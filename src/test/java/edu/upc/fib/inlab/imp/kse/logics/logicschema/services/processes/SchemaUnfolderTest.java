@@ -1,11 +1,25 @@
 package edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes;
 
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ConstraintID;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.DerivationRule;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.ImmutableLiteralsList;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicConstraint;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.domain.LogicSchema;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.mothers.LogicSchemaMother;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.SearchBudget;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.comparator.isomorphism.IsomorphismOptions;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.exceptions.SearchBudgetExceededException;
 import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.assertions.SchemaTransformationAssert;
+import edu.upc.fib.inlab.imp.kse.logics.logicschema.services.processes.exceptions.RecursivePredicateUnfoldingException;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import static edu.upc.fib.inlab.imp.kse.logics.logicschema.assertions.LogicSchemaAssertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -21,6 +35,55 @@ class SchemaUnfolderTest {
                     .isInstanceOf(IllegalArgumentException.class);
         }
 
+        @Test
+        void should_throwException_whenSearchBudgetSupplierIsNull() {
+            SuffixMultipleConstraintIDGenerator generator = new SuffixMultipleConstraintIDGenerator();
+            assertThatThrownBy(() -> new SchemaUnfolder(generator, false, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("SearchBudgetSupplier cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenForkJoinPoolIsNull() {
+            SuffixMultipleConstraintIDGenerator generator = new SuffixMultipleConstraintIDGenerator();
+            Supplier<SearchBudget> searchBudgetSupplier = SearchBudget::unlimited;
+            assertThatThrownBy(() -> new SchemaUnfolder(generator, false, searchBudgetSupplier, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("ForkJoinPool cannot be null");
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetRunsOut() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                           @1 :- P(x), Q(x)
+                                                                           P(x) :- R(x)
+                                                                           P(x) :- S(x)
+                                                                           Q(x) :- T(x)
+                                                                           Q(x) :- U(x)
+                                                                           """);
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), false, () -> SearchBudget.ofNodes(2));
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(schema))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+        }
+
+        @Test
+        void should_startEachUnfoldingWithANewSearchBudget_whenThePreviousOneRanOut() {
+            LogicSchema expensiveSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                    @1 :- P(x), Q(x)
+                                                                                    P(x) :- R(x)
+                                                                                    P(x) :- S(x)
+                                                                                    Q(x) :- T(x)
+                                                                                    Q(x) :- U(x)
+                                                                                    """);
+            LogicSchema cheapSchema = LogicSchemaMother.buildLogicSchemaWithIDs("@1 :- R(x)");
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), false, () -> SearchBudget.ofNodes(2));
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(expensiveSchema))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+            Assertions.assertThat(schemaUnfolder.unfold(cheapSchema).getAllLogicConstraints()).hasSize(1);
+        }
+
         @Test
         void should_throwException_whenSchemaIsNull() {
             SchemaUnfolder schemaUnfolder = new SchemaUnfolder();
@@ -386,6 +449,316 @@ class SchemaUnfolderTest {
     }
 
 
+    @Nested
+    class MemoizedUnfoldingTests {
+        @Test
+        void should_unfoldSharedDerivedPredicate_inEveryOccurrence() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- V(x, y), A(y)
+                                @2 :- V(y, x), V(x, z)
+                                P(x) :- V(x, x)
+                                V(x, y) :- W(x, z), W(z, y)
+                                W(x, y) :- B(x, y, z)
+                            """
+            );
+
+            LogicSchema unfoldedSchema = new SchemaUnfolder().unfold(schema);
+
+            LogicSchema expectedSchema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- B(x, z, u), B(z, y, v), A(y)
+                                @2 :- B(y, z, u), B(z, x, v), B(x, w, t), B(w, z2, t2)
+                                P(x) :- B(x, z, u), B(z, x, v)
+                                V(x, y) :- B(x, z, u), B(z, y, v)
+                                W(x, y) :- B(x, y, z)
+                            """
+            );
+            assertThat(unfoldedSchema)
+                    .usingIsomorphismOptions(new IsomorphismOptions(true, false, false))
+                    .isIsomorphicTo(expectedSchema);
+        }
+
+        @Test
+        void should_enumerateUnfoldings_varyingTheLastLiteralsFirst() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- R(x), S(x)
+                                R(x) :- R1(x)
+                                R(x) :- Q(x)
+                                Q(x) :- Q1(x)
+                                Q(x) :- Q2(x)
+                                S(x) :- S1(x)
+                                S(x) :- S2(x)
+                            """
+            );
+
+            LogicSchema unfoldedSchema = new SchemaUnfolder().unfold(schema);
+
+            assertThat(unfoldedSchema).containsExactlyTheseConstraintIDs("1_1", "1_2", "1_3", "1_4", "1_5", "1_6");
+            String[] expectedBodies = {"R1(x), S1(x)", "R1(x), S2(x)", "Q1(x), S1(x)", "Q1(x), S2(x)", "Q2(x), S1(x)", "Q2(x), S2(x)"};
+            for (int i = 0; i < expectedBodies.length; ++i) {
+                ImmutableLiteralsList body = unfoldedSchema.getLogicConstraintByID(new ConstraintID("1_" + (i + 1))).getBody();
+                Assertions.assertThat(body).hasToString(expectedBodies[i]);
+            }
+        }
+    }
+
+    @Nested
+    class RecursiveUnfoldingTests {
+        @Test
+        void should_unfold_whenPredicatesAreRecursiveThroughNegation() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- Num(x), Even(x)
+                                Even(x) :- Num(x), not(Odd(x))
+                                Odd(x) :- Num(x), not(Even(x))
+                            """
+            );
+
+            LogicSchema unfoldedSchema = new SchemaUnfolder().unfold(schema);
+
+            //The isomorphism comparator does not support recursive predicates, so the schema is compared textually
+            Assertions.assertThat(unfoldedSchema.getAllLogicConstraints()).extracting(LogicConstraint::toString)
+                    .containsExactly("@1 :- Num(x), Num(x), not(Odd(x))");
+            Assertions.assertThat(unfoldedSchema.getAllDerivationRules()).extracting(DerivationRule::toString)
+                    .containsExactlyInAnyOrder("Even(x) :- Num(x), not(Odd(x))", "Odd(x) :- Num(x), not(Even(x))");
+        }
+
+        @Test
+        void should_throwException_whenPredicateIsPositivelyRecursive() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- A(x), Reaches(x, y)
+                                Reaches(x, y) :- Edge(x, y)
+                                Reaches(x, y) :- Edge(x, z), Reaches(z, y)
+                            """
+            );
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder();
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(schema))
+                    .isInstanceOf(RecursivePredicateUnfoldingException.class)
+                    .hasMessageContaining("Reaches");
+        }
+
+        @Test
+        void should_throwException_whenNegatedLiteralsUnfoldIntoARecursivePredicate() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                    """
+                                @1 :- Num(x), Even(x)
+                                Even(x) :- Num(x), not(Odd(x))
+                                Odd(x) :- Num(x), not(Even(x))
+                            """
+            );
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(true);
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(schema))
+                    .isInstanceOf(RecursivePredicateUnfoldingException.class);
+        }
+    }
+
+    @Nested
+    class StreamingTests {
+        private final LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs(
+                """
+                            @1 :- P(x), Q(x), R(x)
+                            @2 :- A(x), P(x)
+                            @3 :- A(x)
+                            P(x) :- P1(x)
+                            P(x) :- P2(x)
+                            P(x) :- P3(x)
+                            Q(x) :- Q1(x)
+                            Q(x) :- Q2(x)
+                            Q(x) :- Q3(x)
+                            R(x) :- R1(x)
+                            R(x) :- R2(x)
+                            R(x) :- R3(x)
+                        """
+        );
+
+        @Test
+        void should_streamTheSameConstraints_inTheSameOrder_asTheUnfoldedSchema() {
+            LogicSchema unfoldedSchema = new SchemaUnfolder().unfold(schema);
+
+            List<String> streamedConstraints = new SchemaUnfolder().streamUnfoldedLogicConstraints(schema)
+                    .map(LogicConstraint::toString)
+                    .toList();
+
+            Assertions.assertThat(streamedConstraints)
+                    .hasSize(31)
+                    .containsExactlyElementsOf(unfoldedSchema.getAllLogicConstraints().stream().map(LogicConstraint::toString).toList());
+        }
+
+        @Test
+        void should_recordTheOriginOfTheStreamedConstraints() {
+            SchemaTraceabilityMap schemaTraceabilityMap = new SchemaTraceabilityMap();
+
+            List<LogicConstraint> firstConstraints = new SchemaUnfolder().streamUnfoldedLogicConstraints(schema, schemaTraceabilityMap)
+                    .limit(28)
+                    .toList();
+
+            Assertions.assertThat(firstConstraints.get(26).getID()).isEqualTo(new ConstraintID("1_27"));
+            Assertions.assertThat(firstConstraints.get(27).getID()).isEqualTo(new ConstraintID("2_1"));
+            Assertions.assertThat(schemaTraceabilityMap.size()).isEqualTo(28);
+            Assertions.assertThat(schemaTraceabilityMap.getOriginalConstraintID(new ConstraintID("2_1"))).isEqualTo(new ConstraintID("2"));
+        }
+
+        @Test
+        void should_unfoldOnlyTheConsumedConstraints_whenStoppingEarly() {
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), false, () -> SearchBudget.ofNodes(25));
+
+            List<LogicConstraint> firstConstraints = schemaUnfolder.streamUnfoldedLogicConstraints(schema)
+                    .limit(2)
+                    .toList();
+
+            Assertions.assertThat(firstConstraints).extracting(LogicConstraint::toString)
+                    .containsExactly("@1_1 :- P1(x), Q1(x), R1(x)", "@1_2 :- P1(x), Q1(x), R2(x)");
+        }
+
+        @Test
+        @Timeout(10)
+        void should_streamTheFirstConstraints_whenThereAreMoreUnfoldingsThanIntegers() {
+            StringBuilder chainOfViews = new StringBuilder("@1 :- V32(x)\nV0(x) :- A0(x)\n");
+            for (int i = 1; i <= 32; ++i) {
+                chainOfViews.append("V").append(i).append("(x) :- V").append(i - 1).append("(x), A").append(i).append("(x)\n");
+                chainOfViews.append("V").append(i).append("(x) :- V").append(i - 1).append("(x), B").append(i).append("(x)\n");
+            }
+            LogicSchema chainSchema = LogicSchemaMother.buildLogicSchemaWithIDs(chainOfViews.toString());
+
+            List<LogicConstraint> firstConstraints = new SchemaUnfolder().streamUnfoldedLogicConstraints(chainSchema)
+                    .limit(2)
+                    .toList();
+
+            Assertions.assertThat(firstConstraints).extracting(LogicConstraint::getID)
+                    .containsExactly(new ConstraintID("1_1"), new ConstraintID("1_2"));
+            Assertions.assertThat(firstConstraints.get(0).getBody()).hasSize(33);
+            Assertions.assertThat(firstConstraints.get(0).getBody().get(32)).hasToString("A32(x)");
+            Assertions.assertThat(firstConstraints.get(1).getBody().get(1)).hasToString("B1(x)");
+        }
+
+        @Test
+        void should_keepTheOriginalConstraintID_whenStreamingASingleUnfolding() {
+            LogicSchema singleUnfoldingSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                          @1 :- P(x)
+                                                                                          P(x) :- A(x)
+                                                                                          """);
+
+            List<LogicConstraint> constraints = new SchemaUnfolder().streamUnfoldedLogicConstraints(singleUnfoldingSchema).toList();
+
+            Assertions.assertThat(constraints).extracting(LogicConstraint::toString)
+                    .containsExactly("@1 :- A(x)");
+        }
+
+        @Test
+        void should_throwException_whenStreamingAPositivelyRecursivePredicate() {
+            LogicSchema recursiveSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                    @1 :- A(x), Reaches(x, y)
+                                                                                    Reaches(x, y) :- Edge(x, y)
+                                                                                    Reaches(x, y) :- Edge(x, z), Reaches(z, y)
+                                                                                    """);
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder();
+
+            assertThatThrownBy(() -> schemaUnfolder.streamUnfoldedLogicConstraints(recursiveSchema))
+                    .isInstanceOf(RecursivePredicateUnfoldingException.class)
+                    .hasMessageContaining("Reaches");
+        }
+
+        @Test
+        void should_streamConstraints_whenOnlyUnusedPredicatesArePositivelyRecursive() {
+            LogicSchema recursiveSchema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                                    @1 :- A(x), P(x)
+                                                                                    P(x) :- B(x)
+                                                                                    Reaches(x, y) :- Edge(x, y)
+                                                                                    Reaches(x, y) :- Edge(x, z), Reaches(z, y)
+                                                                                    """);
+
+            List<LogicConstraint> constraints = new SchemaUnfolder().streamUnfoldedLogicConstraints(recursiveSchema).toList();
+
+            Assertions.assertThat(constraints).extracting(LogicConstraint::toString)
+                    .containsExactly("@1 :- A(x), B(x)");
+        }
+    }
+
+    @Nested
+    class ParallelUnfoldingTests {
+
+        private static LogicSchema buildSchema() {
+            StringBuilder schema = new StringBuilder();
+            for (int i = 0; i < 40; ++i) {
+                schema.append("@").append(i).append(" :- A(x), P").append(i % 4).append("(x, y), not(Q").append(i % 3).append("(y))\n");
+            }
+            for (int i = 0; i < 4; ++i) {
+                schema.append("P").append(i).append("(x, y) :- Q").append(i % 3).append("(x), R(x, z), Q").append((i + 1) % 3).append("(z)\n");
+                schema.append("P").append(i).append("(x, y) :- S").append(i).append("(x, y)\n");
+            }
+            for (int i = 0; i < 3; ++i) {
+                schema.append("Q").append(i).append("(x) :- R(x, z), T").append(i).append("(z)\n");
+                schema.append("Q").append(i).append("(x) :- U").append(i).append("(x)\n");
+            }
+            return LogicSchemaMother.buildLogicSchemaWithIDs(schema.toString());
+        }
+
+        private static List<String> toStrings(LogicSchema schema) {
+            List<String> result = new ArrayList<>();
+            schema.getAllDerivationRules().stream().map(DerivationRule::toString).forEach(result::add);
+            schema.getAllLogicConstraints().stream().map(LogicConstraint::toString).forEach(result::add);
+            return result;
+        }
+
+        @Test
+        void should_unfoldTheSameRulesAndConstraints_inTheSameOrder_asTheSequentialUnfolder() {
+            LogicSchema schema = buildSchema();
+            ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+            try {
+                for (boolean unfoldNegatedLiterals : List.of(false, true)) {
+                    SchemaUnfolder sequentialUnfolder = new SchemaUnfolder(unfoldNegatedLiterals);
+                    SchemaUnfolder parallelUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), unfoldNegatedLiterals,
+                                                                         SearchBudget::unlimited, forkJoinPool);
+
+                    SchemaTransformation sequentialTransformation = sequentialUnfolder.executeTransformation(schema);
+                    SchemaTransformation parallelTransformation = parallelUnfolder.executeTransformation(schema);
+
+                    Assertions.assertThat(toStrings(parallelTransformation.transformed()))
+                            .hasSizeGreaterThan(100)
+                            .containsExactlyElementsOf(toStrings(sequentialTransformation.transformed()));
+                    Assertions.assertThat(parallelTransformation.schemaTraceabilityMap().size())
+                            .isEqualTo(sequentialTransformation.schemaTraceabilityMap().size());
+                    for (LogicConstraint constraint : parallelTransformation.transformed().getAllLogicConstraints()) {
+                        Assertions.assertThat(parallelTransformation.getOriginalConstraintID(constraint.getID()))
+                                .isEqualTo(sequentialTransformation.getOriginalConstraintID(constraint.getID()));
+                    }
+                }
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+
+        @Test
+        @Timeout(10)
+        void should_throwException_whenPredicateIsPositivelyRecursive_inParallel() {
+            LogicSchema schema = LogicSchemaMother.buildLogicSchemaWithIDs("""
+                                                                           @1 :- A(x), Reaches(x, y)
+                                                                           Reaches(x, y) :- Edge(x, y)
+                                                                           Reaches(x, y) :- Edge(x, z), Reaches(z, y)
+                                                                           """);
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), false,
+                                                               SearchBudget::unlimited, ForkJoinPool.commonPool());
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(schema))
+                    .isInstanceOf(RecursivePredicateUnfoldingException.class);
+        }
+
+        @Test
+        void should_throwException_whenSearchBudgetRunsOut_inParallel() {
+            LogicSchema schema = buildSchema();
+            SchemaUnfolder schemaUnfolder = new SchemaUnfolder(new SuffixMultipleConstraintIDGenerator(), false,
+                                                               () -> SearchBudget.ofNodes(10), ForkJoinPool.commonPool());
+
+            assertThatThrownBy(() -> schemaUnfolder.unfold(schema))
+                    .isInstanceOf(SearchBudgetExceededException.class);
+        }
+    }
+
     @Nested
     class TraceabilityMapTest {
 
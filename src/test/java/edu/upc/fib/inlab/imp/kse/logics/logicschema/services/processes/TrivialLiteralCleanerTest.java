@@ -483,6 +483,46 @@ class TrivialLiteralCleanerTest {
                             "P(x) :- 'X'='X'",
                             "P(x) :- TRUE()",
                             List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 1.0<>2",
+                            "@1 :- A(x)",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 'X'<>'Y'",
+                            "@1 :- A(x)",
+                            List.of()
+                    )
+            );
+        }
+
+        static Stream<Arguments> provideLogicSchemasWithTrueOrderGroundLiterals() {
+            return Stream.of(
+                    Arguments.of(
+                            "@1 :- A(x), 1<2.5",
+                            "@1 :- A(x)",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 'a'<='b'",
+                            "@1 :- A(x)",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), x>=x",
+                            "@1 :- A(x)",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 2<1",
+                            "@1 :- A(x), 2<1",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 1<'a'",
+                            "@1 :- A(x), 1<'a'",
+                            List.of()
                     )
             );
         }
@@ -561,6 +601,16 @@ class TrivialLiteralCleanerTest {
                             "@1 :- A(x), x=2",
                             "@1 :- A(x), x=2",
                             List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 1.0=1",
+                            "@1 :- A(x), 1.0=1",
+                            List.of()
+                    ),
+                    Arguments.of(
+                            "@1 :- A(x), 1.0<>1",
+                            "@1 :- A(x), 1.0<>1",
+                            List.of()
                     )
             );
         }
@@ -584,6 +634,24 @@ class TrivialLiteralCleanerTest {
         }
 
 
+        @ParameterizedTest(name = "{0} -> {1}")
+        @MethodSource("provideLogicSchemasWithTrueOrderGroundLiterals")
+        void should_clean_when_schemaIncludesTrueOrderGroundLiterals(
+                String inputSchema,
+                String expectedSchema,
+                List<PredicateSpec> additionalExpectedPredicates
+        ) {
+            LogicSchema logicSchema = LogicSchemaMother.buildLogicSchemaWithIDs(inputSchema);
+
+            TrivialLiteralCleaner cleaner = new TrivialLiteralCleaner();
+            LogicSchema actualLogicSchema = cleaner.clean(logicSchema);
+
+            LogicSchema expectedLogicSchema = LogicSchemaMother.buildLogicSchemaWithIDsAndPredicates(expectedSchema, additionalExpectedPredicates);
+            assertThat(actualLogicSchema)
+                    .usingIsomorphismOptions(new IsomorphismOptions(false, false, false))
+                    .isIsomorphicTo(expectedLogicSchema);
+        }
+
         @ParameterizedTest(name = "{0} -> {1}")
         @MethodSource("provideLogicSchemasWithFalseEqualityGroundLiterals")
         void should_clean_when_schemaIncludesFalseEqualityGroundLiterals(